@@ -0,0 +1,47 @@
+package com.branches.benchmark;
+
+import com.branches.model.Transaction;
+import com.branches.repository.TransactionRepository;
+import com.branches.service.BalanceService;
+import com.branches.response.BalanceReconciliationResponse;
+import com.branches.utils.DateUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading the balance of the default account from its stripes against aggregating its whole ledger,
+ * which is what the scheduled reconciliation still does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BalanceBenchmark {
+    private BalanceService balanceService;
+    private TransactionRepository repository;
+
+    @Setup
+    public void setup(LedgerState ledger) {
+        balanceService = ledger.bean(BalanceService.class);
+        repository = ledger.bean(TransactionRepository.class);
+    }
+
+    @Benchmark
+    public BigDecimal snapshotBalance() {
+        return balanceService.getBalance(Transaction.DEFAULT_ACCOUNT_ID);
+    }
+
+    @Benchmark
+    public BigDecimal ledgerSum() {
+        return repository.sumAllTransactionsFrom(Transaction.DEFAULT_ACCOUNT_ID, DateUtils.MIN_DATE);
+    }
+
+    @Benchmark
+    public BalanceReconciliationResponse reconcile() {
+        return balanceService.reconcile(Transaction.DEFAULT_ACCOUNT_ID);
+    }
+}
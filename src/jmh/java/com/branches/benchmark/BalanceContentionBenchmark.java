@@ -0,0 +1,150 @@
+package com.branches.benchmark;
+
+import com.branches.LedgerApplication;
+import com.branches.request.TransactionPostRequest;
+import com.branches.response.TransactionPostResponse;
+import com.branches.service.BalanceService;
+import com.branches.service.TransactionService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@value #THREADS} concurrent writers spread over {@value #ACCOUNTS} accounts, uniformly, following a
+ * Zipf distribution (s = 1, the busiest account takes about 10% of the writes) and with 90% of the writes
+ * on a single hot account, against 1 and {@value #MANY_STRIPES} balance stripes per account. {@code save}
+ * is the whole {@code POST /v1/accounts/{accountId}/transactions} path; {@code applyBalance} commits only
+ * the balance update, so the stripes are the only rows written. Runs on its own in-memory H2 database,
+ * like {@link GroupCommitBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(BalanceContentionBenchmark.THREADS)
+@Fork(1)
+public class BalanceContentionBenchmark {
+    static final int THREADS = 16;
+    private static final int ACCOUNTS = 10_000;
+    private static final int MANY_STRIPES = 8;
+    private static final int SAMPLES = 1 << 16;
+    private static final double HOT_SHARE = 0.9;
+    private static final TransactionPostRequest POST_REQUEST = TransactionPostRequest.builder()
+            .value(new BigDecimal("-12.34"))
+            .description("Contention")
+            .build();
+
+    public enum Distribution {
+        UNIFORM, ZIPF, HOT
+    }
+
+    @Param({"UNIFORM", "ZIPF", "HOT"})
+    public Distribution distribution;
+
+    @Param({"1", "" + MANY_STRIPES})
+    public int stripes;
+
+    private ConfigurableApplicationContext context;
+    private TransactionService transactionService;
+    private BalanceService balanceService;
+    private TransactionTemplate transactionTemplate;
+    private long[] accountIds;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(LedgerApplication.class)
+                .profiles("test")
+                .web(WebApplicationType.NONE)
+                .run(
+                        // writers to a hot account wait on its rows for longer than the default lock timeout
+                        "--spring.datasource.url=jdbc:h2:mem:balance-contention;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=VALUE;" +
+                                "LOCK_TIMEOUT=60000;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "--spring.datasource.hikari.maximum-pool-size=" + THREADS,
+                        "--spring.devtools.restart.enabled=false",
+                        "--ledger.balance.reconciliation-cron=-",
+                        "--ledger.balance.stripes=" + stripes,
+                        "--logging.level.root=warn"
+                );
+        transactionService = context.getBean(TransactionService.class);
+        balanceService = context.getBean(BalanceService.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        accountIds = sampleAccountIds(distribution);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public TransactionPostResponse save() {
+        return transactionService.save(nextAccountId(), POST_REQUEST);
+    }
+
+    @Benchmark
+    public Long applyBalance() {
+        long accountId = nextAccountId();
+
+        return transactionTemplate.execute(status -> balanceService.apply(accountId, -1234L, 1));
+    }
+
+    private long nextAccountId() {
+        return accountIds[ThreadLocalRandom.current().nextInt(SAMPLES)];
+    }
+
+    /**
+     * Account ids drawn up front with a fixed seed, so every run writes the same sequence of accounts.
+     */
+    private static long[] sampleAccountIds(Distribution distribution) {
+        Random random = new Random(42);
+        double[] zipf = distribution == Distribution.ZIPF ? zipfCumulative() : null;
+
+        long[] accountIds = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            accountIds[i] = switch (distribution) {
+                case UNIFORM -> 1 + random.nextInt(ACCOUNTS);
+                case ZIPF -> 1 + rank(zipf, random.nextDouble());
+                case HOT -> random.nextDouble() < HOT_SHARE ? 1 : 2 + random.nextInt(ACCOUNTS - 1);
+            };
+        }
+
+        return accountIds;
+    }
+
+    private static double[] zipfCumulative() {
+        double[] cumulative = new double[ACCOUNTS];
+        double sum = 0;
+        for (int rank = 0; rank < ACCOUNTS; rank++) {
+            sum += 1.0 / (rank + 1);
+            cumulative[rank] = sum;
+        }
+        for (int rank = 0; rank < ACCOUNTS; rank++) {
+            cumulative[rank] /= sum;
+        }
+
+        return cumulative;
+    }
+
+    private static int rank(double[] cumulative, double value) {
+        int low = 0;
+        int high = cumulative.length - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (cumulative[middle] < value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+}
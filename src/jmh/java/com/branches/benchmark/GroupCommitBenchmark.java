@@ -0,0 +1,80 @@
+package com.branches.benchmark;
+
+import com.branches.LedgerApplication;
+import com.branches.model.Transaction;
+import com.branches.request.TransactionPostRequest;
+import com.branches.response.TransactionPostResponse;
+import com.branches.service.TransactionService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code POST /v1/transactions} with 1, 16 and 256 concurrent writers, each committing its own
+ * transaction against group commit ({@code ledger.group-commit.enabled}). Runs on its own in-memory H2
+ * database, since only writes are measured; an in-memory database has no commit flush to amortize, so
+ * the gap against MySQL is wider than here.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GroupCommitBenchmark {
+    private static final TransactionPostRequest POST_REQUEST = TransactionPostRequest.builder()
+            .value(new BigDecimal("-12.34"))
+            .description("Group commit")
+            .build();
+
+    @Param({"false", "true"})
+    public boolean groupCommit;
+
+    private ConfigurableApplicationContext context;
+    private TransactionService transactionService;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(LedgerApplication.class)
+                .profiles("test")
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:group-commit;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=VALUE;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "--spring.datasource.hikari.maximum-pool-size=20",
+                        // without group commit 256 writers queue for a connection longer than the default timeout
+                        "--spring.datasource.hikari.connection-timeout=300000",
+                        "--spring.devtools.restart.enabled=false",
+                        "--ledger.balance.reconciliation-cron=-",
+                        "--ledger.group-commit.enabled=" + groupCommit,
+                        "--logging.level.root=warn"
+                );
+        transactionService = context.getBean(TransactionService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public TransactionPostResponse writers1() {
+        return transactionService.save(Transaction.DEFAULT_ACCOUNT_ID, POST_REQUEST);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public TransactionPostResponse writers16() {
+        return transactionService.save(Transaction.DEFAULT_ACCOUNT_ID, POST_REQUEST);
+    }
+
+    @Benchmark
+    @Threads(256)
+    public TransactionPostResponse writers256() {
+        return transactionService.save(Transaction.DEFAULT_ACCOUNT_ID, POST_REQUEST);
+    }
+}
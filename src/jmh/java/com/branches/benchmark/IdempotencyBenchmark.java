@@ -0,0 +1,67 @@
+package com.branches.benchmark;
+
+import com.branches.model.Transaction;
+import com.branches.request.TransactionPostRequest;
+import com.branches.response.TransactionPostResponse;
+import com.branches.service.IdempotencyService;
+import com.branches.service.TransactionService;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code POST /v1/transactions} under a retry storm, with {@value #THREADS} threads: retries of
+ * {@value #HOT_KEYS} keys that were already handled, which are answered from memory, against requests
+ * with a new key each and requests without a key, which both insert. Run with {@code -p rows=10000};
+ * the ledger size does not matter here.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(IdempotencyBenchmark.THREADS)
+@Fork(1)
+public class IdempotencyBenchmark {
+    static final int THREADS = 16;
+    private static final int HOT_KEYS = 16;
+    private static final TransactionPostRequest POST_REQUEST = TransactionPostRequest.builder()
+            .value(new BigDecimal("-12.34"))
+            .description("Retry storm")
+            .build();
+
+    private IdempotencyService idempotencyService;
+    private TransactionService transactionService;
+    private String[] hotKeys;
+
+    @Setup
+    public void setup(LedgerState ledger) {
+        idempotencyService = ledger.bean(IdempotencyService.class);
+        transactionService = ledger.bean(TransactionService.class);
+
+        String run = UUID.randomUUID().toString();
+        hotKeys = new String[HOT_KEYS];
+        for (int i = 0; i < HOT_KEYS; i++) {
+            hotKeys[i] = run + "-" + i;
+            idempotencyService.save(Transaction.DEFAULT_ACCOUNT_ID, POST_REQUEST, hotKeys[i]);
+        }
+    }
+
+    @Benchmark
+    public TransactionPostResponse retryHandledKey() {
+        return idempotencyService.save(Transaction.DEFAULT_ACCOUNT_ID, POST_REQUEST, hotKeys[ThreadLocalRandom.current().nextInt(HOT_KEYS)]);
+    }
+
+    @Benchmark
+    public TransactionPostResponse newKey() {
+        return idempotencyService.save(Transaction.DEFAULT_ACCOUNT_ID, POST_REQUEST, UUID.randomUUID().toString());
+    }
+
+    @Benchmark
+    public TransactionPostResponse withoutKey() {
+        return transactionService.save(Transaction.DEFAULT_ACCOUNT_ID, POST_REQUEST);
+    }
+}
@@ -0,0 +1,96 @@
+package com.branches.benchmark;
+
+import com.branches.journal.TransactionJournal;
+import com.branches.model.Transaction;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Rebuilds from a journal of {@code records} transactions: opening it, which recovers the end of the
+ * journal and the balance from the last checkpoint, and reading every record back as a row. The
+ * journal fits in the page cache here, so this is the speed of memory rather than of the disk.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = "-Xmx1g")
+public class JournalReplayBenchmark {
+    private static final int SEGMENT_RECORDS = 1 << 20;
+    private static final long CHECKPOINT_INTERVAL = 100_000;
+    private static final int APPEND_BATCH = 10_000;
+
+    @Param({"1000000", "10000000"})
+    private int records;
+
+    private Path directory;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("journal-benchmark");
+        SplittableRandom random = new SplittableRandom(42);
+        LocalDateTime date = LocalDateTime.of(2020, 1, 1, 0, 0);
+
+        try (TransactionJournal journal = open()) {
+            List<Transaction> batch = new ArrayList<>(APPEND_BATCH);
+            for (long id = 1; id <= records; id++) {
+                batch.add(Transaction.builder()
+                        .id(id)
+                        .valueInCents(random.nextLong(-1_000_000, 1_000_000))
+                        .description("Transaction " + random.nextInt(1000))
+                        .date(date.plusSeconds(id))
+                        .build());
+                if (batch.size() == APPEND_BATCH) {
+                    journal.append(batch);
+                    batch.clear();
+                }
+            }
+            journal.append(batch);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public TransactionJournal.Balance rebuildBalance() {
+        try (TransactionJournal journal = open()) {
+            return journal.balance();
+        }
+    }
+
+    @Benchmark
+    public long replayAllRecords(Blackhole blackhole) {
+        try (TransactionJournal journal = open()) {
+            return journal.replay(0, (id, accountId, valueInCents, date, description) -> {
+                blackhole.consume(id);
+                blackhole.consume(accountId);
+                blackhole.consume(valueInCents);
+                blackhole.consume(date);
+                blackhole.consume(description);
+            });
+        }
+    }
+
+    private TransactionJournal open() {
+        return new TransactionJournal(directory, SEGMENT_RECORDS, CHECKPOINT_INTERVAL, false);
+    }
+}
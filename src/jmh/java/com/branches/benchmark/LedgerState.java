@@ -0,0 +1,98 @@
+package com.branches.benchmark;
+
+import com.branches.LedgerApplication;
+import com.branches.model.Transaction;
+import com.branches.service.BalanceService;
+import com.branches.utils.MoneyUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Application context backed by an H2 file database holding {@link #rows} generated transactions.
+ * Each size gets its own database under {@code target/benchmark-db}, seeded on first use and reused by
+ * later runs as long as the row count still matches. Delete the directory after schema changes.
+ */
+@Slf4j
+@State(Scope.Benchmark)
+public class LedgerState {
+    private static final int SEED_BATCH_SIZE = 10_000;
+    private static final String INSERT_SQL = "INSERT INTO transaction (id, value, sign, description, date) VALUES (?, ?, ?, ?, ?)";
+
+    @Param({"10000", "1000000", "10000000"})
+    public long rows;
+
+    public TransactionDataGenerator generator;
+
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(LedgerApplication.class)
+                .profiles("test")
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.datasource.url=jdbc:h2:file:./target/benchmark-db/ledger-" + rows
+                                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=VALUE",
+                        "--spring.jpa.hibernate.ddl-auto=update",
+                        "--spring.devtools.restart.enabled=false",
+                        "--ledger.balance.reconciliation-cron=-",
+                        "--logging.level.root=warn"
+                );
+
+        generator = new TransactionDataGenerator(rows);
+        seed();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    private void seed() {
+        JdbcTemplate jdbcTemplate = bean(JdbcTemplate.class);
+        Long existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transaction", Long.class);
+        if (existing != null && existing == rows) return;
+
+        log.warn("Seeding {} transactions, this only happens once per size", rows);
+        jdbcTemplate.update("DELETE FROM transaction");
+
+        TransactionDataGenerator seedGenerator = new TransactionDataGenerator(rows);
+        for (long seeded = 0; seeded < rows; seeded += SEED_BATCH_SIZE) {
+            List<Transaction> batch = seedGenerator.transactions((int) Math.min(SEED_BATCH_SIZE, rows - seeded));
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (statement, transaction) -> {
+                statement.setLong(1, transaction.getId());
+                statement.setBigDecimal(2, MoneyUtils.toDecimal(transaction.getValueInCents()));
+                statement.setByte(3, (byte) Long.signum(transaction.getValueInCents()));
+                statement.setString(4, transaction.getDescription());
+                statement.setTimestamp(5, Timestamp.valueOf(transaction.getDate()));
+            });
+        }
+
+        // the pooled optimizer hands out the block below the value it reads, so leave a full block of headroom
+        jdbcTemplate.execute("ALTER SEQUENCE transaction_seq RESTART WITH " + (rows + Transaction.ID_ALLOCATION_SIZE + 1));
+        bean(BalanceService.class).reconcileAll();
+    }
+
+    /**
+     * Start of the window holding the most recent {@code days} days of generated rows.
+     */
+    public LocalDateTime lastDaysStart(int days) {
+        return lastDate().minusDays(days);
+    }
+
+    public LocalDateTime lastDate() {
+        return generator.dateOf(rows);
+    }
+}
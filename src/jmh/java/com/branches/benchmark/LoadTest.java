@@ -0,0 +1,236 @@
+package com.branches.benchmark;
+
+import com.branches.LedgerApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closed-loop load test for {@code POST /v1/transactions} and {@code GET /v1/transactions}: every
+ * client sends its next request as soon as the previous one is answered, alternating between the two.
+ * Reports throughput and latency percentiles of each operation for one execution mode.
+ *
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec@load-test -Dload.args="--mode=platform --clients=1000"
+ * mvn -Pbenchmark test-compile exec:exec@load-test -Dload.args="--mode=virtual --clients=1000"
+ * mvn -Pbenchmark,reactive test-compile exec:exec@load-test -Dload.args="--mode=reactive --clients=1000"
+ * </pre>
+ *
+ * {@code --read=export} replaces the page reads with NDJSON exports of {@code --export-rows} transactions
+ * saved before the run, which the saves of the run fall outside of. {@code --cache-size=0} turns off
+ * the read cache, which only the servlet variant has.
+ * <p>
+ * Without {@code --target} the application is started in this JVM on an in-memory H2 database. Pass
+ * {@code --target=http://host:port} to load an application started separately, against MySQL.
+ */
+public class LoadTest {
+    private static final String SAVE_BODY = "{\"value\": -12.34, \"description\": \"Load test\"}";
+    private static final String H2_OPTIONS = "MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=VALUE;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE";
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        String mode = options.getOrDefault("mode", "platform");
+        int clients = Integer.parseInt(options.getOrDefault("clients", "1000"));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "10")));
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "30")));
+        String poolSize = options.getOrDefault("pool-size", "20");
+        String read = options.getOrDefault("read", "page");
+        int exportRows = Integer.parseInt(options.getOrDefault("export-rows", "1000"));
+        String cacheSize = options.getOrDefault("cache-size", "10000");
+
+        ConfigurableApplicationContext context = null;
+        String target = options.get("target");
+        if (target == null) {
+            context = start(mode, poolSize, cacheSize);
+            target = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        }
+
+        try (HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build()) {
+            URI uri = URI.create(target + "/v1/transactions");
+            URI readUri = "export".equals(read) ? seedExport(client, uri, exportRows) : URI.create(uri + "?limit=50");
+            LoadTest loadTest = new LoadTest(client, uri, readUri);
+
+            loadTest.run(clients, warmup);
+            Result[] results = loadTest.run(clients, duration);
+
+            System.out.printf("%nmode=%s read=%s clients=%d duration=%ds pool-size=%s cache-size=%s%n", mode, read, clients, duration.toSeconds(),
+                    poolSize, cacheSize);
+            System.out.printf("%-8s %10s %8s %10s %10s %10s %10s%n", "op", "requests", "errors", "req/s", "p50 ms", "p99 ms", "max ms");
+            for (Result result : results) {
+                result.print(duration);
+            }
+        } finally {
+            if (context != null) context.close();
+        }
+    }
+
+    private final HttpClient client;
+    private final URI uri;
+    private final URI readUri;
+
+    private LoadTest(HttpClient client, URI uri, URI readUri) {
+        this.client = client;
+        this.uri = uri;
+        this.readUri = readUri;
+    }
+
+    private Result[] run(int clients, Duration duration) throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<Result[]> clientResults = new ArrayList<>(clients);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                Result[] results = {new Result("save"), new Result("read")};
+                clientResults.add(results);
+                executor.submit(() -> runClient(results, deadline));
+            }
+
+            executor.shutdown();
+            executor.awaitTermination(duration.toSeconds() + 60, TimeUnit.SECONDS);
+        }
+
+        Result save = new Result("save");
+        Result read = new Result("read");
+        for (Result[] results : clientResults) {
+            save.merge(results[0]);
+            read.merge(results[1]);
+        }
+
+        return new Result[]{save, read};
+    }
+
+    private void runClient(Result[] results, long deadline) {
+        HttpRequest save = HttpRequest.newBuilder(uri)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(SAVE_BODY))
+                .build();
+        HttpRequest read = HttpRequest.newBuilder(readUri).GET().build();
+
+        boolean saving = true;
+        while (System.nanoTime() < deadline) {
+            send(saving ? save : read, saving ? results[0] : results[1]);
+            saving = !saving;
+        }
+    }
+
+    private void send(HttpRequest request, Result result) {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            result.record(System.nanoTime() - start, response.statusCode() >= 400);
+        } catch (Exception e) {
+            result.record(System.nanoTime() - start, true);
+        }
+    }
+
+    /**
+     * Saves the rows of the export in one bulk request and returns the export of the time they were
+     * saved in.
+     */
+    private static URI seedExport(HttpClient client, URI uri, int rows) throws Exception {
+        String body = (SAVE_BODY + "\n").repeat(rows);
+        LocalDateTime startDate = LocalDateTime.now().minusSeconds(1);
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(uri + "/bulk"))
+                .header("Content-Type", "application/x-ndjson")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 201) throw new IllegalStateException("Could not save the export rows: " + response.body());
+        LocalDateTime endDate = LocalDateTime.now();
+        // the saves of the run start after the end of the export
+        Thread.sleep(10);
+
+        return URI.create(uri + "/export/ndjson?startDate=" + startDate + "&endDate=" + endDate);
+    }
+
+    private static ConfigurableApplicationContext start(String mode, String poolSize, String cacheSize) {
+        String profiles = switch (mode) {
+            case "virtual" -> "test,virtual-threads";
+            case "reactive" -> "reactive,test";
+            default -> "test";
+        };
+        // devtools would otherwise restart this main method in a new thread
+        System.setProperty("spring.devtools.restart.enabled", "false");
+
+        return new SpringApplicationBuilder(LedgerApplication.class)
+                .run(
+                        "--spring.profiles.active=" + profiles,
+                        "--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:load;" + H2_OPTIONS,
+                        "--spring.datasource.hikari.maximum-pool-size=" + poolSize,
+                        "--spring.datasource.hikari.minimum-idle=" + poolSize,
+                        "--spring.r2dbc.url=r2dbc:h2:mem:///load?options=" + H2_OPTIONS,
+                        "--spring.r2dbc.username=sa",
+                        "--spring.r2dbc.password=",
+                        "--spring.r2dbc.pool.max-size=" + poolSize,
+                        "--ledger.cache.maximum-size=" + cacheSize,
+                        "--ledger.balance.reconciliation-cron=-",
+                        "--logging.level.root=warn"
+                );
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] option = arg.replaceFirst("^--", "").split("=", 2);
+            options.put(option[0], option.length > 1 ? option[1] : "true");
+        }
+
+        return options;
+    }
+
+    private static class Result {
+        private final String operation;
+        private long[] latencies = new long[1024];
+        private int count;
+        private int errors;
+
+        Result(String operation) {
+            this.operation = operation;
+        }
+
+        void record(long latencyNanos, boolean error) {
+            if (count == latencies.length) latencies = Arrays.copyOf(latencies, count * 2);
+            latencies[count++] = latencyNanos;
+            if (error) errors++;
+        }
+
+        void merge(Result other) {
+            for (int i = 0; i < other.count; i++) {
+                record(other.latencies[i], false);
+            }
+            errors += other.errors;
+        }
+
+        void print(Duration duration) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+
+            System.out.printf("%-8s %10d %8d %10.1f %10.2f %10.2f %10.2f%n", operation, count, errors,
+                    count / (double) duration.toSeconds(), millis(sorted, 0.50), millis(sorted, 0.99),
+                    count == 0 ? 0 : sorted[count - 1] / 1e6);
+        }
+
+        private static double millis(long[] sorted, double percentile) {
+            if (sorted.length == 0) return 0;
+
+            return sorted[(int) Math.ceil(percentile * sorted.length) - 1] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.branches.benchmark;
+
+import com.branches.utils.MoneyUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the former boxed {@code Double} representation of transaction values with the scaled
+ * {@code long} cents used now. Run with {@code -prof gc} to see the allocation rate of each path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyAggregationBenchmark {
+    @Param({"10000", "1000000"})
+    private int size;
+
+    private List<Double> boxedValues;
+    private long[] centValues;
+    private BigDecimal[] decimalValues;
+
+    @Setup
+    public void setup() {
+        SplittableRandom random = new SplittableRandom(42);
+        boxedValues = new ArrayList<>(size);
+        centValues = new long[size];
+        decimalValues = new BigDecimal[size];
+
+        for (int i = 0; i < size; i++) {
+            long cents = random.nextLong(-1_000_000, 1_000_000);
+            boxedValues.add(cents / 100D);
+            centValues[i] = cents;
+            decimalValues[i] = MoneyUtils.toDecimal(cents);
+        }
+    }
+
+    @Benchmark
+    public Double sumBoxedDoubles() {
+        Double total = 0D;
+        for (Double value : boxedValues) {
+            total += value;
+        }
+
+        return total;
+    }
+
+    @Benchmark
+    public BigDecimal sumBoxedDoublesToDecimal() {
+        return BigDecimal.valueOf(sumBoxedDoubles());
+    }
+
+    @Benchmark
+    public long sumCents() {
+        return MoneyUtils.sum(centValues);
+    }
+
+    @Benchmark
+    public BigDecimal sumCentsToDecimal() {
+        return MoneyUtils.toDecimal(MoneyUtils.sum(centValues));
+    }
+
+    @Benchmark
+    public long parseDecimalsToCents() {
+        long total = 0;
+        for (BigDecimal value : decimalValues) {
+            total += MoneyUtils.toCents(value);
+        }
+
+        return total;
+    }
+}
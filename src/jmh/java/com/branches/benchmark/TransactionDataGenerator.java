@@ -0,0 +1,90 @@
+package com.branches.benchmark;
+
+import com.branches.model.Transaction;
+import com.branches.request.TransactionPostRequest;
+import com.branches.utils.MoneyUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Produces the same sequence of ledger rows for the same seed, so results from different runs and
+ * machines are comparable. Rows are spread evenly over {@value #SPAN_DAYS} days, oldest first, with
+ * ids increasing alongside the date like rows inserted by the application.
+ */
+public class TransactionDataGenerator {
+    public static final long DEFAULT_SEED = 42;
+    public static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+    public static final int SPAN_DAYS = 730;
+
+    private static final String[] INCOME_DESCRIPTIONS = {"Salário", "Freelance", "Reembolso", "Pix recebido"};
+    private static final String[] EXPENSE_DESCRIPTIONS = {"Aluguel", "Uber", "Fatura do Cartão", "Mercado", "Farmácia", "Restaurante"};
+
+    private final SplittableRandom random;
+    private final long spacingSeconds;
+    private long index;
+
+    public TransactionDataGenerator(long rows) {
+        this(rows, DEFAULT_SEED);
+    }
+
+    public TransactionDataGenerator(long rows, long seed) {
+        this.random = new SplittableRandom(seed);
+        this.spacingSeconds = Math.max(1, SPAN_DAYS * 86_400L / rows);
+    }
+
+    /**
+     * Returns the next row with its id and date already assigned, as it would be read from the database.
+     */
+    public Transaction next() {
+        index++;
+        boolean income = random.nextInt(5) == 0;
+
+        return Transaction.builder()
+                .id(index)
+                .valueInCents(income ? random.nextLong(100_000, 1_000_000) : -random.nextLong(100, 50_000))
+                .description(income ? pick(INCOME_DESCRIPTIONS) : pick(EXPENSE_DESCRIPTIONS))
+                .date(dateOf(index))
+                .build();
+    }
+
+    public TransactionPostRequest nextPostRequest() {
+        Transaction transaction = next();
+
+        return TransactionPostRequest.builder()
+                .description(transaction.getDescription())
+                .value(MoneyUtils.toDecimal(transaction.getValueInCents()))
+                .build();
+    }
+
+    public List<Transaction> transactions(int count) {
+        List<Transaction> transactions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            transactions.add(next());
+        }
+
+        return transactions;
+    }
+
+    public List<TransactionPostRequest> postRequests(int count) {
+        List<TransactionPostRequest> postRequests = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            postRequests.add(nextPostRequest());
+        }
+
+        return postRequests;
+    }
+
+    /**
+     * Date of the row with the given 1-based id.
+     */
+    public LocalDateTime dateOf(long id) {
+        return START.plusSeconds(id * spacingSeconds);
+    }
+
+    private String pick(String[] descriptions) {
+        return descriptions[random.nextInt(descriptions.length)];
+    }
+}
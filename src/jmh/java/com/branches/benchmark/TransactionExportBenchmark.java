@@ -0,0 +1,43 @@
+package com.branches.benchmark;
+
+import com.branches.model.Transaction;
+import com.branches.service.TransactionExportService;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full ledger exports streamed from the database cursor into a discarding stream, so the result
+ * covers the query, the mapping and the serialization but not the network.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionExportBenchmark {
+    private TransactionExportService exportService;
+
+    @Setup
+    public void setup(LedgerState ledger) {
+        exportService = ledger.bean(TransactionExportService.class);
+    }
+
+    @Benchmark
+    public void exportCsv() throws IOException {
+        exportService.exportCsv(Transaction.DEFAULT_ACCOUNT_ID, null, null, OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public void exportJson() throws IOException {
+        exportService.exportJson(Transaction.DEFAULT_ACCOUNT_ID, null, null, OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public void exportNdjson() throws IOException {
+        exportService.exportNdjson(Transaction.DEFAULT_ACCOUNT_ID, null, null, OutputStream.nullOutputStream());
+    }
+}
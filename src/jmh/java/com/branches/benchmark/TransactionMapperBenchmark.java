@@ -0,0 +1,68 @@
+package com.branches.benchmark;
+
+import com.branches.mapper.TransactionMapper;
+import com.branches.model.Transaction;
+import com.branches.request.TransactionPostRequest;
+import com.branches.response.TransactionGetResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-row cost of the conversions done on every request and export row, measured over a batch of
+ * {@value #BATCH_SIZE} generated transactions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@OperationsPerInvocation(TransactionMapperBenchmark.BATCH_SIZE)
+public class TransactionMapperBenchmark {
+    static final int BATCH_SIZE = 10_000;
+
+    private final TransactionMapper mapper = Mappers.getMapper(TransactionMapper.class);
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    private List<Transaction> transactions;
+    private List<TransactionPostRequest> postRequests;
+    private List<TransactionGetResponse> getResponses;
+
+    @Setup
+    public void setup() {
+        transactions = new TransactionDataGenerator(BATCH_SIZE).transactions(BATCH_SIZE);
+        postRequests = new TransactionDataGenerator(BATCH_SIZE).postRequests(BATCH_SIZE);
+        getResponses = mapper.toTransactionGetResponseList(transactions);
+    }
+
+    @Benchmark
+    public void toTransaction(Blackhole blackhole) {
+        for (TransactionPostRequest postRequest : postRequests) {
+            blackhole.consume(mapper.toTransaction(postRequest));
+        }
+    }
+
+    @Benchmark
+    public void toTransactionGetResponse(Blackhole blackhole) {
+        for (Transaction transaction : transactions) {
+            blackhole.consume(mapper.toTransactionGetResponse(transaction));
+        }
+    }
+
+    @Benchmark
+    public void writeJson() throws IOException {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), getResponses);
+    }
+}
@@ -0,0 +1,60 @@
+package com.branches.benchmark;
+
+import com.branches.mapper.TransactionMapper;
+import com.branches.model.Transaction;
+import com.branches.repository.TransactionRepository;
+import com.branches.response.TransactionGetResponse;
+import com.branches.utils.DateUtils;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads one page of up to {@value #PAGE_SIZE} rows the way {@code GET /v1/transactions} used to, as
+ * managed entities copied through {@link TransactionMapper}, and the way it does now, projected straight
+ * into responses. Run with {@code -prof gc -p rows=1000000} and compare {@code gc.alloc.rate.norm}, the
+ * bytes allocated per page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionReadPathBenchmark {
+    private static final int PAGE_SIZE = 100_000;
+    private static final String ENTITY_PAGE_QUERY =
+            "SELECT t FROM Transaction t WHERE t.date BETWEEN :startDate AND :endDate ORDER BY t.date DESC, t.id DESC";
+
+    private TransactionRepository repository;
+    private TransactionMapper mapper;
+    private EntityManager entityManager;
+    private int pageSize;
+
+    @Setup
+    public void setup(LedgerState ledger) {
+        repository = ledger.bean(TransactionRepository.class);
+        mapper = ledger.bean(TransactionMapper.class);
+        entityManager = ledger.bean(EntityManager.class);
+        pageSize = (int) Math.min(PAGE_SIZE, ledger.rows);
+    }
+
+    @Benchmark
+    public List<TransactionGetResponse> entitiesThroughMapper() {
+        List<Transaction> transactions = entityManager.createQuery(ENTITY_PAGE_QUERY, Transaction.class)
+                .setParameter("startDate", DateUtils.MIN_DATE)
+                .setParameter("endDate", DateUtils.MAX_DATE)
+                .setMaxResults(pageSize)
+                .getResultList();
+
+        return mapper.toTransactionGetResponseList(transactions);
+    }
+
+    @Benchmark
+    public List<TransactionGetResponse> projection() {
+        return repository.findFirstPageByDateFilter(Transaction.DEFAULT_ACCOUNT_ID, null, null, Limit.of(pageSize));
+    }
+}
@@ -0,0 +1,62 @@
+package com.branches.benchmark;
+
+import com.branches.model.Transaction;
+import com.branches.repository.TransactionRepository;
+import com.branches.response.TransactionGetResponse;
+import com.branches.service.TransactionService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Query paths behind {@code GET /v1/transactions}. A keyset page should cost the same at the start and
+ * in the middle of the ledger, whatever its size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionRepositoryBenchmark {
+    private static final Limit PAGE_LIMIT = Limit.of(TransactionService.DEFAULT_PAGE_SIZE + 1);
+    private static final int FILTER_DAYS = 30;
+
+    private TransactionRepository repository;
+    private LocalDateTime filterStart;
+    private LocalDateTime filterEnd;
+    private LocalDateTime middleDate;
+    private long middleId;
+
+    @Setup
+    public void setup(LedgerState ledger) {
+        repository = ledger.bean(TransactionRepository.class);
+        filterStart = ledger.lastDaysStart(FILTER_DAYS);
+        filterEnd = ledger.lastDate();
+        middleId = ledger.rows / 2;
+        middleDate = ledger.generator.dateOf(middleId);
+    }
+
+    @Benchmark
+    public List<TransactionGetResponse> firstPage() {
+        return repository.findFirstPageByDateFilter(Transaction.DEFAULT_ACCOUNT_ID, null, null, PAGE_LIMIT);
+    }
+
+    @Benchmark
+    public List<TransactionGetResponse> firstPageInDateRange() {
+        return repository.findFirstPageByDateFilter(Transaction.DEFAULT_ACCOUNT_ID, filterStart, filterEnd, PAGE_LIMIT);
+    }
+
+    @Benchmark
+    public List<TransactionGetResponse> middlePageByCursor() {
+        return repository.findPageByDateFilterAfter(Transaction.DEFAULT_ACCOUNT_ID, null, null, middleDate, middleId, PAGE_LIMIT);
+    }
+
+    @Benchmark
+    public long count() {
+        return repository.count();
+    }
+}
@@ -0,0 +1,63 @@
+package com.branches.benchmark;
+
+import com.branches.model.Transaction;
+import com.branches.request.TransactionCursor;
+import com.branches.response.TransactionPageResponse;
+import com.branches.service.TransactionSearchService;
+import com.branches.service.TransactionService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Query paths behind {@code GET /v1/transactions/search}. The descriptions of the generated rows are
+ * indexed on first use of each database. Like a keyset page of the listing, a page of matches should
+ * cost the same whatever the size of the ledger.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionSearchBenchmark {
+    private static final int PAGE_SIZE = TransactionService.DEFAULT_PAGE_SIZE;
+    private static final int FILTER_DAYS = 30;
+
+    private TransactionSearchService searchService;
+    private LocalDateTime filterStart;
+    private String middleCursor;
+
+    @Setup
+    public void setup(LedgerState ledger) {
+        searchService = ledger.bean(TransactionSearchService.class);
+        Long terms = ledger.bean(JdbcTemplate.class).queryForObject("SELECT COUNT(*) FROM transaction_term", Long.class);
+        if (terms == null || terms == 0) searchService.reindex();
+
+        filterStart = ledger.lastDaysStart(FILTER_DAYS);
+        long middleId = ledger.rows / 2;
+        middleCursor = new TransactionCursor(ledger.generator.dateOf(middleId), middleId).encode();
+    }
+
+    @Benchmark
+    public TransactionPageResponse oneWord() {
+        return searchService.search(Transaction.DEFAULT_ACCOUNT_ID, "mercado", null, null, null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public TransactionPageResponse prefixOfTwoWords() {
+        return searchService.search(Transaction.DEFAULT_ACCOUNT_ID, "fatu cart", null, null, null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public TransactionPageResponse oneWordInDateRange() {
+        return searchService.search(Transaction.DEFAULT_ACCOUNT_ID, "mercado", filterStart, null, null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public TransactionPageResponse oneWordMiddlePageByCursor() {
+        return searchService.search(Transaction.DEFAULT_ACCOUNT_ID, "mercado", null, null, middleCursor, PAGE_SIZE);
+    }
+}
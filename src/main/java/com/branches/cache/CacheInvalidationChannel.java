@@ -0,0 +1,12 @@
+package com.branches.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Implementations must also deliver to the subscribers of the publishing instance.
+ */
+public interface CacheInvalidationChannel {
+    void publish(TransactionCacheInvalidation invalidation);
+
+    void subscribe(Consumer<TransactionCacheInvalidation> subscriber);
+}
@@ -0,0 +1,27 @@
+package com.branches.cache;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Delivers invalidations only to the subscribers of this JVM.
+ */
+@Component
+@ConditionalOnProperty(name = "ledger.cache.invalidation-channel", havingValue = "in-memory", matchIfMissing = true)
+public class InMemoryCacheInvalidationChannel implements CacheInvalidationChannel {
+    private final List<Consumer<TransactionCacheInvalidation>> subscribers = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(TransactionCacheInvalidation invalidation) {
+        subscribers.forEach(subscriber -> subscriber.accept(invalidation));
+    }
+
+    @Override
+    public void subscribe(Consumer<TransactionCacheInvalidation> subscriber) {
+        subscribers.add(subscriber);
+    }
+}
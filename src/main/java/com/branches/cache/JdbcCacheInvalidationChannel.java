@@ -0,0 +1,87 @@
+package com.branches.cache;
+
+import com.branches.datasource.ReadRouting;
+import com.branches.model.CacheInvalidationMessage;
+import com.branches.repository.CacheInvalidationMessageRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Shares invalidations between instances through the {@code cache_invalidation_message} table.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "ledger.cache.invalidation-channel", havingValue = "jdbc")
+public class JdbcCacheInvalidationChannel implements CacheInvalidationChannel {
+    private final CacheInvalidationMessageRepository repository;
+    private final Duration retention;
+    private final List<Consumer<TransactionCacheInvalidation>> subscribers = new CopyOnWriteArrayList<>();
+    private long lastSeenId;
+
+    public JdbcCacheInvalidationChannel(
+            CacheInvalidationMessageRepository repository,
+            @Value("${ledger.cache.invalidation-retention:1h}") Duration retention
+    ) {
+        this.repository = repository;
+        this.retention = retention;
+        this.lastSeenId = ReadRouting.onPrimary(repository::findMaxId);
+    }
+
+    /**
+     * Runs in a transaction of its own because the write's transaction has already committed.
+     */
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void publish(TransactionCacheInvalidation invalidation) {
+        deliver(invalidation);
+
+        CacheInvalidationMessage message = CacheInvalidationMessage.builder()
+                .accountId(invalidation.accountId())
+                .firstDate(invalidation.firstDate())
+                .lastDate(invalidation.lastDate())
+                .incomes(invalidation.incomes())
+                .expenses(invalidation.expenses())
+                .createdAt(LocalDateTime.now())
+                .build();
+        repository.save(message);
+    }
+
+    @Override
+    public void subscribe(Consumer<TransactionCacheInvalidation> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    /**
+     * Reads the primary, so a lagging read replica does not delay the invalidations.
+     */
+    @Scheduled(fixedDelayString = "${ledger.cache.invalidation-poll-interval:1s}")
+    public synchronized void poll() {
+        List<CacheInvalidationMessage> messages = ReadRouting.onPrimary(() -> repository.findAllByIdGreaterThanOrderByIdAsc(lastSeenId));
+        for (CacheInvalidationMessage message : messages) {
+            deliver(new TransactionCacheInvalidation(message.getAccountId(), message.getFirstDate(), message.getLastDate(),
+                    message.isIncomes(), message.isExpenses()));
+            lastSeenId = message.getId();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${ledger.cache.invalidation-retention:1h}")
+    public void deleteExpiredMessages() {
+        int deleted = repository.deleteAllCreatedBefore(LocalDateTime.now().minus(retention));
+        if (deleted > 0) log.debug("Deleted {} expired cache invalidation messages", deleted);
+    }
+
+    private void deliver(TransactionCacheInvalidation invalidation) {
+        subscribers.forEach(subscriber -> subscriber.accept(invalidation));
+    }
+}
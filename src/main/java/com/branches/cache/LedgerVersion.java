@@ -0,0 +1,55 @@
+package com.branches.cache;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * In-memory validator for conditional GETs, tagged with an id of this process.
+ */
+@Component
+public class LedgerVersion {
+    private final String instanceId = UUID.randomUUID().toString().substring(0, 8);
+    private final AtomicReference<Stamp> current;
+    private final Clock clock;
+
+    public LedgerVersion() {
+        this(Clock.systemUTC());
+    }
+
+    LedgerVersion(Clock clock) {
+        this.clock = clock;
+        this.current = new AtomicReference<>(new Stamp(instanceId, 0, clock.instant()));
+    }
+
+    public Stamp current() {
+        return current.get();
+    }
+
+    void increment() {
+        current.updateAndGet(stamp -> new Stamp(instanceId, stamp.version() + 1, clock.instant()));
+    }
+
+    /**
+     * {@code Last-Modified} is only offered once the second of the last change is over.
+     */
+    public record Stamp(String instanceId, long version, Instant modifiedAt) {
+        public String etag() {
+            return instanceId + "-" + version;
+        }
+
+        public String etag(String variant) {
+            return etag() + "-" + variant;
+        }
+
+        public long lastModified(Instant now) {
+            Instant second = modifiedAt.truncatedTo(ChronoUnit.SECONDS);
+
+            return now.truncatedTo(ChronoUnit.SECONDS).isAfter(second) ? second.toEpochMilli() : -1;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.branches.cache;
+
+import com.branches.datasource.ReadRouting;
+import com.branches.event.BalanceCheckpointsRebuiltEvent;
+import com.branches.event.BalanceRepairedEvent;
+import com.branches.event.TransactionsArchivedEvent;
+import com.branches.event.TransactionsSavedEvent;
+import com.branches.model.Transaction;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps a load's result only when no invalidation happened while it ran.
+ */
+@Component
+public class TransactionCache implements MeterBinder {
+    public static final String NAME = "transactions";
+
+    private final Cache<TransactionCacheKey, Object> cache;
+    private final CacheInvalidationChannel channel;
+    private final LedgerVersion ledgerVersion;
+    private final AtomicLong generation = new AtomicLong();
+    private final long replicaLagNanos;
+    private final Cache<Long, Boolean> recentlyInvalidatedAccounts;
+    private volatile long ledgerInvalidatedAt;
+
+    @Autowired
+    public TransactionCache(
+            CacheInvalidationChannel channel,
+            LedgerVersion ledgerVersion,
+            @Value("${ledger.cache.maximum-size:10000}") long maximumSize,
+            @Value("${ledger.cache.ttl:30s}") Duration ttl,
+            @Value("${ledger.read-replica.enabled:false}") boolean readReplicas,
+            @Value("${ledger.read-replica.max-lag:5s}") Duration replicaLag
+    ) {
+        this(channel, ledgerVersion, maximumSize, ttl, readReplicas ? replicaLag : Duration.ZERO);
+    }
+
+    TransactionCache(CacheInvalidationChannel channel, LedgerVersion ledgerVersion, long maximumSize, Duration ttl, Duration replicaLag) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.channel = channel;
+        this.ledgerVersion = ledgerVersion;
+        this.replicaLagNanos = replicaLag.toNanos();
+        this.recentlyInvalidatedAccounts = Caffeine.newBuilder()
+                .expireAfterWrite(replicaLag)
+                .build();
+        this.ledgerInvalidatedAt = System.nanoTime() - replicaLagNanos;
+        channel.subscribe(this::invalidate);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(TransactionCacheKey key, Supplier<T> loader) {
+        Object cached = cache.getIfPresent(key);
+        if (cached != null) return (T) cached;
+
+        long loadGeneration = generation.get();
+        T value = readsPrimary(key) ? ReadRouting.onPrimary(loader) : loader.get();
+        cache.asMap().compute(key, (ignored, current) -> generation.get() == loadGeneration ? value : current);
+        if (generation.get() != loadGeneration) cache.invalidate(key);
+
+        return value;
+    }
+
+    /**
+     * One invalidation per account, since a batch of the group commit mixes them.
+     */
+    @TransactionalEventListener
+    public void onTransactionsSaved(TransactionsSavedEvent event) {
+        Map<Long, List<Transaction>> byAccount = event.transactions().stream()
+                .collect(Collectors.groupingBy(Transaction::getAccountId, TreeMap::new, Collectors.toList()));
+
+        byAccount.forEach((accountId, transactions) -> channel.publish(TransactionCacheInvalidation.of(accountId, transactions)));
+    }
+
+    @TransactionalEventListener
+    public void onBalanceRepaired(BalanceRepairedEvent event) {
+        channel.publish(TransactionCacheInvalidation.balance(event.accountId()));
+    }
+
+    @TransactionalEventListener
+    public void onBalanceCheckpointsRebuilt(BalanceCheckpointsRebuiltEvent event) {
+        channel.publish(TransactionCacheInvalidation.balance(event.accountId()));
+    }
+
+    @EventListener
+    public void onTransactionsArchived(TransactionsArchivedEvent event) {
+        channel.publish(TransactionCacheInvalidation.before(event.archivedBefore()));
+    }
+
+    void invalidate(TransactionCacheInvalidation invalidation) {
+        if (replicaLagNanos > 0) {
+            if (invalidation.accountId() == null) {
+                ledgerInvalidatedAt = System.nanoTime();
+            } else {
+                recentlyInvalidatedAccounts.put(invalidation.accountId(), Boolean.TRUE);
+            }
+        }
+        generation.incrementAndGet();
+        cache.asMap().keySet().removeIf(key -> key.isAffectedBy(invalidation));
+        ledgerVersion.increment();
+    }
+
+    boolean readsPrimary(TransactionCacheKey key) {
+        if (replicaLagNanos == 0) return false;
+
+        return System.nanoTime() - ledgerInvalidatedAt < replicaLagNanos
+                || recentlyInvalidatedAccounts.getIfPresent(key.accountId()) != null;
+    }
+
+    long estimatedSize() {
+        return cache.estimatedSize();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, NAME);
+    }
+}
@@ -0,0 +1,41 @@
+package com.branches.cache;
+
+import com.branches.model.Transaction;
+import com.branches.utils.DateUtils;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Null dates mean only the balance changed; a null account means every account changed.
+ */
+public record TransactionCacheInvalidation(Long accountId, LocalDateTime firstDate, LocalDateTime lastDate, boolean incomes,
+                                           boolean expenses) {
+    public static TransactionCacheInvalidation balance(long accountId) {
+        return new TransactionCacheInvalidation(accountId, null, null, false, false);
+    }
+
+    /**
+     * Every transaction dated before {@code date} was removed, in every account.
+     */
+    public static TransactionCacheInvalidation before(LocalDateTime date) {
+        return new TransactionCacheInvalidation(null, DateUtils.MIN_DATE, date, true, true);
+    }
+
+    public static TransactionCacheInvalidation of(long accountId, Collection<Transaction> transactions) {
+        LocalDateTime firstDate = null;
+        LocalDateTime lastDate = null;
+        boolean incomes = false;
+        boolean expenses = false;
+
+        for (Transaction transaction : transactions) {
+            LocalDateTime date = transaction.getDate();
+            if (firstDate == null || date.isBefore(firstDate)) firstDate = date;
+            if (lastDate == null || date.isAfter(lastDate)) lastDate = date;
+            incomes |= transaction.getValueInCents() > 0;
+            expenses |= transaction.getValueInCents() < 0;
+        }
+
+        return new TransactionCacheInvalidation(accountId, firstDate, lastDate, incomes, expenses);
+    }
+}
@@ -0,0 +1,38 @@
+package com.branches.cache;
+
+import com.branches.request.TransactionCursor;
+
+import java.time.LocalDateTime;
+
+public record TransactionCacheKey(long accountId, Query query, LocalDateTime startDate, LocalDateTime endDate, TransactionCursor cursor,
+                                  int limit) {
+    public enum Query {
+        PAGE,
+        INCOMES,
+        EXPENSES,
+        BALANCE
+    }
+
+    public static TransactionCacheKey page(long accountId, LocalDateTime startDate, LocalDateTime endDate, TransactionCursor cursor,
+                                           int limit) {
+        return new TransactionCacheKey(accountId, Query.PAGE, startDate, endDate, cursor, limit);
+    }
+
+    public static TransactionCacheKey of(long accountId, Query query) {
+        return new TransactionCacheKey(accountId, query, null, null, null, 0);
+    }
+
+    public boolean isAffectedBy(TransactionCacheInvalidation invalidation) {
+        if (invalidation.accountId() != null && invalidation.accountId() != accountId) return false;
+
+        return switch (query) {
+            case BALANCE -> true;
+            case INCOMES -> invalidation.incomes();
+            case EXPENSES -> invalidation.expenses();
+            case PAGE -> invalidation.firstDate() != null
+                    && (startDate == null || !invalidation.lastDate().isBefore(startDate))
+                    && (endDate == null || !invalidation.firstDate().isAfter(endDate))
+                    && (cursor == null || !invalidation.firstDate().isAfter(cursor.date()));
+        };
+    }
+}
@@ -0,0 +1,75 @@
+package com.branches.config;
+
+import com.branches.mapper.TransactionMapper;
+import com.branches.metrics.RepositoryRowsInterceptor;
+import com.branches.metrics.TimedInterceptor;
+import com.branches.metrics.TimedJsonHttpMessageConverter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.util.function.Supplier;
+
+/**
+ * Turned off with {@code ledger.metrics.enabled=false}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "ledger.metrics.enabled", havingValue = "true", matchIfMissing = true)
+public class MetricsConfig {
+    public static final String MAPPER_METRIC = "ledger.mapper";
+
+    /**
+     * Static, and resolving the registry on first use, so repositories are not created before the post-processors.
+     */
+    @Bean
+    static BeanPostProcessor repositoryRowsPostProcessor(ObjectProvider<MeterRegistry> registry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, repositoryInformation) -> proxyFactory.addAdvice(new RepositoryRowsInterceptor(
+                                    repositoryInformation.getRepositoryInterface(), registry(registry)))));
+                }
+
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    static BeanPostProcessor mapperTimingPostProcessor(ObjectProvider<MeterRegistry> registry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof TransactionMapper)) return bean;
+
+                ProxyFactory proxyFactory = new ProxyFactory(bean);
+                proxyFactory.addInterface(TransactionMapper.class);
+                proxyFactory.addAdvice(new TimedInterceptor(MAPPER_METRIC, registry(registry)));
+
+                return proxyFactory.getProxy();
+            }
+        };
+    }
+
+    @Bean
+    MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper, ObjectProvider<MeterRegistry> registry) {
+        return new TimedJsonHttpMessageConverter(objectMapper, registry(registry));
+    }
+
+    /**
+     * The global registry where metrics are not configured, as in web slice tests.
+     */
+    private static Supplier<MeterRegistry> registry(ObjectProvider<MeterRegistry> registry) {
+        return () -> registry.getIfAvailable(() -> Metrics.globalRegistry);
+    }
+}
@@ -0,0 +1,98 @@
+package com.branches.config;
+
+import com.branches.datasource.ReadReplicaDataSource;
+import com.branches.datasource.ReadRouting;
+import com.branches.datasource.ReadYourWritesFilter;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read-only transactions take their connection from {@code ledger.read-replica.urls}, everything else from the primary.
+ */
+@Configuration
+@ConditionalOnProperty(name = "ledger.read-replica.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+    public static final String PRIMARY_POOL = "primary";
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName(PRIMARY_POOL);
+
+        return dataSource;
+    }
+
+    @Bean
+    ReadReplicaDataSource readReplicaDataSource(
+            HikariDataSource primaryDataSource,
+            DataSourceProperties properties,
+            Environment environment,
+            ObjectProvider<MeterRegistry> registry,
+            @Value("${ledger.read-replica.urls}") List<String> urls,
+            @Value("${ledger.read-replica.username:${spring.datasource.username:}}") String username,
+            @Value("${ledger.read-replica.password:${spring.datasource.password:}}") String password,
+            @Value("${ledger.read-replica.connection-timeout:1s}") Duration connectionTimeout
+    ) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String url : urls) {
+            HikariDataSource replica = properties.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .url(url.trim())
+                    .username(username)
+                    .password(password)
+                    .build();
+            Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(replica));
+            replica.setPoolName(ReadReplicaDataSource.replicaName(replicas.size()));
+            replica.setReadOnly(true);
+            replica.setConnectionTimeout(connectionTimeout.toMillis());
+            // a replica that is down at startup is skipped instead of failing it
+            replica.setInitializationFailTimeout(-1);
+            registry.ifAvailable(meterRegistry -> replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry)));
+            replicas.add(replica);
+        }
+
+        return new ReadReplicaDataSource(primaryDataSource, replicas, connectionTimeout);
+    }
+
+    /**
+     * Opens no connection until the first statement, once a read-only transaction has marked it read-only.
+     */
+    @Bean
+    @Primary
+    DataSource dataSource(HikariDataSource primaryDataSource, ReadReplicaDataSource readReplicaDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(readReplicaDataSource);
+
+        return dataSource;
+    }
+
+    @Bean
+    ReadYourWritesFilter readYourWritesFilter(@Value("${ledger.read-replica.max-lag:5s}") Duration maxLag) {
+        return new ReadYourWritesFilter(maxLag);
+    }
+
+    @Bean
+    TaskDecorator readRoutingTaskDecorator() {
+        return ReadRouting::propagate;
+    }
+}
@@ -1,110 +1,303 @@
 package com.branches.controller;
 
-import com.branches.exception.InternalServerErrorException;
+import com.branches.cache.LedgerVersion;
+import com.branches.exception.BadRequestException;
+import com.branches.model.SummaryGranularity;
+import com.branches.model.Transaction;
+import com.branches.request.BulkInsertMode;
 import com.branches.request.TransactionPostRequest;
+import com.branches.response.BalanceCheckpointRebuildResponse;
+import com.branches.response.BalanceReconciliationResponse;
+import com.branches.response.TransactionArchiveResponse;
+import com.branches.response.TransactionBulkResponse;
 import com.branches.response.TransactionGetResponse;
+import com.branches.response.TransactionPageResponse;
 import com.branches.response.TransactionPostResponse;
+import com.branches.response.TransactionSummaryResponse;
+import com.branches.service.BalanceCheckpointService;
+import com.branches.service.BalanceService;
+import com.branches.service.IdempotencyService;
+import com.branches.service.TransactionArchiveService;
+import com.branches.service.TransactionBulkService;
+import com.branches.service.TransactionExportService;
+import com.branches.service.TransactionSearchService;
 import com.branches.service.TransactionService;
+import com.branches.service.TransactionStreamService;
+import com.branches.service.TransactionSummaryService;
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.core.io.Resource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
+/**
+ * Routes under {@code v1/transactions} serve the default account.
+ */
 @RestController
-@RequestMapping("v1/transactions")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping({"v1/transactions", "v1/accounts/{accountId}/transactions"})
 @RequiredArgsConstructor
 public class TransactionController {
+    static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+    private static final int GZIP_BUFFER_SIZE = 8 * 1024;
+    private static final String LAST_EVENT_ID = "Last-Event-ID";
+    static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
     private final TransactionService service;
+    private final BalanceService balanceService;
+    private final BalanceCheckpointService checkpointService;
+    private final TransactionExportService exportService;
+    private final TransactionBulkService bulkService;
+    private final TransactionSummaryService summaryService;
+    private final TransactionSearchService searchService;
+    private final TransactionStreamService streamService;
+    private final TransactionArchiveService archiveService;
+    private final IdempotencyService idempotencyService;
     private final ObjectMapper objectMapper;
+    private final LedgerVersion ledgerVersion;
 
 
     @PostMapping
-    public ResponseEntity<TransactionPostResponse> save(@RequestBody TransactionPostRequest postRequest) {
-        TransactionPostResponse response = service.save(postRequest);
+    public ResponseEntity<TransactionPostResponse> save(@PathVariable(required = false) Long accountId,
+                                                        @RequestBody TransactionPostRequest postRequest,
+                                                        @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        TransactionPostResponse response = idempotencyKey == null
+                ? service.save(account(accountId), postRequest)
+                : idempotencyService.save(account(accountId), postRequest, idempotencyKey);
 
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    @PostMapping(path = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<TransactionBulkResponse> saveAll(@PathVariable(required = false) Long accountId,
+                                                           InputStream body,
+                                                           @RequestParam(defaultValue = "ATOMIC") BulkInsertMode mode) throws IOException {
+        try (MappingIterator<TransactionPostRequest> postRequests = objectMapper.readerFor(TransactionPostRequest.class).readValues(body)) {
+            TransactionBulkResponse response = bulkService.saveAll(account(accountId), postRequests, mode);
+            HttpStatus status = response.getFailed() == 0 ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS;
+
+            return ResponseEntity.status(status).body(response);
+        }
+    }
+
     @GetMapping
-    public ResponseEntity<List<TransactionGetResponse>> findAll(@RequestParam(required = false) LocalDateTime startDate,
-                                                                @RequestParam(required = false) LocalDateTime endDate) {
-        List<TransactionGetResponse> response = service.findAll(startDate, endDate);
+    public ResponseEntity<TransactionPageResponse> findAll(@PathVariable(required = false) Long accountId,
+                                                           @RequestParam(required = false) LocalDateTime startDate,
+                                                           @RequestParam(required = false) LocalDateTime endDate,
+                                                           @RequestParam(required = false) String cursor,
+                                                           @RequestParam(defaultValue = "" + TransactionService.DEFAULT_PAGE_SIZE) int limit,
+                                                           WebRequest request) {
+        if (isNotModified(request, null)) return null;
 
-        return ResponseEntity.ok(response);
+        TransactionPageResponse response = service.findAll(account(accountId), startDate, endDate, cursor, limit);
+
+        return ok(response);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<TransactionPageResponse> search(@PathVariable(required = false) Long accountId,
+                                                          @RequestParam String q,
+                                                          @RequestParam(required = false) LocalDateTime startDate,
+                                                          @RequestParam(required = false) LocalDateTime endDate,
+                                                          @RequestParam(required = false) String cursor,
+                                                          @RequestParam(defaultValue = "" + TransactionService.DEFAULT_PAGE_SIZE) int limit,
+                                                          WebRequest request) {
+        if (isNotModified(request, null)) return null;
+
+        TransactionPageResponse response = searchService.search(account(accountId), q, startDate, endDate, cursor, limit);
+
+        return ok(response);
     }
 
     @GetMapping("/incomes")
-    public ResponseEntity<List<TransactionGetResponse>> getIncomes() {
-        List<TransactionGetResponse> response = service.getIncomes();
+    public ResponseEntity<List<TransactionGetResponse>> getIncomes(@PathVariable(required = false) Long accountId, WebRequest request) {
+        if (isNotModified(request, null)) return null;
 
-        return ResponseEntity.ok(response);
+        List<TransactionGetResponse> response = service.getIncomes(account(accountId));
+
+        return ok(response);
     }
 
     @GetMapping("/expenses")
-    public ResponseEntity<List<TransactionGetResponse>> getExpenses() {
-        List<TransactionGetResponse> response = service.getExpenses();
+    public ResponseEntity<List<TransactionGetResponse>> getExpenses(@PathVariable(required = false) Long accountId, WebRequest request) {
+        if (isNotModified(request, null)) return null;
 
-        return ResponseEntity.ok(response);
+        List<TransactionGetResponse> response = service.getExpenses(account(accountId));
+
+        return ok(response);
     }
 
+    /**
+     * With {@code at}, answered from the daily balance checkpoints instead of the cache.
+     */
     @GetMapping("/balance")
-    public ResponseEntity<Map<String, Double>> getBalance() {
-        Double balance = service.getBalance();
+    public ResponseEntity<Map<String, BigDecimal>> getBalance(@PathVariable(required = false) Long accountId,
+                                                              @RequestParam(required = false) LocalDateTime at,
+                                                              WebRequest request) {
+        if (isNotModified(request, null)) return null;
 
-        return ResponseEntity.ok(Map.of("balance", balance));
+        BigDecimal balance = at == null
+                ? service.getBalance(account(accountId))
+                : checkpointService.getBalance(account(accountId), at);
+
+        return ok(Map.of("balance", balance));
+    }
+
+    @GetMapping("/summary")
+    public ResponseEntity<TransactionSummaryResponse> getSummary(@PathVariable(required = false) Long accountId,
+                                                                 @RequestParam(defaultValue = "DAY") SummaryGranularity granularity,
+                                                                 @RequestParam(required = false) LocalDate startDate,
+                                                                 @RequestParam(required = false) LocalDate endDate,
+                                                                 WebRequest request) {
+        if (isNotModified(request, null)) return null;
+
+        TransactionSummaryResponse response = summaryService.getSummary(account(accountId), granularity, startDate, endDate);
+
+        return ok(response);
+    }
+
+    /**
+     * The {@code Last-Event-ID} header wins over the {@code lastEventId} parameter.
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@PathVariable(required = false) Long accountId,
+                             @RequestParam(required = false) Long lastEventId,
+                             @RequestHeader(value = LAST_EVENT_ID, required = false) Long lastEventIdHeader) {
+        return streamService.subscribe(account(accountId), lastEventIdHeader != null ? lastEventIdHeader : lastEventId);
+    }
+
+    @PostMapping("/balance/reconcile")
+    public ResponseEntity<BalanceReconciliationResponse> reconcileBalance(@PathVariable(required = false) Long accountId) {
+        BalanceReconciliationResponse response = balanceService.reconcile(account(accountId));
+
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/balance/checkpoints/rebuild")
+    public ResponseEntity<BalanceCheckpointRebuildResponse> rebuildBalanceCheckpoints(@PathVariable(required = false) Long accountId) {
+        BalanceCheckpointRebuildResponse response = checkpointService.rebuild(account(accountId));
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Archiving moves the rows of every account, so it is only served under {@code v1/transactions}.
+     */
+    @PostMapping("/archive")
+    public ResponseEntity<TransactionArchiveResponse> archive(@PathVariable(required = false) Long accountId) {
+        if (accountId != null) throw new BadRequestException("The ledger is archived for every account at once, use POST v1/transactions/archive");
+
+        TransactionArchiveResponse response = archiveService.archive();
+
+        return ResponseEntity.ok(response);
     }
 
     @GetMapping("/export/json")
-    public ResponseEntity<Resource> exportJson() {
-        List<TransactionGetResponse> allTransactions = service.findAll(null, null);
-
-        try {
-            String csvData = objectMapper.writeValueAsString(allTransactions);
-            ByteArrayResource resource = new ByteArrayResource(csvData.getBytes());
-
-            return ResponseEntity.ok()
-                        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=transactions.json")
-                        .contentLength(resource.contentLength())
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .body(resource);
-        } catch (Exception e) {
-            throw new InternalServerErrorException("Unable to export transactions");
-        }
+    public ResponseEntity<StreamingResponseBody> exportJson(@PathVariable(required = false) Long accountId,
+                                                            @RequestParam(required = false) LocalDateTime startDate,
+                                                            @RequestParam(required = false) LocalDateTime endDate,
+                                                            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                                            WebRequest request) {
+        return export(request, "transactions.json", MediaType.APPLICATION_JSON, acceptEncoding,
+                outputStream -> exportService.exportJson(account(accountId), startDate, endDate, outputStream));
+    }
+
+    @GetMapping("/export/ndjson")
+    public ResponseEntity<StreamingResponseBody> exportNdjson(@PathVariable(required = false) Long accountId,
+                                                              @RequestParam(required = false) LocalDateTime startDate,
+                                                              @RequestParam(required = false) LocalDateTime endDate,
+                                                              @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                                              WebRequest request) {
+        return export(request, "transactions.ndjson", MediaType.APPLICATION_NDJSON, acceptEncoding,
+                outputStream -> exportService.exportNdjson(account(accountId), startDate, endDate, outputStream));
     }
 
     @GetMapping("/export/csv")
-    public ResponseEntity<Resource> exportCsv() {
-        List<TransactionGetResponse> allTransactions = service.findAll(null, null);
-
-        try {
-            StringBuilder csvBuilder = new StringBuilder();
-            csvBuilder.append("id,value,description,date\n");
-
-            for (TransactionGetResponse t : allTransactions) {
-                csvBuilder.append(t.getId()).append(",");
-                csvBuilder.append(t.getValue()).append(",");
-                csvBuilder.append("\"").append(t.getDescription()).append("\",");
-                csvBuilder.append(t.getDate()).append("\n");
+    public ResponseEntity<StreamingResponseBody> exportCsv(@PathVariable(required = false) Long accountId,
+                                                           @RequestParam(required = false) LocalDateTime startDate,
+                                                           @RequestParam(required = false) LocalDateTime endDate,
+                                                           @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                                           WebRequest request) {
+        return export(request, "transactions.csv", TEXT_CSV, acceptEncoding,
+                outputStream -> exportService.exportCsv(account(accountId), startDate, endDate, outputStream));
+    }
+
+    private ResponseEntity<StreamingResponseBody> export(WebRequest request, String fileName, MediaType mediaType, String acceptEncoding,
+                                                         StreamingResponseBody writer) {
+        boolean gzip = acceptsGzip(acceptEncoding);
+        if (isNotModified(request, gzip ? "gzip" : null)) return null;
+
+        StreamingResponseBody body = outputStream -> {
+            if (!gzip) {
+                writer.writeTo(outputStream);
+                return;
             }
-            String csvData = csvBuilder.toString();
-            ByteArrayResource resource = new ByteArrayResource(csvData.getBytes());
-
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=transactions.csv")
-                    .contentLength(resource.contentLength())
-                    .contentType(MediaType.parseMediaType("text/csv"))
-                    .body(resource);
-        } catch (Exception e) {
-            throw new InternalServerErrorException("Unable to export transactions");
+
+            try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream, GZIP_BUFFER_SIZE, true)) {
+                writer.writeTo(gzipOutputStream);
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + fileName)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .contentType(mediaType);
+
+        if (gzip) response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+
+        return response.body(body);
+    }
+
+    private boolean isNotModified(WebRequest request, String variant) {
+        LedgerVersion.Stamp stamp = ledgerVersion.current();
+        String etag = variant == null ? stamp.etag() : stamp.etag(variant);
+
+        return request.checkNotModified(etag, stamp.lastModified(Instant.now()));
+    }
+
+    static long account(Long accountId) {
+        if (accountId == null) return Transaction.DEFAULT_ACCOUNT_ID;
+        if (accountId < 1) throw new BadRequestException("accountId must be greater than zero");
+
+        return accountId;
+    }
+
+    private static <T> ResponseEntity<T> ok(T body) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .body(body);
+    }
+
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) return false;
+
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (!parts[0].trim().equalsIgnoreCase("gzip")) continue;
+
+            boolean refused = parts.length > 1 && parts[1].trim().replace(" ", "").matches("q=0(\\.0*)?");
+            return !refused;
         }
+
+        return false;
     }
 }
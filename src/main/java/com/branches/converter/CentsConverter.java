@@ -0,0 +1,23 @@
+package com.branches.converter;
+
+import com.branches.utils.MoneyUtils;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.math.BigDecimal;
+
+/**
+ * Stores cents as an exact {@code DECIMAL} column.
+ */
+@Converter
+public class CentsConverter implements AttributeConverter<Long, BigDecimal> {
+    @Override
+    public BigDecimal convertToDatabaseColumn(Long cents) {
+        return cents == null ? null : MoneyUtils.toDecimal(cents);
+    }
+
+    @Override
+    public Long convertToEntityAttribute(BigDecimal amount) {
+        return amount == null ? null : MoneyUtils.toCents(amount);
+    }
+}
@@ -0,0 +1,23 @@
+package com.branches.converter;
+
+import com.branches.exception.BadRequestException;
+import com.branches.model.SummaryGranularity;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+@Component
+public class SummaryGranularityConverter implements Converter<String, SummaryGranularity> {
+    @Override
+    public SummaryGranularity convert(String source) {
+        try {
+            return SummaryGranularity.valueOf(source.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("granularity must be one of %s".formatted(
+                    Arrays.toString(SummaryGranularity.values()).toLowerCase(Locale.ROOT)
+            ));
+        }
+    }
+}
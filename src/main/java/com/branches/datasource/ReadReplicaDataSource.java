@@ -0,0 +1,136 @@
+package com.branches.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Replicas that fail a health check are skipped; with none left, connections come from the primary.
+ */
+@Slf4j
+public class ReadReplicaDataSource extends AbstractDataSource implements MeterBinder, AutoCloseable {
+    public static final String HEALTHY_METRIC = "ledger.read-replica.healthy";
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final int validationTimeoutSeconds;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReadReplicaDataSource(DataSource primary, List<? extends DataSource> replicas, Duration validationTimeout) {
+        if (replicas.isEmpty()) throw new IllegalArgumentException("ledger.read-replica.urls must list at least one replica");
+
+        this.primary = primary;
+        for (int i = 0; i < replicas.size(); i++) {
+            this.replicas.add(new Replica(replicaName(i), replicas.get(i)));
+        }
+        this.validationTimeoutSeconds = (int) Math.max(1, validationTimeout.toSeconds());
+    }
+
+    public static String replicaName(int index) {
+        return "replica-" + index;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connect(null, null);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return connect(username, password);
+    }
+
+    @Scheduled(fixedDelayString = "${ledger.read-replica.health-check-interval:5s}")
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection()) {
+                if (connection.isValid(validationTimeoutSeconds)) {
+                    replica.markUp();
+                } else {
+                    replica.markDown("connection is not valid");
+                }
+            } catch (SQLException e) {
+                replica.markDown(e.getMessage());
+            }
+        }
+    }
+
+    boolean isHealthy(int index) {
+        return replicas.get(index).healthy;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Replica replica : replicas) {
+            Gauge.builder(HEALTHY_METRIC, replica, r -> r.healthy ? 1 : 0)
+                    .description("Whether the read replica takes read-only transactions")
+                    .tag("replica", replica.name)
+                    .register(registry);
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) closeable.close();
+        }
+    }
+
+    private Connection connect(String username, String password) throws SQLException {
+        if (!ReadRouting.isPrimaryRequired()) {
+            int start = next.getAndIncrement();
+            for (int i = 0; i < replicas.size(); i++) {
+                Replica replica = replicas.get(Math.floorMod(start + i, replicas.size()));
+                if (!replica.healthy) continue;
+
+                try {
+                    return open(replica.dataSource, username, password);
+                } catch (SQLException e) {
+                    replica.markDown(e.getMessage());
+                }
+            }
+        }
+
+        return open(primary, username, password);
+    }
+
+    private static Connection open(DataSource dataSource, String username, String password) throws SQLException {
+        return username == null ? dataSource.getConnection() : dataSource.getConnection(username, password);
+    }
+
+    private static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy = true;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        private void markUp() {
+            if (healthy) return;
+
+            healthy = true;
+            log.info("Read replica {} is back, sending read-only transactions to it again", name);
+        }
+
+        private void markDown(String reason) {
+            if (!healthy) return;
+
+            healthy = false;
+            log.warn("Read replica {} failed ({}), skipping it until the next successful health check", name, reason);
+        }
+    }
+}
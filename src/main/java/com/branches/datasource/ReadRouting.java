@@ -0,0 +1,49 @@
+package com.branches.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Lets the current thread require the primary for reads a replica may not have applied yet.
+ */
+public final class ReadRouting {
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    private ReadRouting() {
+    }
+
+    public static boolean isPrimaryRequired() {
+        return Boolean.TRUE.equals(PRIMARY_REQUIRED.get());
+    }
+
+    public static <T> T onPrimary(Supplier<T> action) {
+        boolean previous = requirePrimary();
+        try {
+            return action.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    public static Runnable propagate(Runnable task) {
+        if (!isPrimaryRequired()) return task;
+
+        return () -> onPrimary(() -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * @return whether the primary was already required, to be handed back to {@link #restore(boolean)}
+     */
+    static boolean requirePrimary() {
+        boolean previous = isPrimaryRequired();
+        PRIMARY_REQUIRED.set(Boolean.TRUE);
+
+        return previous;
+    }
+
+    static void restore(boolean previous) {
+        if (!previous) PRIMARY_REQUIRED.remove();
+    }
+}
@@ -0,0 +1,4 @@
+package com.branches.event;
+
+public record BalanceRepairedEvent(long accountId, long balanceInCents) {
+}
@@ -0,0 +1,6 @@
+package com.branches.event;
+
+import java.time.LocalDateTime;
+
+public record TransactionsArchivedEvent(LocalDateTime archivedBefore) {
+}
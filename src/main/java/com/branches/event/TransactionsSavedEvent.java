@@ -0,0 +1,16 @@
+package com.branches.event;
+
+import com.branches.model.Transaction;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Published inside the database transaction that inserted the given rows.
+ */
+public record TransactionsSavedEvent(List<Transaction> transactions, Map<Long, Long> balancesInCents) {
+    public TransactionsSavedEvent {
+        transactions = List.copyOf(transactions);
+        balancesInCents = Map.copyOf(balancesInCents);
+    }
+}
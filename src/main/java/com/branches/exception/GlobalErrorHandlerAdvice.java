@@ -1,14 +1,35 @@
 package com.branches.exception;
 
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+@Slf4j
 @RestControllerAdvice
 public class GlobalErrorHandlerAdvice {
+    private static final String RETRY_AFTER_SECONDS = "1";
+
     public ResponseEntity<DefaultErrorMessage> handleInternalServerErrorException(InternalServerErrorException e) {
         DefaultErrorMessage error = new DefaultErrorMessage(HttpStatus.INTERNAL_SERVER_ERROR.value(), e.getReason());
 
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
     }
+
+    /**
+     * No database connection became available within the pool's connection timeout.
+     */
+    @ExceptionHandler({CannotCreateTransactionException.class, DataAccessResourceFailureException.class})
+    public ResponseEntity<DefaultErrorMessage> handleConnectionUnavailable(Exception e) {
+        log.warn("No database connection available: {}", e.getMessage());
+        DefaultErrorMessage error = new DefaultErrorMessage(HttpStatus.SERVICE_UNAVAILABLE.value(), "Database is busy, try again later");
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                .body(error);
+    }
 }
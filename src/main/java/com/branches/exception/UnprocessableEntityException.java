@@ -0,0 +1,10 @@
+package com.branches.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+public class UnprocessableEntityException extends ResponseStatusException {
+    public UnprocessableEntityException(String message) {
+        super(HttpStatus.UNPROCESSABLE_ENTITY, message);
+    }
+}
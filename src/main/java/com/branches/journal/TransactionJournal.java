@@ -0,0 +1,349 @@
+package com.branches.journal;
+
+import com.branches.event.TransactionsSavedEvent;
+import com.branches.model.Transaction;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Fixed-width records in memory-mapped segments; the first record failing its CRC32 ends the journal.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "ledger.journal.enabled", havingValue = "true")
+public class TransactionJournal implements AutoCloseable {
+    static final int RECORD_SIZE = 144;
+    private static final int ID_OFFSET = 0;
+    private static final int ACCOUNT_ID_OFFSET = 8;
+    private static final int VALUE_OFFSET = 16;
+    private static final int DATE_OFFSET = 24;
+    private static final int DESCRIPTION_LENGTH_OFFSET = 32;
+    private static final int DESCRIPTION_OFFSET = 34;
+    /** The CRC covers every byte before it; descriptions are stored as UTF-16, so any one fits. */
+    private static final int CRC_OFFSET = DESCRIPTION_OFFSET + Transaction.DESCRIPTION_MAX_LENGTH * Character.BYTES;
+    /**
+     * One entry per account: journal size, account count, account, record count, balance and a CRC of the rest.
+     */
+    private static final int CHECKPOINT_SIZE = 40;
+    private static final int CHECKPOINT_CRC_OFFSET = 36;
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final String CHECKPOINT_FILE = "balance.checkpoints";
+
+    private final Path directory;
+    private final int segmentRecords;
+    private final long checkpointInterval;
+    private final boolean fsync;
+    private final FileChannel checkpoints;
+    private final CRC32 crc = new CRC32();
+    private MappedByteBuffer segment;
+    private long segmentStart;
+    private volatile long size;
+    private final Map<Long, Balance> balances = new TreeMap<>();
+
+    @FunctionalInterface
+    public interface RecordConsumer {
+        void accept(long id, long accountId, long valueInCents, LocalDateTime date, String description);
+    }
+
+    public record Balance(long records, long balanceInCents) {
+        Balance plus(Balance other) {
+            return new Balance(records + other.records, Math.addExact(balanceInCents, other.balanceInCents));
+        }
+    }
+
+    private record Checkpoint(long records, Map<Long, Balance> balances) {
+    }
+
+    public TransactionJournal(
+            @Value("${ledger.journal.directory:data/journal}") Path directory,
+            @Value("${ledger.journal.segment-records:1048576}") int segmentRecords,
+            @Value("${ledger.journal.checkpoint-interval:100000}") long checkpointInterval,
+            @Value("${ledger.journal.fsync:false}") boolean fsync
+    ) {
+        this.directory = directory;
+        this.segmentRecords = segmentRecords;
+        this.checkpointInterval = checkpointInterval;
+        this.fsync = fsync;
+        try {
+            Files.createDirectories(directory);
+            List<Long> segments = segmentStarts();
+            segmentStart = segments.isEmpty() ? 0 : segments.getLast();
+            segment = map(segmentStart, FileChannel.MapMode.READ_WRITE);
+            int records = recover(segment);
+            size = segmentStart + records;
+
+            checkpoints = FileChannel.open(directory.resolve(CHECKPOINT_FILE), StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            Checkpoint checkpoint = lastCheckpoint();
+            balances.putAll(checkpoint.balances());
+            addBalances(checkpoint.records(), size);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open the transaction journal in " + directory, e);
+        }
+        log.info("Opened transaction journal with {} records in {}", size, directory);
+    }
+
+    /**
+     * A failure is logged and not thrown, since the transactions are committed either way.
+     */
+    @TransactionalEventListener
+    public void onTransactionsSaved(TransactionsSavedEvent event) {
+        if (event.transactions().isEmpty()) return;
+
+        try {
+            append(event.transactions());
+        } catch (RuntimeException e) {
+            log.error("Could not journal {} committed transactions", event.transactions().size(), e);
+        }
+    }
+
+    public synchronized void append(List<Transaction> transactions) {
+        long firstCheckpoint = size / checkpointInterval;
+        int firstIndex = (int) (size - segmentStart);
+        for (Transaction transaction : transactions) {
+            if (size - segmentStart == segmentRecords) {
+                force(firstIndex);
+                nextSegment();
+                firstIndex = 0;
+            }
+
+            write((int) (size - segmentStart) * RECORD_SIZE, transaction);
+            balances.merge(transaction.getAccountId(), new Balance(1, transaction.getValueInCents()), Balance::plus);
+            size++;
+        }
+        force(firstIndex);
+
+        if (size / checkpointInterval > firstCheckpoint) writeCheckpoint();
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public synchronized Balance balance() {
+        return balances.values().stream().reduce(new Balance(0, 0), Balance::plus);
+    }
+
+    public synchronized Map<Long, Balance> balances() {
+        return new TreeMap<>(balances);
+    }
+
+    public long replay(long from, RecordConsumer consumer) {
+        long end = size;
+        long read = 0;
+        for (long start = segmentStartOf(from); start < end; start += segmentRecords) {
+            ByteBuffer records = map(start, FileChannel.MapMode.READ_ONLY);
+            char[] description = new char[Transaction.DESCRIPTION_MAX_LENGTH];
+            for (long record = Math.max(from, start); record < Math.min(end, start + segmentRecords); record++) {
+                int offset = (int) (record - start) * RECORD_SIZE;
+                short length = records.getShort(offset + DESCRIPTION_LENGTH_OFFSET);
+                for (int i = 0; i < length; i++) {
+                    description[i] = records.getChar(offset + DESCRIPTION_OFFSET + i * Character.BYTES);
+                }
+
+                consumer.accept(
+                        records.getLong(offset + ID_OFFSET),
+                        records.getLong(offset + ACCOUNT_ID_OFFSET),
+                        records.getLong(offset + VALUE_OFFSET),
+                        toDate(records.getLong(offset + DATE_OFFSET)),
+                        length < 0 ? null : new String(description, 0, length)
+                );
+                read++;
+            }
+        }
+
+        return read;
+    }
+
+    @PreDestroy
+    @Override
+    public synchronized void close() {
+        segment.force();
+        try {
+            checkpoints.close();
+        } catch (IOException e) {
+            log.warn("Could not close the journal checkpoints", e);
+        }
+    }
+
+    private void write(int offset, Transaction transaction) {
+        String description = transaction.getDescription();
+        segment.putLong(offset + ID_OFFSET, transaction.getId());
+        segment.putLong(offset + ACCOUNT_ID_OFFSET, transaction.getAccountId());
+        segment.putLong(offset + VALUE_OFFSET, transaction.getValueInCents());
+        segment.putLong(offset + DATE_OFFSET, toMicros(transaction.getDate()));
+        segment.putShort(offset + DESCRIPTION_LENGTH_OFFSET, (short) (description == null ? -1 : description.length()));
+        for (int i = 0; description != null && i < description.length(); i++) {
+            segment.putChar(offset + DESCRIPTION_OFFSET + i * Character.BYTES, description.charAt(i));
+        }
+        segment.putInt(offset + CRC_OFFSET, checksum(segment, offset));
+    }
+
+    private void force(int firstIndex) {
+        int records = (int) (size - segmentStart) - firstIndex;
+        if (fsync && records > 0) segment.force(firstIndex * RECORD_SIZE, records * RECORD_SIZE);
+    }
+
+    private void nextSegment() {
+        segment.force();
+        segmentStart += segmentRecords;
+        segment = map(segmentStart, FileChannel.MapMode.READ_WRITE);
+    }
+
+    /**
+     * Records after the first invalid one are cleared, so they are not taken as valid once new records reach them.
+     */
+    private int recover(MappedByteBuffer records) {
+        int valid = 0;
+        while (valid < segmentRecords && records.getInt(valid * RECORD_SIZE + CRC_OFFSET) == checksum(records, valid * RECORD_SIZE)) {
+            valid++;
+        }
+
+        int cleared = 0;
+        for (int record = valid; record < segmentRecords && !isEmpty(records, record * RECORD_SIZE); record++) {
+            records.put(record * RECORD_SIZE, new byte[RECORD_SIZE]);
+            cleared++;
+        }
+        if (cleared > 0) {
+            log.warn("Cleared {} incomplete records at the end of the transaction journal", cleared);
+            records.force();
+        }
+
+        return valid;
+    }
+
+    /**
+     * Later, torn checkpoints are removed since they no longer match the records written after them.
+     */
+    private Checkpoint lastCheckpoint() throws IOException {
+        ByteBuffer entry = ByteBuffer.allocate(CHECKPOINT_SIZE);
+        Checkpoint last = new Checkpoint(0, Map.of());
+        Map<Long, Balance> next = new TreeMap<>();
+        long nextRecords = 0;
+        long validSize = 0;
+        for (long position = 0; position + CHECKPOINT_SIZE <= checkpoints.size(); position += CHECKPOINT_SIZE) {
+            entry.clear();
+            checkpoints.read(entry, position);
+            long records = entry.getLong(0);
+            int accounts = entry.getInt(8);
+            crc.reset();
+            crc.update(entry.array(), 0, CHECKPOINT_CRC_OFFSET);
+            if ((int) crc.getValue() != entry.getInt(CHECKPOINT_CRC_OFFSET) || records > size || records <= last.records()
+                    || !next.isEmpty() && records != nextRecords) break;
+
+            nextRecords = records;
+            next.put(entry.getLong(12), new Balance(entry.getLong(20), entry.getLong(28)));
+            if (next.size() == accounts) {
+                last = new Checkpoint(records, next);
+                next = new TreeMap<>();
+                validSize = position + CHECKPOINT_SIZE;
+            }
+        }
+
+        if (checkpoints.size() > validSize) checkpoints.truncate(validSize);
+        checkpoints.position(validSize);
+
+        return last;
+    }
+
+    private void writeCheckpoint() {
+        ByteBuffer entries = ByteBuffer.allocate(balances.size() * CHECKPOINT_SIZE);
+        balances.forEach((accountId, balance) -> {
+            int offset = entries.position();
+            entries.putLong(size).putInt(balances.size()).putLong(accountId)
+                    .putLong(balance.records()).putLong(balance.balanceInCents());
+            crc.reset();
+            crc.update(entries.array(), offset, CHECKPOINT_CRC_OFFSET);
+            entries.putInt((int) crc.getValue());
+        });
+        entries.flip();
+        try {
+            while (entries.hasRemaining()) {
+                checkpoints.write(entries);
+            }
+            if (fsync) checkpoints.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write a journal checkpoint", e);
+        }
+    }
+
+    private void addBalances(long from, long to) {
+        for (long start = segmentStartOf(from); start < to; start += segmentRecords) {
+            ByteBuffer records = map(start, FileChannel.MapMode.READ_ONLY);
+            for (long record = Math.max(from, start); record < Math.min(to, start + segmentRecords); record++) {
+                int offset = (int) (record - start) * RECORD_SIZE;
+                balances.merge(records.getLong(offset + ACCOUNT_ID_OFFSET),
+                        new Balance(1, records.getLong(offset + VALUE_OFFSET)), Balance::plus);
+            }
+        }
+    }
+
+    private long segmentStartOf(long record) {
+        return record - record % segmentRecords;
+    }
+
+    private List<Long> segmentStarts() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private MappedByteBuffer map(long start, FileChannel.MapMode mode) {
+        Path file = directory.resolve("%020d%s".formatted(start, SEGMENT_SUFFIX));
+        StandardOpenOption[] options = mode == FileChannel.MapMode.READ_ONLY
+                ? new StandardOpenOption[]{StandardOpenOption.READ}
+                : new StandardOpenOption[]{StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE};
+        try (FileChannel channel = FileChannel.open(file, options)) {
+            return channel.map(mode, 0, (long) segmentRecords * RECORD_SIZE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not map the journal segment " + file, e);
+        }
+    }
+
+    private int checksum(ByteBuffer records, int offset) {
+        crc.reset();
+        crc.update(records.slice(offset, CRC_OFFSET));
+
+        return (int) crc.getValue();
+    }
+
+    private static boolean isEmpty(ByteBuffer records, int offset) {
+        for (int i = 0; i < RECORD_SIZE; i += Long.BYTES) {
+            if (records.getLong(offset + i) != 0) return false;
+        }
+
+        return true;
+    }
+
+    static long toMicros(LocalDateTime date) {
+        return date.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + date.getNano() / 1_000;
+    }
+
+    static LocalDateTime toDate(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000), (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+}
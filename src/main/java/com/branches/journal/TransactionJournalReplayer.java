@@ -0,0 +1,199 @@
+package com.branches.journal;
+
+import com.branches.model.Transaction;
+import com.branches.model.TransactionArchiveState;
+import com.branches.repository.TransactionArchiveStateRepository;
+import com.branches.service.BalanceCheckpointService;
+import com.branches.service.BalanceService;
+import com.branches.service.TransactionSearchService;
+import com.branches.service.TransactionSummaryService;
+import com.branches.utils.DateUtils;
+import com.branches.utils.MoneyUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+/**
+ * Rebuilds the balances ({@code ledger.journal.replay=balance}) or the missing rows of the
+ * {@code transaction} table ({@code table}) from the {@link TransactionJournal} at startup.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "ledger.journal.enabled", havingValue = "true")
+public class TransactionJournalReplayer implements ApplicationRunner {
+    static final int BATCH_SIZE = 10_000;
+    private static final String INSERT = "INSERT INTO transaction (id, account_id, value, sign, description, date) VALUES (?, ?, ?, ?, ?, ?)";
+
+    public enum Mode {
+        NONE, BALANCE, TABLE
+    }
+
+    private final TransactionJournal journal;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BalanceService balanceService;
+    private final TransactionSummaryService summaryService;
+    private final BalanceCheckpointService checkpointService;
+    private final TransactionSearchService searchService;
+    private final TransactionArchiveStateRepository archiveStateRepository;
+    private final Mode mode;
+    private final String storeType;
+
+    public TransactionJournalReplayer(
+            TransactionJournal journal,
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            BalanceService balanceService,
+            TransactionSummaryService summaryService,
+            BalanceCheckpointService checkpointService,
+            TransactionSearchService searchService,
+            TransactionArchiveStateRepository archiveStateRepository,
+            @Value("${ledger.journal.replay:none}") Mode mode,
+            @Value("${ledger.store.type:jpa}") String storeType
+    ) {
+        this.journal = journal;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.balanceService = balanceService;
+        this.summaryService = summaryService;
+        this.checkpointService = checkpointService;
+        this.searchService = searchService;
+        this.archiveStateRepository = archiveStateRepository;
+        this.mode = mode;
+        this.storeType = storeType;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        switch (mode) {
+            case BALANCE -> replayBalance();
+            case TABLE -> replayTable();
+            case NONE -> {
+            }
+        }
+    }
+
+    public void replayBalance() {
+        journal.balances().forEach((accountId, balance) -> {
+            boolean changed = balanceService.restore(accountId, balance.balanceInCents(), balance.records());
+
+            log.info("Balance of account {} rebuilt from {} journaled transactions: {}{}", accountId, balance.records(),
+                    MoneyUtils.toDecimal(balance.balanceInCents()), changed ? ", balance replaced" : ", balance already matched");
+        });
+    }
+
+    public long replayTable() {
+        if (!"jpa".equals(storeType)) {
+            throw new IllegalStateException("The journal can only rebuild the transaction table when ledger.store.type is jpa");
+        }
+
+        long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM transaction", Long.class);
+        LocalDateTime archivedBefore = archiveStateRepository.findArchivedBefore(TransactionArchiveState.LEDGER_ID)
+                .orElse(DateUtils.MIN_DATE);
+        long startedAt = System.nanoTime();
+
+        List<Transaction> batch = new ArrayList<>(BATCH_SIZE);
+        long[] inserted = {0};
+        long[] lastId = {maxId};
+        Set<Long> accountIds = new TreeSet<>();
+        Consumer<List<Transaction>> flush = rows -> {
+            for (Transaction transaction : insertMissing(rows)) {
+                inserted[0]++;
+                lastId[0] = Math.max(lastId[0], transaction.getId());
+                accountIds.add(transaction.getAccountId());
+            }
+        };
+        journal.replay(0, (id, accountId, valueInCents, date, description) -> {
+            // rows before the watermark are in the archive
+            if (date.isBefore(archivedBefore)) return;
+
+            batch.add(Transaction.builder().id(id).accountId(accountId).valueInCents(valueInCents).description(description).date(date).build());
+            if (batch.size() == BATCH_SIZE) {
+                flush.accept(batch);
+                batch.clear();
+            }
+        });
+        flush.accept(batch);
+
+        if (inserted[0] > 0) {
+            moveIdSequencePast(lastId[0]);
+            accountIds.forEach(balanceService::reconcile);
+        }
+        log.info("Inserted {} journaled transactions into the transaction table in {} ms", inserted[0],
+                (System.nanoTime() - startedAt) / 1_000_000);
+
+        return inserted[0];
+    }
+
+    /**
+     * Ids are committed out of order, so a missing row can sit below the largest id in the table.
+     */
+    private List<Transaction> insertMissing(List<Transaction> batch) {
+        if (batch.isEmpty()) return List.of();
+
+        return transactionTemplate.execute(status -> {
+            Set<Long> existing = new HashSet<>(jdbcTemplate.queryForList(
+                    "SELECT id FROM transaction WHERE id IN (" + "?, ".repeat(batch.size() - 1) + "?)",
+                    Long.class, batch.stream().map(Transaction::getId).toArray()
+            ));
+            List<Transaction> missing = batch.stream().filter(transaction -> !existing.contains(transaction.getId())).toList();
+            if (!missing.isEmpty()) {
+                insert(missing);
+                summaryService.apply(missing);
+                checkpointService.apply(missing);
+                searchService.apply(missing);
+            }
+
+            return missing;
+        });
+    }
+
+    private void insert(List<Transaction> batch) {
+        jdbcTemplate.batchUpdate(INSERT, batch, batch.size(), (statement, transaction) -> {
+            statement.setLong(1, transaction.getId());
+            statement.setLong(2, transaction.getAccountId());
+            statement.setBigDecimal(3, MoneyUtils.toDecimal(transaction.getValueInCents()));
+            statement.setByte(4, (byte) Long.signum(transaction.getValueInCents()));
+            if (transaction.getDescription() == null) {
+                statement.setNull(5, Types.VARCHAR);
+            } else {
+                statement.setString(5, transaction.getDescription());
+            }
+            statement.setTimestamp(6, Timestamp.valueOf(transaction.getDate()));
+        });
+    }
+
+    /**
+     * Never moves the sequence backwards.
+     */
+    private void moveIdSequencePast(long id) {
+        long next = id + Transaction.ID_ALLOCATION_SIZE + 1;
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        if ("MySQL".equals(database)) {
+            jdbcTemplate.update("UPDATE transaction_seq SET next_val = GREATEST(next_val, ?)", next);
+            return;
+        }
+
+        long current = jdbcTemplate.queryForObject(
+                "SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE LOWER(SEQUENCE_NAME) = 'transaction_seq'", Long.class);
+        if (next > current) {
+            jdbcTemplate.execute("ALTER SEQUENCE transaction_seq RESTART WITH " + next);
+        }
+    }
+}
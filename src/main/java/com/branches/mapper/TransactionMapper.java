@@ -1,22 +1,52 @@
 package com.branches.mapper;
 
+import com.branches.exception.BadRequestException;
 import com.branches.model.Transaction;
 import com.branches.request.TransactionPostRequest;
 import com.branches.response.TransactionGetResponse;
 import com.branches.response.TransactionPostResponse;
+import com.branches.utils.MoneyUtils;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.MappingConstants;
+import org.mapstruct.Named;
 import org.springframework.context.annotation.Primary;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 @Primary
 @Mapper(componentModel = MappingConstants.ComponentModel.SPRING)
 public interface TransactionMapper {
 
+    @Mapping(target = "valueInCents", source = "value", qualifiedByName = "toCents")
     Transaction toTransaction(TransactionPostRequest postRequest);
 
+    @Mapping(target = "value", source = "valueInCents", qualifiedByName = "toDecimal")
     TransactionPostResponse toTransactionPostResponse(Transaction transaction);
 
+    @Mapping(target = "value", source = "valueInCents", qualifiedByName = "toDecimal")
+    TransactionGetResponse toTransactionGetResponse(Transaction transaction);
+
     List<TransactionGetResponse> toTransactionGetResponseList(List<Transaction> transactionList);
+
+    @Named("toCents")
+    default long toCents(BigDecimal value) {
+        if (value == null) throw new BadRequestException("value is required");
+        if (value.stripTrailingZeros().scale() > MoneyUtils.SCALE) {
+            throw new BadRequestException("value must have at most %d decimal places".formatted(MoneyUtils.SCALE));
+        }
+
+        try {
+            return MoneyUtils.toCents(value);
+        } catch (ArithmeticException e) {
+            throw new BadRequestException("value must be between %s and %s"
+                    .formatted(MoneyUtils.toDecimal(Long.MIN_VALUE), MoneyUtils.toDecimal(Long.MAX_VALUE)));
+        }
+    }
+
+    @Named("toDecimal")
+    default BigDecimal toDecimal(long valueInCents) {
+        return MoneyUtils.toDecimal(valueInCents);
+    }
 }
@@ -0,0 +1,71 @@
+package com.branches.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.Modifying;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Rows of a returned {@link Stream} are counted as they are consumed and recorded when it is closed.
+ */
+public class RepositoryRowsInterceptor implements MethodInterceptor {
+    public static final String METRIC = "ledger.repository.rows";
+
+    private final String repository;
+    private final Supplier<MeterRegistry> registry;
+    private final Map<Method, DistributionSummary> summaries = new ConcurrentHashMap<>();
+
+    public RepositoryRowsInterceptor(Class<?> repositoryInterface, Supplier<MeterRegistry> registry) {
+        this.repository = repositoryInterface.getSimpleName();
+        this.registry = registry;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Object result = invocation.proceed();
+        if (invocation.getMethod().getReturnType() == void.class) return result;
+        if (result instanceof Stream<?> stream) return count(stream, summary(invocation.getMethod()));
+
+        summary(invocation.getMethod()).record(rows(invocation.getMethod(), result));
+
+        return result;
+    }
+
+    static long rows(Method method, Object result) {
+        if (result instanceof Number count && method.isAnnotationPresent(Modifying.class)) return count.longValue();
+
+        return switch (result) {
+            case null -> 0;
+            case Collection<?> collection -> collection.size();
+            case Slice<?> slice -> slice.getNumberOfElements();
+            case Optional<?> optional -> optional.isPresent() ? 1 : 0;
+            default -> 1;
+        };
+    }
+
+    private static Stream<?> count(Stream<?> stream, DistributionSummary summary) {
+        LongAdder rows = new LongAdder();
+
+        return stream.peek(row -> rows.increment()).onClose(() -> summary.record(rows.sum()));
+    }
+
+    private DistributionSummary summary(Method method) {
+        return summaries.computeIfAbsent(method, key -> DistributionSummary.builder(METRIC)
+                .description("Rows returned or changed by a repository method")
+                .baseUnit("rows")
+                .tag("repository", repository)
+                .tag("method", key.getName())
+                .register(registry.get()));
+    }
+}
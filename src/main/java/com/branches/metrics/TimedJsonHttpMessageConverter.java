@@ -0,0 +1,40 @@
+package com.branches.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+public class TimedJsonHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+    public static final String METRIC = "ledger.serialization";
+
+    private final Supplier<MeterRegistry> registry;
+    private final Map<Class<?>, Timer> timers = new ConcurrentHashMap<>();
+
+    public TimedJsonHttpMessageConverter(ObjectMapper objectMapper, Supplier<MeterRegistry> registry) {
+        super(objectMapper);
+        this.registry = registry;
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+        long start = System.nanoTime();
+        try {
+            super.writeInternal(object, type, outputMessage);
+        } finally {
+            timers.computeIfAbsent(object.getClass(), bodyType -> Timer.builder(METRIC)
+                            .description("Time to serialize a JSON response body")
+                            .tag("type", bodyType.getSimpleName())
+                            .register(registry.get()))
+                    .record(Duration.ofNanos(System.nanoTime() - start));
+        }
+    }
+}
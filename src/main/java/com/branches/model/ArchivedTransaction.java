@@ -0,0 +1,35 @@
+package com.branches.model;
+
+import com.branches.converter.CentsConverter;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.LocalDateTime;
+
+/**
+ * Same columns as {@code transaction}; compressed on MySQL.
+ */
+@Entity
+@Table(name = "transaction_archive", indexes = @Index(name = "idx_transaction_archive_account_date", columnList = "accountId, date, value"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedTransaction {
+    @Id
+    @Column(nullable = false)
+    private Long id;
+    @Column(nullable = false)
+    @ColumnDefault("" + Transaction.DEFAULT_ACCOUNT_ID)
+    private long accountId;
+    @Convert(converter = CentsConverter.class)
+    @Column(name = "value", nullable = false, precision = 19, scale = 2)
+    private long valueInCents;
+    @Column(nullable = false)
+    private byte sign;
+    @Column(length = 50)
+    private String description;
+    @Column(nullable = false)
+    private LocalDateTime date;
+}
@@ -0,0 +1,27 @@
+package com.branches.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Totals of every transaction of the account dated before {@link BalanceCheckpointId#checkpointDate()}.
+ */
+@Entity
+@Table(name = "balance_checkpoint")
+@Data
+@With
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceCheckpoint {
+    @EmbeddedId
+    private BalanceCheckpointId id;
+    @Column(nullable = false)
+    private long balanceInCents;
+    @Column(nullable = false)
+    private long transactionCount;
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,15 @@
+package com.branches.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+import java.time.LocalDate;
+
+@Embeddable
+public record BalanceCheckpointId(
+        @Column(nullable = false)
+        Long accountId,
+        @Column(nullable = false)
+        LocalDate checkpointDate
+) {
+}
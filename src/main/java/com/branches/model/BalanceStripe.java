@@ -0,0 +1,24 @@
+package com.branches.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "balance_stripe")
+@Data
+@With
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceStripe {
+    @EmbeddedId
+    private BalanceStripeId id;
+    @Column(nullable = false)
+    private long balanceInCents;
+    @Column(nullable = false)
+    private long transactionCount;
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
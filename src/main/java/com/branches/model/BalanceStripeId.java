@@ -0,0 +1,13 @@
+package com.branches.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+@Embeddable
+public record BalanceStripeId(
+        @Column(nullable = false)
+        Long accountId,
+        @Column(nullable = false)
+        Integer stripe
+) {
+}
@@ -0,0 +1,28 @@
+package com.branches.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Data
+@With
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(indexes = @Index(name = "idx_cache_invalidation_message_created_at", columnList = "createdAt"))
+public class CacheInvalidationMessage {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private Long accountId;
+    private LocalDateTime firstDate;
+    private LocalDateTime lastDate;
+    @Column(nullable = false)
+    private boolean incomes;
+    @Column(nullable = false)
+    private boolean expenses;
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
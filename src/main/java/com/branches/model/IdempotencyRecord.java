@@ -0,0 +1,39 @@
+package com.branches.model;
+
+import com.branches.converter.CentsConverter;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.LocalDateTime;
+
+/**
+ * Inserted with the transaction, so a retry with the same key gets the original response back.
+ */
+@Entity
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(indexes = @Index(name = "idx_idempotency_record_created_at", columnList = "createdAt"))
+public class IdempotencyRecord {
+    public static final int MAX_KEY_LENGTH = 255;
+
+    @Id
+    @Column(name = "idempotency_key", nullable = false, length = MAX_KEY_LENGTH)
+    private String key;
+    @Column(nullable = false)
+    @ColumnDefault("" + Transaction.DEFAULT_ACCOUNT_ID)
+    private long accountId;
+    @Column(nullable = false)
+    private Long transactionId;
+    @Convert(converter = CentsConverter.class)
+    @Column(name = "value", nullable = false, precision = 19, scale = 2)
+    private long valueInCents;
+    @Column(length = 50)
+    private String description;
+    @Column(nullable = false)
+    private LocalDateTime date;
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
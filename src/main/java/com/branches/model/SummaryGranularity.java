@@ -0,0 +1,17 @@
+package com.branches.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public enum SummaryGranularity {
+    DAY,
+    MONTH;
+
+    public LocalDate periodStart(LocalDateTime date) {
+        return periodStart(date.toLocalDate());
+    }
+
+    public LocalDate periodStart(LocalDate date) {
+        return this == DAY ? date : date.withDayOfMonth(1);
+    }
+}
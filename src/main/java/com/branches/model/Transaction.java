@@ -1,28 +1,59 @@
 package com.branches.model;
 
+import com.branches.converter.CentsConverter;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
-import org.hibernate.annotations.SourceType;
 
 import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_transaction_account_date_list", columnList = "accountId, date, id, value, description, sign"),
+        @Index(name = "idx_transaction_account_sign_date_list", columnList = "accountId, sign, date, id, value, description")
+})
 @Data
 @With
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class Transaction {
+    public static final int ID_ALLOCATION_SIZE = 50;
+    public static final int DESCRIPTION_MAX_LENGTH = 50;
+    public static final byte INCOME = 1;
+    public static final byte EXPENSE = -1;
+    /**
+     * Account of the routes under {@code /v1/transactions}.
+     */
+    public static final long DEFAULT_ACCOUNT_ID = 1L;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_seq")
+    @SequenceGenerator(name = "transaction_seq", sequenceName = "transaction_seq", allocationSize = ID_ALLOCATION_SIZE)
     @Column(nullable = false)
     private Long id;
+    @Builder.Default
+    @Column(nullable = false, updatable = false)
+    @ColumnDefault("" + DEFAULT_ACCOUNT_ID)
+    private long accountId = DEFAULT_ACCOUNT_ID;
+    @Convert(converter = CentsConverter.class)
+    @Column(name = "value", nullable = false, precision = 19, scale = 2)
+    private long valueInCents;
+    /**
+     * {@link #INCOME}, {@link #EXPENSE} or zero, kept in its own column so it can be indexed.
+     */
     @Column(nullable = false)
-    private Double value;
-    @Column(length = 50)
+    private byte sign;
+    @Column(length = DESCRIPTION_MAX_LENGTH)
     private String description;
-    @Column(nullable = false, insertable = false, updatable = false)
-    @CreationTimestamp(source = SourceType.DB)
+    @Column(nullable = false, updatable = false)
+    @CreationTimestamp
     private LocalDateTime date;
+
+    @PrePersist
+    @PreUpdate
+    void updateSign() {
+        sign = (byte) Long.signum(valueInCents);
+    }
 }
@@ -0,0 +1,27 @@
+package com.branches.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Transactions dated before {@link #archivedBefore} are counted from {@code transaction_archive}.
+ */
+@Entity
+@Data
+@With
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionArchiveState {
+    public static final long LEDGER_ID = 1L;
+
+    @Id
+    @Column(nullable = false)
+    private Long id;
+    @Column(nullable = false)
+    private LocalDateTime archivedBefore;
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
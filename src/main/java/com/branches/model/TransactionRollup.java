@@ -0,0 +1,29 @@
+package com.branches.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Expenses are kept as a negative sum.
+ */
+@Entity
+@Table(name = "transaction_rollup")
+@Data
+@With
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionRollup {
+    @EmbeddedId
+    private TransactionRollupId id;
+    @Column(nullable = false)
+    private long transactionCount;
+    @Column(nullable = false)
+    private long incomesInCents;
+    @Column(nullable = false)
+    private long expensesInCents;
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,20 @@
+package com.branches.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+
+import java.time.LocalDate;
+
+@Embeddable
+public record TransactionRollupId(
+        @Column(nullable = false)
+        Long accountId,
+        @Enumerated(EnumType.STRING)
+        @Column(nullable = false, length = 5)
+        SummaryGranularity granularity,
+        @Column(nullable = false)
+        LocalDate periodStart
+) {
+}
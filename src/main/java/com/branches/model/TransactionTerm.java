@@ -0,0 +1,18 @@
+package com.branches.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Keyed by account, term and {@code (date, id)}, so matches are read newest first from the primary key.
+ */
+@Entity
+@Table(name = "transaction_term")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionTerm {
+    @EmbeddedId
+    private TransactionTermId id;
+}
@@ -0,0 +1,19 @@
+package com.branches.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+import java.time.LocalDateTime;
+
+@Embeddable
+public record TransactionTermId(
+        @Column(nullable = false)
+        Long accountId,
+        @Column(nullable = false, length = Transaction.DESCRIPTION_MAX_LENGTH)
+        String term,
+        @Column(nullable = false)
+        LocalDateTime date,
+        @Column(nullable = false)
+        Long transactionId
+) {
+}
@@ -0,0 +1,37 @@
+package com.branches.repository;
+
+import com.branches.model.ArchivedTransaction;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Repository
+public interface ArchivedTransactionRepository extends JpaRepository<ArchivedTransaction, Long> {
+    @Modifying
+    @Query(
+            value = "INSERT INTO transaction_archive (id, account_id, value, sign, description, date) " +
+                    "SELECT t.id, t.account_id, t.value, t.sign, t.description, t.date FROM transaction t " +
+                    "WHERE t.date >= :from AND t.date < :until",
+            nativeQuery = true
+    )
+    int copyFromLedger(LocalDateTime from, LocalDateTime until);
+
+    @Query(
+            value = "SELECT COALESCE(SUM(a.value), 0) FROM transaction_archive a WHERE a.account_id = :accountId AND a.date < :until",
+            nativeQuery = true
+    )
+    BigDecimal sumAllTransactionsBefore(long accountId, LocalDateTime until);
+
+    @Query(
+            value = "SELECT COALESCE(SUM(a.value), 0) FROM transaction_archive a WHERE a.account_id = :accountId " +
+                    "AND a.date BETWEEN :from AND :until",
+            nativeQuery = true
+    )
+    BigDecimal sumAllTransactionsBetween(long accountId, LocalDateTime from, LocalDateTime until);
+
+    long countByAccountIdAndDateBefore(long accountId, LocalDateTime until);
+}
@@ -0,0 +1,38 @@
+package com.branches.repository;
+
+import com.branches.model.BalanceCheckpoint;
+import com.branches.model.BalanceCheckpointId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BalanceCheckpointRepository extends JpaRepository<BalanceCheckpoint, BalanceCheckpointId> {
+    /**
+     * Runs on every save and usually updates nothing.
+     */
+    @Modifying
+    @Query(
+            "UPDATE BalanceCheckpoint c SET c.balanceInCents = c.balanceInCents + :deltaInCents, " +
+                    "c.transactionCount = c.transactionCount + :count, c.updatedAt = :updatedAt " +
+                    "WHERE c.id.accountId = :accountId AND c.id.checkpointDate > :date"
+    )
+    int addToCheckpointsAfter(long accountId, LocalDate date, long deltaInCents, long count, LocalDateTime updatedAt);
+
+    @Query("SELECT MAX(c.id.checkpointDate) FROM BalanceCheckpoint c WHERE c.id.accountId = :accountId")
+    Optional<LocalDate> findLatestCheckpointDate(long accountId);
+
+    Optional<BalanceCheckpoint> findFirstByIdAccountIdAndIdCheckpointDateLessThanEqualOrderByIdCheckpointDateDesc(long accountId, LocalDate date);
+
+    List<BalanceCheckpoint> findAllByIdAccountIdOrderByIdCheckpointDate(long accountId);
+
+    @Modifying
+    @Query("DELETE FROM BalanceCheckpoint c WHERE c.id.accountId = :accountId")
+    int deleteAllByAccountId(long accountId);
+}
@@ -0,0 +1,40 @@
+package com.branches.repository;
+
+import com.branches.model.BalanceStripe;
+import com.branches.model.BalanceStripeId;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BalanceStripeRepository extends JpaRepository<BalanceStripe, BalanceStripeId> {
+    /**
+     * Upserts in a single statement, so the first saves of an account do not race to insert it.
+     */
+    @Modifying
+    @Query(
+            value = "INSERT INTO balance_stripe (account_id, stripe, balance_in_cents, transaction_count, updated_at) " +
+                    "VALUES (:accountId, :stripe, :deltaInCents, :count, :updatedAt) " +
+                    "ON DUPLICATE KEY UPDATE balance_in_cents = balance_in_cents + :deltaInCents, " +
+                    "transaction_count = transaction_count + :count, updated_at = :updatedAt",
+            nativeQuery = true
+    )
+    int addToStripe(long accountId, int stripe, long deltaInCents, long count, LocalDateTime updatedAt);
+
+    @Query("SELECT SUM(b.balanceInCents) FROM BalanceStripe b WHERE b.id.accountId = :accountId")
+    Optional<Long> findBalanceInCents(long accountId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM BalanceStripe b WHERE b.id.accountId = :accountId ORDER BY b.id.stripe")
+    List<BalanceStripe> findAllByAccountIdForUpdate(long accountId);
+
+    @Query("SELECT DISTINCT b.id.accountId FROM BalanceStripe b")
+    List<Long> findAccountIds();
+}
@@ -0,0 +1,24 @@
+package com.branches.repository;
+
+import com.branches.model.CacheInvalidationMessage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface CacheInvalidationMessageRepository extends JpaRepository<CacheInvalidationMessage, Long> {
+    List<CacheInvalidationMessage> findAllByIdGreaterThanOrderByIdAsc(long id);
+
+    @Query("SELECT COALESCE(MAX(m.id), 0) FROM CacheInvalidationMessage m")
+    long findMaxId();
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM CacheInvalidationMessage m WHERE m.createdAt < :createdAt")
+    int deleteAllCreatedBefore(LocalDateTime createdAt);
+}
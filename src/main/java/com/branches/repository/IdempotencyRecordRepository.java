@@ -0,0 +1,36 @@
+package com.branches.repository;
+
+import com.branches.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+    /**
+     * A plain insert, so a duplicate key fails instead of merging into a concurrent record.
+     */
+    @Modifying
+    @Query(
+            value = "INSERT INTO idempotency_record (idempotency_key, account_id, transaction_id, value, description, date, created_at) " +
+                    "VALUES (:key, :accountId, :transactionId, :value, :description, :date, :createdAt)",
+            nativeQuery = true
+    )
+    void insert(String key, long accountId, Long transactionId, BigDecimal value, String description, LocalDateTime date,
+                LocalDateTime createdAt);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.createdAt < :createdAt")
+    int deleteAllCreatedBefore(LocalDateTime createdAt);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.key = :key AND r.createdAt < :createdAt")
+    int deleteByKeyCreatedBefore(String key, LocalDateTime createdAt);
+}
@@ -0,0 +1,487 @@
+package com.branches.repository;
+
+import com.branches.model.Transaction;
+import com.branches.request.TransactionCursor;
+import com.branches.response.TransactionGetResponse;
+import com.branches.utils.MoneyUtils;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Rows saved in a transaction are appended to the {@link TransactionWriteAheadLog} and published right before it commits.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "ledger.store.type", havingValue = "in-memory")
+public class InMemoryTransactionStore implements TransactionStore {
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final TransactionWriteAheadLog writeAheadLog;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final Map<String, Integer> descriptionCodes = new HashMap<>();
+    private final Map<Long, Ledger> ledgers = new ConcurrentHashMap<>();
+    private final AtomicLong nextId;
+    private String[] dictionary = new String[INITIAL_CAPACITY];
+
+    public InMemoryTransactionStore(
+            @Value("${ledger.store.log-path:data/ledger.wal}") Path logPath,
+            @Value("${ledger.store.fsync:true}") boolean fsync
+    ) {
+        this.writeAheadLog = new TransactionWriteAheadLog(logPath, fsync);
+        replay();
+        this.nextId = new AtomicLong(ledgers.values().stream().mapToLong(InMemoryTransactionStore::maxId).max().orElse(0) + 1);
+        log.info("Loaded {} transactions of {} accounts from {}", ledgers.values().stream().mapToLong(ledger -> ledger.size).sum(),
+                ledgers.size(), logPath);
+    }
+
+    @PreDestroy
+    void close() {
+        writeAheadLog.close();
+    }
+
+    @Override
+    public Transaction save(Transaction transaction) {
+        saveAll(List.of(transaction));
+
+        return transaction;
+    }
+
+    @Override
+    public void saveAll(List<Transaction> transactions) {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        for (Transaction transaction : transactions) {
+            String description = transaction.getDescription();
+            if (description != null && description.length() > Transaction.DESCRIPTION_MAX_LENGTH) {
+                throw new DataIntegrityViolationException("description is longer than %d characters".formatted(Transaction.DESCRIPTION_MAX_LENGTH));
+            }
+        }
+
+        for (Transaction transaction : transactions) {
+            transaction.setId(nextId.getAndIncrement());
+            transaction.setDate(now);
+            transaction.setSign((byte) Long.signum(transaction.getValueInCents()));
+        }
+
+        List<Transaction> pending = pendingRows();
+        if (pending == null) {
+            commit(transactions);
+        } else {
+            pending.addAll(transactions);
+        }
+    }
+
+    @Override
+    public List<TransactionGetResponse> findAllBySign(long accountId, byte sign) {
+        Ledger current = ledger(accountId);
+        List<TransactionGetResponse> transactions = new ArrayList<>();
+        for (int i = current.size - 1; i >= 0; i--) {
+            if (Long.signum(current.cents[current.order[i]]) == sign) transactions.add(current.response(i));
+        }
+
+        return transactions;
+    }
+
+    @Override
+    public List<TransactionGetResponse> findFirstPageByDateFilter(long accountId, LocalDateTime startDate, LocalDateTime endDate,
+                                                                  Limit limit) {
+        Ledger current = ledger(accountId);
+
+        return current.page(current.lowerIndex(startDate), current.upperIndex(endDate), limit);
+    }
+
+    @Override
+    public List<TransactionGetResponse> findPageByDateFilterAfter(long accountId, LocalDateTime startDate, LocalDateTime endDate,
+                                                                  LocalDateTime cursorDate, Long cursorId, Limit limit) {
+        Ledger current = ledger(accountId);
+        int end = Math.min(current.upperIndex(endDate), current.search(toMillis(cursorDate), cursorId));
+
+        return current.page(current.lowerIndex(startDate), end, limit);
+    }
+
+    /**
+     * Ids are unique across accounts, so every account is looked up.
+     */
+    @Override
+    public List<TransactionGetResponse> findAllByPosition(List<TransactionCursor> positions) {
+        List<Ledger> current = List.copyOf(ledgers.values());
+        List<TransactionGetResponse> transactions = new ArrayList<>(positions.size());
+        for (TransactionCursor position : positions) {
+            for (Ledger ledger : current) {
+                int index = ledger.search(toMillis(position.date()), position.id());
+                if (index < ledger.size && ledger.ids[ledger.order[index]] == position.id()) {
+                    transactions.add(ledger.response(index));
+                    break;
+                }
+            }
+        }
+
+        return transactions;
+    }
+
+    @Override
+    public Stream<Transaction> streamAllByDateFilter(long accountId, LocalDateTime startDate, LocalDateTime endDate) {
+        Ledger current = ledger(accountId);
+        int start = current.lowerIndex(startDate);
+
+        return IntStream.iterate(current.upperIndex(endDate) - 1, i -> i >= start, i -> i - 1)
+                .mapToObj(index -> current.transaction(accountId, index));
+    }
+
+    /**
+     * Includes the rows saved by the current transaction, as a database would.
+     */
+    @Override
+    public BigDecimal sumAllTransactionsFrom(long accountId, LocalDateTime from) {
+        Ledger current = ledger(accountId);
+        long sumInCents = current.prefix[current.size] - current.prefix[current.lowerIndex(from)];
+        for (Transaction transaction : pendingRowsFrom(accountId, from)) {
+            sumInCents += transaction.getValueInCents();
+        }
+
+        return MoneyUtils.toDecimal(sumInCents);
+    }
+
+    @Override
+    public BigDecimal sumAllTransactionsBetween(long accountId, LocalDateTime from, LocalDateTime until) {
+        Ledger current = ledger(accountId);
+        int start = current.lowerIndex(from);
+        long sumInCents = current.prefix[Math.max(current.upperIndex(until), start)] - current.prefix[start];
+        for (Transaction transaction : pendingRowsFrom(accountId, from)) {
+            if (!transaction.getDate().isAfter(until)) sumInCents += transaction.getValueInCents();
+        }
+
+        return MoneyUtils.toDecimal(sumInCents);
+    }
+
+    @Override
+    public long countByDateGreaterThanEqual(long accountId, LocalDateTime from) {
+        Ledger current = ledger(accountId);
+
+        return current.size - current.lowerIndex(from) + pendingRowsFrom(accountId, from).size();
+    }
+
+    @Override
+    public List<Long> findAccountIds() {
+        return ledgers.keySet().stream().sorted().toList();
+    }
+
+    private Ledger ledger(long accountId) {
+        return ledgers.getOrDefault(accountId, Ledger.EMPTY);
+    }
+
+    /**
+     * Null outside a transaction.
+     */
+    @SuppressWarnings("unchecked")
+    private List<Transaction> pendingRows() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return null;
+
+        List<Transaction> pending = (List<Transaction>) TransactionSynchronizationManager.getResource(this);
+        if (pending != null) return pending;
+
+        List<Transaction> rows = new ArrayList<>();
+        TransactionSynchronizationManager.bindResource(this, rows);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                if (!rows.isEmpty()) commit(rows);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(InMemoryTransactionStore.this);
+            }
+        });
+
+        return rows;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Transaction> pendingRowsFrom(long accountId, LocalDateTime from) {
+        List<Transaction> pending = TransactionSynchronizationManager.isSynchronizationActive()
+                ? (List<Transaction>) TransactionSynchronizationManager.getResource(this)
+                : null;
+        if (pending == null) return List.of();
+
+        return pending.stream()
+                .filter(transaction -> transaction.getAccountId() == accountId && !transaction.getDate().isBefore(from))
+                .toList();
+    }
+
+    private void commit(List<Transaction> transactions) {
+        List<Transaction> rows = new ArrayList<>(transactions);
+        rows.sort(Comparator.comparing(Transaction::getDate).thenComparing(Transaction::getId));
+
+        Map<Long, List<Transaction>> rowsByAccount = rows.stream()
+                .collect(Collectors.groupingBy(Transaction::getAccountId, TreeMap::new, Collectors.toList()));
+
+        writeLock.lock();
+        try {
+            writeAheadLog.append(rows);
+            rowsByAccount.forEach((accountId, accountRows) -> ledgers.put(accountId, append(ledger(accountId), accountRows)));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Slots past the size of {@code current} are written in place, since its readers never look at them.
+     */
+    private Ledger append(Ledger current, List<Transaction> rows) {
+        int size = current.size;
+        int newSize = size + rows.size();
+        long[] ids = ensureCapacity(current.ids, newSize);
+        long[] cents = ensureCapacity(current.cents, newSize);
+        long[] dates = ensureCapacity(current.dates, newSize);
+        int[] descriptions = ensureCapacity(current.descriptions, newSize);
+        for (int i = 0; i < rows.size(); i++) {
+            Transaction transaction = rows.get(i);
+            ids[size + i] = transaction.getId();
+            cents[size + i] = transaction.getValueInCents();
+            dates[size + i] = toMillis(transaction.getDate());
+            descriptions[size + i] = encode(transaction.getDescription());
+        }
+
+        Ledger appended = new Ledger(ids, cents, dates, descriptions, dictionary, newSize, current.order, current.prefix);
+        boolean inOrder = size == 0 || appended.compare(current.order[size - 1], size) <= 0;
+        if (inOrder) {
+            int[] order = ensureCapacity(current.order, newSize);
+            long[] prefix = ensureCapacity(current.prefix, newSize + 1);
+            for (int position = size; position < newSize; position++) {
+                order[position] = position;
+                prefix[position + 1] = prefix[position] + cents[position];
+            }
+
+            return new Ledger(ids, cents, dates, descriptions, dictionary, newSize, order, prefix);
+        }
+
+        return appended.withOrder(merge(appended, current.order, size, newSize));
+    }
+
+    private void replay() {
+        Map<Long, ReplayedRows> rowsByAccount = new HashMap<>();
+        writeAheadLog.replay((id, accountId, valueInCents, dateMillis, description) -> rowsByAccount
+                .computeIfAbsent(accountId, key -> new ReplayedRows())
+                .add(id, valueInCents, dateMillis, encode(description)));
+
+        rowsByAccount.forEach((accountId, rows) -> {
+            Ledger replayed = new Ledger(rows.ids, rows.cents, rows.dates, rows.descriptions, dictionary, rows.size, new int[0], new long[1]);
+            ledgers.put(accountId, replayed.withOrder(IntStream.range(0, rows.size).boxed()
+                    .sorted(replayed::compare)
+                    .mapToInt(Integer::intValue)
+                    .toArray()));
+        });
+    }
+
+    private int encode(String description) {
+        if (description == null) return -1;
+
+        Integer code = descriptionCodes.get(description);
+        if (code != null) return code;
+
+        int newCode = descriptionCodes.size();
+        dictionary = ensureCapacity(dictionary, newCode + 1);
+        dictionary[newCode] = description;
+        descriptionCodes.put(description, newCode);
+
+        return newCode;
+    }
+
+    private static int[] merge(Ledger ledger, int[] order, int size, int newSize) {
+        int[] merged = new int[Math.max(INITIAL_CAPACITY, newSize * 2)];
+        int existing = 0;
+        int added = size;
+        for (int i = 0; i < newSize; i++) {
+            boolean takeExisting = added == newSize || existing < size && ledger.compare(order[existing], added) <= 0;
+            merged[i] = takeExisting ? order[existing++] : added++;
+        }
+
+        return merged;
+    }
+
+    private static long maxId(Ledger ledger) {
+        long max = 0;
+        for (int position = 0; position < ledger.size; position++) {
+            max = Math.max(max, ledger.ids[position]);
+        }
+
+        return max;
+    }
+
+    static long toMillis(LocalDateTime date) {
+        return date.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    static LocalDateTime toDate(long millis) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000), (int) Math.floorMod(millis, 1000) * 1_000_000, ZoneOffset.UTC);
+    }
+
+    private static long[] ensureCapacity(long[] array, int size) {
+        return array.length >= size ? array : Arrays.copyOf(array, Math.max(size, array.length * 2));
+    }
+
+    private static int[] ensureCapacity(int[] array, int size) {
+        return array.length >= size ? array : Arrays.copyOf(array, Math.max(size, array.length * 2));
+    }
+
+    private static String[] ensureCapacity(String[] array, int size) {
+        return array.length >= size ? array : Arrays.copyOf(array, Math.max(size, array.length * 2));
+    }
+
+    private static final class ReplayedRows {
+        long[] ids = new long[INITIAL_CAPACITY];
+        long[] cents = new long[INITIAL_CAPACITY];
+        long[] dates = new long[INITIAL_CAPACITY];
+        int[] descriptions = new int[INITIAL_CAPACITY];
+        int size;
+
+        void add(long id, long valueInCents, long dateMillis, int description) {
+            ids = ensureCapacity(ids, size + 1);
+            cents = ensureCapacity(cents, size + 1);
+            dates = ensureCapacity(dates, size + 1);
+            descriptions = ensureCapacity(descriptions, size + 1);
+            ids[size] = id;
+            cents[size] = valueInCents;
+            dates[size] = dateMillis;
+            descriptions[size] = description;
+            size++;
+        }
+    }
+
+    /**
+     * The first {@code size} slots never change once published.
+     */
+    private static final class Ledger {
+        static final Ledger EMPTY = new Ledger(new long[0], new long[0], new long[0], new int[0], new String[0], 0, new int[0], new long[1]);
+
+        final long[] ids;
+        final long[] cents;
+        final long[] dates;
+        final int[] descriptions;
+        final String[] dictionary;
+        final int size;
+        /** Row positions by date and id, oldest first. */
+        final int[] order;
+        /** {@code prefix[i]} is the sum of the first {@code i} rows of {@code order}. */
+        final long[] prefix;
+
+        Ledger(long[] ids, long[] cents, long[] dates, int[] descriptions, String[] dictionary, int size,
+               int[] order, long[] prefix) {
+            this.ids = ids;
+            this.cents = cents;
+            this.dates = dates;
+            this.descriptions = descriptions;
+            this.dictionary = dictionary;
+            this.size = size;
+            this.order = order;
+            this.prefix = prefix;
+        }
+
+        Ledger withOrder(int[] order) {
+            long[] prefix = new long[order.length + 1];
+            for (int i = 0; i < size; i++) {
+                prefix[i + 1] = prefix[i] + cents[order[i]];
+            }
+
+            return new Ledger(ids, cents, dates, descriptions, dictionary, size, order, prefix);
+        }
+
+        int compare(int position, int other) {
+            int byDate = Long.compare(dates[position], dates[other]);
+
+            return byDate != 0 ? byDate : Long.compare(ids[position], ids[other]);
+        }
+
+        int search(long dateMillis, long id) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                int position = order[middle];
+                boolean before = dates[position] < dateMillis || dates[position] == dateMillis && ids[position] < id;
+                if (before) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+
+            return low;
+        }
+
+        /**
+         * Dates are whole milliseconds, so a start inside a millisecond begins at the next one.
+         */
+        int lowerIndex(LocalDateTime startDate) {
+            if (startDate == null) return 0;
+
+            long millis = toMillis(startDate);
+            return search(startDate.getNano() % 1_000_000 == 0 ? millis : millis + 1, Long.MIN_VALUE);
+        }
+
+        int upperIndex(LocalDateTime endDate) {
+            return endDate == null ? size : search(toMillis(endDate) + 1, Long.MIN_VALUE);
+        }
+
+        List<TransactionGetResponse> page(int start, int end, Limit limit) {
+            int max = limit.isLimited() ? limit.max() : Integer.MAX_VALUE;
+            List<TransactionGetResponse> page = new ArrayList<>(Math.min(max, Math.max(end - start, 0)));
+            for (int i = end - 1; i >= start && page.size() < max; i--) {
+                page.add(response(i));
+            }
+
+            return page;
+        }
+
+        TransactionGetResponse response(int index) {
+            int position = order[index];
+
+            return new TransactionGetResponse(ids[position], cents[position], description(position), toDate(dates[position]));
+        }
+
+        Transaction transaction(long accountId, int index) {
+            int position = order[index];
+
+            return Transaction.builder()
+                    .id(ids[position])
+                    .accountId(accountId)
+                    .valueInCents(cents[position])
+                    .sign((byte) Long.signum(cents[position]))
+                    .description(description(position))
+                    .date(toDate(dates[position]))
+                    .build();
+        }
+
+        private String description(int position) {
+            int code = descriptions[position];
+
+            return code < 0 ? null : dictionary[code];
+        }
+    }
+}
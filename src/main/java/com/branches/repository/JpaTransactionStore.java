@@ -0,0 +1,94 @@
+package com.branches.repository;
+
+import com.branches.model.Transaction;
+import com.branches.request.TransactionCursor;
+import com.branches.response.TransactionGetResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "ledger.store.type", havingValue = "jpa", matchIfMissing = true)
+public class JpaTransactionStore implements TransactionStore {
+    private final TransactionRepository repository;
+
+    @Override
+    public Transaction save(Transaction transaction) {
+        return repository.saveAndFlush(transaction);
+    }
+
+    @Override
+    public void saveAll(List<Transaction> transactions) {
+        repository.saveAll(transactions);
+        repository.flush();
+    }
+
+    @Override
+    public List<TransactionGetResponse> findAllBySign(long accountId, byte sign) {
+        return repository.findAllBySign(accountId, sign);
+    }
+
+    @Override
+    public List<TransactionGetResponse> findFirstPageByDateFilter(long accountId, LocalDateTime startDate, LocalDateTime endDate,
+                                                                  Limit limit) {
+        return repository.findFirstPageByDateFilter(accountId, startDate, endDate, limit);
+    }
+
+    @Override
+    public List<TransactionGetResponse> findPageByDateFilterAfter(long accountId, LocalDateTime startDate, LocalDateTime endDate,
+                                                                  LocalDateTime cursorDate, Long cursorId, Limit limit) {
+        return repository.findPageByDateFilterAfter(accountId, startDate, endDate, cursorDate, cursorId, limit);
+    }
+
+    /**
+     * Bounded by the oldest and newest positions so a partitioned table only reads the partitions holding them.
+     */
+    @Override
+    public List<TransactionGetResponse> findAllByPosition(List<TransactionCursor> positions) {
+        List<Long> ids = positions.stream().map(TransactionCursor::id).toList();
+        LocalDateTime oldest = positions.stream().map(TransactionCursor::date).min(Comparator.naturalOrder()).orElseThrow();
+        LocalDateTime newest = positions.stream().map(TransactionCursor::date).max(Comparator.naturalOrder()).orElseThrow();
+
+        Map<Long, TransactionGetResponse> byId = repository.findAllByIdInAndDateRange(ids, oldest, newest).stream()
+                .collect(Collectors.toMap(TransactionGetResponse::getId, Function.identity()));
+
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
+
+    @Override
+    public Stream<Transaction> streamAllByDateFilter(long accountId, LocalDateTime startDate, LocalDateTime endDate) {
+        return repository.streamAllByDateFilter(accountId, startDate, endDate);
+    }
+
+    @Override
+    public BigDecimal sumAllTransactionsFrom(long accountId, LocalDateTime from) {
+        return repository.sumAllTransactionsFrom(accountId, from);
+    }
+
+    @Override
+    public BigDecimal sumAllTransactionsBetween(long accountId, LocalDateTime from, LocalDateTime until) {
+        return repository.sumAllTransactionsBetween(accountId, from, until);
+    }
+
+    @Override
+    public long countByDateGreaterThanEqual(long accountId, LocalDateTime from) {
+        return repository.countByAccountIdAndDateGreaterThanEqual(accountId, from);
+    }
+
+    @Override
+    public List<Long> findAccountIds() {
+        return repository.findAccountIds();
+    }
+}
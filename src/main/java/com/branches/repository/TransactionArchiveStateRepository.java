@@ -0,0 +1,21 @@
+package com.branches.repository;
+
+import com.branches.model.TransactionArchiveState;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface TransactionArchiveStateRepository extends JpaRepository<TransactionArchiveState, Long> {
+    @Query("SELECT s.archivedBefore FROM TransactionArchiveState s WHERE s.id = :id")
+    Optional<LocalDateTime> findArchivedBefore(long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM TransactionArchiveState s WHERE s.id = :id")
+    Optional<TransactionArchiveState> findByIdForUpdate(long id);
+}
@@ -1,26 +1,113 @@
 package com.branches.repository;
 
 import com.branches.model.Transaction;
-import org.springframework.data.domain.Sort;
+import com.branches.response.TransactionGetResponse;
+import com.branches.utils.DateUtils;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
-    @Query("SELECT SUM(t.value) FROM Transaction t")
-    Double sumAllTransactions();
+    String STREAM_FETCH_SIZE = "1000";
+    String RESPONSE_PROJECTION = "SELECT new com.branches.response.TransactionGetResponse(t.id, t.valueInCents, t.description, t.date) ";
 
-    List<Transaction> findAllByValueGreaterThan(Double valueIsGreaterThan);
+    /**
+     * The date predicate lets a partitioned table skip the partitions before it.
+     */
+    @Query(
+            value = "SELECT COALESCE(SUM(t.value), 0) FROM transaction t WHERE t.account_id = :accountId AND t.date >= :from",
+            nativeQuery = true
+    )
+    BigDecimal sumAllTransactionsFrom(long accountId, LocalDateTime from);
+
+    @Query(
+            value = "SELECT COALESCE(SUM(t.value), 0) FROM transaction t WHERE t.account_id = :accountId AND t.date BETWEEN :from AND :until",
+            nativeQuery = true
+    )
+    BigDecimal sumAllTransactionsBetween(long accountId, LocalDateTime from, LocalDateTime until);
+
+    long countByAccountIdAndDateGreaterThanEqual(long accountId, LocalDateTime from);
+
+    @Query("SELECT DISTINCT t.accountId FROM Transaction t")
+    List<Long> findAccountIds();
+
+    @Query("SELECT MIN(t.date) FROM Transaction t")
+    Optional<LocalDateTime> findOldestDate();
+
+    @Modifying
+    @Query("DELETE FROM Transaction t WHERE t.date < :until")
+    int deleteAllByDateBefore(LocalDateTime until);
+
+    @Transactional(readOnly = true)
+    @Query(
+            RESPONSE_PROJECTION + "FROM Transaction t WHERE t.accountId = :accountId AND t.sign = :sign " +
+                    "ORDER BY t.date DESC, t.id DESC"
+    )
+    List<TransactionGetResponse> findAllBySign(long accountId, byte sign);
+
+    default List<TransactionGetResponse> findFirstPageByDateFilter(long accountId, LocalDateTime startDate, LocalDateTime endDate,
+                                                                   Limit limit) {
+        return findFirstPageByDateRange(accountId, DateUtils.lowerBound(startDate), DateUtils.upperBound(endDate), limit);
+    }
+
+    /**
+     * The cursor date also caps the range, so the scan starts at the cursor.
+     */
+    default List<TransactionGetResponse> findPageByDateFilterAfter(long accountId, LocalDateTime startDate, LocalDateTime endDate,
+                                                                    LocalDateTime cursorDate, Long cursorId, Limit limit) {
+        LocalDateTime endBound = endDate == null || cursorDate.isBefore(endDate) ? cursorDate : endDate;
+
+        return findPageByDateRangeAfter(accountId, DateUtils.lowerBound(startDate), endBound, cursorDate, cursorId, limit);
+    }
+
+    /**
+     * Must be consumed inside a transaction and closed afterwards.
+     */
+    default Stream<Transaction> streamAllByDateFilter(long accountId, LocalDateTime startDate, LocalDateTime endDate) {
+        return streamAllByDateRange(accountId, DateUtils.lowerBound(startDate), DateUtils.upperBound(endDate));
+    }
+
+    @Transactional(readOnly = true)
+    @Query(
+            RESPONSE_PROJECTION + "FROM Transaction t WHERE t.accountId = :accountId AND t.date BETWEEN :startDate AND :endDate " +
+                    "ORDER BY t.date DESC, t.id DESC"
+    )
+    List<TransactionGetResponse> findFirstPageByDateRange(long accountId, LocalDateTime startDate, LocalDateTime endDate, Limit limit);
+
+    @Transactional(readOnly = true)
+    @Query(
+            RESPONSE_PROJECTION + "FROM Transaction t WHERE t.accountId = :accountId AND t.date BETWEEN :startDate AND :endDate " +
+                    "AND (t.date < :cursorDate OR t.id < :cursorId) " +
+                    "ORDER BY t.date DESC, t.id DESC"
+    )
+    List<TransactionGetResponse> findPageByDateRangeAfter(long accountId, LocalDateTime startDate, LocalDateTime endDate,
+                                                          LocalDateTime cursorDate, Long cursorId, Limit limit);
 
-    List<Transaction> findAllByValueIsLessThan(Double valueIsLessThan);
+    @Transactional(readOnly = true)
+    @Query(RESPONSE_PROJECTION + "FROM Transaction t WHERE t.id IN :ids AND t.date BETWEEN :startDate AND :endDate")
+    List<TransactionGetResponse> findAllByIdInAndDateRange(Collection<Long> ids, LocalDateTime startDate, LocalDateTime endDate);
 
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
     @Query(
-            "SELECT t FROM Transaction t WHERE (:startDate IS NULL OR t.date >= :startDate)" +
-                    "AND (:endDate IS NULL OR t.date <= :endDate)"
+            "SELECT t FROM Transaction t WHERE t.accountId = :accountId AND t.date BETWEEN :startDate AND :endDate " +
+                    "ORDER BY t.date DESC, t.id DESC"
     )
-    List<Transaction> findAllByDateFilter(LocalDateTime startDate, LocalDateTime endDate, Sort sort);
+    Stream<Transaction> streamAllByDateRange(long accountId, LocalDateTime startDate, LocalDateTime endDate);
 }
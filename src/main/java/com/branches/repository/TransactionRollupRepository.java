@@ -0,0 +1,49 @@
+package com.branches.repository;
+
+import com.branches.model.SummaryGranularity;
+import com.branches.model.TransactionRollup;
+import com.branches.model.TransactionRollupId;
+import com.branches.utils.DateUtils;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TransactionRollupRepository extends JpaRepository<TransactionRollup, TransactionRollupId> {
+    /**
+     * Upserts in a single statement, so concurrent saves in a new period do not race to insert it.
+     */
+    @Modifying
+    @Query(
+            value = "INSERT INTO transaction_rollup " +
+                    "(account_id, granularity, period_start, transaction_count, incomes_in_cents, expenses_in_cents, updated_at) " +
+                    "VALUES (:accountId, :granularity, :periodStart, :count, :incomesInCents, :expensesInCents, :updatedAt) " +
+                    "ON DUPLICATE KEY UPDATE transaction_count = transaction_count + :count, " +
+                    "incomes_in_cents = incomes_in_cents + :incomesInCents, " +
+                    "expenses_in_cents = expenses_in_cents + :expensesInCents, updated_at = :updatedAt",
+            nativeQuery = true
+    )
+    int addToPeriod(long accountId, String granularity, LocalDate periodStart, long count, long incomesInCents,
+                    long expensesInCents, LocalDateTime updatedAt);
+
+    /**
+     * A null bound leaves that end open.
+     */
+    default List<TransactionRollup> findAllByPeriod(long accountId, SummaryGranularity granularity, LocalDate startDate, LocalDate endDate) {
+        return findAllByPeriodRange(accountId, granularity,
+                startDate == null ? DateUtils.MIN_DATE.toLocalDate() : startDate,
+                endDate == null ? DateUtils.MAX_DATE.toLocalDate() : endDate);
+    }
+
+    @Query(
+            "SELECT r FROM TransactionRollup r WHERE r.id.accountId = :accountId AND r.id.granularity = :granularity " +
+                    "AND r.id.periodStart BETWEEN :startDate AND :endDate " +
+                    "ORDER BY r.id.periodStart"
+    )
+    List<TransactionRollup> findAllByPeriodRange(long accountId, SummaryGranularity granularity, LocalDate startDate, LocalDate endDate);
+}
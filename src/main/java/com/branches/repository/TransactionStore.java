@@ -0,0 +1,45 @@
+package com.branches.repository;
+
+import com.branches.model.Transaction;
+import com.branches.request.TransactionCursor;
+import com.branches.response.TransactionGetResponse;
+import org.springframework.data.domain.Limit;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Writes must run inside a transaction and become visible when it commits.
+ */
+public interface TransactionStore {
+    Transaction save(Transaction transaction);
+
+    void saveAll(List<Transaction> transactions);
+
+    List<TransactionGetResponse> findAllBySign(long accountId, byte sign);
+
+    List<TransactionGetResponse> findFirstPageByDateFilter(long accountId, LocalDateTime startDate, LocalDateTime endDate, Limit limit);
+
+    List<TransactionGetResponse> findPageByDateFilterAfter(long accountId, LocalDateTime startDate, LocalDateTime endDate,
+                                                           LocalDateTime cursorDate, Long cursorId, Limit limit);
+
+    /**
+     * In the same order, leaving out the ones no longer stored.
+     */
+    List<TransactionGetResponse> findAllByPosition(List<TransactionCursor> positions);
+
+    /**
+     * Must be consumed inside a transaction and closed afterwards.
+     */
+    Stream<Transaction> streamAllByDateFilter(long accountId, LocalDateTime startDate, LocalDateTime endDate);
+
+    BigDecimal sumAllTransactionsFrom(long accountId, LocalDateTime from);
+
+    BigDecimal sumAllTransactionsBetween(long accountId, LocalDateTime from, LocalDateTime until);
+
+    long countByDateGreaterThanEqual(long accountId, LocalDateTime from);
+
+    List<Long> findAccountIds();
+}
@@ -0,0 +1,17 @@
+package com.branches.repository;
+
+import com.branches.model.TransactionTerm;
+import com.branches.model.TransactionTermId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface TransactionTermRepository extends JpaRepository<TransactionTerm, TransactionTermId> {
+    @Modifying
+    @Query("DELETE FROM TransactionTerm t WHERE t.id.date < :until")
+    int deleteAllByDateBefore(LocalDateTime until);
+}
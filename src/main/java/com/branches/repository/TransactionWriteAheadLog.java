@@ -0,0 +1,178 @@
+package com.branches.repository;
+
+import com.branches.model.Transaction;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Each commit is one record ending in a CRC32, so a commit cut short by a crash is dropped on replay.
+ */
+@Slf4j
+class TransactionWriteAheadLog implements AutoCloseable {
+    private static final int HEADER_SIZE = Integer.BYTES;
+    private static final int TRAILER_SIZE = Integer.BYTES;
+    private static final int ROW_SIZE = 4 * Long.BYTES + Short.BYTES;
+
+    private final FileChannel channel;
+    private final boolean fsync;
+
+    @FunctionalInterface
+    interface RowConsumer {
+        void accept(long id, long accountId, long valueInCents, long dateMillis, String description);
+    }
+
+    TransactionWriteAheadLog(Path path, boolean fsync) {
+        this.fsync = fsync;
+        try {
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) Files.createDirectories(parent);
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open the transaction log " + path, e);
+        }
+    }
+
+    /**
+     * Truncates whatever follows the last complete commit.
+     */
+    long replay(RowConsumer consumer) {
+        long rows = 0;
+        long validSize = 0;
+        try {
+            channel.position(0);
+            DataInputStream input = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), 1 << 16));
+            while (true) {
+                byte[] payload = readCommit(input, channel.size() - validSize);
+                if (payload == null) break;
+
+                rows += readRows(ByteBuffer.wrap(payload), consumer);
+                validSize += HEADER_SIZE + payload.length + TRAILER_SIZE;
+            }
+
+            if (channel.size() > validSize) {
+                log.warn("Dropping {} bytes of an incomplete commit at the end of the transaction log", channel.size() - validSize);
+                channel.truncate(validSize);
+            }
+            channel.position(validSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not replay the transaction log", e);
+        }
+
+        return rows;
+    }
+
+    void append(List<Transaction> transactions) {
+        byte[][] descriptions = new byte[transactions.size()][];
+        int payloadSize = 0;
+        for (int i = 0; i < transactions.size(); i++) {
+            String description = transactions.get(i).getDescription();
+            descriptions[i] = description == null ? null : description.getBytes(StandardCharsets.UTF_8);
+            payloadSize += ROW_SIZE + (descriptions[i] == null ? 0 : descriptions[i].length);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + payloadSize + TRAILER_SIZE);
+        buffer.putInt(payloadSize);
+        for (int i = 0; i < transactions.size(); i++) {
+            Transaction transaction = transactions.get(i);
+            buffer.putLong(transaction.getId());
+            buffer.putLong(transaction.getAccountId());
+            buffer.putLong(transaction.getValueInCents());
+            buffer.putLong(transaction.getDate().toInstant(ZoneOffset.UTC).toEpochMilli());
+            buffer.putShort((short) (descriptions[i] == null ? -1 : descriptions[i].length));
+            if (descriptions[i] != null) buffer.put(descriptions[i]);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), HEADER_SIZE, payloadSize);
+        buffer.putInt((int) crc.getValue());
+        buffer.flip();
+
+        long start = -1;
+        try {
+            start = channel.position();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (fsync) channel.force(false);
+        } catch (IOException e) {
+            discardFrom(start);
+            throw new UncheckedIOException("Could not write to the transaction log", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Could not close the transaction log", e);
+        }
+    }
+
+    private void discardFrom(long start) {
+        if (start < 0) return;
+
+        try {
+            channel.truncate(start);
+            channel.position(start);
+        } catch (IOException e) {
+            log.error("Could not discard a partly written commit from the transaction log", e);
+        }
+    }
+
+    /**
+     * Null at the end of the log or when the commit is incomplete or corrupt.
+     */
+    private static byte[] readCommit(DataInputStream input, long remaining) throws IOException {
+        try {
+            int payloadSize = input.readInt();
+            if (payloadSize < 0 || payloadSize > remaining - HEADER_SIZE - TRAILER_SIZE) return null;
+
+            byte[] payload = new byte[payloadSize];
+            input.readFully(payload);
+            int expectedCrc = input.readInt();
+
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            return (int) crc.getValue() == expectedCrc ? payload : null;
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    private static long readRows(ByteBuffer payload, RowConsumer consumer) {
+        long rows = 0;
+        while (payload.hasRemaining()) {
+            long id = payload.getLong();
+            long accountId = payload.getLong();
+            long valueInCents = payload.getLong();
+            long dateMillis = payload.getLong();
+            short length = payload.getShort();
+
+            String description = null;
+            if (length >= 0) {
+                description = new String(payload.array(), payload.position(), length, StandardCharsets.UTF_8);
+                payload.position(payload.position() + length);
+            }
+
+            consumer.accept(id, accountId, valueInCents, dateMillis, description);
+            rows++;
+        }
+
+        return rows;
+    }
+}
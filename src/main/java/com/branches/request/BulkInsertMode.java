@@ -0,0 +1,6 @@
+package com.branches.request;
+
+public enum BulkInsertMode {
+    ATOMIC,
+    PER_ITEM
+}
@@ -3,9 +3,11 @@ package com.branches.request;
 import lombok.Builder;
 import lombok.Data;
 
+import java.math.BigDecimal;
+
 @Data
 @Builder
 public class TransactionPostRequest {
-    private Double value;
+    private BigDecimal value;
     private String description;
 }
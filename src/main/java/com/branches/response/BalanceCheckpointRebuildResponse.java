@@ -0,0 +1,15 @@
+package com.branches.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+public class BalanceCheckpointRebuildResponse {
+    private long accountId;
+    private int checkpointCount;
+    private LocalDate firstCheckpointDate;
+    private LocalDate lastCheckpointDate;
+}
@@ -0,0 +1,17 @@
+package com.branches.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+public class BalanceReconciliationResponse {
+    private long accountId;
+    private BigDecimal snapshotBalance;
+    private BigDecimal ledgerBalance;
+    private Long snapshotTransactionCount;
+    private Long ledgerTransactionCount;
+    private boolean consistent;
+}
@@ -0,0 +1,13 @@
+package com.branches.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class TransactionArchiveResponse {
+    private LocalDateTime archivedBefore;
+    private long archivedTransactions;
+}
@@ -0,0 +1,15 @@
+package com.branches.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class TransactionBulkItemResponse {
+    private int index;
+    private Long id;
+    private LocalDateTime date;
+    private String error;
+}
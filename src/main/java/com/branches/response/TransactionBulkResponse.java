@@ -0,0 +1,16 @@
+package com.branches.response;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.With;
+
+import java.util.List;
+
+@Data
+@With
+@Builder
+public class TransactionBulkResponse {
+    private int created;
+    private int failed;
+    private List<TransactionBulkItemResponse> items;
+}
@@ -1,15 +1,26 @@
 package com.branches.response;
 
+import com.branches.utils.MoneyUtils;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Data
 @Builder
+@AllArgsConstructor
 public class TransactionGetResponse {
     private Long id;
-    private Double value;
+    private BigDecimal value;
     private String description;
     private LocalDateTime date;
+
+    /**
+     * Target of the JPQL constructor expressions in {@code TransactionRepository}.
+     */
+    public TransactionGetResponse(Long id, long valueInCents, String description, LocalDateTime date) {
+        this(id, MoneyUtils.toDecimal(valueInCents), description, date);
+    }
 }
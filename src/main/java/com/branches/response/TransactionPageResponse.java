@@ -0,0 +1,29 @@
+package com.branches.response;
+
+import com.branches.request.TransactionCursor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class TransactionPageResponse {
+    private List<TransactionGetResponse> content;
+    private String next;
+
+    /**
+     * Rows are read one past the page size, so the cursor is only handed out when there is a next page.
+     */
+    public static TransactionPageResponse of(List<TransactionGetResponse> rows, int pageSize) {
+        if (rows.size() <= pageSize) return TransactionPageResponse.builder().content(rows).build();
+
+        List<TransactionGetResponse> content = rows.subList(0, pageSize);
+        TransactionGetResponse last = content.getLast();
+
+        return TransactionPageResponse.builder()
+                .content(content)
+                .next(new TransactionCursor(last.getDate(), last.getId()).encode())
+                .build();
+    }
+}
@@ -0,0 +1,17 @@
+package com.branches.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@Builder
+public class TransactionPeriodSummaryResponse {
+    private LocalDate periodStart;
+    private long transactionCount;
+    private BigDecimal incomes;
+    private BigDecimal expenses;
+    private BigDecimal net;
+}
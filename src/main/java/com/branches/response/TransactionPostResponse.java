@@ -3,13 +3,14 @@ package com.branches.response;
 import lombok.Builder;
 import lombok.Data;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Data
 @Builder
 public class TransactionPostResponse {
     private Long id;
-    private Double value;
+    private BigDecimal value;
     private String description;
     private LocalDateTime date;
 }
@@ -0,0 +1,13 @@
+package com.branches.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+public class TransactionStreamResponse {
+    private TransactionGetResponse transaction;
+    private BigDecimal balance;
+}
@@ -0,0 +1,19 @@
+package com.branches.response;
+
+import com.branches.model.SummaryGranularity;
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@Builder
+public class TransactionSummaryResponse {
+    private SummaryGranularity granularity;
+    private long transactionCount;
+    private BigDecimal incomes;
+    private BigDecimal expenses;
+    private BigDecimal net;
+    private List<TransactionPeriodSummaryResponse> periods;
+}
@@ -0,0 +1,205 @@
+package com.branches.service;
+
+import com.branches.event.BalanceCheckpointsRebuiltEvent;
+import com.branches.event.TransactionsSavedEvent;
+import com.branches.model.BalanceCheckpoint;
+import com.branches.model.BalanceCheckpointId;
+import com.branches.model.SummaryGranularity;
+import com.branches.model.Transaction;
+import com.branches.model.TransactionRollup;
+import com.branches.repository.BalanceCheckpointRepository;
+import com.branches.repository.BalanceStripeRepository;
+import com.branches.repository.TransactionRollupRepository;
+import com.branches.response.BalanceCheckpointRebuildResponse;
+import com.branches.utils.MoneyUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Every day with transactions gets a checkpoint right after its first transaction commits.
+ */
+@Slf4j
+@Service
+public class BalanceCheckpointService {
+    private final BalanceCheckpointRepository repository;
+    private final TransactionRollupRepository rollupRepository;
+    private final BalanceStripeRepository stripeRepository;
+    private final BalanceService balanceService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate newTransactionTemplate;
+
+    public BalanceCheckpointService(
+            BalanceCheckpointRepository repository,
+            TransactionRollupRepository rollupRepository,
+            BalanceStripeRepository stripeRepository,
+            BalanceService balanceService,
+            ApplicationEventPublisher eventPublisher,
+            PlatformTransactionManager transactionManager
+    ) {
+        this.repository = repository;
+        this.rollupRepository = rollupRepository;
+        this.stripeRepository = stripeRepository;
+        this.balanceService = balanceService;
+        this.eventPublisher = eventPublisher;
+        this.newTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Must run after {@link BalanceService#apply} locked a stripe of the account; updates in order so saves can not deadlock.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void apply(Collection<Transaction> transactions) {
+        Map<Long, TreeMap<LocalDate, long[]>> totals = new TreeMap<>();
+        for (Transaction transaction : transactions) {
+            long[] total = totals.computeIfAbsent(transaction.getAccountId(), accountId -> new TreeMap<>())
+                    .computeIfAbsent(transaction.getDate().toLocalDate(), day -> new long[2]);
+            total[0] = Math.addExact(total[0], transaction.getValueInCents());
+            total[1]++;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        totals.forEach((accountId, days) -> days.forEach((day, total) ->
+                repository.addToCheckpointsAfter(accountId, day, total[0], total[1], now)
+        ));
+    }
+
+    /**
+     * A checkpoint that fails to be created only makes queries of that day read a few more rows.
+     */
+    @TransactionalEventListener
+    public void onTransactionsSaved(TransactionsSavedEvent event) {
+        Map<Long, LocalDate> newestDays = new TreeMap<>();
+        for (Transaction transaction : event.transactions()) {
+            newestDays.merge(transaction.getAccountId(), transaction.getDate().toLocalDate(),
+                    (day, other) -> day.isAfter(other) ? day : other);
+        }
+
+        newestDays.forEach((accountId, day) -> {
+            Optional<LocalDate> latest = repository.findLatestCheckpointDate(accountId);
+            if (latest.isPresent() && !latest.get().isBefore(day)) return;
+
+            try {
+                newTransactionTemplate.executeWithoutResult(status -> createCheckpoint(accountId, day));
+            } catch (DataAccessException e) {
+                log.warn("Unable to create the balance checkpoint of account {} on {}", accountId, day, e);
+            }
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public BigDecimal getBalance(long accountId, LocalDateTime at) {
+        LocalDate day = at.toLocalDate();
+        long balanceInCents = Math.addExact(
+                totalsBefore(accountId, day).balanceInCents(),
+                balanceService.sumLedger(accountId, day.atStartOfDay(), at)
+        );
+
+        return MoneyUtils.toDecimal(balanceInCents);
+    }
+
+    /**
+     * Only rewrites the checkpoints, and invalidates cached reads, when they differ from the recomputed ones.
+     */
+    @Transactional
+    public BalanceCheckpointRebuildResponse rebuild(long accountId) {
+        stripeRepository.findAllByAccountIdForUpdate(accountId);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<BalanceCheckpoint> checkpoints = new ArrayList<>();
+        long balanceInCents = 0;
+        long transactionCount = 0;
+        for (TransactionRollup rollup : rollupRepository.findAllByPeriod(accountId, SummaryGranularity.DAY, null, null)) {
+            checkpoints.add(BalanceCheckpoint.builder()
+                    .id(new BalanceCheckpointId(accountId, rollup.getId().periodStart()))
+                    .balanceInCents(balanceInCents)
+                    .transactionCount(transactionCount)
+                    .updatedAt(now)
+                    .build());
+            balanceInCents = Math.addExact(balanceInCents, Math.addExact(rollup.getIncomesInCents(), rollup.getExpensesInCents()));
+            transactionCount += rollup.getTransactionCount();
+        }
+        if (changed(repository.findAllByIdAccountIdOrderByIdCheckpointDate(accountId), checkpoints)) {
+            repository.deleteAllByAccountId(accountId);
+            repository.saveAll(checkpoints);
+            eventPublisher.publishEvent(new BalanceCheckpointsRebuiltEvent(accountId));
+        }
+
+        return BalanceCheckpointRebuildResponse.builder()
+                .accountId(accountId)
+                .checkpointCount(checkpoints.size())
+                .firstCheckpointDate(checkpoints.isEmpty() ? null : checkpoints.getFirst().getId().checkpointDate())
+                .lastCheckpointDate(checkpoints.isEmpty() ? null : checkpoints.getLast().getId().checkpointDate())
+                .build();
+    }
+
+    private static boolean changed(List<BalanceCheckpoint> current, List<BalanceCheckpoint> rebuilt) {
+        if (current.size() != rebuilt.size()) return true;
+
+        for (int i = 0; i < current.size(); i++) {
+            BalanceCheckpoint before = current.get(i);
+            BalanceCheckpoint after = rebuilt.get(i);
+            if (!before.getId().equals(after.getId()) || before.getBalanceInCents() != after.getBalanceInCents()
+                    || before.getTransactionCount() != after.getTransactionCount()) return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Locks every stripe of the account first, so saves that started before are included.
+     */
+    private void createCheckpoint(long accountId, LocalDate day) {
+        stripeRepository.findAllByAccountIdForUpdate(accountId);
+        BalanceCheckpointId id = new BalanceCheckpointId(accountId, day);
+        if (repository.existsById(id)) return;
+
+        Totals before = totalsBefore(accountId, day);
+        repository.save(BalanceCheckpoint.builder()
+                .id(id)
+                .balanceInCents(before.balanceInCents())
+                .transactionCount(before.transactionCount())
+                .updatedAt(LocalDateTime.now())
+                .build());
+    }
+
+    private Totals totalsBefore(long accountId, LocalDate day) {
+        Optional<BalanceCheckpoint> checkpoint = repository
+                .findFirstByIdAccountIdAndIdCheckpointDateLessThanEqualOrderByIdCheckpointDateDesc(accountId, day);
+        if (checkpoint.isPresent() && checkpoint.get().getId().checkpointDate().equals(day)) return Totals.of(checkpoint.get());
+
+        LocalDate from = checkpoint.map(found -> found.getId().checkpointDate()).orElse(null);
+        long balanceInCents = checkpoint.map(BalanceCheckpoint::getBalanceInCents).orElse(0L);
+        long transactionCount = checkpoint.map(BalanceCheckpoint::getTransactionCount).orElse(0L);
+        for (TransactionRollup rollup : rollupRepository.findAllByPeriod(accountId, SummaryGranularity.DAY, from, day.minusDays(1))) {
+            balanceInCents = Math.addExact(balanceInCents, Math.addExact(rollup.getIncomesInCents(), rollup.getExpensesInCents()));
+            transactionCount += rollup.getTransactionCount();
+        }
+
+        return new Totals(balanceInCents, transactionCount);
+    }
+
+    private record Totals(long balanceInCents, long transactionCount) {
+        static Totals of(BalanceCheckpoint checkpoint) {
+            return new Totals(checkpoint.getBalanceInCents(), checkpoint.getTransactionCount());
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.branches.service;
+
+import com.branches.event.BalanceRepairedEvent;
+import com.branches.model.BalanceStripe;
+import com.branches.model.TransactionArchiveState;
+import com.branches.repository.ArchivedTransactionRepository;
+import com.branches.repository.BalanceStripeRepository;
+import com.branches.repository.TransactionArchiveStateRepository;
+import com.branches.repository.TransactionStore;
+import com.branches.response.BalanceReconciliationResponse;
+import com.branches.utils.DateUtils;
+import com.branches.utils.MoneyUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Each save adds to one random stripe of its account, out of {@code ledger.balance.stripes}.
+ */
+@Slf4j
+@Service
+public class BalanceService {
+    private final BalanceStripeRepository stripeRepository;
+    private final TransactionStore transactionStore;
+    private final ArchivedTransactionRepository archiveRepository;
+    private final TransactionArchiveStateRepository archiveStateRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int stripes;
+
+    public BalanceService(
+            BalanceStripeRepository stripeRepository,
+            TransactionStore transactionStore,
+            ArchivedTransactionRepository archiveRepository,
+            TransactionArchiveStateRepository archiveStateRepository,
+            TransactionTemplate transactionTemplate,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${ledger.balance.stripes:1}") int stripes
+    ) {
+        if (stripes < 1) throw new IllegalArgumentException("ledger.balance.stripes must be at least 1");
+
+        this.stripeRepository = stripeRepository;
+        this.transactionStore = transactionStore;
+        this.archiveRepository = archiveRepository;
+        this.archiveStateRepository = archiveStateRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.stripes = stripes;
+    }
+
+    /**
+     * Must run inside the transaction that inserted the ledger rows.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long apply(long accountId, long deltaInCents, long transactionCount) {
+        int stripe = stripes == 1 ? 0 : ThreadLocalRandom.current().nextInt(stripes);
+        stripeRepository.addToStripe(accountId, stripe, deltaInCents, transactionCount, LocalDateTime.now());
+
+        return stripeRepository.findBalanceInCents(accountId).orElseThrow();
+    }
+
+    /**
+     * Builds the stripes from the ledger when none exist yet.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initializeBalances() {
+        if (stripeRepository.count() > 0) return;
+
+        for (long accountId : transactionStore.findAccountIds()) {
+            transactionTemplate.executeWithoutResult(status -> reconcile(accountId));
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public BigDecimal getBalance(long accountId) {
+        long balanceInCents = stripeRepository.findBalanceInCents(accountId)
+                .orElseGet(() -> sumLedger(accountId, archivedBefore()));
+
+        return MoneyUtils.toDecimal(balanceInCents);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Long> findAccountIds() {
+        TreeSet<Long> accountIds = new TreeSet<>(stripeRepository.findAccountIds());
+        accountIds.addAll(transactionStore.findAccountIds());
+
+        return List.copyOf(accountIds);
+    }
+
+    /**
+     * Locks every stripe of the account before comparing it with the ledger.
+     */
+    @Transactional
+    public BalanceReconciliationResponse reconcile(long accountId) {
+        List<BalanceStripe> kept = lockStripes(accountId);
+        Totals expected = ledgerTotals(accountId);
+        Totals current = Totals.of(kept);
+
+        boolean consistent = current.equals(expected);
+        if (!consistent) {
+            log.warn("Balance {} of account {} diverged from ledger {}, repairing", current, accountId, expected);
+            replace(accountId, kept, expected);
+        }
+        if (expected.transactionCount() == 0) stripeRepository.deleteAll(kept);
+
+        return BalanceReconciliationResponse.builder()
+                .accountId(accountId)
+                .snapshotBalance(MoneyUtils.toDecimal(current.balanceInCents()))
+                .ledgerBalance(MoneyUtils.toDecimal(expected.balanceInCents()))
+                .snapshotTransactionCount(current.transactionCount())
+                .ledgerTransactionCount(expected.transactionCount())
+                .consistent(consistent)
+                .build();
+    }
+
+    @Scheduled(cron = "${ledger.balance.reconciliation-cron:0 0 3 * * *}")
+    public long reconcileAll() {
+        long repaired = 0;
+        for (long accountId : findAccountIds()) {
+            BalanceReconciliationResponse response = transactionTemplate.execute(status -> reconcile(accountId));
+            if (!response.isConsistent()) repaired++;
+        }
+
+        return repaired;
+    }
+
+    @Transactional
+    public boolean restore(long accountId, long balanceInCents, long transactionCount) {
+        List<BalanceStripe> kept = lockStripes(accountId);
+        Totals restored = new Totals(balanceInCents, transactionCount);
+        if (Totals.of(kept).equals(restored)) return false;
+
+        replace(accountId, kept, restored);
+
+        return true;
+    }
+
+    /**
+     * Creates the missing stripes empty and locks all of them in stripe order.
+     */
+    private List<BalanceStripe> lockStripes(long accountId) {
+        LocalDateTime now = LocalDateTime.now();
+        for (int stripe = 0; stripe < stripes; stripe++) {
+            stripeRepository.addToStripe(accountId, stripe, 0, 0, now);
+        }
+
+        return stripeRepository.findAllByAccountIdForUpdate(accountId);
+    }
+
+    private void replace(long accountId, List<BalanceStripe> kept, Totals totals) {
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < kept.size(); i++) {
+            BalanceStripe stripe = kept.get(i);
+            stripe.setBalanceInCents(i == 0 ? totals.balanceInCents() : 0);
+            stripe.setTransactionCount(i == 0 ? totals.transactionCount() : 0);
+            stripe.setUpdatedAt(now);
+        }
+        eventPublisher.publishEvent(new BalanceRepairedEvent(accountId, totals.balanceInCents()));
+    }
+
+    private Totals ledgerTotals(long accountId) {
+        LocalDateTime archivedBefore = archivedBefore();
+        long transactionCount = transactionStore.countByDateGreaterThanEqual(accountId, archivedBefore);
+        if (isArchived(archivedBefore)) transactionCount += archiveRepository.countByAccountIdAndDateBefore(accountId, archivedBefore);
+
+        return new Totals(sumLedger(accountId, archivedBefore), transactionCount);
+    }
+
+    /**
+     * Live rows are only counted from the watermark on, so copied rows are not counted twice.
+     */
+    private long sumLedger(long accountId, LocalDateTime archivedBefore) {
+        long balanceInCents = MoneyUtils.toCents(transactionStore.sumAllTransactionsFrom(accountId, archivedBefore));
+        if (!isArchived(archivedBefore)) return balanceInCents;
+
+        return Math.addExact(balanceInCents, MoneyUtils.toCents(archiveRepository.sumAllTransactionsBefore(accountId, archivedBefore)));
+    }
+
+    /**
+     * As in the whole-ledger sum, live rows before the archive watermark are left to the archive.
+     */
+    @Transactional(readOnly = true)
+    public long sumLedger(long accountId, LocalDateTime from, LocalDateTime until) {
+        LocalDateTime archivedBefore = archivedBefore();
+        LocalDateTime liveFrom = from.isBefore(archivedBefore) ? archivedBefore : from;
+        long balanceInCents = MoneyUtils.toCents(transactionStore.sumAllTransactionsBetween(accountId, liveFrom, until));
+        if (!from.isBefore(archivedBefore)) return balanceInCents;
+
+        return Math.addExact(balanceInCents, MoneyUtils.toCents(archiveRepository.sumAllTransactionsBetween(accountId, from, until)));
+    }
+
+    private LocalDateTime archivedBefore() {
+        return archiveStateRepository.findArchivedBefore(TransactionArchiveState.LEDGER_ID)
+                .orElse(DateUtils.MIN_DATE);
+    }
+
+    private static boolean isArchived(LocalDateTime archivedBefore) {
+        return archivedBefore.isAfter(DateUtils.MIN_DATE);
+    }
+
+    private record Totals(long balanceInCents, long transactionCount) {
+        static Totals of(List<BalanceStripe> stripes) {
+            long balanceInCents = 0;
+            long transactionCount = 0;
+            for (BalanceStripe stripe : stripes) {
+                balanceInCents = Math.addExact(balanceInCents, stripe.getBalanceInCents());
+                transactionCount += stripe.getTransactionCount();
+            }
+
+            return new Totals(balanceInCents, transactionCount);
+        }
+    }
+}
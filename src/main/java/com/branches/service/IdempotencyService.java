@@ -0,0 +1,145 @@
+package com.branches.service;
+
+import com.branches.exception.BadRequestException;
+import com.branches.exception.UnprocessableEntityException;
+import com.branches.mapper.TransactionMapper;
+import com.branches.model.IdempotencyRecord;
+import com.branches.repository.IdempotencyRecordRepository;
+import com.branches.request.TransactionPostRequest;
+import com.branches.response.TransactionPostResponse;
+import com.branches.utils.MoneyUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Concurrent duplicates on this instance wait for the first request; other instances fail on the key.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+    private static final String KEY_REUSED = "Idempotency-Key was already used for a different transaction";
+
+    private final TransactionService transactionService;
+    private final IdempotencyRecordRepository repository;
+    private final TransactionMapper mapper;
+    private final Duration ttl;
+    private final ConcurrentMap<Key, CompletableFuture<TransactionPostResponse>> responses;
+
+    public IdempotencyService(
+            TransactionService transactionService,
+            IdempotencyRecordRepository repository,
+            TransactionMapper mapper,
+            @Value("${ledger.idempotency.maximum-size:100000}") long maximumSize,
+            @Value("${ledger.idempotency.ttl:24h}") Duration ttl
+    ) {
+        this.transactionService = transactionService;
+        this.repository = repository;
+        this.mapper = mapper;
+        this.ttl = ttl;
+        Cache<Key, CompletableFuture<TransactionPostResponse>> cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .build();
+        this.responses = cache.asMap();
+    }
+
+    private record Key(long accountId, String idempotencyKey) {
+    }
+
+    public TransactionPostResponse save(long accountId, TransactionPostRequest postRequest, String idempotencyKey) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > IdempotencyRecord.MAX_KEY_LENGTH) {
+            throw new BadRequestException("Idempotency-Key must have between 1 and %d characters".formatted(IdempotencyRecord.MAX_KEY_LENGTH));
+        }
+        // rejects a missing or invalid value before it is compared with a stored response
+        mapper.toCents(postRequest.getValue());
+
+        Key key = new Key(accountId, idempotencyKey);
+        while (true) {
+            CompletableFuture<TransactionPostResponse> pending = new CompletableFuture<>();
+            CompletableFuture<TransactionPostResponse> existing = responses.putIfAbsent(key, pending);
+            if (existing == null) return complete(postRequest, key, pending);
+
+            try {
+                return replay(postRequest, existing.join());
+            } catch (CompletionException e) {
+                // the first request failed and created nothing, so this one tries again
+                responses.remove(key, existing);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${ledger.idempotency.cleanup-interval:1h}")
+    public void deleteExpiredRecords() {
+        int deleted = repository.deleteAllCreatedBefore(LocalDateTime.now().minus(ttl));
+        if (deleted > 0) log.debug("Deleted {} expired idempotency records", deleted);
+    }
+
+    private TransactionPostResponse complete(TransactionPostRequest postRequest, Key key,
+                                             CompletableFuture<TransactionPostResponse> pending) {
+        TransactionPostResponse response;
+        try {
+            response = findPersisted(key).orElseGet(() -> insert(postRequest, key));
+        } catch (RuntimeException e) {
+            responses.remove(key, pending);
+            pending.completeExceptionally(e);
+            throw e;
+        }
+        pending.complete(response);
+
+        return replay(postRequest, response);
+    }
+
+    private TransactionPostResponse insert(TransactionPostRequest postRequest, Key key) {
+        try {
+            return transactionService.save(key.accountId(), postRequest, key.idempotencyKey());
+        } catch (DataIntegrityViolationException e) {
+            // committed first by a concurrent request on another instance, or for another account
+            return findPersisted(key).orElseThrow(() -> e);
+        }
+    }
+
+    /**
+     * The delete only matches while the record is still expired.
+     */
+    private Optional<TransactionPostResponse> findPersisted(Key key) {
+        Optional<IdempotencyRecord> persisted = repository.findById(key.idempotencyKey());
+        LocalDateTime expiredBefore = LocalDateTime.now().minus(ttl);
+        if (persisted.isPresent() && persisted.get().getCreatedAt().isBefore(expiredBefore)) {
+            repository.deleteByKeyCreatedBefore(key.idempotencyKey(), expiredBefore);
+            return Optional.empty();
+        }
+        if (persisted.isPresent() && persisted.get().getAccountId() != key.accountId()) {
+            throw new UnprocessableEntityException(KEY_REUSED);
+        }
+
+        return persisted.map(record -> TransactionPostResponse.builder()
+                .id(record.getTransactionId())
+                .value(MoneyUtils.toDecimal(record.getValueInCents()))
+                .description(record.getDescription())
+                .date(record.getDate())
+                .build());
+    }
+
+    private static TransactionPostResponse replay(TransactionPostRequest postRequest, TransactionPostResponse response) {
+        boolean sameRequest = postRequest.getValue().compareTo(response.getValue()) == 0
+                && Objects.equals(postRequest.getDescription(), response.getDescription());
+        if (!sameRequest) {
+            throw new UnprocessableEntityException(KEY_REUSED);
+        }
+
+        return response;
+    }
+}
@@ -0,0 +1,125 @@
+package com.branches.service;
+
+import com.branches.event.TransactionsArchivedEvent;
+import com.branches.model.TransactionArchiveState;
+import com.branches.repository.ArchivedTransactionRepository;
+import com.branches.repository.TransactionArchiveStateRepository;
+import com.branches.repository.TransactionRepository;
+import com.branches.repository.TransactionTermRepository;
+import com.branches.response.TransactionArchiveResponse;
+import com.branches.utils.DateUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Moves transactions older than the retention period to {@code transaction_archive}, one month at a time.
+ */
+@Slf4j
+@Service
+public class TransactionArchiveService {
+    private final TransactionRepository transactionRepository;
+    private final ArchivedTransactionRepository archiveRepository;
+    private final TransactionArchiveStateRepository stateRepository;
+    private final TransactionPartitionService partitionService;
+    private final TransactionTermRepository termRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int retentionMonths;
+
+    public TransactionArchiveService(
+            TransactionRepository transactionRepository,
+            ArchivedTransactionRepository archiveRepository,
+            TransactionArchiveStateRepository stateRepository,
+            TransactionPartitionService partitionService,
+            TransactionTermRepository termRepository,
+            TransactionTemplate transactionTemplate,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${ledger.archive.retention-months:24}") int retentionMonths
+    ) {
+        this.transactionRepository = transactionRepository;
+        this.archiveRepository = archiveRepository;
+        this.stateRepository = stateRepository;
+        this.partitionService = partitionService;
+        this.termRepository = termRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.retentionMonths = retentionMonths;
+    }
+
+    @Scheduled(cron = "${ledger.archive.cron:-}")
+    public TransactionArchiveResponse archive() {
+        LocalDateTime cutoff = YearMonth.now().minusMonths(retentionMonths).atDay(1).atStartOfDay();
+        LocalDateTime archivedBefore = archivedBefore();
+        // rows left behind by a run interrupted between the copy and the removal
+        removeArchived(archivedBefore);
+
+        long archived = 0;
+        for (LocalDateTime until = nextMonth(archivedBefore); !until.isAfter(cutoff); until = until.plusMonths(1)) {
+            LocalDateTime monthEnd = until;
+            archived += transactionTemplate.execute(status -> copyToArchive(monthEnd));
+            removeArchived(monthEnd);
+            archivedBefore = monthEnd;
+        }
+
+        if (archived > 0) {
+            log.info("Archived {} transactions dated before {}", archived, archivedBefore);
+            eventPublisher.publishEvent(new TransactionsArchivedEvent(archivedBefore));
+        }
+
+        return TransactionArchiveResponse.builder()
+                .archivedBefore(archivedBefore.equals(DateUtils.MIN_DATE) ? null : archivedBefore)
+                .archivedTransactions(archived)
+                .build();
+    }
+
+    /**
+     * The state row is locked, so concurrent runs copy each month only once.
+     */
+    private long copyToArchive(LocalDateTime until) {
+        LocalDateTime now = LocalDateTime.now();
+        TransactionArchiveState state = stateRepository.findByIdForUpdate(TransactionArchiveState.LEDGER_ID)
+                .orElseGet(() -> new TransactionArchiveState(TransactionArchiveState.LEDGER_ID, DateUtils.MIN_DATE, now));
+        if (!until.isAfter(state.getArchivedBefore())) return 0;
+
+        int copied = archiveRepository.copyFromLedger(state.getArchivedBefore(), until);
+        stateRepository.save(state.withArchivedBefore(until).withUpdatedAt(now));
+
+        return copied;
+    }
+
+    private void removeArchived(LocalDateTime archivedBefore) {
+        if (archivedBefore.equals(DateUtils.MIN_DATE)) return;
+
+        transactionTemplate.executeWithoutResult(status -> termRepository.deleteAllByDateBefore(archivedBefore));
+        List<TransactionPartitionService.Partition> partitions = partitionService.findPartitions();
+        if (partitions.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> transactionRepository.deleteAllByDateBefore(archivedBefore));
+            return;
+        }
+
+        for (TransactionPartitionService.Partition partition : partitions) {
+            if (partition.lessThan() == null || partition.lessThan().isAfter(archivedBefore)) break;
+            partitionService.dropPartition(partition);
+        }
+    }
+
+    private LocalDateTime nextMonth(LocalDateTime archivedBefore) {
+        LocalDateTime from = archivedBefore.equals(DateUtils.MIN_DATE)
+                ? transactionRepository.findOldestDate().orElse(LocalDateTime.now())
+                : archivedBefore;
+
+        return YearMonth.from(from).plusMonths(1).atDay(1).atStartOfDay();
+    }
+
+    private LocalDateTime archivedBefore() {
+        return stateRepository.findArchivedBefore(TransactionArchiveState.LEDGER_ID).orElse(DateUtils.MIN_DATE);
+    }
+}
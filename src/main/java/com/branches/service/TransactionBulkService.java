@@ -0,0 +1,220 @@
+package com.branches.service;
+
+import com.branches.event.TransactionsSavedEvent;
+import com.branches.exception.BadRequestException;
+import com.branches.mapper.TransactionMapper;
+import com.branches.model.Transaction;
+import com.branches.repository.TransactionStore;
+import com.branches.request.BulkInsertMode;
+import com.branches.request.TransactionPostRequest;
+import com.branches.response.TransactionBulkItemResponse;
+import com.branches.response.TransactionBulkResponse;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Inserts transactions in JDBC batches of {@value #BATCH_SIZE} rows.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TransactionBulkService {
+    public static final int BATCH_SIZE = 500;
+
+    private final TransactionStore store;
+    private final TransactionMapper mapper;
+    private final BalanceService balanceService;
+    private final TransactionSummaryService summaryService;
+    private final BalanceCheckpointService checkpointService;
+    private final TransactionSearchService searchService;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public TransactionBulkResponse saveAll(long accountId, Iterator<TransactionPostRequest> requests, BulkInsertMode mode) {
+        List<TransactionBulkItemResponse> items = mode == BulkInsertMode.ATOMIC
+                ? transactionTemplate.execute(status -> saveAllAtomically(accountId, requests))
+                : saveAllPerItem(accountId, requests);
+
+        int failed = (int) items.stream().filter(item -> item.getError() != null).count();
+
+        return TransactionBulkResponse.builder()
+                .created(items.size() - failed)
+                .failed(failed)
+                .items(items)
+                .build();
+    }
+
+    private List<TransactionBulkItemResponse> saveAllAtomically(long accountId, Iterator<TransactionPostRequest> requests) {
+        List<TransactionBulkItemResponse> items = new ArrayList<>();
+        List<Transaction> batch = new ArrayList<>(BATCH_SIZE);
+
+        int index = 0;
+        while (hasNext(requests, index)) {
+            try {
+                batch.add(toTransaction(accountId, next(requests, index)));
+            } catch (MalformedItemException e) {
+                throw new BadRequestException(e.getMessage());
+            } catch (BadRequestException e) {
+                throw new BadRequestException("Transaction at index %d is invalid: %s".formatted(index, e.getReason()));
+            }
+
+            if (batch.size() == BATCH_SIZE) {
+                insert(batch);
+                addCreated(items, batch, index - batch.size() + 1);
+                batch.clear();
+            }
+            index++;
+        }
+
+        insert(batch);
+        addCreated(items, batch, index - batch.size());
+
+        return items;
+    }
+
+    private List<TransactionBulkItemResponse> saveAllPerItem(long accountId, Iterator<TransactionPostRequest> requests) {
+        List<TransactionBulkItemResponse> items = new ArrayList<>();
+        List<Transaction> batch = new ArrayList<>(BATCH_SIZE);
+        List<Integer> batchIndexes = new ArrayList<>(BATCH_SIZE);
+
+        int index = 0;
+        try {
+            while (hasNext(requests, index)) {
+                try {
+                    batch.add(toTransaction(accountId, next(requests, index)));
+                    batchIndexes.add(index);
+                } catch (BadRequestException e) {
+                    items.add(failed(index, e.getReason()));
+                }
+
+                if (batch.size() == BATCH_SIZE) {
+                    commitBatch(batch, batchIndexes, items);
+                    batch.clear();
+                    batchIndexes.clear();
+                }
+                index++;
+            }
+        } catch (MalformedItemException e) {
+            // the input can not be read past a malformed item, so it is reported and the rest is skipped
+            items.add(failed(index, e.getMessage()));
+        }
+
+        commitBatch(batch, batchIndexes, items);
+        items.sort((first, second) -> Integer.compare(first.getIndex(), second.getIndex()));
+
+        return items;
+    }
+
+    private void commitBatch(List<Transaction> batch, List<Integer> batchIndexes, List<TransactionBulkItemResponse> items) {
+        if (batch.isEmpty()) return;
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert(batch));
+            for (int i = 0; i < batch.size(); i++) {
+                items.add(created(batchIndexes.get(i), batch.get(i)));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Batch insert failed, retrying its {} transactions one by one", batch.size(), e);
+
+            for (int i = 0; i < batch.size(); i++) {
+                items.add(commitSingle(batch.get(i).withId(null).withDate(null), batchIndexes.get(i)));
+            }
+        }
+    }
+
+    private TransactionBulkItemResponse commitSingle(Transaction transaction, int index) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert(List.of(transaction)));
+
+            return created(index, transaction);
+        } catch (RuntimeException e) {
+            log.warn("Insert of the transaction at index {} failed", index, e);
+            return failed(index, "Unable to save transaction");
+        }
+    }
+
+    /**
+     * Balances are updated in account order, so concurrent batches can not deadlock.
+     */
+    void insert(List<Transaction> batch) {
+        if (batch.isEmpty()) return;
+
+        store.saveAll(batch);
+
+        Map<Long, long[]> totals = new TreeMap<>();
+        for (Transaction transaction : batch) {
+            long[] total = totals.computeIfAbsent(transaction.getAccountId(), accountId -> new long[2]);
+            total[0] = Math.addExact(total[0], transaction.getValueInCents());
+            total[1]++;
+        }
+        Map<Long, Long> balancesInCents = new HashMap<>();
+        totals.forEach((accountId, total) -> balancesInCents.put(accountId, balanceService.apply(accountId, total[0], total[1])));
+        summaryService.apply(batch);
+        checkpointService.apply(batch);
+        searchService.apply(batch);
+        eventPublisher.publishEvent(new TransactionsSavedEvent(batch, balancesInCents));
+
+        entityManager.clear();
+    }
+
+    private static void addCreated(List<TransactionBulkItemResponse> items, List<Transaction> batch, int firstIndex) {
+        for (int i = 0; i < batch.size(); i++) {
+            items.add(created(firstIndex + i, batch.get(i)));
+        }
+    }
+
+    private Transaction toTransaction(long accountId, TransactionPostRequest request) {
+        if (request == null) throw new BadRequestException("transaction is required");
+
+        return mapper.toTransaction(request).withAccountId(accountId);
+    }
+
+    private static boolean hasNext(Iterator<TransactionPostRequest> requests, int index) {
+        try {
+            return requests.hasNext();
+        } catch (RuntimeException e) {
+            throw new MalformedItemException(index, e);
+        }
+    }
+
+    private static TransactionPostRequest next(Iterator<TransactionPostRequest> requests, int index) {
+        try {
+            return requests.next();
+        } catch (RuntimeException e) {
+            throw new MalformedItemException(index, e);
+        }
+    }
+
+    private static TransactionBulkItemResponse created(int index, Transaction transaction) {
+        return TransactionBulkItemResponse.builder()
+                .index(index)
+                .id(transaction.getId())
+                .date(transaction.getDate())
+                .build();
+    }
+
+    private static TransactionBulkItemResponse failed(int index, String error) {
+        return TransactionBulkItemResponse.builder()
+                .index(index)
+                .error(error)
+                .build();
+    }
+
+    private static class MalformedItemException extends RuntimeException {
+        MalformedItemException(int index, Throwable cause) {
+            super("Malformed transaction at index %d".formatted(index), cause);
+        }
+    }
+}
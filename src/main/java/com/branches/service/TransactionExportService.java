@@ -0,0 +1,168 @@
+package com.branches.service;
+
+import com.branches.mapper.TransactionMapper;
+import com.branches.model.Transaction;
+import com.branches.repository.TransactionStore;
+import com.branches.utils.MoneyUtils;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+/**
+ * Streams exports straight from a database cursor.
+ */
+@Service
+@RequiredArgsConstructor
+public class TransactionExportService {
+    public static final String EXPORT_METRIC = "ledger.export";
+    public static final String EXPORT_BYTES_METRIC = "ledger.export.bytes";
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    private static final int FLUSH_INTERVAL = 1000;
+    public static final String CSV_HEADER = "id,value,description,date\n";
+
+    private final TransactionStore store;
+    private final TransactionMapper mapper;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final MeterRegistry meterRegistry;
+
+    @Transactional(readOnly = true)
+    public void exportCsv(long accountId, LocalDateTime startDate, LocalDateTime endDate, OutputStream outputStream) throws IOException {
+        measure("csv", outputStream, counted -> writeCsv(accountId, startDate, endDate, counted));
+    }
+
+    private void writeCsv(long accountId, LocalDateTime startDate, LocalDateTime endDate, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+        writer.write(CSV_HEADER);
+        writer.flush();
+
+        try (Stream<Transaction> transactions = store.streamAllByDateFilter(accountId, startDate, endDate)) {
+            long written = 0;
+            for (Transaction transaction : (Iterable<Transaction>) transactions::iterator) {
+                writer.write(String.valueOf(transaction.getId()));
+                writer.write(',');
+                writer.write(MoneyUtils.toDecimal(transaction.getValueInCents()).toPlainString());
+                writer.write(',');
+                writeQuoted(writer, transaction.getDescription());
+                writer.write(',');
+                writer.write(String.valueOf(transaction.getDate()));
+                writer.write('\n');
+
+                entityManager.detach(transaction);
+                if (++written % FLUSH_INTERVAL == 0) writer.flush();
+            }
+        }
+
+        writer.flush();
+    }
+
+    @Transactional(readOnly = true)
+    public void exportJson(long accountId, LocalDateTime startDate, LocalDateTime endDate, OutputStream outputStream) throws IOException {
+        measure("json", outputStream, counted -> {
+            try (JsonGenerator generator = newJsonGenerator(counted)) {
+                generator.writeStartArray();
+                generator.flush();
+
+                writeTransactions(generator, accountId, startDate, endDate, false);
+
+                generator.writeEndArray();
+            }
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public void exportNdjson(long accountId, LocalDateTime startDate, LocalDateTime endDate, OutputStream outputStream) throws IOException {
+        measure("ndjson", outputStream, counted -> {
+            try (JsonGenerator generator = newJsonGenerator(counted)) {
+                generator.setRootValueSeparator(null);
+                writeTransactions(generator, accountId, startDate, endDate, true);
+            }
+        });
+    }
+
+    private void measure(String format, OutputStream outputStream, StreamingResponseBody export) throws IOException {
+        CountingOutputStream counted = new CountingOutputStream(outputStream);
+        long start = System.nanoTime();
+        try {
+            export.writeTo(counted);
+        } finally {
+            Timer.builder(EXPORT_METRIC)
+                    .description("Duration of an export")
+                    .tag("format", format)
+                    .register(meterRegistry)
+                    .record(Duration.ofNanos(System.nanoTime() - start));
+            Counter.builder(EXPORT_BYTES_METRIC)
+                    .description("Bytes written by exports, before compression")
+                    .baseUnit("bytes")
+                    .tag("format", format)
+                    .register(meterRegistry)
+                    .increment(counted.count);
+        }
+    }
+
+    private void writeTransactions(JsonGenerator generator, long accountId, LocalDateTime startDate, LocalDateTime endDate,
+                                   boolean lineDelimited) throws IOException {
+        try (Stream<Transaction> transactions = store.streamAllByDateFilter(accountId, startDate, endDate)) {
+            long written = 0;
+            for (Transaction transaction : (Iterable<Transaction>) transactions::iterator) {
+                generator.writeObject(mapper.toTransactionGetResponse(transaction));
+                if (lineDelimited) generator.writeRaw('\n');
+
+                entityManager.detach(transaction);
+                if (++written % FLUSH_INTERVAL == 0) generator.flush();
+            }
+        }
+    }
+
+    private JsonGenerator newJsonGenerator(OutputStream outputStream) throws IOException {
+        return objectMapper.createGenerator(outputStream, JsonEncoding.UTF8)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    private static void writeQuoted(Writer writer, String value) throws IOException {
+        writer.write('"');
+        if (value != null) {
+            writer.write(value.replace("\"", "\"\""));
+        }
+        writer.write('"');
+    }
+
+    private static class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
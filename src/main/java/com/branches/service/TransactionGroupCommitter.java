@@ -0,0 +1,177 @@
+package com.branches.service;
+
+import com.branches.exception.ServiceUnavailableException;
+import com.branches.model.Transaction;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Rejects saves with {@code 503} when the queue is full, the writer is not running or the commit times out.
+ */
+@Slf4j
+@Service
+public class TransactionGroupCommitter {
+    private static final String SHUTTING_DOWN = "Application is shutting down";
+    private static final String NOT_RUNNING = "Group commit is not running, try again later";
+
+    private final TransactionBulkService bulkService;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int maxBatchSize;
+    private final long maxLingerNanos;
+    private final long writeTimeoutNanos;
+    private final BlockingQueue<PendingWrite> queue;
+    private Thread writer;
+    private volatile boolean running;
+
+    public TransactionGroupCommitter(
+            TransactionBulkService bulkService,
+            TransactionTemplate transactionTemplate,
+            @Value("${ledger.group-commit.enabled:false}") boolean enabled,
+            @Value("${ledger.group-commit.max-batch-size:256}") int maxBatchSize,
+            @Value("${ledger.group-commit.max-linger:1ms}") Duration maxLinger,
+            @Value("${ledger.group-commit.queue-capacity:10000}") int queueCapacity,
+            @Value("${ledger.group-commit.write-timeout:10s}") Duration writeTimeout
+    ) {
+        this.bulkService = bulkService;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.maxBatchSize = maxBatchSize;
+        this.maxLingerNanos = maxLinger.toNanos();
+        this.writeTimeoutNanos = writeTimeout.toNanos();
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+    }
+
+    private record PendingWrite(Transaction transaction, CompletableFuture<Transaction> committed) {
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * A write that times out after the writer took it may still commit.
+     */
+    public Transaction write(Transaction transaction) {
+        if (!running) throw new ServiceUnavailableException(NOT_RUNNING);
+
+        PendingWrite pending = new PendingWrite(transaction, new CompletableFuture<>());
+        if (!queue.offer(pending)) {
+            throw new ServiceUnavailableException("Too many pending writes, try again later");
+        }
+        // the writer may have stopped and failed the queue between the check and the offer
+        if (!running && queue.remove(pending)) throw new ServiceUnavailableException(NOT_RUNNING);
+
+        try {
+            return pending.committed().get(writeTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            queue.remove(pending);
+            throw new ServiceUnavailableException("Timed out waiting for the group commit, try again later");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            queue.remove(pending);
+            throw new ServiceUnavailableException(SHUTTING_DOWN);
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) return;
+
+        running = true;
+        writer = Thread.ofPlatform().name("transaction-group-commit").daemon().start(this::run);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (writer == null) return;
+
+        running = false;
+        writer.interrupt();
+        List<PendingWrite> pending = new ArrayList<>();
+        queue.drainTo(pending);
+        fail(pending, SHUTTING_DOWN);
+    }
+
+    /**
+     * Pending writes are failed when it ends, also through an {@link Error}.
+     */
+    private void run() {
+        List<PendingWrite> batch = new ArrayList<>(maxBatchSize);
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                nextBatch(batch);
+                commit(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            boolean shuttingDown = !running;
+            running = false;
+            queue.drainTo(batch);
+            fail(batch, shuttingDown ? SHUTTING_DOWN : NOT_RUNNING);
+        }
+    }
+
+    private static void fail(List<PendingWrite> writes, String reason) {
+        writes.forEach(write -> write.committed().completeExceptionally(new ServiceUnavailableException(reason)));
+    }
+
+    private void nextBatch(List<PendingWrite> batch) throws InterruptedException {
+        batch.add(queue.take());
+        long deadline = System.nanoTime() + maxLingerNanos;
+
+        while (batch.size() < maxBatchSize) {
+            queue.drainTo(batch, maxBatchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() == maxBatchSize || remaining <= 0) return;
+
+            PendingWrite next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) return;
+            batch.add(next);
+        }
+    }
+
+    private void commit(List<PendingWrite> batch) {
+        List<Transaction> transactions = batch.stream().map(PendingWrite::transaction).toList();
+        try {
+            transactionTemplate.executeWithoutResult(status -> bulkService.insert(transactions));
+            batch.forEach(write -> write.committed().complete(write.transaction()));
+            return;
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.getFirst().committed().completeExceptionally(e);
+                return;
+            }
+            log.warn("Group commit of {} transactions failed, retrying them one by one", batch.size(), e);
+        }
+
+        for (PendingWrite write : batch) {
+            Transaction transaction = write.transaction().withId(null).withDate(null);
+            try {
+                transactionTemplate.executeWithoutResult(status -> bulkService.insert(List.of(transaction)));
+                write.committed().complete(transaction);
+            } catch (RuntimeException e) {
+                write.committed().completeExceptionally(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.branches.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * Splits new months off {@value #MAX_PARTITION} while it is still empty. Does nothing outside MySQL.
+ */
+@Slf4j
+@Service
+public class TransactionPartitionService {
+    static final String TABLE = "transaction";
+    static final String MAX_PARTITION = "pmax";
+    private static final DateTimeFormatter NAME_FORMAT = DateTimeFormatter.ofPattern("'p'yyyyMM");
+    private static final DateTimeFormatter BOUND_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int monthsAhead;
+    private Boolean mysql;
+
+    public TransactionPartitionService(
+            JdbcTemplate jdbcTemplate,
+            @Value("${ledger.partitioning.months-ahead:3}") int monthsAhead
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.monthsAhead = monthsAhead;
+    }
+
+    public record Partition(String name, LocalDateTime lessThan) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${ledger.partitioning.cron:0 0 2 * * *}")
+    public void createFuturePartitions() {
+        List<Partition> partitions = findPartitions();
+        if (partitions.isEmpty()) return;
+
+        YearMonth first = partitions.size() == 1 ? oldestMonth() : null;
+        String statement = reorganizeStatement(partitions, first, YearMonth.now().plusMonths(monthsAhead));
+        if (statement == null) return;
+
+        try {
+            jdbcTemplate.execute(statement);
+            log.info("Created partitions: {}", statement);
+        } catch (DataAccessException e) {
+            // another instance may have created the same partitions first
+            log.warn("Could not create partitions of table {}", TABLE, e);
+        }
+    }
+
+    public List<Partition> findPartitions() {
+        if (!isMysql()) return List.of();
+
+        List<Partition> partitions = jdbcTemplate.query(
+                "SELECT partition_name, partition_description FROM information_schema.partitions " +
+                        "WHERE table_schema = DATABASE() AND table_name = ? AND partition_name IS NOT NULL " +
+                        "ORDER BY partition_ordinal_position",
+                (rs, rowNum) -> new Partition(rs.getString(1), parseBound(rs.getString(2))),
+                TABLE
+        );
+        if (partitions.isEmpty()) {
+            log.warn("Table {} is not partitioned, run 006-transaction-partitioning.sql", TABLE);
+        }
+
+        return partitions;
+    }
+
+    public void dropPartition(Partition partition) {
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " DROP PARTITION " + partition.name());
+    }
+
+    static String reorganizeStatement(List<Partition> partitions, YearMonth first, YearMonth last) {
+        Partition max = partitions.getLast();
+        if (!MAX_PARTITION.equals(max.name()) || max.lessThan() != null) {
+            log.warn("Table {} does not end in a {} partition, not adding partitions", TABLE, MAX_PARTITION);
+            return null;
+        }
+
+        YearMonth next = partitions.size() > 1
+                ? YearMonth.from(partitions.get(partitions.size() - 2).lessThan())
+                : first;
+        if (next.isAfter(last)) return null;
+
+        StringJoiner definitions = new StringJoiner(", ", "ALTER TABLE " + TABLE + " REORGANIZE PARTITION " + MAX_PARTITION + " INTO (", ")");
+        for (YearMonth month = next; !month.isAfter(last); month = month.plusMonths(1)) {
+            LocalDateTime lessThan = month.plusMonths(1).atDay(1).atStartOfDay();
+            definitions.add("PARTITION %s VALUES LESS THAN ('%s')".formatted(month.format(NAME_FORMAT), lessThan.format(BOUND_FORMAT)));
+        }
+        definitions.add("PARTITION " + MAX_PARTITION + " VALUES LESS THAN (MAXVALUE)");
+
+        return definitions.toString();
+    }
+
+    static LocalDateTime parseBound(String description) {
+        if (description == null || "MAXVALUE".equals(description)) return null;
+
+        return LocalDateTime.parse(description.replace("'", "").replace(' ', 'T'));
+    }
+
+    private YearMonth oldestMonth() {
+        LocalDateTime oldest = jdbcTemplate.queryForObject("SELECT MIN(date) FROM " + TABLE, LocalDateTime.class);
+
+        return YearMonth.from(oldest == null ? LocalDateTime.now() : oldest);
+    }
+
+    private boolean isMysql() {
+        if (mysql == null) {
+            mysql = "MySQL".equals(jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName()));
+        }
+
+        return mysql;
+    }
+}
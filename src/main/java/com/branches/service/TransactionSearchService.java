@@ -0,0 +1,226 @@
+package com.branches.service;
+
+import com.branches.exception.BadRequestException;
+import com.branches.model.Transaction;
+import com.branches.repository.TransactionStore;
+import com.branches.request.TransactionCursor;
+import com.branches.response.TransactionGetResponse;
+import com.branches.response.TransactionPageResponse;
+import com.branches.utils.DateUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.text.Normalizer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Every prefix of a word from {@value #MIN_TERM_LENGTH} characters on is stored as a term.
+ */
+@Slf4j
+@Service
+public class TransactionSearchService {
+    public static final int MIN_TERM_LENGTH = 2;
+    public static final int MAX_QUERY_TERMS = 8;
+    static final int REINDEX_BATCH_SIZE = 10_000;
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final String INSERT = "INSERT INTO transaction_term (account_id, term, date, transaction_id) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionStore store;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean reindexOnStartup;
+
+    public TransactionSearchService(
+            JdbcTemplate jdbcTemplate,
+            TransactionStore store,
+            TransactionTemplate transactionTemplate,
+            @Value("${ledger.search.reindex:false}") boolean reindexOnStartup
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.store = store;
+        this.transactionTemplate = transactionTemplate;
+        this.reindexOnStartup = reindexOnStartup;
+    }
+
+    /**
+     * Must run inside the transaction that inserted them.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void apply(Collection<Transaction> transactions) {
+        List<Object[]> rows = new ArrayList<>();
+        for (Transaction transaction : transactions) {
+            Timestamp date = Timestamp.valueOf(transaction.getDate());
+            for (String term : terms(transaction.getDescription())) {
+                rows.add(new Object[]{transaction.getAccountId(), term, date, transaction.getId()});
+            }
+        }
+
+        if (!rows.isEmpty()) jdbcTemplate.batchUpdate(INSERT, rows);
+    }
+
+    /**
+     * Rows archived since the page was located are left out of it.
+     */
+    @Transactional(readOnly = true)
+    public TransactionPageResponse search(long accountId, String query, LocalDateTime startDate, LocalDateTime endDate, String cursor,
+                                          int limit) {
+        if (limit < 1) throw new BadRequestException("limit must be greater than zero");
+
+        List<String> terms = queryTerms(query);
+        int pageSize = Math.min(limit, TransactionService.MAX_PAGE_SIZE);
+        TransactionCursor after = cursor == null ? null : TransactionCursor.decode(cursor);
+
+        List<TransactionCursor> positions = findPositions(accountId, terms, startDate, endDate, after, Limit.of(pageSize + 1));
+
+        String next = null;
+        if (positions.size() > pageSize) {
+            positions = positions.subList(0, pageSize);
+            next = positions.getLast().encode();
+        }
+
+        List<TransactionGetResponse> transactions = positions.isEmpty() ? List.of() : store.findAllByPosition(positions);
+
+        return TransactionPageResponse.builder()
+                .content(transactions)
+                .next(next)
+                .build();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reindexOnStartup() {
+        if (reindexOnStartup) reindex();
+    }
+
+    public long reindex() {
+        long startedAt = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update("DELETE FROM transaction_term"));
+
+        long indexed = 0;
+        Limit batchSize = Limit.of(REINDEX_BATCH_SIZE);
+        for (long accountId : store.findAccountIds()) {
+            List<TransactionGetResponse> page = store.findFirstPageByDateFilter(accountId, null, null, batchSize);
+            while (!page.isEmpty()) {
+                List<Transaction> batch = page.stream().map(response -> toTransaction(accountId, response)).toList();
+                transactionTemplate.executeWithoutResult(status -> apply(batch));
+                indexed += batch.size();
+
+                TransactionGetResponse last = page.getLast();
+                page = page.size() < REINDEX_BATCH_SIZE
+                        ? List.of()
+                        : store.findPageByDateFilterAfter(accountId, null, null, last.getDate(), last.getId(), batchSize);
+            }
+        }
+
+        log.info("Indexed the descriptions of {} transactions in {} ms", indexed, (System.nanoTime() - startedAt) / 1_000_000);
+
+        return indexed;
+    }
+
+    public static Set<String> terms(String description) {
+        Set<String> terms = new LinkedHashSet<>();
+        for (String word : words(description)) {
+            for (int length = MIN_TERM_LENGTH; length <= word.length(); length++) {
+                terms.add(word.substring(0, length));
+            }
+        }
+
+        return terms;
+    }
+
+    static Set<String> words(String text) {
+        Set<String> words = new LinkedHashSet<>();
+        if (text == null) return words;
+
+        String folded = MARKS.matcher(Normalizer.normalize(text.toLowerCase(Locale.ROOT), Normalizer.Form.NFD)).replaceAll("");
+        for (String word : SEPARATORS.split(folded)) {
+            if (word.length() >= MIN_TERM_LENGTH) words.add(word);
+        }
+
+        return words;
+    }
+
+    /**
+     * Longest first, since a longer prefix tends to match fewer rows.
+     */
+    private static List<String> queryTerms(String query) {
+        Set<String> words = words(query);
+        if (words.isEmpty()) {
+            throw new BadRequestException("q must contain a word of at least %d letters or digits".formatted(MIN_TERM_LENGTH));
+        }
+
+        List<String> terms = new ArrayList<>();
+        for (String word : words.stream().sorted(Comparator.comparingInt(String::length).reversed()).toList()) {
+            if (terms.stream().noneMatch(term -> term.startsWith(word))) terms.add(word);
+        }
+
+        if (terms.size() > MAX_QUERY_TERMS) {
+            throw new BadRequestException("q must not contain more than %d words".formatted(MAX_QUERY_TERMS));
+        }
+
+        return terms;
+    }
+
+    /**
+     * As in the listing, the cursor date also caps the range.
+     */
+    private List<TransactionCursor> findPositions(long accountId, List<String> terms, LocalDateTime startDate, LocalDateTime endDate,
+                                                  TransactionCursor after, Limit limit) {
+        LocalDateTime endBound = DateUtils.upperBound(endDate);
+        if (after != null && after.date().isBefore(endBound)) endBound = after.date();
+
+        StringBuilder sql = new StringBuilder("SELECT t0.date, t0.transaction_id FROM transaction_term t0");
+        List<Object> parameters = new ArrayList<>();
+        for (int i = 1; i < terms.size(); i++) {
+            sql.append((" JOIN transaction_term t%1$d ON t%1$d.account_id = t0.account_id AND t%1$d.term = ? " +
+                    "AND t%1$d.date = t0.date AND t%1$d.transaction_id = t0.transaction_id").formatted(i));
+            parameters.add(terms.get(i));
+        }
+
+        sql.append(" WHERE t0.account_id = ? AND t0.term = ? AND t0.date BETWEEN ? AND ?");
+        parameters.add(accountId);
+        parameters.add(terms.getFirst());
+        parameters.add(Timestamp.valueOf(DateUtils.lowerBound(startDate)));
+        parameters.add(Timestamp.valueOf(endBound));
+        if (after != null) {
+            sql.append(" AND (t0.date < ? OR t0.transaction_id < ?)");
+            parameters.add(Timestamp.valueOf(after.date()));
+            parameters.add(after.id());
+        }
+
+        // the account and term are fixed, but ordering by them too lets H2 read the key backwards instead of sorting every match
+        sql.append(" ORDER BY t0.account_id DESC, t0.term DESC, t0.date DESC, t0.transaction_id DESC LIMIT ?");
+        parameters.add(limit.max());
+
+        return jdbcTemplate.query(sql.toString(),
+                (resultSet, rowNumber) -> new TransactionCursor(resultSet.getTimestamp(1).toLocalDateTime(), resultSet.getLong(2)),
+                parameters.toArray());
+    }
+
+    private static Transaction toTransaction(long accountId, TransactionGetResponse response) {
+        return Transaction.builder()
+                .id(response.getId())
+                .accountId(accountId)
+                .description(response.getDescription())
+                .date(response.getDate())
+                .build();
+    }
+}
@@ -1,52 +1,125 @@
 package com.branches.service;
 
+import com.branches.cache.TransactionCache;
+import com.branches.cache.TransactionCacheKey;
+import com.branches.event.TransactionsSavedEvent;
+import com.branches.exception.BadRequestException;
 import com.branches.mapper.TransactionMapper;
 import com.branches.model.Transaction;
-import com.branches.repository.TransactionRepository;
+import com.branches.repository.IdempotencyRecordRepository;
+import com.branches.repository.TransactionStore;
+import com.branches.request.TransactionCursor;
 import com.branches.request.TransactionPostRequest;
 import com.branches.response.TransactionGetResponse;
+import com.branches.response.TransactionPageResponse;
 import com.branches.response.TransactionPostResponse;
+import com.branches.utils.MoneyUtils;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Sort;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
 public class TransactionService {
-    private final TransactionRepository repository;
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+
+    private final TransactionStore store;
     private final TransactionMapper mapper;
+    private final BalanceService balanceService;
+    private final TransactionSummaryService summaryService;
+    private final BalanceCheckpointService checkpointService;
+    private final TransactionSearchService searchService;
+    private final TransactionCache cache;
+    private final IdempotencyRecordRepository idempotencyRepository;
+    private final TransactionGroupCommitter groupCommitter;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public TransactionPostResponse save(long accountId, TransactionPostRequest postRequest) {
+        Transaction transaction = mapper.toTransaction(postRequest).withAccountId(accountId);
+        Transaction saved = groupCommitter.isEnabled()
+                ? groupCommitter.write(transaction)
+                : transactionTemplate.execute(status -> insert(transaction));
 
-    public TransactionPostResponse save(TransactionPostRequest postRequest) {
-        Transaction transactionToSave = mapper.toTransaction(postRequest);
+        return mapper.toTransactionPostResponse(saved);
+    }
 
-        Transaction response = repository.save(transactionToSave);
+    /**
+     * Fails with a {@link org.springframework.dao.DataIntegrityViolationException} when the key was committed first.
+     */
+    @Transactional
+    public TransactionPostResponse save(long accountId, TransactionPostRequest postRequest, String idempotencyKey) {
+        Transaction transaction = insert(mapper.toTransaction(postRequest).withAccountId(accountId));
+        idempotencyRepository.insert(idempotencyKey, accountId, transaction.getId(), MoneyUtils.toDecimal(transaction.getValueInCents()),
+                transaction.getDescription(), transaction.getDate(), LocalDateTime.now());
 
-        return mapper.toTransactionPostResponse(response);
+        return mapper.toTransactionPostResponse(transaction);
     }
 
-    public Double getBalance() {
-        return repository.sumAllTransactions();
+    public BigDecimal getBalance(long accountId) {
+        return cache.get(
+                TransactionCacheKey.of(accountId, TransactionCacheKey.Query.BALANCE),
+                () -> balanceService.getBalance(accountId)
+        );
     }
 
-    public List<TransactionGetResponse> findAll(LocalDateTime startDate, LocalDateTime endDate) {
-        Sort sort = Sort.by("date").descending();
-        List<Transaction> response = repository.findAllByDateFilter(startDate, endDate, sort);
+    /**
+     * Keyset pagination on {@code (date, id)}, newest first.
+     */
+    public TransactionPageResponse findAll(long accountId, LocalDateTime startDate, LocalDateTime endDate, String cursor, int limit) {
+        if (limit < 1) throw new BadRequestException("limit must be greater than zero");
 
-        return mapper.toTransactionGetResponseList(response);
+        int pageSize = Math.min(limit, MAX_PAGE_SIZE);
+        TransactionCursor after = cursor == null ? null : TransactionCursor.decode(cursor);
+
+        return cache.get(
+                TransactionCacheKey.page(accountId, startDate, endDate, after, pageSize),
+                () -> loadPage(accountId, startDate, endDate, after, pageSize)
+        );
     }
 
-    public List<TransactionGetResponse> getIncomes() {
-        List<Transaction> response = repository.findAllByValueGreaterThan(0D);
+    public List<TransactionGetResponse> getIncomes(long accountId) {
+        return cache.get(
+                TransactionCacheKey.of(accountId, TransactionCacheKey.Query.INCOMES),
+                () -> store.findAllBySign(accountId, Transaction.INCOME)
+        );
+    }
 
-        return mapper.toTransactionGetResponseList(response);
+    public List<TransactionGetResponse> getExpenses(long accountId) {
+        return cache.get(
+                TransactionCacheKey.of(accountId, TransactionCacheKey.Query.EXPENSES),
+                () -> store.findAllBySign(accountId, Transaction.EXPENSE)
+        );
     }
 
-    public List<TransactionGetResponse> getExpenses() {
-        List<Transaction> response = repository.findAllByValueIsLessThan(0D);
+    private Transaction insert(Transaction transactionToSave) {
+        Transaction response = store.save(transactionToSave);
+        long balanceInCents = balanceService.apply(response.getAccountId(), response.getValueInCents(), 1);
+        summaryService.apply(List.of(response));
+        checkpointService.apply(List.of(response));
+        searchService.apply(List.of(response));
+        eventPublisher.publishEvent(new TransactionsSavedEvent(List.of(response), Map.of(response.getAccountId(), balanceInCents)));
+
+        return response;
+    }
+
+    private TransactionPageResponse loadPage(long accountId, LocalDateTime startDate, LocalDateTime endDate, TransactionCursor after,
+                                             int pageSize) {
+        Limit fetchLimit = Limit.of(pageSize + 1);
+
+        List<TransactionGetResponse> transactions = after == null
+                ? store.findFirstPageByDateFilter(accountId, startDate, endDate, fetchLimit)
+                : store.findPageByDateFilterAfter(accountId, startDate, endDate, after.date(), after.id(), fetchLimit);
 
-        return mapper.toTransactionGetResponseList(response);
+        return TransactionPageResponse.of(transactions, pageSize);
     }
 }
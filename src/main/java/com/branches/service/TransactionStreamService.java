@@ -0,0 +1,263 @@
+package com.branches.service;
+
+import com.branches.event.BalanceRepairedEvent;
+import com.branches.event.TransactionsSavedEvent;
+import com.branches.exception.ServiceUnavailableException;
+import com.branches.mapper.TransactionMapper;
+import com.branches.model.Transaction;
+import com.branches.response.TransactionStreamResponse;
+import com.branches.utils.MoneyUtils;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Only writes made through this instance are streamed.
+ */
+@Slf4j
+@Service
+public class TransactionStreamService {
+    public static final String TRANSACTION_EVENT = "transaction";
+    public static final String BALANCE_EVENT = "balance";
+    public static final String RESYNC_EVENT = "resync";
+
+    private static final StreamEvent HEARTBEAT = new StreamEvent(null, null, null, null);
+
+    private final TransactionMapper mapper;
+    private final ObjectMapper objectMapper;
+    private final Executor executor;
+    private final int replaySize;
+    private final int subscriberBufferSize;
+    private final int maxSubscribers;
+    private final Duration timeout;
+    private final Deque<StreamEvent> replay = new ArrayDeque<>();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public TransactionStreamService(
+            TransactionMapper mapper,
+            ObjectMapper objectMapper,
+            @Value("${ledger.stream.replay-size:1000}") int replaySize,
+            @Value("${ledger.stream.subscriber-buffer:256}") int subscriberBufferSize,
+            @Value("${ledger.stream.max-subscribers:10000}") int maxSubscribers,
+            @Value("${ledger.stream.timeout:30m}") Duration timeout
+    ) {
+        this(mapper, objectMapper, Executors.newVirtualThreadPerTaskExecutor(), replaySize, subscriberBufferSize, maxSubscribers, timeout);
+    }
+
+    TransactionStreamService(TransactionMapper mapper, ObjectMapper objectMapper, Executor executor,
+                             int replaySize, int subscriberBufferSize, int maxSubscribers, Duration timeout) {
+        this.mapper = mapper;
+        this.objectMapper = objectMapper;
+        this.executor = executor;
+        this.replaySize = replaySize;
+        this.subscriberBufferSize = subscriberBufferSize;
+        this.maxSubscribers = maxSubscribers;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Starts with a {@value #RESYNC_EVENT} event when the events after {@code lastEventId} can not be replayed.
+     */
+    public SseEmitter subscribe(long accountId, Long lastEventId) {
+        return subscribe(new SseEmitter(timeout.toMillis()), accountId, lastEventId);
+    }
+
+    SseEmitter subscribe(SseEmitter emitter, long accountId, Long lastEventId) {
+        Subscriber subscriber = new Subscriber(emitter, accountId);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+
+        synchronized (replay) {
+            if (subscribers.size() >= maxSubscribers) throw new ServiceUnavailableException("Too many stream subscribers");
+
+            if (lastEventId != null) {
+                List<StreamEvent> missed = eventsAfter(accountId, lastEventId);
+                if (missed == null || missed.size() > subscriberBufferSize) {
+                    subscriber.queue.offer(new StreamEvent(accountId, null, RESYNC_EVENT, "{}"));
+                } else {
+                    subscriber.queue.addAll(missed);
+                }
+            }
+            subscribers.add(subscriber);
+        }
+        subscriber.schedule();
+
+        return emitter;
+    }
+
+    @TransactionalEventListener
+    public void onTransactionsSaved(TransactionsSavedEvent event) {
+        List<Transaction> transactions = event.transactions();
+        List<StreamEvent> events = new ArrayList<>(transactions.size());
+
+        // every row of a batch commits together; each one is sent with the balance of its account right after it
+        Map<Long, Long> balancesInCents = new HashMap<>(event.balancesInCents());
+        for (Transaction transaction : transactions) {
+            balancesInCents.merge(transaction.getAccountId(), -transaction.getValueInCents(), Long::sum);
+        }
+        for (Transaction transaction : transactions) {
+            long balanceInCents = balancesInCents.merge(transaction.getAccountId(), transaction.getValueInCents(), Long::sum);
+            TransactionStreamResponse response = TransactionStreamResponse.builder()
+                    .transaction(mapper.toTransactionGetResponse(transaction))
+                    .balance(MoneyUtils.toDecimal(balanceInCents))
+                    .build();
+            events.add(new StreamEvent(transaction.getAccountId(), transaction.getId(), TRANSACTION_EVENT, toJson(response)));
+        }
+
+        publish(events);
+    }
+
+    @TransactionalEventListener
+    public void onBalanceRepaired(BalanceRepairedEvent event) {
+        publish(List.of(new StreamEvent(event.accountId(), null, BALANCE_EVENT,
+                toJson(Map.of("balance", MoneyUtils.toDecimal(event.balanceInCents()))))));
+    }
+
+    @Scheduled(fixedDelayString = "${ledger.stream.heartbeat-interval:15s}")
+    public void sendHeartbeats() {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.queue.isEmpty()) subscriber.offer(HEARTBEAT);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        if (executor instanceof ExecutorService executorService) executorService.shutdownNow();
+    }
+
+    int subscriberCount() {
+        return subscribers.size();
+    }
+
+    private void publish(List<StreamEvent> events) {
+        synchronized (replay) {
+            for (StreamEvent event : events) {
+                if (event.id() != null) {
+                    if (replay.size() == replaySize) replay.removeFirst();
+                    replay.addLast(event);
+                }
+
+                for (Subscriber subscriber : subscribers) {
+                    if (subscriber.accountId == event.accountId()) subscriber.offer(event);
+                }
+            }
+        }
+    }
+
+    /**
+     * Null when the event is no longer in the replay buffer.
+     */
+    private List<StreamEvent> eventsAfter(long accountId, long lastEventId) {
+        List<StreamEvent> missed = new ArrayList<>();
+        for (var iterator = replay.descendingIterator(); iterator.hasNext(); ) {
+            StreamEvent event = iterator.next();
+            if (event.accountId() != accountId) continue;
+            if (event.id() == lastEventId) return missed.reversed();
+            missed.add(event);
+        }
+
+        return null;
+    }
+
+    private String toJson(Object data) {
+        try {
+            return objectMapper.writeValueAsString(data);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialize stream event", e);
+        }
+    }
+
+    private record StreamEvent(Long accountId, Long id, String name, String data) {
+        SseEmitter.SseEventBuilder toSseEvent() {
+            if (name == null) return SseEmitter.event().comment("heartbeat");
+
+            SseEmitter.SseEventBuilder builder = SseEmitter.event().name(name).data(data);
+            return id == null ? builder : builder.id(id.toString());
+        }
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final long accountId;
+        private final Queue<StreamEvent> queue = new ArrayBlockingQueue<>(subscriberBufferSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean overflowed;
+        private volatile boolean closed;
+
+        private Subscriber(SseEmitter emitter, long accountId) {
+            this.emitter = emitter;
+            this.accountId = accountId;
+        }
+
+        private void offer(StreamEvent event) {
+            if (overflowed || closed) return;
+
+            if (!queue.offer(event)) {
+                // the client reads slower than transactions are committed; it reconnects with its last id
+                log.debug("Disconnecting stream subscriber that is {} events behind", queue.size());
+                overflowed = true;
+                subscribers.remove(this);
+                queue.clear();
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            if (draining.compareAndSet(false, true)) executor.execute(this::drain);
+        }
+
+        private void drain() {
+            try {
+                StreamEvent event;
+                while (!overflowed && (event = queue.poll()) != null) {
+                    emitter.send(event.toSseEvent());
+                }
+                if (overflowed) close(null);
+            } catch (IOException | IllegalStateException e) {
+                close(e);
+            } finally {
+                draining.set(false);
+            }
+
+            // an offer made while this drain was finishing could not schedule another one
+            if (!closed && (overflowed || !queue.isEmpty())) schedule();
+        }
+
+        private void close(Exception error) {
+            closed = true;
+            subscribers.remove(this);
+            if (error == null) {
+                emitter.complete();
+            } else {
+                emitter.completeWithError(error);
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.branches.service;
+
+import com.branches.model.SummaryGranularity;
+import com.branches.model.Transaction;
+import com.branches.model.TransactionRollup;
+import com.branches.model.TransactionRollupId;
+import com.branches.repository.TransactionRollupRepository;
+import com.branches.response.TransactionPeriodSummaryResponse;
+import com.branches.response.TransactionSummaryResponse;
+import com.branches.utils.MoneyUtils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Service
+@RequiredArgsConstructor
+public class TransactionSummaryService {
+    private static final Comparator<TransactionRollupId> PERIOD_ORDER = Comparator
+            .comparing(TransactionRollupId::accountId)
+            .thenComparing(TransactionRollupId::granularity)
+            .thenComparing(TransactionRollupId::periodStart);
+
+    private final TransactionRollupRepository repository;
+
+    /**
+     * Periods are updated in a fixed order, so concurrent saves can not deadlock.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void apply(Collection<Transaction> transactions) {
+        Map<TransactionRollupId, long[]> totals = new TreeMap<>(PERIOD_ORDER);
+        for (Transaction transaction : transactions) {
+            for (SummaryGranularity granularity : SummaryGranularity.values()) {
+                TransactionRollupId id = new TransactionRollupId(transaction.getAccountId(), granularity,
+                        granularity.periodStart(transaction.getDate()));
+                add(totals.computeIfAbsent(id, key -> new long[3]), transaction.getValueInCents());
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        totals.forEach((id, total) -> repository.addToPeriod(
+                id.accountId(), id.granularity().name(), id.periodStart(), total[0], total[1], total[2], now
+        ));
+    }
+
+    @Transactional(readOnly = true)
+    public TransactionSummaryResponse getSummary(long accountId, SummaryGranularity granularity, LocalDate startDate, LocalDate endDate) {
+        LocalDate firstPeriod = startDate == null ? null : granularity.periodStart(startDate);
+        List<TransactionRollup> rollups = repository.findAllByPeriod(accountId, granularity, firstPeriod, endDate);
+
+        List<TransactionPeriodSummaryResponse> periods = new ArrayList<>(rollups.size());
+        long transactionCount = 0;
+        long incomesInCents = 0;
+        long expensesInCents = 0;
+        for (TransactionRollup rollup : rollups) {
+            periods.add(toPeriodSummary(rollup));
+            transactionCount += rollup.getTransactionCount();
+            incomesInCents = Math.addExact(incomesInCents, rollup.getIncomesInCents());
+            expensesInCents = Math.addExact(expensesInCents, rollup.getExpensesInCents());
+        }
+
+        return TransactionSummaryResponse.builder()
+                .granularity(granularity)
+                .transactionCount(transactionCount)
+                .incomes(MoneyUtils.toDecimal(incomesInCents))
+                .expenses(MoneyUtils.toDecimal(expensesInCents))
+                .net(MoneyUtils.toDecimal(Math.addExact(incomesInCents, expensesInCents)))
+                .periods(periods)
+                .build();
+    }
+
+    private static void add(long[] total, long valueInCents) {
+        total[0]++;
+        if (valueInCents > 0) total[1] = Math.addExact(total[1], valueInCents);
+        if (valueInCents < 0) total[2] = Math.addExact(total[2], valueInCents);
+    }
+
+    private static TransactionPeriodSummaryResponse toPeriodSummary(TransactionRollup rollup) {
+        return TransactionPeriodSummaryResponse.builder()
+                .periodStart(rollup.getId().periodStart())
+                .transactionCount(rollup.getTransactionCount())
+                .incomes(MoneyUtils.toDecimal(rollup.getIncomesInCents()))
+                .expenses(MoneyUtils.toDecimal(rollup.getExpensesInCents()))
+                .net(MoneyUtils.toDecimal(Math.addExact(rollup.getIncomesInCents(), rollup.getExpensesInCents())))
+                .build();
+    }
+}
@@ -0,0 +1,22 @@
+package com.branches.utils;
+
+import java.time.LocalDateTime;
+
+/**
+ * Open ends of a date filter are replaced by the limits of a MySQL {@code DATETIME}, so queries always use a concrete range.
+ */
+public final class DateUtils {
+    public static final LocalDateTime MIN_DATE = LocalDateTime.of(1000, 1, 1, 0, 0);
+    public static final LocalDateTime MAX_DATE = LocalDateTime.of(9999, 12, 31, 23, 59, 59, 999_999_000);
+
+    private DateUtils() {
+    }
+
+    public static LocalDateTime lowerBound(LocalDateTime startDate) {
+        return startDate == null ? MIN_DATE : startDate;
+    }
+
+    public static LocalDateTime upperBound(LocalDateTime endDate) {
+        return endDate == null ? MAX_DATE : endDate;
+    }
+}
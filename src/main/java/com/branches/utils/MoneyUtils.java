@@ -0,0 +1,31 @@
+package com.branches.utils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Money is kept as a {@code long} of cents inside the application.
+ */
+public final class MoneyUtils {
+    public static final int SCALE = 2;
+
+    private MoneyUtils() {
+    }
+
+    public static long toCents(BigDecimal amount) {
+        return amount.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal toDecimal(long cents) {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    public static long sum(long[] cents) {
+        long total = 0;
+        for (long value : cents) {
+            total = Math.addExact(total, value);
+        }
+
+        return total;
+    }
+}
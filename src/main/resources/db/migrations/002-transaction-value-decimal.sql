@@ -0,0 +1,8 @@
+-- Converts transaction values from DOUBLE to exact DECIMAL(19,2).
+-- Hibernate's ddl-auto=update does not change existing column types, so run this once on
+-- databases created before the switch to fixed-point money. Values are rounded to cents.
+ALTER TABLE transaction MODIFY COLUMN value DECIMAL(19, 2) NOT NULL;
+
+-- The balance snapshot is now stored in cents; it is rebuilt from the ledger on the next save
+-- or by POST /v1/transactions/balance/reconcile.
+DROP TABLE IF EXISTS balance_snapshot;
@@ -0,0 +1,14 @@
+-- Transaction ids now come from a pooled sequence (allocation size 50) instead of AUTO_INCREMENT,
+-- which lets Hibernate batch inserts. MySQL has no sequences, so Hibernate keeps the next value in
+-- the transaction_seq table. Run this once BEFORE starting the new version on an existing database,
+-- otherwise Hibernate creates the table starting at 1 and new ids collide with existing rows.
+CREATE TABLE IF NOT EXISTS transaction_seq (next_val BIGINT);
+
+DELETE FROM transaction_seq;
+
+-- Leaves a full allocation block of headroom above the current maximum id.
+INSERT INTO transaction_seq (next_val)
+SELECT COALESCE(MAX(id), 0) + 51 FROM transaction;
+
+-- The date is now assigned by the application when the row is inserted.
+ALTER TABLE transaction MODIFY COLUMN date DATETIME(6) NOT NULL;
@@ -0,0 +1,35 @@
+-- Per-day and per-month totals read by GET /v1/transactions/summary. New transactions update them as
+-- they are saved; this script fills them from the transactions that already exist. Run it once with
+-- the application stopped, right after upgrading, otherwise summaries leave out older transactions.
+CREATE TABLE IF NOT EXISTS transaction_rollup (
+    granularity VARCHAR(5) NOT NULL,
+    period_start DATE NOT NULL,
+    transaction_count BIGINT NOT NULL,
+    incomes_in_cents BIGINT NOT NULL,
+    expenses_in_cents BIGINT NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (granularity, period_start)
+);
+
+DELETE FROM transaction_rollup;
+
+INSERT INTO transaction_rollup
+    (granularity, period_start, transaction_count, incomes_in_cents, expenses_in_cents, updated_at)
+SELECT 'DAY',
+       DATE(date),
+       COUNT(*),
+       CAST(COALESCE(SUM(CASE WHEN value > 0 THEN value END), 0) * 100 AS SIGNED),
+       CAST(COALESCE(SUM(CASE WHEN value < 0 THEN value END), 0) * 100 AS SIGNED),
+       NOW(6)
+FROM transaction
+GROUP BY DATE(date);
+
+INSERT INTO transaction_rollup
+    (granularity, period_start, transaction_count, incomes_in_cents, expenses_in_cents, updated_at)
+SELECT 'MONTH', period_start, SUM(transaction_count), SUM(incomes_in_cents), SUM(expenses_in_cents), NOW(6)
+FROM (
+    SELECT DATE_FORMAT(period_start, '%Y-%m-01') AS period_start, transaction_count, incomes_in_cents, expenses_in_cents
+    FROM transaction_rollup
+    WHERE granularity = 'DAY'
+) days
+GROUP BY period_start;
@@ -0,0 +1,14 @@
+-- Adds the sign column read by GET /incomes and /expenses and replaces the (date, id) index with
+-- covering indexes for the list queries, which can then be answered from the index alone. Run it once
+-- BEFORE starting the new version; on a large table each statement rebuilds the table or an index.
+ALTER TABLE transaction ADD COLUMN sign TINYINT NOT NULL DEFAULT 0;
+
+UPDATE transaction SET sign = SIGN(value);
+
+ALTER TABLE transaction ALTER COLUMN sign DROP DEFAULT;
+
+CREATE INDEX idx_transaction_date_list ON transaction (date, id, value, description, sign);
+
+CREATE INDEX idx_transaction_sign_date_list ON transaction (sign, date, id, value, description);
+
+DROP INDEX idx_transaction_date_id ON transaction;
@@ -0,0 +1,40 @@
+-- Range-partitions the transaction table by month on date, from the month of the oldest transaction
+-- through three months ahead, plus a pmax partition for every later date. From then on the application
+-- splits new months off pmax ahead of time (ledger.partitioning). MySQL requires the partitioning column
+-- in every unique key, so the primary key becomes (id, date); ids stay unique through transaction_seq.
+-- Run it once BEFORE starting the new version; it rebuilds the table in a single ALTER.
+SET SESSION group_concat_max_len = 1000000;
+
+WITH RECURSIVE months (month_start) AS (
+    SELECT CAST(DATE_FORMAT(COALESCE((SELECT MIN(date) FROM transaction), NOW()), '%Y-%m-01') AS DATE)
+    UNION ALL
+    SELECT month_start + INTERVAL 1 MONTH
+    FROM months
+    WHERE month_start < CAST(DATE_FORMAT(NOW() + INTERVAL 3 MONTH, '%Y-%m-01') AS DATE)
+)
+SELECT GROUP_CONCAT(
+           CONCAT('PARTITION p', DATE_FORMAT(month_start, '%Y%m'),
+                  ' VALUES LESS THAN (''', month_start + INTERVAL 1 MONTH, ' 00:00:00'')')
+           ORDER BY month_start SEPARATOR ', ')
+INTO @monthly_partitions
+FROM months;
+
+SET @partition_transaction = CONCAT(
+    'ALTER TABLE transaction DROP PRIMARY KEY, ADD PRIMARY KEY (id, date) ',
+    'PARTITION BY RANGE COLUMNS(date) (', @monthly_partitions, ', PARTITION pmax VALUES LESS THAN (MAXVALUE))'
+);
+
+PREPARE partition_transaction FROM @partition_transaction;
+EXECUTE partition_transaction;
+DEALLOCATE PREPARE partition_transaction;
+
+-- Archived months are moved here by TransactionArchiveService; compressed, since they are rarely read.
+CREATE TABLE IF NOT EXISTS transaction_archive (
+    id BIGINT NOT NULL,
+    value DECIMAL(19,2) NOT NULL,
+    sign TINYINT NOT NULL,
+    description VARCHAR(50),
+    date DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    INDEX idx_transaction_archive_date (date, value)
+) ROW_FORMAT=COMPRESSED;
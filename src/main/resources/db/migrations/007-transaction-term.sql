@@ -0,0 +1,14 @@
+-- Search index read by GET /v1/transactions/search: one row per prefix of each word of a description,
+-- keyed by (term, date, transaction_id). Terms are stored already folded to lower case without accents,
+-- so the column compares them byte by byte; with the default accent- and case-insensitive collation
+-- two different terms of one transaction could collide on the key. The table is recreated in case
+-- Hibernate created it first. New transactions are indexed as they are saved; to index the ones that
+-- already exist, start the new version once with --ledger.search.reindex=true.
+DROP TABLE IF EXISTS transaction_term;
+
+CREATE TABLE transaction_term (
+    term VARCHAR(50) CHARACTER SET utf8mb4 COLLATE utf8mb4_bin NOT NULL,
+    date DATETIME(6) NOT NULL,
+    transaction_id BIGINT NOT NULL,
+    PRIMARY KEY (term, date, transaction_id)
+);
@@ -0,0 +1,49 @@
+-- Adds the account dimension read by every route under /v1/accounts/{accountId}/transactions. Rows that
+-- already exist belong to account 1, the one still served under /v1/transactions. The list indexes and
+-- the keys of the rollups and of the search index lead with account_id, and the single balance snapshot
+-- becomes stripe 0 of account 1 in balance_stripe. Run it once with the application stopped, BEFORE
+-- starting the new version; on a large table each statement rebuilds the table or an index.
+ALTER TABLE transaction ADD COLUMN account_id BIGINT NOT NULL DEFAULT 1;
+
+CREATE INDEX idx_transaction_account_date_list ON transaction (account_id, date, id, value, description, sign);
+
+CREATE INDEX idx_transaction_account_sign_date_list ON transaction (account_id, sign, date, id, value, description);
+
+DROP INDEX idx_transaction_date_list ON transaction;
+
+DROP INDEX idx_transaction_sign_date_list ON transaction;
+
+ALTER TABLE transaction_archive
+    ADD COLUMN account_id BIGINT NOT NULL DEFAULT 1,
+    ADD INDEX idx_transaction_archive_account_date (account_id, date, value),
+    DROP INDEX idx_transaction_archive_date;
+
+ALTER TABLE transaction_rollup
+    ADD COLUMN account_id BIGINT NOT NULL DEFAULT 1 FIRST,
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (account_id, granularity, period_start);
+
+ALTER TABLE transaction_term
+    ADD COLUMN account_id BIGINT NOT NULL DEFAULT 1 FIRST,
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (account_id, term, date, transaction_id);
+
+ALTER TABLE idempotency_record ADD COLUMN account_id BIGINT NOT NULL DEFAULT 1;
+
+ALTER TABLE cache_invalidation_message ADD COLUMN account_id BIGINT;
+
+CREATE TABLE IF NOT EXISTS balance_stripe (
+    account_id BIGINT NOT NULL,
+    stripe INT NOT NULL,
+    balance_in_cents BIGINT NOT NULL,
+    transaction_count BIGINT NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (account_id, stripe)
+);
+
+INSERT INTO balance_stripe (account_id, stripe, balance_in_cents, transaction_count, updated_at)
+SELECT 1, 0, balance_in_cents, transaction_count, updated_at
+FROM balance_snapshot
+WHERE id = 1;
+
+DROP TABLE balance_snapshot;
@@ -0,0 +1,25 @@
+-- Daily balance checkpoints read by GET /v1/transactions/balance?at=...: the balance of each account at
+-- the start of every day it has transactions. New transactions keep them up to date as they are saved;
+-- this script fills them from the daily rollups of 004-transaction-rollup.sql. Run it once with the
+-- application stopped, right after upgrading; POST /v1/transactions/balance/checkpoints/rebuild does the
+-- same for one account while the application runs.
+CREATE TABLE IF NOT EXISTS balance_checkpoint (
+    account_id BIGINT NOT NULL,
+    checkpoint_date DATE NOT NULL,
+    balance_in_cents BIGINT NOT NULL,
+    transaction_count BIGINT NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (account_id, checkpoint_date)
+);
+
+DELETE FROM balance_checkpoint;
+
+INSERT INTO balance_checkpoint (account_id, checkpoint_date, balance_in_cents, transaction_count, updated_at)
+SELECT account_id,
+       period_start,
+       COALESCE(SUM(incomes_in_cents + expenses_in_cents) OVER preceding_days, 0),
+       COALESCE(SUM(transaction_count) OVER preceding_days, 0),
+       NOW(6)
+FROM transaction_rollup
+WHERE granularity = 'DAY'
+WINDOW preceding_days AS (PARTITION BY account_id ORDER BY period_start ROWS BETWEEN UNBOUNDED PRECEDING AND 1 PRECEDING);
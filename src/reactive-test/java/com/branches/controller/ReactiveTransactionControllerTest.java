@@ -0,0 +1,259 @@
+package com.branches.controller;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs the reactive variant of the API end to end, on Netty and an embedded database that JPA writes
+ * through JDBC and the reads go through R2DBC.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:reactive;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=VALUE;DB_CLOSE_DELAY=-1",
+        "spring.r2dbc.url=r2dbc:h2:mem:///reactive?options=MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=VALUE;DB_CLOSE_DELAY=-1",
+        "spring.r2dbc.username=sa",
+        "spring.r2dbc.password=",
+        "ledger.cache.maximum-size=0"
+})
+@ActiveProfiles({"reactive", "test"})
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ReactiveTransactionControllerTest {
+    private static final String URL = "/v1/transactions";
+    private static final String ACCOUNT_URL = "/v1/accounts/7/transactions";
+
+    @Autowired
+    private WebTestClient client;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void init() {
+        jdbcTemplate.update("DELETE FROM transaction");
+        jdbcTemplate.update("DELETE FROM balance_stripe");
+        jdbcTemplate.update("DELETE FROM balance_checkpoint");
+        jdbcTemplate.update("DELETE FROM transaction_rollup");
+    }
+
+    @Test
+    @DisplayName("POST /v1/transactions creates a transaction that GET /v1/transactions returns")
+    @Order(1)
+    void save_CreatesTransaction_ThatFindAllReturns() {
+        client.post().uri(URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("value", new BigDecimal("12.34"), "description", "Salary"))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.value").isEqualTo(12.34)
+                .jsonPath("$.description").isEqualTo("Salary");
+
+        client.get().uri(URL)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists(HttpHeaders.ETAG)
+                .expectBody()
+                .jsonPath("$.content[0].description").isEqualTo("Salary")
+                .jsonPath("$.next").doesNotExist();
+    }
+
+    @Test
+    @DisplayName("GET /v1/transactions pages the transactions newest first through the cursor")
+    @Order(2)
+    void findAll_PagesTransactionsNewestFirst_ThroughTheCursor() {
+        save(URL, "1.00", "first");
+        save(URL, "2.00", "second");
+        save(URL, "3.00", "third");
+
+        Page firstPage = findPage(URL + "?limit=2");
+        Page secondPage = findPage(URL + "?limit=2&cursor=" + firstPage.next());
+
+        Assertions.assertThat(firstPage.content()).extracting(Row::description).containsExactly("third", "second");
+        Assertions.assertThat(secondPage.content()).extracting(Row::description).containsExactly("first");
+        Assertions.assertThat(secondPage.next()).isNull();
+    }
+
+    @Test
+    @DisplayName("GET /v1/transactions returns 304 Not Modified while the ledger has not changed")
+    @Order(3)
+    void findAll_ReturnsNotModified_WhenTheETagMatches() {
+        save(URL, "1.00", "first");
+        String etag = client.get().uri(URL).exchange().expectStatus().isOk().returnResult(String.class).getResponseHeaders().getETag();
+
+        client.get().uri(URL)
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+    }
+
+    @Test
+    @DisplayName("GET /v1/transactions returns 400 Bad Request when the limit is not positive")
+    @Order(4)
+    void findAll_ReturnsBadRequest_WhenTheLimitIsNotPositive() {
+        client.get().uri(URL + "?limit=0")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    @DisplayName("GET /v1/transactions/incomes and /expenses return the transactions of each sign")
+    @Order(5)
+    void getIncomesAndExpenses_ReturnTransactionsOfEachSign() {
+        save(URL, "10.00", "income");
+        save(URL, "-4.00", "expense");
+
+        client.get().uri(URL + "/incomes")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Row.class)
+                .value(incomes -> Assertions.assertThat(incomes).extracting(Row::description).containsExactly("income"));
+        client.get().uri(URL + "/expenses")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Row.class)
+                .value(expenses -> Assertions.assertThat(expenses).extracting(Row::description).containsExactly("expense"));
+    }
+
+    @Test
+    @DisplayName("GET /v1/transactions/balance returns the balance kept by the saves")
+    @Order(6)
+    void getBalance_ReturnsKeptBalance() {
+        save(URL, "10.00", "income");
+        save(URL, "-4.25", "expense");
+
+        client.get().uri(URL + "/balance")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.balance").isEqualTo(5.75);
+    }
+
+    @Test
+    @DisplayName("routes under /v1/accounts/{accountId}/transactions only see the transactions of the account")
+    @Order(7)
+    void accountRoutes_OnlySeeTheTransactionsOfTheAccount() {
+        save(URL, "1.00", "default account");
+        save(ACCOUNT_URL, "2.00", "account 7");
+
+        Assertions.assertThat(findPage(ACCOUNT_URL).content()).extracting(Row::description).containsExactly("account 7");
+        client.get().uri(ACCOUNT_URL + "/balance")
+                .exchange()
+                .expectBody()
+                .jsonPath("$.balance").isEqualTo(2.0);
+    }
+
+    @Test
+    @DisplayName("POST /v1/transactions/bulk saves every line of an NDJSON body")
+    @Order(8)
+    void saveAll_SavesEveryLine_WhenTheBodyIsNdjson() {
+        String body = """
+                {"value": 1.00, "description": "first"}
+                {"value": -2.00, "description": "second"}
+                """;
+
+        client.post().uri(URL + "/bulk")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .bodyValue(body)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.created").isEqualTo(2)
+                .jsonPath("$.failed").isEqualTo(0);
+
+        Assertions.assertThat(findPage(URL).content()).extracting(Row::description).containsExactly("second", "first");
+    }
+
+    @Test
+    @DisplayName("GET /v1/transactions/export/json streams every transaction as one JSON array")
+    @Order(9)
+    void exportJson_StreamsEveryTransactionAsAJsonArray() {
+        save(URL, "1.00", "first");
+        save(URL, "-2.50", "second");
+
+        client.get().uri(URL + "/export/json")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectHeader().valueEquals(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=transactions.json")
+                .expectBodyList(Row.class)
+                .value(transactions -> Assertions.assertThat(transactions)
+                        .extracting(Row::description)
+                        .containsExactly("second", "first"));
+    }
+
+    @Test
+    @DisplayName("GET /v1/transactions/export/ndjson and /export/csv write one line per transaction")
+    @Order(10)
+    void exportNdjsonAndCsv_WriteOneLinePerTransaction() {
+        save(URL, "1.00", "first");
+        save(URL, "-2.50", "say \"hi\"");
+
+        String ndjson = client.get().uri(URL + "/export/ndjson").exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).returnResult().getResponseBody();
+        String csv = client.get().uri(URL + "/export/csv").exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).returnResult().getResponseBody();
+
+        Assertions.assertThat(ndjson.lines().toList()).hasSize(2).allMatch(line -> line.startsWith("{") && line.endsWith("}"));
+        List<String> rows = csv.lines().toList();
+        Assertions.assertThat(rows).hasSize(3);
+        Assertions.assertThat(rows.getFirst()).isEqualTo("id,value,description,date");
+        Assertions.assertThat(rows.get(1)).contains(",-2.50,\"say \"\"hi\"\"\",");
+        Assertions.assertThat(rows.get(2)).contains(",1.00,\"first\",");
+    }
+
+    @Test
+    @DisplayName("GET /v1/transactions/balance?at=... returns the balance at that time from the daily checkpoints")
+    @Order(11)
+    void getBalance_ReturnsBalanceAtTheTime_WhenAtIsGiven() {
+        save(URL, "10.00", "income");
+        save(URL, "-4.25", "expense");
+
+        client.get().uri(URL + "/balance?at={at}", LocalDateTime.now().plusMinutes(1))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.balance").isEqualTo(5.75);
+        client.get().uri(URL + "/balance?at={at}", LocalDate.now().atStartOfDay().minusSeconds(1))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.balance").isEqualTo(0.0);
+    }
+
+    private void save(String url, String value, String description) {
+        client.post().uri(url)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("value", new BigDecimal(value), "description", description))
+                .exchange()
+                .expectStatus().isCreated();
+    }
+
+    private Page findPage(String url) {
+        return client.get().uri(url)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Page.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    private record Page(List<Row> content, String next) {
+    }
+
+    private record Row(Long id, BigDecimal value, String description, LocalDateTime date) {
+    }
+}
@@ -0,0 +1,312 @@
+package com.branches.controller;
+
+import com.branches.cache.LedgerVersion;
+import com.branches.exception.BadRequestException;
+import com.branches.model.SummaryGranularity;
+import com.branches.model.Transaction;
+import com.branches.repository.ReactiveTransactionRepository;
+import com.branches.request.BulkInsertMode;
+import com.branches.request.TransactionCursor;
+import com.branches.request.TransactionPostRequest;
+import com.branches.response.BalanceCheckpointRebuildResponse;
+import com.branches.response.BalanceReconciliationResponse;
+import com.branches.response.TransactionArchiveResponse;
+import com.branches.response.TransactionBulkResponse;
+import com.branches.response.TransactionGetResponse;
+import com.branches.response.TransactionPageResponse;
+import com.branches.response.TransactionPostResponse;
+import com.branches.response.TransactionSummaryResponse;
+import com.branches.service.BalanceCheckpointService;
+import com.branches.service.BalanceService;
+import com.branches.service.IdempotencyService;
+import com.branches.service.TransactionArchiveService;
+import com.branches.service.TransactionBulkService;
+import com.branches.service.TransactionExportService;
+import com.branches.service.TransactionSearchService;
+import com.branches.service.TransactionService;
+import com.branches.service.TransactionSummaryService;
+import com.branches.utils.MoneyUtils;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Writes run the servlet services on {@link Schedulers#boundedElastic()}; the {@code /stream} route is not served.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping({"v1/transactions", "v1/accounts/{accountId}/transactions"})
+@RequiredArgsConstructor
+public class ReactiveTransactionController {
+    private static final byte[] COMMA = {','};
+    private static final byte[] NEWLINE = {'\n'};
+
+    private final ReactiveTransactionRepository repository;
+    private final TransactionService service;
+    private final BalanceService balanceService;
+    private final BalanceCheckpointService checkpointService;
+    private final TransactionBulkService bulkService;
+    private final TransactionSummaryService summaryService;
+    private final TransactionSearchService searchService;
+    private final TransactionArchiveService archiveService;
+    private final IdempotencyService idempotencyService;
+    private final ObjectMapper objectMapper;
+    private final LedgerVersion ledgerVersion;
+
+    @PostMapping
+    public Mono<ResponseEntity<TransactionPostResponse>> save(@PathVariable(required = false) Long accountId,
+                                                              @RequestBody TransactionPostRequest postRequest,
+                                                              @RequestHeader(value = TransactionController.IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        long account = TransactionController.account(accountId);
+
+        return blocking(() -> idempotencyKey == null
+                ? service.save(account, postRequest)
+                : idempotencyService.save(account, postRequest, idempotencyKey))
+                .map(response -> ResponseEntity.status(HttpStatus.CREATED).body(response));
+    }
+
+    /**
+     * The body is decoded while the batch is saved, one element at a time.
+     */
+    @PostMapping(path = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Mono<ResponseEntity<TransactionBulkResponse>> saveAll(@PathVariable(required = false) Long accountId,
+                                                                 @RequestBody Flux<TransactionPostRequest> postRequests,
+                                                                 @RequestParam(defaultValue = "ATOMIC") BulkInsertMode mode) {
+        long account = TransactionController.account(accountId);
+
+        return blocking(() -> bulkService.saveAll(account, postRequests.toIterable().iterator(), mode))
+                .map(response -> ResponseEntity.status(response.getFailed() == 0 ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS)
+                        .body(response));
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<TransactionPageResponse>> findAll(@PathVariable(required = false) Long accountId,
+                                                                 @RequestParam(required = false) LocalDateTime startDate,
+                                                                 @RequestParam(required = false) LocalDateTime endDate,
+                                                                 @RequestParam(required = false) String cursor,
+                                                                 @RequestParam(defaultValue = "" + TransactionService.DEFAULT_PAGE_SIZE) int limit,
+                                                                 ServerWebExchange exchange) {
+        long account = TransactionController.account(accountId);
+        if (limit < 1) throw new BadRequestException("limit must be greater than zero");
+        if (isNotModified(exchange, null)) return Mono.empty();
+
+        int pageSize = Math.min(limit, TransactionService.MAX_PAGE_SIZE);
+        TransactionCursor after = cursor == null ? null : TransactionCursor.decode(cursor);
+        Flux<TransactionGetResponse> rows = after == null
+                ? repository.findFirstPageByDateFilter(account, startDate, endDate, pageSize + 1)
+                : repository.findPageByDateFilterAfter(account, startDate, endDate, after.date(), after.id(), pageSize + 1);
+
+        return rows.collectList().map(transactions -> ok(TransactionPageResponse.of(transactions, pageSize)));
+    }
+
+    @GetMapping("/search")
+    public Mono<ResponseEntity<TransactionPageResponse>> search(@PathVariable(required = false) Long accountId,
+                                                                @RequestParam String q,
+                                                                @RequestParam(required = false) LocalDateTime startDate,
+                                                                @RequestParam(required = false) LocalDateTime endDate,
+                                                                @RequestParam(required = false) String cursor,
+                                                                @RequestParam(defaultValue = "" + TransactionService.DEFAULT_PAGE_SIZE) int limit,
+                                                                ServerWebExchange exchange) {
+        long account = TransactionController.account(accountId);
+        if (isNotModified(exchange, null)) return Mono.empty();
+
+        return blocking(() -> searchService.search(account, q, startDate, endDate, cursor, limit)).map(ReactiveTransactionController::ok);
+    }
+
+    @GetMapping("/incomes")
+    public Mono<ResponseEntity<Flux<TransactionGetResponse>>> getIncomes(@PathVariable(required = false) Long accountId,
+                                                                         ServerWebExchange exchange) {
+        long account = TransactionController.account(accountId);
+        if (isNotModified(exchange, null)) return Mono.empty();
+
+        return Mono.just(ok(repository.findAllBySign(account, Transaction.INCOME)));
+    }
+
+    @GetMapping("/expenses")
+    public Mono<ResponseEntity<Flux<TransactionGetResponse>>> getExpenses(@PathVariable(required = false) Long accountId,
+                                                                          ServerWebExchange exchange) {
+        long account = TransactionController.account(accountId);
+        if (isNotModified(exchange, null)) return Mono.empty();
+
+        return Mono.just(ok(repository.findAllBySign(account, Transaction.EXPENSE)));
+    }
+
+    /**
+     * An account without stripes falls back to summing its ledger rows.
+     */
+    @GetMapping("/balance")
+    public Mono<ResponseEntity<Map<String, BigDecimal>>> getBalance(@PathVariable(required = false) Long accountId,
+                                                                    @RequestParam(required = false) LocalDateTime at,
+                                                                    ServerWebExchange exchange) {
+        long account = TransactionController.account(accountId);
+        if (isNotModified(exchange, null)) return Mono.empty();
+
+        Mono<BigDecimal> balance = at == null
+                ? repository.findBalanceInCents(account)
+                        .map(MoneyUtils::toDecimal)
+                        .switchIfEmpty(blocking(() -> balanceService.getBalance(account)))
+                : blocking(() -> checkpointService.getBalance(account, at));
+
+        return balance.map(found -> ok(Map.of("balance", found)));
+    }
+
+    @GetMapping("/summary")
+    public Mono<ResponseEntity<TransactionSummaryResponse>> getSummary(@PathVariable(required = false) Long accountId,
+                                                                       @RequestParam(defaultValue = "DAY") SummaryGranularity granularity,
+                                                                       @RequestParam(required = false) LocalDate startDate,
+                                                                       @RequestParam(required = false) LocalDate endDate,
+                                                                       ServerWebExchange exchange) {
+        long account = TransactionController.account(accountId);
+        if (isNotModified(exchange, null)) return Mono.empty();
+
+        return blocking(() -> summaryService.getSummary(account, granularity, startDate, endDate)).map(ReactiveTransactionController::ok);
+    }
+
+    @PostMapping("/balance/reconcile")
+    public Mono<ResponseEntity<BalanceReconciliationResponse>> reconcileBalance(@PathVariable(required = false) Long accountId) {
+        long account = TransactionController.account(accountId);
+
+        return blocking(() -> balanceService.reconcile(account)).map(ResponseEntity::ok);
+    }
+
+    @PostMapping("/balance/checkpoints/rebuild")
+    public Mono<ResponseEntity<BalanceCheckpointRebuildResponse>> rebuildBalanceCheckpoints(@PathVariable(required = false) Long accountId) {
+        long account = TransactionController.account(accountId);
+
+        return blocking(() -> checkpointService.rebuild(account)).map(ResponseEntity::ok);
+    }
+
+    @PostMapping("/archive")
+    public Mono<ResponseEntity<TransactionArchiveResponse>> archive(@PathVariable(required = false) Long accountId) {
+        if (accountId != null) throw new BadRequestException("The ledger is archived for every account at once, use POST v1/transactions/archive");
+
+        return blocking(archiveService::archive).map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/export/json")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> exportJson(@PathVariable(required = false) Long accountId,
+                                                             @RequestParam(required = false) LocalDateTime startDate,
+                                                             @RequestParam(required = false) LocalDateTime endDate,
+                                                             @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                                             ServerWebExchange exchange) {
+        long account = TransactionController.account(accountId);
+        DataBufferFactory buffers = exchange.getResponse().bufferFactory();
+        Flux<DataBuffer> body = Flux.concat(
+                Mono.fromSupplier(() -> buffers.wrap(new byte[]{'['})),
+                repository.streamAllByDateFilter(account, startDate, endDate)
+                        .index((index, transaction) -> index == 0 ? toJson(transaction) : concat(COMMA, toJson(transaction)))
+                        .map(buffers::wrap),
+                Mono.fromSupplier(() -> buffers.wrap(new byte[]{']'}))
+        );
+
+        return export(exchange, "transactions.json", MediaType.APPLICATION_JSON, acceptEncoding, body);
+    }
+
+    @GetMapping("/export/ndjson")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> exportNdjson(@PathVariable(required = false) Long accountId,
+                                                               @RequestParam(required = false) LocalDateTime startDate,
+                                                               @RequestParam(required = false) LocalDateTime endDate,
+                                                               @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                                               ServerWebExchange exchange) {
+        long account = TransactionController.account(accountId);
+        DataBufferFactory buffers = exchange.getResponse().bufferFactory();
+        Flux<DataBuffer> body = repository.streamAllByDateFilter(account, startDate, endDate)
+                .map(transaction -> buffers.wrap(concat(toJson(transaction), NEWLINE)));
+
+        return export(exchange, "transactions.ndjson", MediaType.APPLICATION_NDJSON, acceptEncoding, body);
+    }
+
+    @GetMapping("/export/csv")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> exportCsv(@PathVariable(required = false) Long accountId,
+                                                            @RequestParam(required = false) LocalDateTime startDate,
+                                                            @RequestParam(required = false) LocalDateTime endDate,
+                                                            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                                            ServerWebExchange exchange) {
+        long account = TransactionController.account(accountId);
+        DataBufferFactory buffers = exchange.getResponse().bufferFactory();
+        Flux<DataBuffer> body = Flux.concat(
+                Mono.fromSupplier(() -> buffers.wrap(TransactionExportService.CSV_HEADER.getBytes(StandardCharsets.UTF_8))),
+                repository.streamAllByDateFilter(account, startDate, endDate)
+                        .map(transaction -> buffers.wrap(toCsv(transaction).getBytes(StandardCharsets.UTF_8)))
+        );
+
+        return export(exchange, "transactions.csv", TransactionController.TEXT_CSV, acceptEncoding, body);
+    }
+
+    /**
+     * Compression is left to the server ({@code server.compression}).
+     */
+    private Mono<ResponseEntity<Flux<DataBuffer>>> export(ServerWebExchange exchange, String fileName, MediaType mediaType,
+                                                          String acceptEncoding, Flux<DataBuffer> body) {
+        boolean gzip = TransactionController.acceptsGzip(acceptEncoding);
+        if (isNotModified(exchange, gzip ? "gzip" : null)) return Mono.empty();
+
+        return Mono.just(ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + fileName)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .contentType(mediaType)
+                .body(body));
+    }
+
+    private boolean isNotModified(ServerWebExchange exchange, String variant) {
+        LedgerVersion.Stamp stamp = ledgerVersion.current();
+        String etag = variant == null ? stamp.etag() : stamp.etag(variant);
+
+        // a time before the epoch, as the -1 of a stamp modified within the current second, is left out
+        return exchange.checkNotModified(etag, Instant.ofEpochMilli(stamp.lastModified(Instant.now())));
+    }
+
+    private byte[] toJson(TransactionGetResponse transaction) {
+        try {
+            return objectMapper.writeValueAsBytes(transaction);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not write transaction " + transaction.getId(), e);
+        }
+    }
+
+    private static byte[] concat(byte[] first, byte[] second) {
+        byte[] bytes = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, bytes, first.length, second.length);
+
+        return bytes;
+    }
+
+    private static String toCsv(TransactionGetResponse transaction) {
+        String description = transaction.getDescription() == null ? "" : transaction.getDescription().replace("\"", "\"\"");
+
+        return transaction.getId() + "," + transaction.getValue().toPlainString() + ",\"" + description + "\"," + transaction.getDate() + "\n";
+    }
+
+    private static <T> ResponseEntity<T> ok(T body) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .body(body);
+    }
+
+    private static <T> Mono<T> blocking(Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(Schedulers.boundedElastic());
+    }
+}
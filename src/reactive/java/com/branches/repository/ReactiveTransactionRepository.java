@@ -0,0 +1,95 @@
+package com.branches.repository;
+
+import com.branches.response.TransactionGetResponse;
+import com.branches.utils.DateUtils;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * The queries of {@link TransactionRepository} written in SQL, so they read the same indexes.
+ */
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+public class ReactiveTransactionRepository {
+    private static final String SELECT_RESPONSE = "SELECT id, value, description, date FROM transaction ";
+    private static final String NEWEST_FIRST = " ORDER BY date DESC, id DESC";
+    private static final int STREAM_FETCH_SIZE = Integer.parseInt(TransactionRepository.STREAM_FETCH_SIZE);
+
+    private final DatabaseClient client;
+
+    public Flux<TransactionGetResponse> findAllBySign(long accountId, byte sign) {
+        return client.sql(SELECT_RESPONSE + "WHERE account_id = :accountId AND sign = :sign" + NEWEST_FIRST)
+                .bind("accountId", accountId)
+                .bind("sign", sign)
+                .map(ReactiveTransactionRepository::toResponse)
+                .all();
+    }
+
+    public Flux<TransactionGetResponse> findFirstPageByDateFilter(long accountId, LocalDateTime startDate, LocalDateTime endDate, int limit) {
+        return client.sql(SELECT_RESPONSE + "WHERE account_id = :accountId AND date BETWEEN :startDate AND :endDate" + NEWEST_FIRST +
+                        " LIMIT :limit")
+                .bind("accountId", accountId)
+                .bind("startDate", DateUtils.lowerBound(startDate))
+                .bind("endDate", DateUtils.upperBound(endDate))
+                .bind("limit", limit)
+                .map(ReactiveTransactionRepository::toResponse)
+                .all();
+    }
+
+    /**
+     * The cursor date also caps the range.
+     */
+    public Flux<TransactionGetResponse> findPageByDateFilterAfter(long accountId, LocalDateTime startDate, LocalDateTime endDate,
+                                                                  LocalDateTime cursorDate, long cursorId, int limit) {
+        LocalDateTime endBound = endDate == null || cursorDate.isBefore(endDate) ? cursorDate : endDate;
+
+        return client.sql(SELECT_RESPONSE + "WHERE account_id = :accountId AND date BETWEEN :startDate AND :endDate " +
+                        "AND (date < :cursorDate OR id < :cursorId)" + NEWEST_FIRST + " LIMIT :limit")
+                .bind("accountId", accountId)
+                .bind("startDate", DateUtils.lowerBound(startDate))
+                .bind("endDate", endBound)
+                .bind("cursorDate", cursorDate)
+                .bind("cursorId", cursorId)
+                .bind("limit", limit)
+                .map(ReactiveTransactionRepository::toResponse)
+                .all();
+    }
+
+    public Flux<TransactionGetResponse> streamAllByDateFilter(long accountId, LocalDateTime startDate, LocalDateTime endDate) {
+        return client.sql(SELECT_RESPONSE + "WHERE account_id = :accountId AND date BETWEEN :startDate AND :endDate" + NEWEST_FIRST)
+                .filter(statement -> statement.fetchSize(STREAM_FETCH_SIZE))
+                .bind("accountId", accountId)
+                .bind("startDate", DateUtils.lowerBound(startDate))
+                .bind("endDate", DateUtils.upperBound(endDate))
+                .map(ReactiveTransactionRepository::toResponse)
+                .all();
+    }
+
+    public Mono<Long> findBalanceInCents(long accountId) {
+        return client.sql("SELECT SUM(balance_in_cents) FROM balance_stripe WHERE account_id = :accountId")
+                .bind("accountId", accountId)
+                .map(row -> Optional.ofNullable(row.get(0, BigDecimal.class)))
+                .one()
+                .flatMap(Mono::justOrEmpty)
+                .map(BigDecimal::longValueExact);
+    }
+
+    private static TransactionGetResponse toResponse(Readable row) {
+        return TransactionGetResponse.builder()
+                .id(row.get("id", Long.class))
+                .value(row.get("value", BigDecimal.class))
+                .description(row.get("description", String.class))
+                .date(row.get("date", LocalDateTime.class))
+                .build();
+    }
+}
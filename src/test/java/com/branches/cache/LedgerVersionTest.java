@@ -0,0 +1,62 @@
+package com.branches.cache;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.*;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class LedgerVersionTest {
+    private static final Instant MODIFIED_AT = Instant.parse("2025-01-29T15:43:30.250Z");
+
+    private LedgerVersion ledgerVersion;
+
+    @BeforeEach
+    void init() {
+        ledgerVersion = new LedgerVersion(Clock.fixed(MODIFIED_AT, ZoneOffset.UTC));
+    }
+
+    @Test
+    @DisplayName("increment changes the ETag and keeps the instance id")
+    @Order(1)
+    void increment_ChangesETagAndKeepsInstanceId() {
+        LedgerVersion.Stamp before = ledgerVersion.current();
+
+        ledgerVersion.increment();
+
+        LedgerVersion.Stamp after = ledgerVersion.current();
+        Assertions.assertThat(after.version()).isEqualTo(before.version() + 1);
+        Assertions.assertThat(after.instanceId()).isEqualTo(before.instanceId());
+        Assertions.assertThat(after.etag()).isNotEqualTo(before.etag());
+    }
+
+    @Test
+    @DisplayName("etag differs between ledger version instances")
+    @Order(2)
+    void etag_DiffersBetweenInstances() {
+        LedgerVersion other = new LedgerVersion();
+
+        Assertions.assertThat(other.current().etag()).isNotEqualTo(ledgerVersion.current().etag());
+    }
+
+    @Test
+    @DisplayName("lastModified returns -1 while the second of the last change is not over")
+    @Order(3)
+    void lastModified_ReturnsMinusOne_WhileTheSecondOfTheLastChangeIsNotOver() {
+        LedgerVersion.Stamp stamp = ledgerVersion.current();
+
+        Assertions.assertThat(stamp.lastModified(MODIFIED_AT.plusMillis(700))).isEqualTo(-1);
+    }
+
+    @Test
+    @DisplayName("lastModified returns the second of the last change once it is over")
+    @Order(4)
+    void lastModified_ReturnsTheSecondOfTheLastChange_WhenItIsOver() {
+        LedgerVersion.Stamp stamp = ledgerVersion.current();
+
+        Assertions.assertThat(stamp.lastModified(MODIFIED_AT.plusSeconds(1)))
+                .isEqualTo(Instant.parse("2025-01-29T15:43:30Z").toEpochMilli());
+    }
+}
@@ -0,0 +1,238 @@
+package com.branches.cache;
+
+import com.branches.datasource.ReadRouting;
+import com.branches.event.BalanceCheckpointsRebuiltEvent;
+import com.branches.event.BalanceRepairedEvent;
+import com.branches.event.TransactionsArchivedEvent;
+import com.branches.event.TransactionsSavedEvent;
+import com.branches.model.Transaction;
+import com.branches.request.TransactionCursor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class TransactionCacheTest {
+    private static final long ACCOUNT_ID = Transaction.DEFAULT_ACCOUNT_ID;
+    private static final LocalDateTime JANUARY = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final LocalDateTime FEBRUARY = LocalDateTime.of(2025, 2, 1, 0, 0);
+    private static final LocalDateTime MARCH = LocalDateTime.of(2025, 3, 1, 0, 0);
+
+    private InMemoryCacheInvalidationChannel channel;
+    private LedgerVersion ledgerVersion;
+    private TransactionCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void init() {
+        channel = new InMemoryCacheInvalidationChannel();
+        ledgerVersion = new LedgerVersion();
+        cache = new TransactionCache(channel, ledgerVersion, 100, Duration.ofMinutes(1), Duration.ZERO);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    @DisplayName("get loads the value once and serves it from the cache afterwards")
+    @Order(1)
+    void get_LoadsValueOnce_WhenCalledTwiceWithTheSameKey() {
+        TransactionCacheKey key = TransactionCacheKey.of(ACCOUNT_ID, TransactionCacheKey.Query.BALANCE);
+
+        Assertions.assertThat(cache.get(key, this::load)).isEqualTo(1);
+        Assertions.assertThat(cache.get(key, this::load)).isEqualTo(1);
+        Assertions.assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("onTransactionsSaved drops only the pages whose date filter includes the new transaction")
+    @Order(2)
+    void onTransactionsSaved_DropsOnlyPagesWhoseDateFilterIncludesTheNewTransaction() {
+        TransactionCacheKey january = TransactionCacheKey.page(ACCOUNT_ID, JANUARY, FEBRUARY.minusNanos(1), null, 50);
+        TransactionCacheKey february = TransactionCacheKey.page(ACCOUNT_ID, FEBRUARY, MARCH.minusNanos(1), null, 50);
+        TransactionCacheKey unbounded = TransactionCacheKey.page(ACCOUNT_ID, null, null, null, 50);
+        cache.get(january, this::load);
+        cache.get(february, this::load);
+        cache.get(unbounded, this::load);
+
+        cache.onTransactionsSaved(savedEvent(FEBRUARY.plusDays(3), 1000L));
+
+        Assertions.assertThat(cache.get(january, this::load)).isEqualTo(1);
+        Assertions.assertThat(cache.get(february, this::load)).isEqualTo(4);
+        Assertions.assertThat(cache.get(unbounded, this::load)).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("onTransactionsSaved keeps the pages after a cursor newer than the new transaction")
+    @Order(3)
+    void onTransactionsSaved_KeepsPagesAfterCursor_WhenTheCursorIsOlderThanTheNewTransaction() {
+        TransactionCacheKey olderPage = TransactionCacheKey.page(ACCOUNT_ID, null, null, new TransactionCursor(JANUARY, 10L), 50);
+        TransactionCacheKey newerPage = TransactionCacheKey.page(ACCOUNT_ID, null, null, new TransactionCursor(MARCH, 20L), 50);
+        cache.get(olderPage, this::load);
+        cache.get(newerPage, this::load);
+
+        cache.onTransactionsSaved(savedEvent(FEBRUARY, -1000L));
+
+        Assertions.assertThat(cache.get(olderPage, this::load)).isEqualTo(1);
+        Assertions.assertThat(cache.get(newerPage, this::load)).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("onTransactionsSaved drops the balance and only the list of the new transaction's type")
+    @Order(4)
+    void onTransactionsSaved_DropsBalanceAndOnlyTheListOfTheNewTransactionsType() {
+        TransactionCacheKey balance = TransactionCacheKey.of(ACCOUNT_ID, TransactionCacheKey.Query.BALANCE);
+        TransactionCacheKey incomes = TransactionCacheKey.of(ACCOUNT_ID, TransactionCacheKey.Query.INCOMES);
+        TransactionCacheKey expenses = TransactionCacheKey.of(ACCOUNT_ID, TransactionCacheKey.Query.EXPENSES);
+        cache.get(balance, this::load);
+        cache.get(incomes, this::load);
+        cache.get(expenses, this::load);
+
+        cache.onTransactionsSaved(savedEvent(FEBRUARY, -1000L));
+
+        Assertions.assertThat(cache.get(balance, this::load)).isEqualTo(4);
+        Assertions.assertThat(cache.get(incomes, this::load)).isEqualTo(2);
+        Assertions.assertThat(cache.get(expenses, this::load)).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("get does not keep a value loaded while an invalidation happened")
+    @Order(5)
+    void get_DoesNotKeepValue_WhenAnInvalidationHappensWhileLoading() {
+        TransactionCacheKey key = TransactionCacheKey.of(ACCOUNT_ID, TransactionCacheKey.Query.BALANCE);
+
+        Integer stale = cache.get(key, () -> {
+            cache.onTransactionsSaved(savedEvent(FEBRUARY, 1000L));
+            return load();
+        });
+
+        Assertions.assertThat(stale).isEqualTo(1);
+        Assertions.assertThat(cache.get(key, this::load)).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("onTransactionsSaved invalidates every cache that shares the channel")
+    @Order(6)
+    void onTransactionsSaved_InvalidatesEveryCacheThatSharesTheChannel() {
+        TransactionCache otherInstance = new TransactionCache(channel, new LedgerVersion(), 100, Duration.ofMinutes(1), Duration.ZERO);
+        TransactionCacheKey key = TransactionCacheKey.of(ACCOUNT_ID, TransactionCacheKey.Query.BALANCE);
+        otherInstance.get(key, this::load);
+
+        cache.onTransactionsSaved(savedEvent(FEBRUARY, 1000L));
+
+        Assertions.assertThat(otherInstance.get(key, this::load)).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("bindTo registers hit and miss metrics for the cache")
+    @Order(7)
+    void bindTo_RegistersHitAndMissMetrics() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+        TransactionCacheKey key = TransactionCacheKey.of(ACCOUNT_ID, TransactionCacheKey.Query.BALANCE);
+
+        cache.get(key, this::load);
+        cache.get(key, this::load);
+
+        Assertions.assertThat(registry.get("cache.gets").tag("cache", TransactionCache.NAME).tag("result", "hit").functionCounter().count())
+                .isEqualTo(1);
+        Assertions.assertThat(registry.get("cache.gets").tag("cache", TransactionCache.NAME).tag("result", "miss").functionCounter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("onBalanceRepaired drops only the balance and increments the ledger version")
+    @Order(8)
+    void onBalanceRepaired_DropsOnlyTheBalanceAndIncrementsTheLedgerVersion() {
+        TransactionCacheKey balance = TransactionCacheKey.of(ACCOUNT_ID, TransactionCacheKey.Query.BALANCE);
+        TransactionCacheKey page = TransactionCacheKey.page(ACCOUNT_ID, null, null, null, 50);
+        cache.get(balance, this::load);
+        cache.get(page, this::load);
+
+        cache.onBalanceRepaired(new BalanceRepairedEvent(ACCOUNT_ID, 1000L));
+
+        Assertions.assertThat(cache.get(balance, this::load)).isEqualTo(3);
+        Assertions.assertThat(cache.get(page, this::load)).isEqualTo(2);
+        Assertions.assertThat(ledgerVersion.current().version()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("onTransactionsSaved and onBalanceRepaired keep the entries of other accounts")
+    @Order(9)
+    void onTransactionsSaved_KeepsEntriesOfOtherAccounts_WhenAnotherAccountChanges() {
+        TransactionCacheKey balance = TransactionCacheKey.of(ACCOUNT_ID, TransactionCacheKey.Query.BALANCE);
+        TransactionCacheKey page = TransactionCacheKey.page(ACCOUNT_ID, null, null, null, 50);
+        TransactionCacheKey otherBalance = TransactionCacheKey.of(7L, TransactionCacheKey.Query.BALANCE);
+        cache.get(balance, this::load);
+        cache.get(page, this::load);
+        cache.get(otherBalance, this::load);
+
+        cache.onTransactionsSaved(savedEvent(7L, FEBRUARY, 1000L));
+        cache.onBalanceRepaired(new BalanceRepairedEvent(7L, 2000L));
+
+        Assertions.assertThat(cache.get(balance, this::load)).isEqualTo(1);
+        Assertions.assertThat(cache.get(page, this::load)).isEqualTo(2);
+        Assertions.assertThat(cache.get(otherBalance, this::load)).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("get loads from the primary only the accounts invalidated within the replica lag")
+    @Order(10)
+    void get_LoadsFromPrimary_WhenTheAccountWasInvalidatedWithinTheReplicaLag() {
+        TransactionCache replicated = new TransactionCache(channel, new LedgerVersion(), 100, Duration.ofMinutes(1), Duration.ofMinutes(1));
+        TransactionCacheKey balance = TransactionCacheKey.of(ACCOUNT_ID, TransactionCacheKey.Query.BALANCE);
+        TransactionCacheKey otherBalance = TransactionCacheKey.of(7L, TransactionCacheKey.Query.BALANCE);
+
+        replicated.onTransactionsSaved(savedEvent(FEBRUARY, 1000L));
+
+        Assertions.assertThat(replicated.get(balance, ReadRouting::isPrimaryRequired)).isTrue();
+        Assertions.assertThat(replicated.get(otherBalance, ReadRouting::isPrimaryRequired)).isFalse();
+        Assertions.assertThat(ReadRouting.isPrimaryRequired()).isFalse();
+    }
+
+    @Test
+    @DisplayName("get loads every account from the primary after a ledger-wide invalidation within the replica lag")
+    @Order(11)
+    void get_LoadsEveryAccountFromPrimary_WhenTheLedgerWasInvalidatedWithinTheReplicaLag() {
+        TransactionCache replicated = new TransactionCache(channel, new LedgerVersion(), 100, Duration.ofMinutes(1), Duration.ofMinutes(1));
+        TransactionCacheKey otherBalance = TransactionCacheKey.of(7L, TransactionCacheKey.Query.BALANCE);
+
+        Assertions.assertThat(replicated.readsPrimary(otherBalance)).isFalse();
+
+        replicated.onTransactionsArchived(new TransactionsArchivedEvent(MARCH));
+
+        Assertions.assertThat(replicated.readsPrimary(otherBalance)).isTrue();
+        Assertions.assertThat(cache.readsPrimary(otherBalance)).isFalse();
+    }
+
+    @Test
+    @DisplayName("onBalanceCheckpointsRebuilt drops the balance of the account and increments the ledger version")
+    @Order(12)
+    void onBalanceCheckpointsRebuilt_DropsTheBalanceAndIncrementsTheLedgerVersion() {
+        TransactionCacheKey balance = TransactionCacheKey.of(ACCOUNT_ID, TransactionCacheKey.Query.BALANCE);
+        cache.get(balance, this::load);
+
+        cache.onBalanceCheckpointsRebuilt(new BalanceCheckpointsRebuiltEvent(ACCOUNT_ID));
+
+        Assertions.assertThat(cache.get(balance, this::load)).isEqualTo(2);
+        Assertions.assertThat(ledgerVersion.current().version()).isEqualTo(1);
+    }
+
+    private Integer load() {
+        return loads.incrementAndGet();
+    }
+
+    private static TransactionsSavedEvent savedEvent(LocalDateTime date, long valueInCents) {
+        return savedEvent(ACCOUNT_ID, date, valueInCents);
+    }
+
+    private static TransactionsSavedEvent savedEvent(long accountId, LocalDateTime date, long valueInCents) {
+        Transaction transaction = Transaction.builder().id(1L).accountId(accountId).valueInCents(valueInCents).description("Teste").date(date).build();
+
+        return new TransactionsSavedEvent(List.of(transaction), Map.of(accountId, valueInCents));
+    }
+}
@@ -0,0 +1,98 @@
+package com.branches.config;
+
+import com.branches.datasource.ReadRouting;
+import com.branches.model.Transaction;
+import com.branches.repository.TransactionRepository;
+import com.branches.response.TransactionGetResponse;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Runs the repositories against two embedded databases, one standing in for the primary and one for
+ * its read replica. Nothing replicates between them, so where a row is found tells which database
+ * served the query.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=" + ReadReplicaConfigTest.PRIMARY_URL,
+        "ledger.read-replica.enabled=true",
+        "ledger.read-replica.urls=" + ReadReplicaConfigTest.REPLICA_URL
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(ReadReplicaConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ReadReplicaConfigTest {
+    static final String PRIMARY_URL = "jdbc:h2:mem:routing-primary;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=VALUE;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=VALUE;DB_CLOSE_DELAY=-1";
+    private static final long ACCOUNT_ID = Transaction.DEFAULT_ACCOUNT_ID;
+    private static final Limit LIMIT = Limit.of(10);
+
+    @Autowired
+    private TransactionRepository repository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    void init() {
+        replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+        Integer tables = replica.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.tables WHERE table_name = 'transaction'", Integer.class);
+        if (tables == 0) copySchemaToReplica();
+
+        jdbcTemplate.update("DELETE FROM transaction");
+        replica.update("DELETE FROM transaction");
+    }
+
+    @Test
+    @DisplayName("read-only repository queries read the replica")
+    @Order(1)
+    void readOnlyQuery_ReadsReplica() {
+        replica.update("INSERT INTO transaction (id, account_id, value, description, date, sign) VALUES (?, ?, ?, ?, ?, ?)",
+                1L, ACCOUNT_ID, new BigDecimal("10.00"), "Only on the replica", Timestamp.valueOf(LocalDateTime.of(2025, 1, 1, 0, 0)), Transaction.INCOME);
+
+        List<TransactionGetResponse> page = repository.findFirstPageByDateFilter(ACCOUNT_ID, null, null, LIMIT);
+
+        Assertions.assertThat(page).extracting(TransactionGetResponse::getDescription).containsExactly("Only on the replica");
+    }
+
+    @Test
+    @DisplayName("writes go to the primary, where reads that require it find them")
+    @Order(2)
+    void save_WritesPrimary_AndReadsRequiringThePrimaryFindIt() {
+        repository.save(Transaction.builder()
+                .accountId(ACCOUNT_ID)
+                .valueInCents(-2500L)
+                .description("Only on the primary")
+                .build());
+
+        Assertions.assertThat(repository.findFirstPageByDateFilter(ACCOUNT_ID, null, null, LIMIT)).isEmpty();
+        Assertions.assertThat(ReadRouting.onPrimary(() -> repository.findFirstPageByDateFilter(ACCOUNT_ID, null, null, LIMIT)))
+                .extracting(TransactionGetResponse::getDescription)
+                .containsExactly("Only on the primary");
+    }
+
+    /**
+     * Creates the tables Hibernate created on the primary, as a replica would have them.
+     */
+    private void copySchemaToReplica() {
+        List<String> statements = jdbcTemplate.queryForList("SCRIPT NODATA", String.class);
+        for (String statement : statements) {
+            if (!statement.startsWith("CREATE USER")) replica.execute(statement);
+        }
+    }
+}
@@ -1,38 +1,106 @@
 package com.branches.controller;
 
+import com.branches.cache.LedgerVersion;
+import com.branches.cache.TransactionCache;
+import com.branches.event.TransactionsSavedEvent;
+import com.branches.model.SummaryGranularity;
+import com.branches.model.Transaction;
+import com.branches.repository.TransactionStore;
+import com.branches.request.BulkInsertMode;
 import com.branches.request.TransactionPostRequest;
 import com.branches.response.TransactionGetResponse;
 import com.branches.response.TransactionPostResponse;
+import com.branches.response.BalanceCheckpointRebuildResponse;
+import com.branches.response.BalanceReconciliationResponse;
+import com.branches.response.TransactionArchiveResponse;
+import com.branches.response.TransactionBulkResponse;
+import com.branches.service.BalanceCheckpointService;
+import com.branches.service.BalanceService;
+import com.branches.service.IdempotencyService;
+import com.branches.service.TransactionArchiveService;
+import com.branches.service.TransactionBulkService;
+import com.branches.service.TransactionExportService;
+import com.branches.service.TransactionGroupCommitter;
+import com.branches.service.TransactionPartitionService;
+import com.branches.service.TransactionSearchService;
 import com.branches.service.TransactionService;
+import com.branches.service.TransactionStreamService;
+import com.branches.service.TransactionSummaryService;
 import com.branches.utils.FileUtils;
 import com.branches.utils.TransactionUtils;
+import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.*;
+import org.mockito.ArgumentMatchers;
 import org.mockito.BDDMockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultHandlers;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
-
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
 
 @WebMvcTest
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
 @ComponentScan(basePackages = "com.branches")
 class TransactionControllerTest {
+    private static final long ACCOUNT_ID = Transaction.DEFAULT_ACCOUNT_ID;
+
     @Autowired
     private MockMvc mockMvc;
     @MockitoBean
     private TransactionService service;
+    @MockitoBean
+    private BalanceService balanceService;
+    @MockitoBean
+    private BalanceCheckpointService checkpointService;
+    @MockitoBean
+    private TransactionExportService exportService;
+    @MockitoBean
+    private TransactionBulkService bulkService;
+    @MockitoBean
+    private TransactionSummaryService summaryService;
+    @MockitoBean
+    private TransactionSearchService searchService;
+    @MockitoBean
+    private TransactionStreamService streamService;
+    @MockitoBean
+    private TransactionArchiveService archiveService;
+    @MockitoBean
+    private IdempotencyService idempotencyService;
+    @MockitoBean
+    private TransactionPartitionService partitionService;
+    @MockitoBean
+    private TransactionGroupCommitter groupCommitter;
+    @MockitoBean
+    private TransactionStore store;
     private final String URL = "/v1/transactions";
+    private final String ACCOUNT_URL = "/v1/accounts/7/transactions";
     @Autowired
     private FileUtils fileUtils;
+    @Autowired
+    private LedgerVersion ledgerVersion;
+    @Autowired
+    private TransactionCache transactionCache;
     private List<TransactionGetResponse> transactionGetResponseList;
 
     @BeforeEach
@@ -50,7 +118,7 @@ class TransactionControllerTest {
         TransactionPostRequest postRequest = TransactionUtils.newTransactionPostRequest();
         TransactionPostResponse postResponse = TransactionUtils.newTransactionPostResponse();
 
-        BDDMockito.when(service.save(postRequest)).thenReturn(postResponse);
+        BDDMockito.when(service.save(ACCOUNT_ID, postRequest)).thenReturn(postResponse);
 
         mockMvc.perform(
                 MockMvcRequestBuilders.post(URL)
@@ -68,9 +136,9 @@ class TransactionControllerTest {
     void getBalance_ReturnsBalance_WhenSuccessful() throws Exception {
         String expectedResponse = fileUtils.readResourceFile("transaction/get-balance-200.json");
 
-        double balance = TransactionUtils.getBalance();
+        BigDecimal balance = TransactionUtils.getBalance();
 
-        BDDMockito.when(service.getBalance()).thenReturn(balance);
+        BDDMockito.when(service.getBalance(ACCOUNT_ID)).thenReturn(balance);
 
         mockMvc.perform(MockMvcRequestBuilders.get(URL + "/balance"))
                 .andDo(MockMvcResultHandlers.print())
@@ -84,8 +152,8 @@ class TransactionControllerTest {
     void findAll_ReturnsAllTransactions_WhenSuccessful() throws Exception {
         String expectedResponse = fileUtils.readResourceFile("transaction/get-transactions-200.json");
 
-        BDDMockito.when(service.findAll(null, null))
-                .thenReturn(transactionGetResponseList);
+        BDDMockito.when(service.findAll(ACCOUNT_ID, null, null, null, TransactionService.DEFAULT_PAGE_SIZE))
+                .thenReturn(TransactionUtils.newTransactionPageResponse(transactionGetResponseList, null));
 
         mockMvc.perform(MockMvcRequestBuilders.get(URL))
                 .andDo(MockMvcResultHandlers.print())
@@ -102,8 +170,8 @@ class TransactionControllerTest {
         LocalDateTime startDate = TransactionUtils.getStartDateValid();
         LocalDateTime endDate = TransactionUtils.getEndDateValid();
 
-        BDDMockito.when(service.findAll(startDate, endDate))
-                .thenReturn(transactionGetResponseList);
+        BDDMockito.when(service.findAll(ACCOUNT_ID, startDate, endDate, null, TransactionService.DEFAULT_PAGE_SIZE))
+                .thenReturn(TransactionUtils.newTransactionPageResponse(transactionGetResponseList, null));
 
         mockMvc.perform(MockMvcRequestBuilders.get(URL)
                         .param("startDate", startDate.toString())
@@ -124,8 +192,8 @@ class TransactionControllerTest {
         LocalDateTime endDate = LocalDateTime.of(2030, 12, 31, 23, 59, 59);
 
 
-        BDDMockito.when(service.findAll(startDate, endDate))
-                .thenReturn(Collections.emptyList());
+        BDDMockito.when(service.findAll(ACCOUNT_ID, startDate, endDate, null, TransactionService.DEFAULT_PAGE_SIZE))
+                .thenReturn(TransactionUtils.newTransactionPageResponse(Collections.emptyList(), null));
 
         mockMvc.perform(MockMvcRequestBuilders.get(URL)
                         .param("startDate", startDate.toString())
@@ -144,8 +212,8 @@ class TransactionControllerTest {
 
         LocalDateTime startDate = TransactionUtils.getStartDateValid();
 
-        BDDMockito.when(service.findAll(startDate, null))
-                .thenReturn(transactionGetResponseList);
+        BDDMockito.when(service.findAll(ACCOUNT_ID, startDate, null, null, TransactionService.DEFAULT_PAGE_SIZE))
+                .thenReturn(TransactionUtils.newTransactionPageResponse(transactionGetResponseList, null));
 
         mockMvc.perform(MockMvcRequestBuilders.get(URL)
                         .param("startDate", startDate.toString())
@@ -165,8 +233,8 @@ class TransactionControllerTest {
 
         LocalDateTime startDate = LocalDateTime.of(2030, 12, 1, 23, 59, 59);
 
-        BDDMockito.when(service.findAll(startDate, null))
-                .thenReturn(Collections.emptyList());
+        BDDMockito.when(service.findAll(ACCOUNT_ID, startDate, null, null, TransactionService.DEFAULT_PAGE_SIZE))
+                .thenReturn(TransactionUtils.newTransactionPageResponse(Collections.emptyList(), null));
 
         mockMvc.perform(MockMvcRequestBuilders.get(URL)
                         .param("startDate", startDate.toString())
@@ -185,8 +253,8 @@ class TransactionControllerTest {
 
         LocalDateTime endDate = TransactionUtils.getEndDateValid();
 
-        BDDMockito.when(service.findAll(null, endDate))
-                .thenReturn(transactionGetResponseList);
+        BDDMockito.when(service.findAll(ACCOUNT_ID, null, endDate, null, TransactionService.DEFAULT_PAGE_SIZE))
+                .thenReturn(TransactionUtils.newTransactionPageResponse(transactionGetResponseList, null));
 
         mockMvc.perform(MockMvcRequestBuilders.get(URL)
                         .param("endDate", endDate.toString())
@@ -204,8 +272,8 @@ class TransactionControllerTest {
 
         LocalDateTime endDate = LocalDateTime.of(2025, 1, 1, 0, 0, 0);
 
-        BDDMockito.when(service.findAll(null, endDate))
-                .thenReturn(Collections.emptyList());
+        BDDMockito.when(service.findAll(ACCOUNT_ID, null, endDate, null, TransactionService.DEFAULT_PAGE_SIZE))
+                .thenReturn(TransactionUtils.newTransactionPageResponse(Collections.emptyList(), null));
 
         mockMvc.perform(MockMvcRequestBuilders.get(URL)
                         .param("endDate", endDate.toString())
@@ -223,7 +291,7 @@ class TransactionControllerTest {
 
         List<TransactionGetResponse> positiveTransactionGetResponseList = TransactionUtils.newPositiveTransactionGetResponseList();
 
-        BDDMockito.when(service.getIncomes())
+        BDDMockito.when(service.getIncomes(ACCOUNT_ID))
                 .thenReturn(positiveTransactionGetResponseList);
 
         mockMvc.perform(MockMvcRequestBuilders.get(URL + "/incomes"))
@@ -238,7 +306,7 @@ class TransactionControllerTest {
     void getIncomes_ReturnsEmptyList_WhenDoesNotExistsPositiveTransactions() throws Exception {
         String expectedResponse = fileUtils.readResourceFile("transaction/get-empty-positive-transactions-200.json");
 
-        BDDMockito.when(service.getIncomes())
+        BDDMockito.when(service.getIncomes(ACCOUNT_ID))
                 .thenReturn(Collections.emptyList());
 
         mockMvc.perform(MockMvcRequestBuilders.get(URL + "/incomes"))
@@ -255,7 +323,7 @@ class TransactionControllerTest {
 
         List<TransactionGetResponse> negativeTransactionGetResponseList = TransactionUtils.newNegativeTransactionGetResponseList();
 
-        BDDMockito.when(service.getExpenses())
+        BDDMockito.when(service.getExpenses(ACCOUNT_ID))
                 .thenReturn(negativeTransactionGetResponseList);
 
         mockMvc.perform(MockMvcRequestBuilders.get(URL + "/expenses"))
@@ -270,7 +338,7 @@ class TransactionControllerTest {
     void getExpenses_ReturnsEmptyList_WhenDoesNotExistsNegativeTransactions() throws Exception {
         String expectedResponse = fileUtils.readResourceFile("transaction/get-empty-negative-transactions-200.json");
 
-        BDDMockito.when(service.getExpenses())
+        BDDMockito.when(service.getExpenses(ACCOUNT_ID))
                 .thenReturn(Collections.emptyList());
 
         mockMvc.perform(MockMvcRequestBuilders.get(URL + "/expenses"))
@@ -278,4 +346,487 @@ class TransactionControllerTest {
                 .andExpect(MockMvcResultMatchers.status().isOk())
                 .andExpect(MockMvcResultMatchers.content().json(expectedResponse));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("POST /v1/transactions/balance/reconcile returns reconciliation result when successful")
+    @Order(14)
+    void reconcileBalance_ReturnsReconciliationResult_WhenSuccessful() throws Exception {
+        String expectedResponse = fileUtils.readResourceFile("transaction/post-balance-reconcile-200.json");
+
+        BalanceReconciliationResponse reconciliation = TransactionUtils.newBalanceReconciliationResponse();
+
+        BDDMockito.when(balanceService.reconcile(ACCOUNT_ID)).thenReturn(reconciliation);
+
+        mockMvc.perform(MockMvcRequestBuilders.post(URL + "/balance/reconcile"))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().json(expectedResponse));
+    }
+
+    @Test
+    @DisplayName("GET /v1/transactions?cursor=...&limit=2 returns the requested page and the next cursor when successful")
+    @Order(15)
+    void findAll_ReturnsPageAndNextCursor_WhenCursorAndLimitAreGiven() throws Exception {
+        String expectedResponse = fileUtils.readResourceFile("transaction/get-transactions-page-200.json");
+
+        String cursor = "MjAyNS0wMS0yOVQxNTo0MzozMHwx";
+
+        BDDMockito.when(service.findAll(ACCOUNT_ID, null, null, cursor, 2))
+                .thenReturn(TransactionUtils.newTransactionPageResponse(transactionGetResponseList.subList(1, 3), "MjAyNS0wMS0yOFQxNjoyMDozMHwz"));
+
+        mockMvc.perform(MockMvcRequestBuilders.get(URL)
+                        .param("cursor", cursor)
+                        .param("limit", "2")
+                )
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().json(expectedResponse));
+    }
+
+    @Test
+    @DisplayName("GET /v1/transactions/export/csv streams the csv file when successful")
+    @Order(16)
+    void exportCsv_StreamsCsvFile_WhenSuccessful() throws Exception {
+        String csv = "id,value,description,date\n1,5000.00,\"Salário\",2025-01-29T15:43:30\n";
+
+        BDDMockito.doAnswer(invocation -> {
+            invocation.getArgument(3, OutputStream.class).write(csv.getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(exportService).exportCsv(BDDMockito.eq(ACCOUNT_ID), BDDMockito.isNull(), BDDMockito.isNull(), BDDMockito.any());
+
+        MvcResult mvcResult = mockMvc.perform(MockMvcRequestBuilders.get(URL + "/export/csv"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(mvcResult))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=transactions.csv"))
+                .andExpect(MockMvcResultMatchers.header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(MockMvcResultMatchers.content().contentType("text/csv"))
+                .andExpect(MockMvcResultMatchers.content().bytes(csv.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    @DisplayName("GET /v1/transactions/export/csv streams the gzipped csv file when client accepts gzip")
+    @Order(17)
+    void exportCsv_StreamsGzippedCsvFile_WhenClientAcceptsGzip() throws Exception {
+        String csv = "id,value,description,date\n1,5000.00,\"Salário\",2025-01-29T15:43:30\n";
+        LocalDateTime startDate = TransactionUtils.getEndDateValid();
+
+        BDDMockito.doAnswer(invocation -> {
+            invocation.getArgument(3, OutputStream.class).write(csv.getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(exportService).exportCsv(BDDMockito.eq(ACCOUNT_ID), BDDMockito.eq(startDate), BDDMockito.isNull(), BDDMockito.any());
+
+        MvcResult mvcResult = mockMvc.perform(MockMvcRequestBuilders.get(URL + "/export/csv")
+                        .param("startDate", startDate.toString())
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate")
+                )
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        byte[] body = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(mvcResult))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+
+        try (GZIPInputStream gzipInputStream = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            Assertions.assertThat(new String(gzipInputStream.readAllBytes(), StandardCharsets.UTF_8))
+                    .isEqualTo(csv);
+        }
+    }
+
+    @Test
+    @DisplayName("GET /v1/transactions/export/json streams the json file when successful")
+    @Order(18)
+    void exportJson_StreamsJsonFile_WhenSuccessful() throws Exception {
+        String expectedResponse = fileUtils.readResourceFile("transaction/get-export-transactions-200.json");
+
+        BDDMockito.doAnswer(invocation -> {
+            invocation.getArgument(3, OutputStream.class).write(expectedResponse.getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(exportService).exportJson(BDDMockito.eq(ACCOUNT_ID), BDDMockito.isNull(), BDDMockito.isNull(), BDDMockito.any());
+
+        MvcResult mvcResult = mockMvc.perform(MockMvcRequestBuilders.get(URL + "/export/json"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(mvcResult))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=transactions.json"))
+                .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.content().json(expectedResponse));
+    }
+
+    @Test
+    @DisplayName("GET /v1/transactions/export/ndjson streams the ndjson file when dates are given")
+    @Order(19)
+    void exportNdjson_StreamsNdjsonFile_WhenDatesAreGiven() throws Exception {
+        String ndjson = "{\"id\":1,\"value\":5000.00,\"description\":\"Salário\",\"date\":\"2025-01-29T15:43:30\"}\n";
+        LocalDateTime startDate = TransactionUtils.getEndDateValid();
+        LocalDateTime endDate = TransactionUtils.getStartDateValid();
+
+        BDDMockito.doAnswer(invocation -> {
+            invocation.getArgument(3, OutputStream.class).write(ndjson.getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(exportService).exportNdjson(BDDMockito.eq(ACCOUNT_ID), BDDMockito.eq(startDate), BDDMockito.eq(endDate), BDDMockito.any());
+
+        MvcResult mvcResult = mockMvc.perform(MockMvcRequestBuilders.get(URL + "/export/ndjson")
+                        .param("startDate", startDate.toString())
+                        .param("endDate", endDate.toString())
+                )
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(mvcResult))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=transactions.ndjson"))
+                .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(MockMvcResultMatchers.content().bytes(ndjson.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    @DisplayName("POST /v1/transactions/bulk creates all transactions of a json array when successful")
+    @Order(20)
+    void saveAll_CreatesAllTransactionsOfJsonArray_WhenSuccessful() throws Exception {
+        String request = fileUtils.readResourceFile("transaction/post-request-bulk-transactions-201.json");
+        String expectedResponse = fileUtils.readResourceFile("transaction/post-response-bulk-transactions-201.json");
+
+        List<TransactionPostRequest> receivedRequests = new ArrayList<>();
+        TransactionBulkResponse bulkResponse = TransactionUtils.newTransactionBulkResponse();
+
+        BDDMockito.when(bulkService.saveAll(BDDMockito.eq(ACCOUNT_ID), BDDMockito.any(), BDDMockito.eq(BulkInsertMode.ATOMIC)))
+                .thenAnswer(invocation -> {
+                    invocation.<Iterator<TransactionPostRequest>>getArgument(1).forEachRemaining(receivedRequests::add);
+                    return bulkResponse;
+                });
+
+        mockMvc.perform(MockMvcRequestBuilders.post(URL + "/bulk")
+                        .content(request)
+                        .contentType(MediaType.APPLICATION_JSON)
+                )
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isCreated())
+                .andExpect(MockMvcResultMatchers.content().json(expectedResponse));
+
+        Assertions.assertThat(receivedRequests)
+                .containsExactly(TransactionUtils.newTransactionPostRequest(), TransactionUtils.newTransactionPostRequest());
+    }
+
+    @Test
+    @DisplayName("POST /v1/transactions/bulk?mode=PER_ITEM returns multi status when some ndjson items fail")
+    @Order(21)
+    void saveAll_ReturnsMultiStatus_WhenModeIsPerItemAndSomeNdjsonItemsFail() throws Exception {
+        String request = "{\"description\":\"Fatura do Cartão\",\"value\":-2700.40}\n{\"description\":\"Fatura do Cartão\",\"value\":-2700.40}\n";
+
+        List<TransactionPostRequest> receivedRequests = new ArrayList<>();
+        TransactionBulkResponse bulkResponse = TransactionUtils.newTransactionBulkResponse().withCreated(1).withFailed(1);
+
+        BDDMockito.when(bulkService.saveAll(BDDMockito.eq(ACCOUNT_ID), BDDMockito.any(), BDDMockito.eq(BulkInsertMode.PER_ITEM)))
+                .thenAnswer(invocation -> {
+                    invocation.<Iterator<TransactionPostRequest>>getArgument(1).forEachRemaining(receivedRequests::add);
+                    return bulkResponse;
+                });
+
+        mockMvc.perform(MockMvcRequestBuilders.post(URL + "/bulk")
+                        .param("mode", "PER_ITEM")
+                        .content(request)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                )
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isMultiStatus());
+
+        Assertions.assertThat(receivedRequests).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("GET /v1/transactions/summary?granularity=day returns the totals per day when successful")
+    @Order(22)
+    void getSummary_ReturnsTotalsPerDay_WhenSuccessful() throws Exception {
+        String expectedResponse = fileUtils.readResourceFile("transaction/get-summary-200.json");
+
+        LocalDate startDate = LocalDate.of(2025, 1, 1);
+        LocalDate endDate = LocalDate.of(2025, 1, 31);
+
+        BDDMockito.when(summaryService.getSummary(ACCOUNT_ID, SummaryGranularity.DAY, startDate, endDate))
+                .thenReturn(TransactionUtils.newTransactionSummaryResponse());
+
+        mockMvc.perform(MockMvcRequestBuilders.get(URL + "/summary")
+                        .param("granularity", "day")
+                        .param("startDate", startDate.toString())
+                        .param("endDate", endDate.toString())
+                )
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().json(expectedResponse));
+    }
+
+    @Test
+    @DisplayName("GET /v1/transactions/summary returns bad request when granularity is unknown")
+    @Order(23)
+    void getSummary_ReturnsBadRequest_WhenGranularityIsUnknown() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get(URL + "/summary").param("granularity", "week"))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("GET /v1/transactions returns service unavailable when no database connection is available")
+    @Order(24)
+    void findAll_ReturnsServiceUnavailable_WhenNoDatabaseConnectionIsAvailable() throws Exception {
+        String expectedResponse = fileUtils.readResourceFile("transaction/get-transactions-503.json");
+
+        BDDMockito.when(service.findAll(ACCOUNT_ID, null, null, null, TransactionService.DEFAULT_PAGE_SIZE))
+                .thenThrow(new CannotCreateTransactionException("Could not open JPA EntityManager for transaction"));
+
+        mockMvc.perform(MockMvcRequestBuilders.get(URL))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isServiceUnavailable())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.RETRY_AFTER, "1"))
+                .andExpect(MockMvcResultMatchers.content().json(expectedResponse));
+    }
+
+    @Test
+    @DisplayName("GET /v1/transactions/balance returns the ledger version as ETag when successful")
+    @Order(25)
+    void getBalance_ReturnsLedgerVersionAsETag_WhenSuccessful() throws Exception {
+        BDDMockito.when(service.getBalance(ACCOUNT_ID)).thenReturn(TransactionUtils.getBalance());
+
+        mockMvc.perform(MockMvcRequestBuilders.get(URL + "/balance"))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"" + ledgerVersion.current().etag() + "\""))
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.CACHE_CONTROL, "no-cache"));
+    }
+
+    @Test
+    @DisplayName("GET /v1/transactions/balance returns not modified without reading the balance when the ETag matches")
+    @Order(26)
+    void getBalance_ReturnsNotModified_WhenTheETagMatches() throws Exception {
+        String etag = "\"" + ledgerVersion.current().etag() + "\"";
+
+        mockMvc.perform(MockMvcRequestBuilders.get(URL + "/balance").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isNotModified())
+                .andExpect(MockMvcResultMatchers.content().string(""));
+
+        BDDMockito.verifyNoInteractions(service);
+    }
+
+    @Test
+    @DisplayName("GET /v1/transactions returns all transactions when a transaction was saved after the ETag")
+    @Order(27)
+    void findAll_ReturnsAllTransactions_WhenATransactionWasSavedAfterTheETag() throws Exception {
+        String etag = "\"" + ledgerVersion.current().etag() + "\"";
+        Transaction saved = TransactionUtils.newTransactionSaved();
+        transactionCache.onTransactionsSaved(new TransactionsSavedEvent(List.of(saved), Map.of(ACCOUNT_ID, saved.getValueInCents())));
+
+        BDDMockito.when(service.findAll(ACCOUNT_ID, null, null, null, TransactionService.DEFAULT_PAGE_SIZE))
+                .thenReturn(TransactionUtils.newTransactionPageResponse(transactionGetResponseList, null));
+
+        mockMvc.perform(MockMvcRequestBuilders.get(URL).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"" + ledgerVersion.current().etag() + "\""));
+    }
+
+    @Test
+    @DisplayName("GET /v1/transactions/export/csv returns a different ETag for the gzip encoded export")
+    @Order(28)
+    void exportCsv_ReturnsDifferentETag_WhenTheExportIsGzipEncoded() throws Exception {
+        String identity = mockMvc.perform(MockMvcRequestBuilders.get(URL + "/export/csv"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String gzip = mockMvc.perform(MockMvcRequestBuilders.get(URL + "/export/csv").header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        Assertions.assertThat(identity).isNotNull();
+        Assertions.assertThat(gzip).isNotNull().isNotEqualTo(identity);
+    }
+
+    @Test
+    @DisplayName("GET /v1/transactions/stream opens an event stream that resumes after the Last-Event-ID header")
+    @Order(29)
+    void stream_OpensEventStreamResumingAfterLastEventIdHeader_WhenSuccessful() throws Exception {
+        BDDMockito.when(streamService.subscribe(ACCOUNT_ID, 5L)).thenReturn(new SseEmitter());
+
+        mockMvc.perform(MockMvcRequestBuilders.get(URL + "/stream")
+                        .param("lastEventId", "3")
+                        .header("Last-Event-ID", "5"))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.request().asyncStarted());
+
+        BDDMockito.verify(streamService).subscribe(ACCOUNT_ID, 5L);
+    }
+
+    @Test
+    @DisplayName("POST /v1/transactions/archive returns the archival result when successful")
+    @Order(30)
+    void archive_ReturnsArchivalResult_WhenSuccessful() throws Exception {
+        String expectedResponse = fileUtils.readResourceFile("transaction/post-archive-200.json");
+
+        TransactionArchiveResponse archive = TransactionArchiveResponse.builder()
+                .archivedBefore(LocalDateTime.of(2024, 10, 1, 0, 0))
+                .archivedTransactions(2)
+                .build();
+
+        BDDMockito.when(archiveService.archive()).thenReturn(archive);
+
+        mockMvc.perform(MockMvcRequestBuilders.post(URL + "/archive"))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().json(expectedResponse));
+    }
+
+    @Test
+    @DisplayName("POST /v1/transactions with Idempotency-Key saves through the idempotency service when successful")
+    @Order(31)
+    void save_SavesThroughIdempotencyService_WhenIdempotencyKeyIsGiven() throws Exception {
+        String request = fileUtils.readResourceFile("transaction/post-request-transaction-201.json");
+        String expectedResponse = fileUtils.readResourceFile("transaction/post-response-transaction-201.json");
+
+        TransactionPostRequest postRequest = TransactionUtils.newTransactionPostRequest();
+        TransactionPostResponse postResponse = TransactionUtils.newTransactionPostResponse();
+
+        BDDMockito.when(idempotencyService.save(ACCOUNT_ID, postRequest, "retry-1")).thenReturn(postResponse);
+
+        mockMvc.perform(
+                        MockMvcRequestBuilders.post(URL)
+                                .header("Idempotency-Key", "retry-1")
+                                .content(request)
+                                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                )
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isCreated())
+                .andExpect(MockMvcResultMatchers.content().json(expectedResponse));
+
+        BDDMockito.verify(service, BDDMockito.never()).save(ArgumentMatchers.anyLong(), ArgumentMatchers.any());
+    }
+
+    @Test
+    @DisplayName("GET /v1/transactions/search?q=...&cursor=...&limit=2 returns the matching page and the next cursor when successful")
+    @Order(32)
+    void search_ReturnsMatchingPageAndNextCursor_WhenQueryIsGiven() throws Exception {
+        String expectedResponse = fileUtils.readResourceFile("transaction/get-transactions-page-200.json");
+
+        String cursor = "MjAyNS0wMS0yOVQxNTo0MzozMHwx";
+        LocalDateTime startDate = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+        BDDMockito.when(searchService.search(ACCOUNT_ID, "fatura cart", startDate, null, cursor, 2))
+                .thenReturn(TransactionUtils.newTransactionPageResponse(transactionGetResponseList.subList(1, 3), "MjAyNS0wMS0yOFQxNjoyMDozMHwz"));
+
+        mockMvc.perform(MockMvcRequestBuilders.get(URL + "/search")
+                        .param("q", "fatura cart")
+                        .param("startDate", "2025-01-01T00:00:00")
+                        .param("cursor", cursor)
+                        .param("limit", "2")
+                )
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().json(expectedResponse));
+    }
+
+    @Test
+    @DisplayName("POST /v1/accounts/7/transactions creates the transaction in account 7 when successful")
+    @Order(33)
+    void save_CreatesTransactionInAccount_WhenAccountPathIsUsed() throws Exception {
+        String request = fileUtils.readResourceFile("transaction/post-request-transaction-201.json");
+        String expectedResponse = fileUtils.readResourceFile("transaction/post-response-transaction-201.json");
+
+        TransactionPostRequest postRequest = TransactionUtils.newTransactionPostRequest();
+        TransactionPostResponse postResponse = TransactionUtils.newTransactionPostResponse();
+
+        BDDMockito.when(service.save(7L, postRequest)).thenReturn(postResponse);
+
+        mockMvc.perform(
+                        MockMvcRequestBuilders.post(ACCOUNT_URL)
+                                .content(request)
+                                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                )
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isCreated())
+                .andExpect(MockMvcResultMatchers.content().json(expectedResponse));
+
+        BDDMockito.verify(service, BDDMockito.never()).save(ArgumentMatchers.eq(ACCOUNT_ID), ArgumentMatchers.any());
+    }
+
+    @Test
+    @DisplayName("GET /v1/accounts/7/transactions/balance returns the balance of account 7 when successful")
+    @Order(34)
+    void getBalance_ReturnsBalanceOfAccount_WhenAccountPathIsUsed() throws Exception {
+        String expectedResponse = fileUtils.readResourceFile("transaction/get-balance-200.json");
+
+        BDDMockito.when(service.getBalance(7L)).thenReturn(TransactionUtils.getBalance());
+
+        mockMvc.perform(MockMvcRequestBuilders.get(ACCOUNT_URL + "/balance"))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().json(expectedResponse));
+    }
+
+    @Test
+    @DisplayName("GET /v1/accounts/0/transactions/balance returns bad request when the account id is not positive")
+    @Order(35)
+    void getBalance_ReturnsBadRequest_WhenAccountIdIsNotPositive() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/v1/accounts/0/transactions/balance"))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        BDDMockito.verifyNoInteractions(service);
+    }
+
+    @Test
+    @DisplayName("POST /v1/accounts/7/transactions/archive returns bad request since the ledger is archived for every account")
+    @Order(36)
+    void archive_ReturnsBadRequest_WhenAccountPathIsUsed() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.post(ACCOUNT_URL + "/archive"))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        BDDMockito.verifyNoInteractions(archiveService);
+    }
+
+    @Test
+    @DisplayName("GET /v1/transactions/balance?at=... returns the balance at that time from the checkpoints, bypassing the cache")
+    @Order(37)
+    void getBalance_ReturnsBalanceAtTheTime_WhenAtIsGiven() throws Exception {
+        String expectedResponse = fileUtils.readResourceFile("transaction/get-balance-200.json");
+        LocalDateTime at = LocalDateTime.of(2025, 1, 28, 12, 30);
+
+        BDDMockito.when(checkpointService.getBalance(ACCOUNT_ID, at)).thenReturn(TransactionUtils.getBalance());
+
+        mockMvc.perform(MockMvcRequestBuilders.get(URL + "/balance").param("at", "2025-01-28T12:30:00"))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().json(expectedResponse));
+
+        BDDMockito.verify(service, BDDMockito.never()).getBalance(ArgumentMatchers.anyLong());
+    }
+
+    @Test
+    @DisplayName("POST /v1/accounts/7/transactions/balance/checkpoints/rebuild rebuilds the checkpoints of account 7")
+    @Order(38)
+    void rebuildBalanceCheckpoints_ReturnsRebuiltCheckpoints_WhenSuccessful() throws Exception {
+        BalanceCheckpointRebuildResponse rebuild = BalanceCheckpointRebuildResponse.builder()
+                .accountId(7L)
+                .checkpointCount(2)
+                .firstCheckpointDate(LocalDate.of(2025, 1, 28))
+                .lastCheckpointDate(LocalDate.of(2025, 1, 29))
+                .build();
+
+        BDDMockito.when(checkpointService.rebuild(7L)).thenReturn(rebuild);
+
+        mockMvc.perform(MockMvcRequestBuilders.post(ACCOUNT_URL + "/balance/checkpoints/rebuild"))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.accountId").value(7))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.checkpointCount").value(2))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.firstCheckpointDate").value("2025-01-28"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.lastCheckpointDate").value("2025-01-29"));
+    }
+}
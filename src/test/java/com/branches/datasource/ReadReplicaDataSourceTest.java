@@ -0,0 +1,151 @@
+package com.branches.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Routes between three embedded databases standing in for the primary and two replicas, each holding
+ * its own name.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ReadReplicaDataSourceTest {
+    private static final DataSource PRIMARY = database("primary");
+    private static final DataSource REPLICA_A = database("replica-a");
+    private static final DataSource REPLICA_B = database("replica-b");
+
+    private FlakyDataSource replicaA;
+    private FlakyDataSource replicaB;
+    private ReadReplicaDataSource dataSource;
+
+    @BeforeEach
+    void init() {
+        replicaA = new FlakyDataSource(REPLICA_A);
+        replicaB = new FlakyDataSource(REPLICA_B);
+        dataSource = new ReadReplicaDataSource(PRIMARY, List.of(replicaA, replicaB), Duration.ofSeconds(1));
+    }
+
+    @Test
+    @DisplayName("getConnection takes the replicas in turns")
+    @Order(1)
+    void getConnection_TakesReplicasInTurns_WhenEveryReplicaIsHealthy() throws SQLException {
+        Assertions.assertThat(List.of(connectedTo(), connectedTo(), connectedTo(), connectedTo()))
+                .containsExactly("replica-a", "replica-b", "replica-a", "replica-b");
+    }
+
+    @Test
+    @DisplayName("getConnection takes the primary when the thread requires it")
+    @Order(2)
+    void getConnection_TakesPrimary_WhenThePrimaryIsRequired() throws SQLException {
+        String name = ReadRouting.onPrimary(() -> {
+            try {
+                return connectedTo();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        Assertions.assertThat(name).isEqualTo("primary");
+        Assertions.assertThat(connectedTo()).isEqualTo("replica-a");
+    }
+
+    @Test
+    @DisplayName("getConnection skips a replica that failed to connect until a health check succeeds")
+    @Order(3)
+    void getConnection_SkipsFailedReplica_UntilAHealthCheckSucceeds() throws SQLException {
+        replicaA.down = true;
+
+        Assertions.assertThat(List.of(connectedTo(), connectedTo(), connectedTo()))
+                .containsExactly("replica-b", "replica-b", "replica-b");
+        Assertions.assertThat(dataSource.isHealthy(0)).isFalse();
+
+        replicaA.down = false;
+        dataSource.checkReplicas();
+
+        Assertions.assertThat(dataSource.isHealthy(0)).isTrue();
+        Assertions.assertThat(List.of(connectedTo(), connectedTo())).containsExactlyInAnyOrder("replica-a", "replica-b");
+    }
+
+    @Test
+    @DisplayName("checkReplicas marks the replicas that do not answer as unhealthy")
+    @Order(4)
+    void checkReplicas_MarksReplicaUnhealthy_WhenItDoesNotAnswer() throws SQLException {
+        replicaB.down = true;
+
+        dataSource.checkReplicas();
+
+        Assertions.assertThat(dataSource.isHealthy(0)).isTrue();
+        Assertions.assertThat(dataSource.isHealthy(1)).isFalse();
+        Assertions.assertThat(List.of(connectedTo(), connectedTo())).containsExactly("replica-a", "replica-a");
+    }
+
+    @Test
+    @DisplayName("getConnection takes the primary when every replica is down")
+    @Order(5)
+    void getConnection_TakesPrimary_WhenEveryReplicaIsDown() throws SQLException {
+        replicaA.down = true;
+        replicaB.down = true;
+        dataSource.checkReplicas();
+
+        Assertions.assertThat(connectedTo()).isEqualTo("primary");
+    }
+
+    @Test
+    @DisplayName("bindTo publishes whether each replica is healthy")
+    @Order(6)
+    void bindTo_PublishesReplicaHealth() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        dataSource.bindTo(registry);
+        replicaB.down = true;
+        dataSource.checkReplicas();
+
+        Assertions.assertThat(registry.get(ReadReplicaDataSource.HEALTHY_METRIC).tag("replica", "replica-0").gauge().value()).isEqualTo(1);
+        Assertions.assertThat(registry.get(ReadReplicaDataSource.HEALTHY_METRIC).tag("replica", "replica-1").gauge().value()).isEqualTo(0);
+    }
+
+    private String connectedTo() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             ResultSet resultSet = connection.createStatement().executeQuery("SELECT name FROM node")) {
+            resultSet.next();
+
+            return resultSet.getString(1);
+        }
+    }
+
+    private static DataSource database(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + "-node;DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS node (name VARCHAR(20))");
+        jdbcTemplate.update("DELETE FROM node");
+        jdbcTemplate.update("INSERT INTO node (name) VALUES (?)", name);
+
+        return dataSource;
+    }
+
+    private static class FlakyDataSource extends DelegatingDataSource {
+        private volatile boolean down;
+
+        FlakyDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (down) throw new SQLTransientConnectionException("replica is down");
+
+            return super.getConnection();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.branches.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.Cookie;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ReadYourWritesFilterTest {
+    private static final Instant NOW = Instant.parse("2025-05-08T17:14:22Z");
+    private static final Duration MAX_LAG = Duration.ofSeconds(5);
+
+    private final ReadYourWritesFilter filter = new ReadYourWritesFilter(MAX_LAG, Clock.fixed(NOW, ZoneOffset.UTC));
+    private final AtomicBoolean ranOnPrimary = new AtomicBoolean();
+    private final FilterChain chain = (request, response) -> ranOnPrimary.set(ReadRouting.isPrimaryRequired());
+
+    @Test
+    @DisplayName("doFilter runs a write on the primary and sets the time of the write on the client")
+    @Order(1)
+    void doFilter_RunsWriteOnPrimaryAndSetsCookie_WhenTheRequestMayWrite() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("POST", "/v1/transactions"), response, chain);
+
+        Assertions.assertThat(ranOnPrimary).isTrue();
+        Assertions.assertThat(ReadRouting.isPrimaryRequired()).isFalse();
+        Cookie cookie = response.getCookie(ReadYourWritesFilter.COOKIE);
+        Assertions.assertThat(cookie).isNotNull();
+        Assertions.assertThat(cookie.getValue()).isEqualTo(Long.toString(NOW.toEpochMilli()));
+        Assertions.assertThat(cookie.getMaxAge()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("doFilter runs a read on the primary while the client's last write is younger than the lag")
+    @Order(2)
+    void doFilter_RunsReadOnPrimary_WhenTheLastWriteIsYoungerThanTheLag() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/transactions");
+        request.setCookies(new Cookie(ReadYourWritesFilter.COOKIE, Long.toString(NOW.minusSeconds(4).toEpochMilli())));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, chain);
+
+        Assertions.assertThat(ranOnPrimary).isTrue();
+        Assertions.assertThat(response.getCookie(ReadYourWritesFilter.COOKIE)).isNull();
+    }
+
+    @Test
+    @DisplayName("doFilter leaves a read to the replicas once the client's last write is older than the lag")
+    @Order(3)
+    void doFilter_LeavesReadToReplicas_WhenTheLastWriteIsOlderThanTheLag() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/transactions");
+        request.setCookies(new Cookie(ReadYourWritesFilter.COOKIE, Long.toString(NOW.minusSeconds(5).toEpochMilli())));
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        Assertions.assertThat(ranOnPrimary).isFalse();
+    }
+
+    @Test
+    @DisplayName("doFilter leaves a read to the replicas when the cookie is not a time")
+    @Order(4)
+    void doFilter_LeavesReadToReplicas_WhenTheCookieIsInvalid() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/transactions");
+        request.setCookies(new Cookie(ReadYourWritesFilter.COOKIE, "yesterday"));
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        Assertions.assertThat(ranOnPrimary).isFalse();
+    }
+
+    @Test
+    @DisplayName("propagate hands the requirement of the primary to a task run on another thread")
+    @Order(5)
+    void propagate_HandsPrimaryToTask_WhenSubmittedFromARequestOnThePrimary() throws Exception {
+        Runnable task = ReadRouting.onPrimary(() -> ReadRouting.propagate(() -> ranOnPrimary.set(ReadRouting.isPrimaryRequired())));
+
+        Thread thread = Thread.ofVirtual().start(task);
+        thread.join();
+
+        Assertions.assertThat(ranOnPrimary).isTrue();
+    }
+}
@@ -0,0 +1,151 @@
+package com.branches.journal;
+
+import com.branches.model.Transaction;
+import com.branches.repository.TransactionArchiveStateRepository;
+import com.branches.service.BalanceCheckpointService;
+import com.branches.service.BalanceService;
+import com.branches.service.TransactionSearchService;
+import com.branches.service.TransactionSummaryService;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@ExtendWith(MockitoExtension.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class TransactionJournalReplayerTest {
+    private static final LocalDateTime DATE = LocalDateTime.of(2025, 1, 28, 10, 0);
+
+    @Mock
+    private TransactionJournal journal;
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private BalanceService balanceService;
+    @Mock
+    private TransactionSummaryService summaryService;
+    @Mock
+    private BalanceCheckpointService checkpointService;
+    @Mock
+    private TransactionSearchService searchService;
+    @Mock
+    private TransactionArchiveStateRepository archiveStateRepository;
+
+    @Test
+    @DisplayName("replayTable inserts the journaled transactions missing from the table, also below its largest id, with their rollups, checkpoints and terms")
+    @Order(1)
+    void replayTable_InsertsMissingTransactions_WhenJournalHoldsRowsTheTableLacks() {
+        BDDMockito.when(transactionTemplate.execute(ArgumentMatchers.any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        BDDMockito.when(jdbcTemplate.queryForObject(ArgumentMatchers.anyString(), ArgumentMatchers.eq(Long.class))).thenReturn(6L);
+        BDDMockito.when(jdbcTemplate.queryForList(ArgumentMatchers.anyString(), ArgumentMatchers.eq(Long.class), ArgumentMatchers.any(Object[].class)))
+                .thenReturn(List.of(1L, 6L));
+        BDDMockito.when(archiveStateRepository.findArchivedBefore(ArgumentMatchers.anyLong())).thenReturn(Optional.of(DATE));
+        BDDMockito.when(jdbcTemplate.execute(ArgumentMatchers.<ConnectionCallback<String>>any())).thenReturn("H2");
+        BDDMockito.when(journal.replay(ArgumentMatchers.eq(0L), ArgumentMatchers.any())).thenAnswer(invocation -> {
+            TransactionJournal.RecordConsumer consumer = invocation.getArgument(1);
+            consumer.accept(1L, Transaction.DEFAULT_ACCOUNT_ID, 100L, DATE, "in the table");
+            consumer.accept(6L, 7L, 600L, DATE, "in the table");
+            consumer.accept(3L, 7L, 300L, DATE.minusDays(1), "archived");
+            consumer.accept(2L, 7L, -200L, DATE, "committed after 6");
+            consumer.accept(8L, 7L, -800L, DATE, "missing");
+            consumer.accept(7L, Transaction.DEFAULT_ACCOUNT_ID, 700L, DATE.plusDays(1), null);
+            return 6L;
+        });
+        List<Transaction> inserted = new ArrayList<>();
+        BDDMockito.when(jdbcTemplate.batchUpdate(ArgumentMatchers.anyString(), ArgumentMatchers.<List<Transaction>>any(),
+                ArgumentMatchers.anyInt(), ArgumentMatchers.<ParameterizedPreparedStatementSetter<Transaction>>any())).thenAnswer(invocation -> {
+            inserted.addAll(invocation.getArgument(1));
+            return new int[0][];
+        });
+
+        long rows = newReplayer("jpa").replayTable();
+
+        Assertions.assertThat(rows).isEqualTo(3);
+        Assertions.assertThat(inserted)
+                .extracting(Transaction::getId, Transaction::getAccountId, Transaction::getValueInCents, Transaction::getDescription)
+                .containsExactly(
+                        Assertions.tuple(2L, 7L, -200L, "committed after 6"),
+                        Assertions.tuple(8L, 7L, -800L, "missing"),
+                        Assertions.tuple(7L, Transaction.DEFAULT_ACCOUNT_ID, 700L, null)
+                );
+        BDDMockito.verify(jdbcTemplate).queryForList("SELECT id FROM transaction WHERE id IN (?, ?, ?, ?, ?)", Long.class, 1L, 6L, 2L, 8L, 7L);
+        BDDMockito.verify(jdbcTemplate).execute("ALTER SEQUENCE transaction_seq RESTART WITH " + (8 + Transaction.ID_ALLOCATION_SIZE + 1));
+        BDDMockito.verify(summaryService).apply(inserted);
+        BDDMockito.verify(checkpointService).apply(inserted);
+        BDDMockito.verify(searchService).apply(inserted);
+        BDDMockito.verify(balanceService).reconcile(Transaction.DEFAULT_ACCOUNT_ID);
+        BDDMockito.verify(balanceService).reconcile(7L);
+    }
+
+    @Test
+    @DisplayName("replayTable leaves the id sequence alone when it is already past the inserted ids")
+    @Order(2)
+    void replayTable_KeepsIdSequence_WhenItIsAlreadyPastTheInsertedIds() {
+        BDDMockito.when(transactionTemplate.execute(ArgumentMatchers.any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        BDDMockito.when(jdbcTemplate.queryForObject(ArgumentMatchers.startsWith("SELECT COALESCE"), ArgumentMatchers.eq(Long.class)))
+                .thenReturn(0L);
+        BDDMockito.when(jdbcTemplate.queryForObject(ArgumentMatchers.startsWith("SELECT BASE_VALUE"), ArgumentMatchers.eq(Long.class)))
+                .thenReturn(10_000L);
+        BDDMockito.when(jdbcTemplate.queryForList(ArgumentMatchers.anyString(), ArgumentMatchers.eq(Long.class), ArgumentMatchers.any(Object[].class)))
+                .thenReturn(List.of());
+        BDDMockito.when(archiveStateRepository.findArchivedBefore(ArgumentMatchers.anyLong())).thenReturn(Optional.empty());
+        BDDMockito.when(jdbcTemplate.execute(ArgumentMatchers.<ConnectionCallback<String>>any())).thenReturn("H2");
+        BDDMockito.when(journal.replay(ArgumentMatchers.eq(0L), ArgumentMatchers.any())).thenAnswer(invocation -> {
+            invocation.<TransactionJournal.RecordConsumer>getArgument(1).accept(2L, 7L, -200L, DATE, "missing");
+            return 1L;
+        });
+
+        long rows = newReplayer("jpa").replayTable();
+
+        Assertions.assertThat(rows).isEqualTo(1);
+        BDDMockito.verify(jdbcTemplate, BDDMockito.never()).execute(ArgumentMatchers.startsWith("ALTER SEQUENCE"));
+        BDDMockito.verify(balanceService).reconcile(7L);
+    }
+
+    @Test
+    @DisplayName("replayTable throws IllegalStateException when the ledger is not kept in the database")
+    @Order(3)
+    void replayTable_ThrowsIllegalStateException_WhenStoreIsInMemory() {
+        Assertions.assertThatThrownBy(() -> newReplayer("in-memory").replayTable())
+                .isInstanceOf(IllegalStateException.class);
+        BDDMockito.verifyNoInteractions(journal, jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("replayBalance replaces the balance of each journaled account with its journal balance")
+    @Order(4)
+    void replayBalance_RestoresBalanceOfEachAccountFromJournalBalances_WhenCalled() {
+        BDDMockito.when(journal.balances()).thenReturn(Map.of(
+                Transaction.DEFAULT_ACCOUNT_ID, new TransactionJournal.Balance(3, 2500L),
+                7L, new TransactionJournal.Balance(2, -800L)
+        ));
+
+        newReplayer("jpa").replayBalance();
+
+        BDDMockito.verify(balanceService).restore(Transaction.DEFAULT_ACCOUNT_ID, 2500L, 3);
+        BDDMockito.verify(balanceService).restore(7L, -800L, 2);
+    }
+
+    private TransactionJournalReplayer newReplayer(String storeType) {
+        return new TransactionJournalReplayer(journal, jdbcTemplate, transactionTemplate, balanceService,
+                summaryService, checkpointService, searchService, archiveStateRepository, TransactionJournalReplayer.Mode.NONE, storeType);
+    }
+}
@@ -0,0 +1,152 @@
+package com.branches.journal;
+
+import com.branches.model.Transaction;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class TransactionJournalTest {
+    private static final int SEGMENT_RECORDS = 4;
+    private static final long CHECKPOINT_INTERVAL = 3;
+    private static final LocalDateTime DATE = LocalDateTime.of(2025, 1, 28, 10, 15, 30, 123_456_000);
+
+    @TempDir
+    private Path directory;
+    private TransactionJournal journal;
+
+    @BeforeEach
+    void init() {
+        journal = open();
+    }
+
+    @AfterEach
+    void tearDown() {
+        journal.close();
+    }
+
+    @Test
+    @DisplayName("replay returns every appended transaction across segments, in order")
+    @Order(1)
+    void replay_ReturnsEveryAppendedTransaction_WhenJournalSpansSegments() throws IOException {
+        journal.append(List.of(newTransaction(1L, 10000L, "Salário"), newTransaction(2L, -2500L, null)));
+        journal.append(newTransactions(3, 6));
+
+        List<Transaction> replayed = replay(journal, 0);
+
+        Assertions.assertThat(replayed).hasSize(6);
+        Assertions.assertThat(replayed.getFirst()).isEqualTo(newTransaction(1L, 10000L, "Salário"));
+        Assertions.assertThat(replayed.get(1)).isEqualTo(newTransaction(2L, -2500L, null));
+        Assertions.assertThat(replayed).extracting(Transaction::getId).containsExactly(1L, 2L, 3L, 4L, 5L, 6L);
+        Assertions.assertThat(replay(journal, 5)).extracting(Transaction::getId).containsExactly(6L);
+        Assertions.assertThat(segments()).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("balance keeps the sum of every record when the journal is opened again")
+    @Order(2)
+    void balance_KeepsSumOfEveryRecord_WhenJournalIsOpenedAgain() {
+        journal.append(newTransactions(1, 7));
+        journal.close();
+        journal = open();
+
+        Assertions.assertThat(journal.balance()).isEqualTo(new TransactionJournal.Balance(7, 2800L));
+        journal.append(newTransactions(8, 8));
+        Assertions.assertThat(journal.balance()).isEqualTo(new TransactionJournal.Balance(8, 3200L));
+    }
+
+    @Test
+    @DisplayName("the journal ends at a record torn by a crash and ignores checkpoints after it")
+    @Order(3)
+    void open_EndsAtTornRecordAndDropsLaterCheckpoints_WhenLastRecordIsCorrupt() throws IOException {
+        journal.append(newTransactions(1, 6));
+        journal.close();
+        // corrupts record 4, the first one of the second segment, which a checkpoint at 6 covers
+        try (FileChannel channel = FileChannel.open(segments().getLast(), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{1}), 10);
+        }
+
+        journal = open();
+        journal.append(newTransactions(10, 10));
+        journal.close();
+        journal = open();
+
+        Assertions.assertThat(replay(journal, 0)).extracting(Transaction::getId).containsExactly(1L, 2L, 3L, 4L, 10L);
+        Assertions.assertThat(journal.balance()).isEqualTo(new TransactionJournal.Balance(5, 2000L));
+    }
+
+    @Test
+    @DisplayName("replay returns the account of each record and balances keeps each account's sum when the journal is opened again")
+    @Order(4)
+    void balances_KeepsSumOfEachAccount_WhenJournalIsOpenedAgain() {
+        journal.append(List.of(newTransaction(1L, 7L, 10000L, "Salário"), newTransaction(2L, -2500L, null)));
+        journal.append(List.of(newTransaction(3L, 7L, -1500L, "Mercado"), newTransaction(4L, 400L, "Pix")));
+        journal.close();
+        journal = open();
+
+        Assertions.assertThat(replay(journal, 0))
+                .extracting(Transaction::getId, Transaction::getAccountId)
+                .containsExactly(
+                        Assertions.tuple(1L, 7L),
+                        Assertions.tuple(2L, Transaction.DEFAULT_ACCOUNT_ID),
+                        Assertions.tuple(3L, 7L),
+                        Assertions.tuple(4L, Transaction.DEFAULT_ACCOUNT_ID)
+                );
+        Assertions.assertThat(journal.balances()).containsExactly(
+                Map.entry(Transaction.DEFAULT_ACCOUNT_ID, new TransactionJournal.Balance(2, -2100L)),
+                Map.entry(7L, new TransactionJournal.Balance(2, 8500L))
+        );
+        Assertions.assertThat(journal.balance()).isEqualTo(new TransactionJournal.Balance(4, 6400L));
+    }
+
+    private TransactionJournal open() {
+        return new TransactionJournal(directory, SEGMENT_RECORDS, CHECKPOINT_INTERVAL, true);
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.toString().endsWith(".journal")).sorted().toList();
+        }
+    }
+
+    private static List<Transaction> replay(TransactionJournal journal, long from) {
+        List<Transaction> transactions = new ArrayList<>();
+        journal.replay(from, (id, accountId, valueInCents, date, description) -> transactions.add(Transaction.builder()
+                .id(id).accountId(accountId).valueInCents(valueInCents).description(description).date(date).build()));
+
+        return transactions;
+    }
+
+    private static List<Transaction> newTransactions(long firstId, long lastId) {
+        return LongStream.rangeClosed(firstId, lastId)
+                .mapToObj(id -> newTransaction(id, 400L, "Transaction " + id))
+                .toList();
+    }
+
+    private static Transaction newTransaction(Long id, long valueInCents, String description) {
+        return newTransaction(id, Transaction.DEFAULT_ACCOUNT_ID, valueInCents, description);
+    }
+
+    private static Transaction newTransaction(Long id, long accountId, long valueInCents, String description) {
+        return Transaction.builder()
+                .id(id)
+                .accountId(accountId)
+                .valueInCents(valueInCents)
+                .description(description)
+                .date(DATE)
+                .build();
+    }
+}
@@ -0,0 +1,105 @@
+package com.branches.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aopalliance.intercept.MethodInvocation;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.jpa.repository.Modifying;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+@ExtendWith(MockitoExtension.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class RepositoryRowsInterceptorTest {
+    @Mock
+    private MethodInvocation invocation;
+    private MeterRegistry registry;
+    private RepositoryRowsInterceptor interceptor;
+
+    interface SampleRepository {
+        List<String> findAll();
+
+        Stream<String> streamAll();
+
+        @Modifying
+        int deleteOld();
+
+        Long sumValues();
+
+        void clear();
+    }
+
+    @BeforeEach
+    void init() {
+        registry = new SimpleMeterRegistry();
+        interceptor = new RepositoryRowsInterceptor(SampleRepository.class, () -> registry);
+    }
+
+    @Test
+    @DisplayName("invoke records the size of a returned list")
+    @Order(1)
+    void invoke_RecordsListSize_WhenMethodReturnsList() throws Throwable {
+        List<String> rows = List.of("a", "b", "c");
+        stub("findAll", rows);
+
+        Assertions.assertThat(interceptor.invoke(invocation)).isSameAs(rows);
+        Assertions.assertThat(summaryTotal("findAll")).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("invoke records the rows of a returned stream once it is consumed and closed")
+    @Order(2)
+    void invoke_RecordsStreamRowsOnClose_WhenMethodReturnsStream() throws Throwable {
+        stub("streamAll", Stream.of("a", "b"));
+
+        try (Stream<?> stream = (Stream<?>) interceptor.invoke(invocation)) {
+            Assertions.assertThat(stream.toList()).hasSize(2);
+            Assertions.assertThat(registry.find(RepositoryRowsInterceptor.METRIC).summary().count()).isZero();
+        }
+
+        Assertions.assertThat(summaryTotal("streamAll")).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("invoke records the update count of a modifying query and one row for a single value")
+    @Order(3)
+    void invoke_RecordsUpdateCountAndSingleRow_WhenMethodReturnsNumber() throws Throwable {
+        stub("deleteOld", 42);
+        interceptor.invoke(invocation);
+        stub("sumValues", 123456L);
+        interceptor.invoke(invocation);
+
+        Assertions.assertThat(summaryTotal("deleteOld")).isEqualTo(42);
+        Assertions.assertThat(summaryTotal("sumValues")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("invoke records nothing when the method returns void")
+    @Order(4)
+    void invoke_RecordsNothing_WhenMethodReturnsVoid() throws Throwable {
+        stub("clear", null);
+
+        interceptor.invoke(invocation);
+
+        Assertions.assertThat(registry.find(RepositoryRowsInterceptor.METRIC).summary()).isNull();
+    }
+
+    private void stub(String method, Object result) throws Throwable {
+        BDDMockito.when(invocation.getMethod()).thenReturn(SampleRepository.class.getMethod(method));
+        BDDMockito.when(invocation.proceed()).thenReturn(result);
+    }
+
+    private double summaryTotal(String method) {
+        return registry.get(RepositoryRowsInterceptor.METRIC)
+                .tag("repository", "SampleRepository")
+                .tag("method", method)
+                .summary()
+                .totalAmount();
+    }
+}
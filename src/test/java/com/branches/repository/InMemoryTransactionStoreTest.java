@@ -0,0 +1,218 @@
+package com.branches.repository;
+
+import com.branches.model.Transaction;
+import com.branches.request.TransactionCursor;
+import com.branches.response.TransactionGetResponse;
+import com.branches.utils.DateUtils;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class InMemoryTransactionStoreTest {
+    private static final long ACCOUNT_ID = Transaction.DEFAULT_ACCOUNT_ID;
+    private static final LocalDateTime JANUARY = LocalDateTime.of(2025, 1, 15, 10, 0);
+    private static final LocalDateTime FEBRUARY = LocalDateTime.of(2025, 2, 15, 10, 0);
+    private static final LocalDateTime MARCH = LocalDateTime.of(2025, 3, 15, 10, 0);
+
+    @TempDir
+    private Path directory;
+    private Path logPath;
+    private InMemoryTransactionStore store;
+
+    @BeforeEach
+    void init() {
+        logPath = directory.resolve("ledger.wal");
+        // written out of date order, as rows committed by concurrent transactions can be
+        try (TransactionWriteAheadLog log = new TransactionWriteAheadLog(logPath, false)) {
+            log.append(List.of(newTransaction(1L, 10000L, "Salary", FEBRUARY)));
+            log.append(List.of(newTransaction(2L, -2500L, "Rent", JANUARY), newTransaction(3L, -1000L, null, MARCH)));
+            log.append(List.of(newTransaction(4L, 500L, "Salary", MARCH)));
+        }
+        store = new InMemoryTransactionStore(logPath, false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    @DisplayName("findFirstPageByDateFilter returns the replayed transactions between the dates, newest first")
+    @Order(1)
+    void findFirstPageByDateFilter_ReturnsReplayedTransactionsNewestFirst_WhenLogHasCommits() {
+        Assertions.assertThat(store.findFirstPageByDateFilter(ACCOUNT_ID, null, null, Limit.unlimited()))
+                .extracting(TransactionGetResponse::getId)
+                .containsExactly(4L, 3L, 1L, 2L);
+        Assertions.assertThat(store.findFirstPageByDateFilter(ACCOUNT_ID, JANUARY.plusDays(1), MARCH, Limit.of(2)))
+                .extracting(TransactionGetResponse::getId, TransactionGetResponse::getDescription)
+                .containsExactly(Assertions.tuple(4L, "Salary"), Assertions.tuple(3L, null));
+    }
+
+    @Test
+    @DisplayName("findPageByDateFilterAfter returns the transactions that come after the cursor row")
+    @Order(2)
+    void findPageByDateFilterAfter_ReturnsTransactionsAfterCursor_WhenCursorIsGiven() {
+        Assertions.assertThat(store.findPageByDateFilterAfter(ACCOUNT_ID, null, null, MARCH, 4L, Limit.of(2)))
+                .extracting(TransactionGetResponse::getId)
+                .containsExactly(3L, 1L);
+        Assertions.assertThat(store.findPageByDateFilterAfter(ACCOUNT_ID, FEBRUARY, null, FEBRUARY, 1L, Limit.of(2)))
+                .isEmpty();
+    }
+
+    @Test
+    @DisplayName("sumAllTransactionsFrom and countByDateGreaterThanEqual cover the transactions from the date on")
+    @Order(3)
+    void sumAllTransactionsFrom_ReturnsSumFromDate_WhenTransactionsExist() {
+        Assertions.assertThat(store.sumAllTransactionsFrom(ACCOUNT_ID, DateUtils.MIN_DATE)).isEqualByComparingTo("70.00");
+        Assertions.assertThat(store.sumAllTransactionsFrom(ACCOUNT_ID, FEBRUARY)).isEqualByComparingTo("95.00");
+        Assertions.assertThat(store.countByDateGreaterThanEqual(ACCOUNT_ID, FEBRUARY)).isEqualTo(3);
+        Assertions.assertThat(store.findAllBySign(ACCOUNT_ID, Transaction.EXPENSE))
+                .extracting(TransactionGetResponse::getId)
+                .containsExactly(3L, 2L);
+    }
+
+    @Test
+    @DisplayName("save keeps the date order and the ids when the log is replayed again")
+    @Order(4)
+    void save_KeepsDateOrderAcrossReplay_WhenNewRowIsOlderThanNewestOne() {
+        Transaction saved = store.save(Transaction.builder().valueInCents(-300L).description("Coffee").build());
+        store.close();
+        store = new InMemoryTransactionStore(logPath, false);
+
+        Assertions.assertThat(saved.getId()).isEqualTo(5L);
+        Assertions.assertThat(saved.getSign()).isEqualTo(Transaction.EXPENSE);
+        Assertions.assertThat(store.findFirstPageByDateFilter(ACCOUNT_ID, null, null, Limit.unlimited()))
+                .extracting(TransactionGetResponse::getId)
+                .containsExactly(5L, 4L, 3L, 1L, 2L);
+        Assertions.assertThat(store.save(Transaction.builder().valueInCents(100L).build()).getId()).isEqualTo(6L);
+    }
+
+    @Test
+    @DisplayName("the store drops an incomplete commit at the end of the log on startup")
+    @Order(5)
+    void replay_DropsIncompleteCommit_WhenLogEndsInThePartOfACommit() throws IOException {
+        store.close();
+        long validSize = Files.size(logPath);
+        Files.write(logPath, new byte[]{0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        store = new InMemoryTransactionStore(logPath, false);
+        store.save(Transaction.builder().valueInCents(100L).build());
+        store.close();
+        store = new InMemoryTransactionStore(logPath, false);
+
+        Assertions.assertThat(Files.size(logPath)).isGreaterThan(validSize);
+        Assertions.assertThat(store.countByDateGreaterThanEqual(ACCOUNT_ID, DateUtils.MIN_DATE)).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("save publishes the rows of a transaction only when it commits and counts them inside it")
+    @Order(6)
+    void save_PublishesRowsOnCommit_WhenTransactionIsActive() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            store.save(Transaction.builder().valueInCents(3000L).build());
+
+            Assertions.assertThat(store.sumAllTransactionsFrom(ACCOUNT_ID, DateUtils.MIN_DATE)).isEqualByComparingTo("100.00");
+            Assertions.assertThat(store.findFirstPageByDateFilter(ACCOUNT_ID, null, null, Limit.unlimited())).hasSize(4);
+
+            TransactionSynchronizationUtils.triggerBeforeCommit(false);
+            TransactionSynchronizationUtils.invokeAfterCompletion(TransactionSynchronizationManager.getSynchronizations(),
+                    TransactionSynchronization.STATUS_COMMITTED);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        Assertions.assertThat(store.findFirstPageByDateFilter(ACCOUNT_ID, null, null, Limit.unlimited())).hasSize(5);
+        Assertions.assertThat(store.sumAllTransactionsFrom(ACCOUNT_ID, DateUtils.MIN_DATE)).isEqualByComparingTo(new BigDecimal("100.00"));
+    }
+
+    @Test
+    @DisplayName("save throws DataIntegrityViolationException when the description is too long")
+    @Order(7)
+    void save_ThrowsDataIntegrityViolationException_WhenDescriptionIsTooLong() {
+        Transaction transaction = Transaction.builder()
+                .valueInCents(100L)
+                .description("x".repeat(Transaction.DESCRIPTION_MAX_LENGTH + 1))
+                .build();
+
+        Assertions.assertThatThrownBy(() -> store.save(transaction))
+                .isInstanceOf(DataIntegrityViolationException.class);
+        Assertions.assertThat(store.countByDateGreaterThanEqual(ACCOUNT_ID, DateUtils.MIN_DATE)).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("findAllByPosition returns the transactions at the given positions in order, leaving out missing ones")
+    @Order(8)
+    void findAllByPosition_ReturnsTransactionsInGivenOrder_WhenPositionsAreGiven() {
+        List<TransactionCursor> positions = List.of(
+                new TransactionCursor(JANUARY, 2L),
+                new TransactionCursor(MARCH, 4L),
+                new TransactionCursor(MARCH, 2L),
+                new TransactionCursor(FEBRUARY, 1L)
+        );
+
+        Assertions.assertThat(store.findAllByPosition(positions))
+                .extracting(TransactionGetResponse::getId)
+                .containsExactly(2L, 4L, 1L);
+    }
+
+    @Test
+    @DisplayName("the store keeps the transactions of each account apart, also across a replay of the log")
+    @Order(9)
+    void saveAll_KeepsEachAccountApart_WhenTransactionsAreOfSeveralAccounts() {
+        store.saveAll(List.of(
+                Transaction.builder().accountId(7L).valueInCents(-300L).description("Rent").build(),
+                Transaction.builder().accountId(ACCOUNT_ID).valueInCents(200L).build(),
+                Transaction.builder().accountId(7L).valueInCents(1000L).build()
+        ));
+        store.close();
+        store = new InMemoryTransactionStore(logPath, false);
+
+        Assertions.assertThat(store.findAccountIds()).containsExactly(ACCOUNT_ID, 7L);
+        Assertions.assertThat(store.findFirstPageByDateFilter(7L, null, null, Limit.unlimited()))
+                .extracting(TransactionGetResponse::getId, TransactionGetResponse::getDescription)
+                .containsExactly(Assertions.tuple(7L, null), Assertions.tuple(5L, "Rent"));
+        Assertions.assertThat(store.sumAllTransactionsFrom(7L, DateUtils.MIN_DATE)).isEqualByComparingTo("7.00");
+        Assertions.assertThat(store.sumAllTransactionsFrom(ACCOUNT_ID, DateUtils.MIN_DATE)).isEqualByComparingTo("72.00");
+        Assertions.assertThat(store.countByDateGreaterThanEqual(7L, DateUtils.MIN_DATE)).isEqualTo(2);
+        Assertions.assertThat(store.findAllBySign(7L, Transaction.EXPENSE)).extracting(TransactionGetResponse::getId).containsExactly(5L);
+        try (Stream<Transaction> transactions = store.streamAllByDateFilter(7L, null, null)) {
+            Assertions.assertThat(transactions).extracting(Transaction::getAccountId).containsExactly(7L, 7L);
+        }
+        Assertions.assertThat(store.countByDateGreaterThanEqual(8L, DateUtils.MIN_DATE)).isZero();
+    }
+
+    @Test
+    @DisplayName("sumAllTransactionsBetween covers the transactions dated between both dates, inclusive")
+    @Order(10)
+    void sumAllTransactionsBetween_ReturnsSumOfTheRange_WhenTransactionsExist() {
+        Assertions.assertThat(store.sumAllTransactionsBetween(ACCOUNT_ID, JANUARY, FEBRUARY)).isEqualByComparingTo("75.00");
+        Assertions.assertThat(store.sumAllTransactionsBetween(ACCOUNT_ID, FEBRUARY.plusSeconds(1), MARCH)).isEqualByComparingTo("-5.00");
+        Assertions.assertThat(store.sumAllTransactionsBetween(ACCOUNT_ID, FEBRUARY.plusSeconds(1), MARCH.minusSeconds(1))).isEqualByComparingTo("0");
+        Assertions.assertThat(store.sumAllTransactionsBetween(ACCOUNT_ID, MARCH, JANUARY)).isEqualByComparingTo("0");
+    }
+
+    private static Transaction newTransaction(Long id, long valueInCents, String description, LocalDateTime date) {
+        return Transaction.builder()
+                .id(id)
+                .valueInCents(valueInCents)
+                .description(description)
+                .date(date)
+                .build();
+    }
+}
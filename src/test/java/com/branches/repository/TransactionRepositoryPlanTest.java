@@ -0,0 +1,149 @@
+package com.branches.repository;
+
+import com.branches.model.Transaction;
+import org.assertj.core.api.Assertions;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Runs {@code EXPLAIN} on the SQL generated for each filtered query and fails when the plan falls back
+ * to a full table scan, so a query rewrite or a dropped index is caught before it reaches production.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.branches.repository.TransactionRepositoryPlanTest$SqlCapture")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class TransactionRepositoryPlanTest {
+    private static final long ACCOUNT_ID = Transaction.DEFAULT_ACCOUNT_ID;
+    private static final LocalDateTime START_DATE = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final LocalDateTime END_DATE = LocalDateTime.of(2025, 1, 31, 23, 59, 59);
+    private static final Limit LIMIT = Limit.of(51);
+
+    @Autowired
+    private TransactionRepository repository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void init() {
+        SqlCapture.STATEMENTS.clear();
+    }
+
+    @Test
+    @DisplayName("findFirstPageByDateFilter reads the date index when no dates are given")
+    @Order(1)
+    void findFirstPageByDateFilter_UsesDateIndex_WhenNoDatesAreGiven() {
+        repository.findFirstPageByDateFilter(ACCOUNT_ID, null, null, LIMIT);
+
+        assertUsesIndex("idx_transaction_account_date_list");
+    }
+
+    @Test
+    @DisplayName("findFirstPageByDateFilter reads the date index when only the start date is given")
+    @Order(2)
+    void findFirstPageByDateFilter_UsesDateIndex_WhenOnlyStartDateIsGiven() {
+        repository.findFirstPageByDateFilter(ACCOUNT_ID, START_DATE, null, LIMIT);
+
+        assertUsesIndex("idx_transaction_account_date_list");
+    }
+
+    @Test
+    @DisplayName("findFirstPageByDateFilter reads the date index when both dates are given")
+    @Order(3)
+    void findFirstPageByDateFilter_UsesDateIndex_WhenBothDatesAreGiven() {
+        repository.findFirstPageByDateFilter(ACCOUNT_ID, START_DATE, END_DATE, LIMIT);
+
+        assertUsesIndex("idx_transaction_account_date_list");
+    }
+
+    @Test
+    @DisplayName("findPageByDateFilterAfter reads the date index from the cursor position")
+    @Order(4)
+    void findPageByDateFilterAfter_UsesDateIndex_WhenCursorIsGiven() {
+        repository.findPageByDateFilterAfter(ACCOUNT_ID, null, END_DATE, START_DATE.plusDays(10), 10L, LIMIT);
+
+        assertUsesIndex("idx_transaction_account_date_list");
+    }
+
+    @Test
+    @DisplayName("streamAllByDateFilter reads the date index")
+    @Order(5)
+    void streamAllByDateFilter_UsesDateIndex_WhenSuccessful() {
+        try (Stream<Transaction> transactions = repository.streamAllByDateFilter(ACCOUNT_ID, null, END_DATE)) {
+            Assertions.assertThat(transactions).isEmpty();
+        }
+
+        assertUsesIndex("idx_transaction_account_date_list");
+    }
+
+    @Test
+    @DisplayName("findAllBySign reads the sign index for incomes and expenses")
+    @Order(6)
+    void findAllBySign_UsesSignIndex_WhenSuccessful() {
+        repository.findAllBySign(ACCOUNT_ID, Transaction.INCOME);
+        assertUsesIndex("idx_transaction_account_sign_date_list");
+
+        SqlCapture.STATEMENTS.clear();
+        repository.findAllBySign(ACCOUNT_ID, Transaction.EXPENSE);
+        assertUsesIndex("idx_transaction_account_sign_date_list");
+    }
+
+    @Test
+    @DisplayName("findAllByIdInAndDateRange reads the rows of a search page by primary key")
+    @Order(7)
+    void findAllByIdInAndDateRange_UsesPrimaryKey_WhenSuccessful() {
+        repository.findAllByIdInAndDateRange(List.of(1L, 2L, 3L), START_DATE, END_DATE);
+
+        assertUsesIndex("primary_key");
+    }
+
+    private void assertUsesIndex(String indexName) {
+        Assertions.assertThat(SqlCapture.STATEMENTS).hasSize(1);
+
+        String plan = explain(SqlCapture.STATEMENTS.getFirst()).toLowerCase();
+        Assertions.assertThat(plan)
+                .as("plan of %s", SqlCapture.STATEMENTS.getFirst())
+                .contains(indexName)
+                .doesNotContain("tablescan");
+    }
+
+    /**
+     * The plan is chosen when the statement is prepared, so binding every parameter to {@code NULL}
+     * yields the same plan as the real values.
+     */
+    private String explain(String sql) {
+        return jdbcTemplate.execute("EXPLAIN " + sql, (PreparedStatement statement) -> {
+            for (int i = 1; i <= statement.getParameterMetaData().getParameterCount(); i++) {
+                statement.setNull(i, Types.NULL);
+            }
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return resultSet.getString(1);
+            }
+        });
+    }
+
+    public static class SqlCapture implements StatementInspector {
+        static final List<String> STATEMENTS = new ArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            if (sql.startsWith("select")) STATEMENTS.add(sql);
+
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.branches.service;
+
+import com.branches.event.TransactionsSavedEvent;
+import com.branches.model.BalanceCheckpoint;
+import com.branches.model.BalanceCheckpointId;
+import com.branches.model.Transaction;
+import com.branches.repository.ArchivedTransactionRepository;
+import com.branches.repository.BalanceCheckpointRepository;
+import com.branches.repository.BalanceStripeRepository;
+import com.branches.repository.JpaTransactionStore;
+import com.branches.repository.TransactionArchiveStateRepository;
+import com.branches.repository.TransactionRepository;
+import com.branches.repository.TransactionRollupRepository;
+import com.branches.utils.MoneyUtils;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saves to the same account on different stripes across midnight against the test database, committing
+ * each save on its own, since the checkpoint of the new day is only right if it waits for the saves of
+ * the day before that are still running.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class BalanceCheckpointConcurrencyTest {
+    private static final long ACCOUNT_ID = Transaction.DEFAULT_ACCOUNT_ID;
+    private static final LocalDate FEBRUARY_1 = LocalDate.of(2025, 2, 1);
+    private static final LocalDateTime BEFORE_MIDNIGHT = LocalDateTime.of(2025, 1, 31, 23, 59, 59);
+    private static final LocalDateTime AFTER_MIDNIGHT = LocalDateTime.of(2025, 2, 1, 0, 0, 1);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private ArchivedTransactionRepository archiveRepository;
+    @Autowired
+    private TransactionArchiveStateRepository archiveStateRepository;
+    @Autowired
+    private BalanceStripeRepository stripeRepository;
+    @Autowired
+    private TransactionRollupRepository rollupRepository;
+    @Autowired
+    private BalanceCheckpointRepository checkpointRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    private TransactionTemplate transactionTemplate;
+    private TransactionSummaryService summaryService;
+    private BalanceCheckpointService service;
+
+    @BeforeEach
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        BalanceService balanceService = new BalanceService(stripeRepository, new JpaTransactionStore(transactionRepository),
+                archiveRepository, archiveStateRepository, transactionTemplate, event -> {}, 2);
+        summaryService = new TransactionSummaryService(rollupRepository);
+        service = new BalanceCheckpointService(checkpointRepository, rollupRepository, stripeRepository, balanceService, event -> {},
+                transactionManager);
+
+        jdbcTemplate.update("INSERT INTO balance_stripe (account_id, stripe, balance_in_cents, transaction_count, updated_at) " +
+                "VALUES (?, 0, 0, 0, ?), (?, 1, 0, 0, ?)", ACCOUNT_ID, Timestamp.valueOf(LocalDateTime.now()),
+                ACCOUNT_ID, Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    @AfterEach
+    void clean() {
+        jdbcTemplate.update("DELETE FROM balance_checkpoint");
+        jdbcTemplate.update("DELETE FROM balance_stripe");
+        jdbcTemplate.update("DELETE FROM transaction_rollup");
+        jdbcTemplate.update("DELETE FROM transaction");
+    }
+
+    @Test
+    @DisplayName("onTransactionsSaved waits for a save of the day before still running on another stripe before creating the checkpoint")
+    @Order(1)
+    void onTransactionsSaved_IncludesSaveOfTheDayBefore_WhenItCommitsWhileTheCheckpointIsCreated() throws Exception {
+        CountDownLatch saved = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        CompletableFuture<Void> lateSave = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            save(1L, 0, 250000L, BEFORE_MIDNIGHT);
+            saved.countDown();
+            await(commit);
+        }));
+        await(saved);
+
+        Transaction firstOfTheDay = transactionTemplate.execute(status -> save(2L, 1, -4000L, AFTER_MIDNIGHT));
+        CompletableFuture.runAsync(commit::countDown, CompletableFuture.delayedExecutor(300, TimeUnit.MILLISECONDS));
+        service.onTransactionsSaved(new TransactionsSavedEvent(List.of(firstOfTheDay), Map.of(ACCOUNT_ID, -4000L)));
+        lateSave.get(5, TimeUnit.SECONDS);
+
+        Assertions.assertThat(checkpointRepository.findById(new BalanceCheckpointId(ACCOUNT_ID, FEBRUARY_1)))
+                .get()
+                .extracting(BalanceCheckpoint::getBalanceInCents, BalanceCheckpoint::getTransactionCount)
+                .containsExactly(250000L, 1L);
+        Assertions.assertThat(service.getBalance(ACCOUNT_ID, AFTER_MIDNIGHT)).isEqualByComparingTo(new BigDecimal("2460.00"));
+    }
+
+    @Test
+    @DisplayName("apply adds a save of the day before to the checkpoint created while it ran")
+    @Order(2)
+    void apply_AddsSaveOfTheDayBefore_WhenTheCheckpointWasCreatedFirst() {
+        Transaction firstOfTheDay = transactionTemplate.execute(status -> save(2L, 1, -4000L, AFTER_MIDNIGHT));
+        service.onTransactionsSaved(new TransactionsSavedEvent(List.of(firstOfTheDay), Map.of(ACCOUNT_ID, -4000L)));
+
+        transactionTemplate.executeWithoutResult(status -> save(1L, 0, 250000L, BEFORE_MIDNIGHT));
+
+        Assertions.assertThat(checkpointRepository.findById(new BalanceCheckpointId(ACCOUNT_ID, FEBRUARY_1)))
+                .get()
+                .extracting(BalanceCheckpoint::getBalanceInCents, BalanceCheckpoint::getTransactionCount)
+                .containsExactly(250000L, 1L);
+        Assertions.assertThat(service.getBalance(ACCOUNT_ID, BEFORE_MIDNIGHT)).isEqualByComparingTo(new BigDecimal("2500.00"));
+        Assertions.assertThat(service.getBalance(ACCOUNT_ID, AFTER_MIDNIGHT)).isEqualByComparingTo(new BigDecimal("2460.00"));
+    }
+
+    /**
+     * Runs the steps of a save on the given stripe, the one {@link BalanceService#apply} would pick at
+     * random.
+     */
+    private Transaction save(long id, int stripe, long valueInCents, LocalDateTime date) {
+        Transaction transaction = Transaction.builder().id(id).accountId(ACCOUNT_ID).valueInCents(valueInCents).date(date).build();
+        jdbcTemplate.update("INSERT INTO transaction (id, account_id, value, sign, date) VALUES (?, ?, ?, ?, ?)",
+                id, ACCOUNT_ID, MoneyUtils.toDecimal(valueInCents), valueInCents < 0 ? Transaction.EXPENSE : Transaction.INCOME,
+                Timestamp.valueOf(date));
+
+        stripeRepository.addToStripe(ACCOUNT_ID, stripe, valueInCents, 1, LocalDateTime.now());
+        summaryService.apply(List.of(transaction));
+        service.apply(List.of(transaction));
+
+        return transaction;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(5, TimeUnit.SECONDS)) throw new IllegalStateException("Timed out waiting for the other save");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
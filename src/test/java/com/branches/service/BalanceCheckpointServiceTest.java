@@ -0,0 +1,235 @@
+package com.branches.service;
+
+import com.branches.event.BalanceCheckpointsRebuiltEvent;
+import com.branches.event.TransactionsSavedEvent;
+import com.branches.model.BalanceCheckpoint;
+import com.branches.model.BalanceCheckpointId;
+import com.branches.model.SummaryGranularity;
+import com.branches.model.Transaction;
+import com.branches.repository.BalanceCheckpointRepository;
+import com.branches.repository.BalanceStripeRepository;
+import com.branches.repository.TransactionRollupRepository;
+import com.branches.response.BalanceCheckpointRebuildResponse;
+import com.branches.utils.TransactionUtils;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Captor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@ExtendWith(MockitoExtension.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class BalanceCheckpointServiceTest {
+    private static final long ACCOUNT_ID = Transaction.DEFAULT_ACCOUNT_ID;
+    private static final LocalDate JANUARY_27 = LocalDate.of(2025, 1, 27);
+    private static final LocalDate JANUARY_28 = LocalDate.of(2025, 1, 28);
+    private static final LocalDate JANUARY_29 = LocalDate.of(2025, 1, 29);
+    private static final LocalDate JANUARY_30 = LocalDate.of(2025, 1, 30);
+
+    @InjectMocks
+    private BalanceCheckpointService service;
+    @Mock
+    private BalanceCheckpointRepository repository;
+    @Mock
+    private TransactionRollupRepository rollupRepository;
+    @Mock
+    private BalanceStripeRepository stripeRepository;
+    @Mock
+    private BalanceService balanceService;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Captor
+    private ArgumentCaptor<BalanceCheckpoint> checkpointCaptor;
+    @Captor
+    private ArgumentCaptor<List<BalanceCheckpoint>> checkpointsCaptor;
+
+    @Test
+    @DisplayName("apply adds the transactions of each day to the checkpoints after it in day order")
+    @Order(1)
+    void apply_AddsTransactionsToLaterCheckpoints_InDayOrder() {
+        service.apply(TransactionUtils.newTransactionList());
+
+        InOrder inOrder = BDDMockito.inOrder(repository);
+        inOrder.verify(repository).addToCheckpointsAfter(ArgumentMatchers.eq(ACCOUNT_ID), ArgumentMatchers.eq(JANUARY_28),
+                ArgumentMatchers.eq(-105000L), ArgumentMatchers.eq(2L), ArgumentMatchers.any());
+        inOrder.verify(repository).addToCheckpointsAfter(ArgumentMatchers.eq(ACCOUNT_ID), ArgumentMatchers.eq(JANUARY_29),
+                ArgumentMatchers.eq(500000L), ArgumentMatchers.eq(1L), ArgumentMatchers.any());
+        inOrder.verifyNoMoreInteractions();
+        BDDMockito.verifyNoInteractions(stripeRepository, rollupRepository);
+    }
+
+    @Test
+    @DisplayName("onTransactionsSaved creates the checkpoint of the newest day from the latest checkpoint and the rollups, with the stripes locked")
+    @Order(2)
+    void onTransactionsSaved_CreatesCheckpointOfNewestDay_WhenTheDayHasNoCheckpoint() {
+        BDDMockito.when(repository.findLatestCheckpointDate(ACCOUNT_ID)).thenReturn(Optional.of(JANUARY_27));
+        BDDMockito.when(repository.findFirstByIdAccountIdAndIdCheckpointDateLessThanEqualOrderByIdCheckpointDateDesc(ACCOUNT_ID, JANUARY_29))
+                .thenReturn(Optional.of(newCheckpoint(JANUARY_27, 10000L, 4L)));
+        BDDMockito.when(rollupRepository.findAllByPeriod(ACCOUNT_ID, SummaryGranularity.DAY, JANUARY_27, JANUARY_28))
+                .thenReturn(TransactionUtils.newDailyTransactionRollupList().subList(0, 1));
+
+        service.onTransactionsSaved(newEvent(TransactionUtils.newTransactionList()));
+
+        InOrder inOrder = BDDMockito.inOrder(transactionManager, stripeRepository, repository);
+        inOrder.verify(transactionManager).getTransaction(ArgumentMatchers.argThat(definition ->
+                definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRES_NEW));
+        inOrder.verify(stripeRepository).findAllByAccountIdForUpdate(ACCOUNT_ID);
+        inOrder.verify(repository).save(checkpointCaptor.capture());
+        inOrder.verify(transactionManager).commit(ArgumentMatchers.any());
+        Assertions.assertThat(checkpointCaptor.getValue())
+                .extracting(BalanceCheckpoint::getId, BalanceCheckpoint::getBalanceInCents, BalanceCheckpoint::getTransactionCount)
+                .containsExactly(new BalanceCheckpointId(ACCOUNT_ID, JANUARY_29), -95000L, 6L);
+    }
+
+    @Test
+    @DisplayName("onTransactionsSaved creates the first checkpoint of an account from every daily rollup before the day")
+    @Order(3)
+    void onTransactionsSaved_CreatesFirstCheckpoint_WhenTheAccountHasNone() {
+        BDDMockito.when(repository.findLatestCheckpointDate(ACCOUNT_ID)).thenReturn(Optional.empty());
+        BDDMockito.when(rollupRepository.findAllByPeriod(ACCOUNT_ID, SummaryGranularity.DAY, null, JANUARY_28))
+                .thenReturn(TransactionUtils.newDailyTransactionRollupList().subList(0, 1));
+
+        service.onTransactionsSaved(newEvent(TransactionUtils.newTransactionList()));
+
+        BDDMockito.verify(repository).save(checkpointCaptor.capture());
+        Assertions.assertThat(checkpointCaptor.getValue())
+                .extracting(BalanceCheckpoint::getId, BalanceCheckpoint::getBalanceInCents, BalanceCheckpoint::getTransactionCount)
+                .containsExactly(new BalanceCheckpointId(ACCOUNT_ID, JANUARY_29), -105000L, 2L);
+    }
+
+    @Test
+    @DisplayName("onTransactionsSaved leaves the checkpoints alone when the newest day already has one")
+    @Order(4)
+    void onTransactionsSaved_LeavesCheckpointsAlone_WhenTheNewestDayHasACheckpoint() {
+        BDDMockito.when(repository.findLatestCheckpointDate(ACCOUNT_ID)).thenReturn(Optional.of(JANUARY_29));
+
+        service.onTransactionsSaved(newEvent(TransactionUtils.newTransactionList()));
+
+        BDDMockito.verify(repository).findLatestCheckpointDate(ACCOUNT_ID);
+        BDDMockito.verifyNoMoreInteractions(repository);
+        BDDMockito.verifyNoInteractions(transactionManager, stripeRepository, rollupRepository);
+    }
+
+    @Test
+    @DisplayName("onTransactionsSaved keeps the checkpoint another save created while it waited for the stripes")
+    @Order(5)
+    void onTransactionsSaved_KeepsCheckpoint_WhenItWasCreatedConcurrently() {
+        BDDMockito.when(repository.findLatestCheckpointDate(ACCOUNT_ID)).thenReturn(Optional.of(JANUARY_27));
+        BDDMockito.when(repository.existsById(new BalanceCheckpointId(ACCOUNT_ID, JANUARY_29))).thenReturn(true);
+
+        service.onTransactionsSaved(newEvent(TransactionUtils.newTransactionList()));
+
+        BDDMockito.verify(stripeRepository).findAllByAccountIdForUpdate(ACCOUNT_ID);
+        BDDMockito.verify(repository, BDDMockito.never()).save(ArgumentMatchers.any());
+        BDDMockito.verifyNoInteractions(rollupRepository);
+    }
+
+    @Test
+    @DisplayName("getBalance adds the transactions of the day up to the time to the checkpoint of the day")
+    @Order(6)
+    void getBalance_AddsTransactionsOfTheDayToItsCheckpoint_WhenTheDayHasACheckpoint() {
+        LocalDateTime at = JANUARY_29.atTime(16, 0);
+
+        BDDMockito.when(repository.findFirstByIdAccountIdAndIdCheckpointDateLessThanEqualOrderByIdCheckpointDateDesc(ACCOUNT_ID, JANUARY_29))
+                .thenReturn(Optional.of(newCheckpoint(JANUARY_29, -105000L, 2L)));
+        BDDMockito.when(balanceService.sumLedger(ACCOUNT_ID, JANUARY_29.atStartOfDay(), at)).thenReturn(500000L);
+
+        BigDecimal balance = service.getBalance(ACCOUNT_ID, at);
+
+        Assertions.assertThat(balance).isEqualByComparingTo("3950.00");
+        BDDMockito.verifyNoInteractions(rollupRepository);
+    }
+
+    @Test
+    @DisplayName("getBalance bridges the days since the latest checkpoint with their daily rollups")
+    @Order(7)
+    void getBalance_BridgesDaysSinceLatestCheckpointWithRollups_WhenTheDayHasNoCheckpoint() {
+        LocalDateTime at = JANUARY_30.atTime(10, 0);
+
+        BDDMockito.when(repository.findFirstByIdAccountIdAndIdCheckpointDateLessThanEqualOrderByIdCheckpointDateDesc(ACCOUNT_ID, JANUARY_30))
+                .thenReturn(Optional.of(newCheckpoint(JANUARY_28, 0L, 0L)));
+        BDDMockito.when(rollupRepository.findAllByPeriod(ACCOUNT_ID, SummaryGranularity.DAY, JANUARY_28, JANUARY_29))
+                .thenReturn(TransactionUtils.newDailyTransactionRollupList());
+        BDDMockito.when(balanceService.sumLedger(ACCOUNT_ID, JANUARY_30.atStartOfDay(), at)).thenReturn(-5000L);
+
+        BigDecimal balance = service.getBalance(ACCOUNT_ID, at);
+
+        Assertions.assertThat(balance).isEqualByComparingTo("3900.00");
+    }
+
+    @Test
+    @DisplayName("rebuild locks the balance and replaces differing checkpoints with running totals of the daily rollups")
+    @Order(8)
+    void rebuild_ReplacesCheckpointsWithRunningTotalsOfRollups_WhenSuccessful() {
+        BDDMockito.when(rollupRepository.findAllByPeriod(ACCOUNT_ID, SummaryGranularity.DAY, null, null))
+                .thenReturn(TransactionUtils.newDailyTransactionRollupList());
+
+        BalanceCheckpointRebuildResponse response = service.rebuild(ACCOUNT_ID);
+
+        InOrder inOrder = BDDMockito.inOrder(stripeRepository, repository, eventPublisher);
+        inOrder.verify(stripeRepository).findAllByAccountIdForUpdate(ACCOUNT_ID);
+        inOrder.verify(repository).deleteAllByAccountId(ACCOUNT_ID);
+        inOrder.verify(repository).saveAll(checkpointsCaptor.capture());
+        inOrder.verify(eventPublisher).publishEvent(new BalanceCheckpointsRebuiltEvent(ACCOUNT_ID));
+        Assertions.assertThat(checkpointsCaptor.getValue())
+                .extracting(BalanceCheckpoint::getId, BalanceCheckpoint::getBalanceInCents, BalanceCheckpoint::getTransactionCount)
+                .containsExactly(
+                        Assertions.tuple(new BalanceCheckpointId(ACCOUNT_ID, JANUARY_28), 0L, 0L),
+                        Assertions.tuple(new BalanceCheckpointId(ACCOUNT_ID, JANUARY_29), -105000L, 2L)
+                );
+        Assertions.assertThat(response).isEqualTo(BalanceCheckpointRebuildResponse.builder()
+                .accountId(ACCOUNT_ID)
+                .checkpointCount(2)
+                .firstCheckpointDate(JANUARY_28)
+                .lastCheckpointDate(JANUARY_29)
+                .build());
+    }
+
+    @Test
+    @DisplayName("rebuild leaves the checkpoints and the cache alone when they already match the daily rollups")
+    @Order(9)
+    void rebuild_KeepsCheckpoints_WhenTheyMatchTheRollups() {
+        BDDMockito.when(rollupRepository.findAllByPeriod(ACCOUNT_ID, SummaryGranularity.DAY, null, null))
+                .thenReturn(TransactionUtils.newDailyTransactionRollupList());
+        BDDMockito.when(repository.findAllByIdAccountIdOrderByIdCheckpointDate(ACCOUNT_ID))
+                .thenReturn(List.of(newCheckpoint(JANUARY_28, 0L, 0L), newCheckpoint(JANUARY_29, -105000L, 2L)));
+
+        BalanceCheckpointRebuildResponse response = service.rebuild(ACCOUNT_ID);
+
+        Assertions.assertThat(response.getCheckpointCount()).isEqualTo(2);
+        BDDMockito.verify(repository, BDDMockito.never()).deleteAllByAccountId(ACCOUNT_ID);
+        BDDMockito.verify(repository, BDDMockito.never()).saveAll(ArgumentMatchers.any());
+        BDDMockito.verifyNoInteractions(eventPublisher);
+    }
+
+    private static TransactionsSavedEvent newEvent(List<Transaction> transactions) {
+        return new TransactionsSavedEvent(transactions, Map.of(ACCOUNT_ID, 395000L));
+    }
+
+    private static BalanceCheckpoint newCheckpoint(LocalDate date, long balanceInCents, long transactionCount) {
+        return BalanceCheckpoint.builder()
+                .id(new BalanceCheckpointId(ACCOUNT_ID, date))
+                .balanceInCents(balanceInCents)
+                .transactionCount(transactionCount)
+                .updatedAt(date.atStartOfDay())
+                .build();
+    }
+}
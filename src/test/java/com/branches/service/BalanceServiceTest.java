@@ -0,0 +1,333 @@
+package com.branches.service;
+
+import com.branches.event.BalanceRepairedEvent;
+import com.branches.model.BalanceStripe;
+import com.branches.model.BalanceStripeId;
+import com.branches.model.Transaction;
+import com.branches.model.TransactionArchiveState;
+import com.branches.repository.ArchivedTransactionRepository;
+import com.branches.repository.BalanceStripeRepository;
+import com.branches.repository.TransactionArchiveStateRepository;
+import com.branches.repository.TransactionStore;
+import com.branches.response.BalanceReconciliationResponse;
+import com.branches.utils.DateUtils;
+import com.branches.utils.TransactionUtils;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InOrder;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+@ExtendWith(MockitoExtension.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class BalanceServiceTest {
+    private static final long ACCOUNT_ID = Transaction.DEFAULT_ACCOUNT_ID;
+
+    private BalanceService service;
+    @Mock
+    private BalanceStripeRepository stripeRepository;
+    @Mock
+    private TransactionStore transactionStore;
+    @Mock
+    private ArchivedTransactionRepository archiveRepository;
+    @Mock
+    private TransactionArchiveStateRepository archiveStateRepository;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @BeforeEach
+    void init() {
+        service = newService(1);
+    }
+
+    @Test
+    @DisplayName("apply adds to the first stripe of the account and returns the sum of its stripes when there is one stripe")
+    @Order(1)
+    void apply_AddsToFirstStripe_WhenThereIsOneStripe() {
+        BDDMockito.when(stripeRepository.findBalanceInCents(ACCOUNT_ID)).thenReturn(Optional.of(125000L));
+
+        long balanceInCents = service.apply(ACCOUNT_ID, -270040L, 1);
+
+        Assertions.assertThat(balanceInCents).isEqualTo(125000L);
+        BDDMockito.verify(stripeRepository).addToStripe(ArgumentMatchers.eq(ACCOUNT_ID), ArgumentMatchers.eq(0),
+                ArgumentMatchers.eq(-270040L), ArgumentMatchers.eq(1L), ArgumentMatchers.any());
+    }
+
+    @Test
+    @DisplayName("apply spreads the saves to one account over its stripes when there are several")
+    @Order(2)
+    void apply_SpreadsSavesOverStripes_WhenThereAreSeveralStripes() {
+        BalanceService striped = newService(4);
+        BDDMockito.when(stripeRepository.findBalanceInCents(ACCOUNT_ID)).thenReturn(Optional.of(0L));
+
+        for (int i = 0; i < 200; i++) {
+            striped.apply(ACCOUNT_ID, 100L, 1);
+        }
+
+        for (int stripe = 0; stripe < 4; stripe++) {
+            BDDMockito.verify(stripeRepository, BDDMockito.atLeastOnce()).addToStripe(ArgumentMatchers.eq(ACCOUNT_ID),
+                    ArgumentMatchers.eq(stripe), ArgumentMatchers.eq(100L), ArgumentMatchers.eq(1L), ArgumentMatchers.any());
+        }
+        BDDMockito.verify(stripeRepository, BDDMockito.never()).addToStripe(ArgumentMatchers.anyLong(),
+                ArgumentMatchers.intThat(stripe -> stripe < 0 || stripe >= 4), ArgumentMatchers.anyLong(), ArgumentMatchers.anyLong(),
+                ArgumentMatchers.any());
+    }
+
+    @Test
+    @DisplayName("new BalanceService throws IllegalArgumentException when there are no stripes")
+    @Order(3)
+    void constructor_ThrowsIllegalArgumentException_WhenStripesIsZero() {
+        Assertions.assertThatThrownBy(() -> newService(0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("getBalance returns the sum of the stripes of the account when successful")
+    @Order(4)
+    void getBalance_ReturnsSumOfStripes_WhenSuccessful() {
+        BDDMockito.when(stripeRepository.findBalanceInCents(ACCOUNT_ID)).thenReturn(Optional.of(395000L));
+
+        BigDecimal response = service.getBalance(ACCOUNT_ID);
+
+        Assertions.assertThat(response)
+                .isNotNull()
+                .isEqualTo(TransactionUtils.getBalance());
+        BDDMockito.verifyNoInteractions(transactionStore);
+    }
+
+    @Test
+    @DisplayName("getBalance returns zero when the account has no transactions and no stripes")
+    @Order(5)
+    void getBalance_ReturnsZero_WhenAccountIsEmpty() {
+        BDDMockito.when(stripeRepository.findBalanceInCents(7L)).thenReturn(Optional.empty());
+        BDDMockito.when(transactionStore.sumAllTransactionsFrom(7L, DateUtils.MIN_DATE)).thenReturn(BigDecimal.ZERO);
+
+        BigDecimal response = service.getBalance(7L);
+
+        Assertions.assertThat(response)
+                .isNotNull()
+                .isEqualByComparingTo(BigDecimal.ZERO);
+    }
+
+    @Test
+    @DisplayName("reconcile reports consistent when the sum of the stripes matches the ledger")
+    @Order(6)
+    void reconcile_ReportsConsistent_WhenStripesMatchLedger() {
+        BDDMockito.when(stripeRepository.findAllByAccountIdForUpdate(ACCOUNT_ID)).thenReturn(TransactionUtils.newBalanceStripeList());
+        BDDMockito.when(transactionStore.sumAllTransactionsFrom(ACCOUNT_ID, DateUtils.MIN_DATE)).thenReturn(TransactionUtils.getBalance());
+        BDDMockito.when(transactionStore.countByDateGreaterThanEqual(ACCOUNT_ID, DateUtils.MIN_DATE)).thenReturn(3L);
+
+        BalanceReconciliationResponse response = service.reconcile(ACCOUNT_ID);
+
+        Assertions.assertThat(response)
+                .usingRecursiveComparison()
+                .isEqualTo(TransactionUtils.newBalanceReconciliationResponse());
+        BDDMockito.verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    @DisplayName("reconcile moves the ledger balance to the first stripe and empties the others when they diverge")
+    @Order(7)
+    void reconcile_RepairsStripes_WhenStripesDivergeFromLedger() {
+        List<BalanceStripe> stripes = TransactionUtils.newBalanceStripeList();
+
+        BDDMockito.when(stripeRepository.findAllByAccountIdForUpdate(ACCOUNT_ID)).thenReturn(stripes);
+        BDDMockito.when(transactionStore.sumAllTransactionsFrom(ACCOUNT_ID, DateUtils.MIN_DATE)).thenReturn(new BigDecimal("4000.00"));
+        BDDMockito.when(transactionStore.countByDateGreaterThanEqual(ACCOUNT_ID, DateUtils.MIN_DATE)).thenReturn(4L);
+
+        BalanceReconciliationResponse response = service.reconcile(ACCOUNT_ID);
+
+        Assertions.assertThat(response.isConsistent()).isFalse();
+        Assertions.assertThat(response.getSnapshotBalance()).isEqualByComparingTo("3950");
+        Assertions.assertThat(response.getLedgerBalance()).isEqualByComparingTo("4000");
+        Assertions.assertThat(stripes)
+                .extracting(BalanceStripe::getBalanceInCents, BalanceStripe::getTransactionCount)
+                .containsExactly(Assertions.tuple(400000L, 4L), Assertions.tuple(0L, 0L));
+        BDDMockito.verify(eventPublisher).publishEvent(new BalanceRepairedEvent(ACCOUNT_ID, 400000L));
+    }
+
+    @Test
+    @DisplayName("reconcile creates and locks every stripe before summing, then moves the ledger balance to the first")
+    @Order(8)
+    void reconcile_CreatesAndLocksEveryStripe_WhenAccountHasNoStripes() {
+        BalanceService striped = newService(2);
+        List<BalanceStripe> stripes = newEmptyStripes(7L, 2);
+        BDDMockito.when(stripeRepository.findAllByAccountIdForUpdate(7L)).thenReturn(stripes);
+        BDDMockito.when(transactionStore.sumAllTransactionsFrom(7L, DateUtils.MIN_DATE)).thenReturn(TransactionUtils.getBalance());
+        BDDMockito.when(transactionStore.countByDateGreaterThanEqual(7L, DateUtils.MIN_DATE)).thenReturn(3L);
+
+        BalanceReconciliationResponse response = striped.reconcile(7L);
+
+        Assertions.assertThat(response.isConsistent()).isFalse();
+        Assertions.assertThat(response.getSnapshotBalance()).isEqualByComparingTo("0");
+        InOrder inOrder = BDDMockito.inOrder(stripeRepository, transactionStore);
+        inOrder.verify(stripeRepository).addToStripe(ArgumentMatchers.eq(7L), ArgumentMatchers.eq(0), ArgumentMatchers.eq(0L),
+                ArgumentMatchers.eq(0L), ArgumentMatchers.any());
+        inOrder.verify(stripeRepository).addToStripe(ArgumentMatchers.eq(7L), ArgumentMatchers.eq(1), ArgumentMatchers.eq(0L),
+                ArgumentMatchers.eq(0L), ArgumentMatchers.any());
+        inOrder.verify(stripeRepository).findAllByAccountIdForUpdate(7L);
+        inOrder.verify(transactionStore).sumAllTransactionsFrom(7L, DateUtils.MIN_DATE);
+        Assertions.assertThat(stripes)
+                .extracting(BalanceStripe::getBalanceInCents, BalanceStripe::getTransactionCount)
+                .containsExactly(Assertions.tuple(395000L, 3L), Assertions.tuple(0L, 0L));
+    }
+
+    @Test
+    @DisplayName("reconcile removes the stripes it created when the account has no transactions")
+    @Order(9)
+    void reconcile_RemovesStripes_WhenAccountHasNoTransactions() {
+        List<BalanceStripe> stripes = newEmptyStripes(8L, 1);
+        BDDMockito.when(stripeRepository.findAllByAccountIdForUpdate(8L)).thenReturn(stripes);
+        BDDMockito.when(transactionStore.sumAllTransactionsFrom(8L, DateUtils.MIN_DATE)).thenReturn(BigDecimal.ZERO);
+
+        BalanceReconciliationResponse response = service.reconcile(8L);
+
+        Assertions.assertThat(response.isConsistent()).isTrue();
+        BDDMockito.verify(stripeRepository).deleteAll(stripes);
+        BDDMockito.verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    @DisplayName("reconcile counts archived transactions of the account before the watermark and live ones from it")
+    @Order(10)
+    void reconcile_CountsArchivedTransactions_WhenLedgerIsArchived() {
+        LocalDateTime archivedBefore = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+        BDDMockito.when(stripeRepository.findAllByAccountIdForUpdate(ACCOUNT_ID)).thenReturn(TransactionUtils.newBalanceStripeList());
+        BDDMockito.when(archiveStateRepository.findArchivedBefore(TransactionArchiveState.LEDGER_ID)).thenReturn(Optional.of(archivedBefore));
+        BDDMockito.when(transactionStore.sumAllTransactionsFrom(ACCOUNT_ID, archivedBefore)).thenReturn(new BigDecimal("4000.00"));
+        BDDMockito.when(transactionStore.countByDateGreaterThanEqual(ACCOUNT_ID, archivedBefore)).thenReturn(1L);
+        BDDMockito.when(archiveRepository.sumAllTransactionsBefore(ACCOUNT_ID, archivedBefore)).thenReturn(new BigDecimal("-50.00"));
+        BDDMockito.when(archiveRepository.countByAccountIdAndDateBefore(ACCOUNT_ID, archivedBefore)).thenReturn(2L);
+
+        BalanceReconciliationResponse response = service.reconcile(ACCOUNT_ID);
+
+        Assertions.assertThat(response.isConsistent()).isTrue();
+        Assertions.assertThat(response.getLedgerBalance()).isEqualByComparingTo("3950");
+        Assertions.assertThat(response.getLedgerTransactionCount()).isEqualTo(3L);
+    }
+
+    @Test
+    @DisplayName("reconcileAll reconciles every account in a transaction of its own and returns how many were repaired")
+    @Order(11)
+    void reconcileAll_ReconcilesEveryAccount_WhenCalled() {
+        BDDMockito.when(transactionTemplate.execute(ArgumentMatchers.any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        BDDMockito.when(stripeRepository.findAccountIds()).thenReturn(List.of(ACCOUNT_ID));
+        BDDMockito.when(transactionStore.findAccountIds()).thenReturn(List.of(ACCOUNT_ID, 7L));
+        BDDMockito.when(stripeRepository.findAllByAccountIdForUpdate(ACCOUNT_ID)).thenReturn(TransactionUtils.newBalanceStripeList());
+        BDDMockito.when(stripeRepository.findAllByAccountIdForUpdate(7L)).thenReturn(newEmptyStripes(7L, 1));
+        BDDMockito.when(transactionStore.sumAllTransactionsFrom(ArgumentMatchers.anyLong(), ArgumentMatchers.any())).thenReturn(TransactionUtils.getBalance());
+        BDDMockito.when(transactionStore.countByDateGreaterThanEqual(ArgumentMatchers.anyLong(), ArgumentMatchers.any())).thenReturn(3L);
+
+        long repaired = service.reconcileAll();
+
+        Assertions.assertThat(repaired).isEqualTo(1L);
+        BDDMockito.verify(transactionTemplate, BDDMockito.times(2)).execute(ArgumentMatchers.any());
+        BDDMockito.verify(eventPublisher).publishEvent(new BalanceRepairedEvent(7L, 395000L));
+    }
+
+    @Test
+    @DisplayName("initializeBalances creates the stripes of every account from the ledger when there are none")
+    @Order(12)
+    void initializeBalances_CreatesStripesFromLedger_WhenThereAreNone() {
+        mockExecuteWithoutResult();
+        BDDMockito.when(stripeRepository.count()).thenReturn(0L);
+        BDDMockito.when(transactionStore.findAccountIds()).thenReturn(List.of(ACCOUNT_ID, 7L));
+        BDDMockito.when(stripeRepository.findAllByAccountIdForUpdate(ArgumentMatchers.anyLong()))
+                .thenAnswer(invocation -> newEmptyStripes(invocation.getArgument(0), 1));
+        BDDMockito.when(transactionStore.sumAllTransactionsFrom(ArgumentMatchers.anyLong(), ArgumentMatchers.any())).thenReturn(TransactionUtils.getBalance());
+        BDDMockito.when(transactionStore.countByDateGreaterThanEqual(ArgumentMatchers.anyLong(), ArgumentMatchers.any())).thenReturn(3L);
+
+        service.initializeBalances();
+
+        BDDMockito.verify(stripeRepository, BDDMockito.times(2)).addToStripe(ArgumentMatchers.anyLong(), ArgumentMatchers.eq(0),
+                ArgumentMatchers.eq(0L), ArgumentMatchers.eq(0L), ArgumentMatchers.any());
+        BDDMockito.verify(eventPublisher).publishEvent(new BalanceRepairedEvent(ACCOUNT_ID, 395000L));
+        BDDMockito.verify(eventPublisher).publishEvent(new BalanceRepairedEvent(7L, 395000L));
+    }
+
+    @Test
+    @DisplayName("initializeBalances keeps the stripes when they already exist")
+    @Order(13)
+    void initializeBalances_KeepsStripes_WhenStripesExist() {
+        BDDMockito.when(stripeRepository.count()).thenReturn(1L);
+
+        service.initializeBalances();
+
+        BDDMockito.verify(stripeRepository, BDDMockito.never()).save(ArgumentMatchers.any());
+        BDDMockito.verifyNoInteractions(transactionStore);
+    }
+
+    @Test
+    @DisplayName("initializeBalances keeps the stripes created concurrently by another instance when they match the ledger")
+    @Order(14)
+    void initializeBalances_KeepsStripes_WhenStripesAreCreatedConcurrently() {
+        mockExecuteWithoutResult();
+        BDDMockito.when(stripeRepository.count()).thenReturn(0L);
+        BDDMockito.when(transactionStore.findAccountIds()).thenReturn(List.of(ACCOUNT_ID));
+        BDDMockito.when(stripeRepository.findAllByAccountIdForUpdate(ACCOUNT_ID)).thenReturn(TransactionUtils.newBalanceStripeList());
+        BDDMockito.when(transactionStore.sumAllTransactionsFrom(ACCOUNT_ID, DateUtils.MIN_DATE)).thenReturn(TransactionUtils.getBalance());
+        BDDMockito.when(transactionStore.countByDateGreaterThanEqual(ACCOUNT_ID, DateUtils.MIN_DATE)).thenReturn(3L);
+
+        service.initializeBalances();
+
+        BDDMockito.verify(stripeRepository, BDDMockito.never()).deleteAll(ArgumentMatchers.any());
+        BDDMockito.verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    @DisplayName("sumLedger sums the archived rows of the range before the watermark and the live rows from it on")
+    @Order(15)
+    void sumLedger_SplitsTheRangeAtTheWatermark_WhenTheRangeStartsBeforeIt() {
+        LocalDateTime archivedBefore = LocalDateTime.of(2025, 1, 28, 12, 0);
+        LocalDateTime from = archivedBefore.toLocalDate().atStartOfDay();
+        LocalDateTime until = archivedBefore.plusHours(6);
+
+        BDDMockito.when(archiveStateRepository.findArchivedBefore(TransactionArchiveState.LEDGER_ID)).thenReturn(Optional.of(archivedBefore));
+        BDDMockito.when(transactionStore.sumAllTransactionsBetween(ACCOUNT_ID, archivedBefore, until)).thenReturn(new BigDecimal("-50.00"));
+        BDDMockito.when(archiveRepository.sumAllTransactionsBetween(ACCOUNT_ID, from, until)).thenReturn(new BigDecimal("1000.00"));
+
+        Assertions.assertThat(service.sumLedger(ACCOUNT_ID, from, until)).isEqualTo(95000L);
+    }
+
+    private void mockExecuteWithoutResult() {
+        BDDMockito.doAnswer(invocation -> {
+            invocation.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(ArgumentMatchers.any());
+    }
+
+    private static List<BalanceStripe> newEmptyStripes(long accountId, int stripes) {
+        List<BalanceStripe> created = new ArrayList<>();
+        for (int stripe = 0; stripe < stripes; stripe++) {
+            created.add(BalanceStripe.builder()
+                    .id(new BalanceStripeId(accountId, stripe))
+                    .balanceInCents(0L)
+                    .transactionCount(0L)
+                    .updatedAt(LocalDateTime.now())
+                    .build());
+        }
+        return created;
+    }
+
+    private BalanceService newService(int stripes) {
+        return new BalanceService(stripeRepository, transactionStore, archiveRepository, archiveStateRepository,
+                transactionTemplate, eventPublisher, stripes);
+    }
+}
@@ -0,0 +1,215 @@
+package com.branches.service;
+
+import com.branches.exception.BadRequestException;
+import com.branches.exception.UnprocessableEntityException;
+import com.branches.mapper.TransactionMapper;
+import com.branches.model.IdempotencyRecord;
+import com.branches.model.Transaction;
+import com.branches.repository.IdempotencyRecordRepository;
+import com.branches.request.TransactionPostRequest;
+import com.branches.response.TransactionPostResponse;
+import com.branches.utils.TransactionUtils;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mapstruct.factory.Mappers;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+@ExtendWith(MockitoExtension.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class IdempotencyServiceTest {
+    private static final long ACCOUNT_ID = Transaction.DEFAULT_ACCOUNT_ID;
+    private static final String KEY = "retry-1";
+
+    private IdempotencyService service;
+    @Mock
+    private TransactionService transactionService;
+    @Mock
+    private IdempotencyRecordRepository repository;
+    private final TransactionMapper mapper = Mappers.getMapper(TransactionMapper.class);
+    private final TransactionPostRequest postRequest = TransactionUtils.newTransactionPostRequest();
+    private final TransactionPostResponse postResponse = TransactionUtils.newTransactionPostResponse();
+
+    @BeforeEach
+    void init() {
+        service = new IdempotencyService(transactionService, repository, mapper, 100, Duration.ofHours(1));
+    }
+
+    @Test
+    @DisplayName("save creates the transaction once and replays its response for the same key")
+    @Order(1)
+    void save_CreatesTransactionOnce_WhenKeyIsRepeated() {
+        BDDMockito.when(repository.findById(KEY)).thenReturn(Optional.empty());
+        BDDMockito.when(transactionService.save(ACCOUNT_ID, postRequest, KEY)).thenReturn(postResponse);
+
+        TransactionPostResponse first = service.save(ACCOUNT_ID, postRequest, KEY);
+        TransactionPostResponse retry = service.save(ACCOUNT_ID, postRequest, KEY);
+
+        Assertions.assertThat(first).isEqualTo(postResponse);
+        Assertions.assertThat(retry).isEqualTo(postResponse);
+        BDDMockito.verify(transactionService, BDDMockito.times(1)).save(ACCOUNT_ID, postRequest, KEY);
+    }
+
+    @Test
+    @DisplayName("save returns the persisted response when the key was recorded by another instance")
+    @Order(2)
+    void save_ReturnsPersistedResponse_WhenKeyWasRecorded() {
+        BDDMockito.when(repository.findById(KEY)).thenReturn(Optional.of(newRecord()));
+
+        TransactionPostResponse response = service.save(ACCOUNT_ID, postRequest, KEY);
+
+        Assertions.assertThat(response).isEqualTo(postResponse);
+        BDDMockito.verifyNoInteractions(transactionService);
+    }
+
+    @Test
+    @DisplayName("save returns the committed response when a concurrent request inserted the key first")
+    @Order(3)
+    void save_ReturnsCommittedResponse_WhenKeyIsInsertedConcurrently() {
+        BDDMockito.when(repository.findById(KEY)).thenReturn(Optional.empty(), Optional.of(newRecord()));
+        BDDMockito.when(transactionService.save(ACCOUNT_ID, postRequest, KEY)).thenThrow(new DataIntegrityViolationException("duplicate"));
+
+        TransactionPostResponse response = service.save(ACCOUNT_ID, postRequest, KEY);
+
+        Assertions.assertThat(response).isEqualTo(postResponse);
+    }
+
+    @Test
+    @DisplayName("save waits for the first of concurrent requests with the same key instead of inserting again")
+    @Order(4)
+    void save_WaitsForFirstRequest_WhenRequestsWithSameKeyAreConcurrent() throws Exception {
+        CountDownLatch saving = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        BDDMockito.when(repository.findById(KEY)).thenReturn(Optional.empty());
+        BDDMockito.when(transactionService.save(ACCOUNT_ID, postRequest, KEY)).thenAnswer(invocation -> {
+            saving.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return postResponse;
+        });
+
+        List<Future<TransactionPostResponse>> responses = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            responses.add(executor.submit(() -> service.save(ACCOUNT_ID, postRequest, KEY)));
+            Assertions.assertThat(saving.await(5, TimeUnit.SECONDS)).isTrue();
+            for (int i = 0; i < 7; i++) {
+                responses.add(executor.submit(() -> service.save(ACCOUNT_ID, postRequest, KEY)));
+            }
+            release.countDown();
+
+            for (Future<TransactionPostResponse> response : responses) {
+                Assertions.assertThat(response.get(5, TimeUnit.SECONDS)).isEqualTo(postResponse);
+            }
+        }
+
+        BDDMockito.verify(transactionService, BDDMockito.times(1)).save(ACCOUNT_ID, postRequest, KEY);
+    }
+
+    @Test
+    @DisplayName("save retries with the next request when the first one with the key failed")
+    @Order(5)
+    void save_Retries_WhenFirstRequestFailed() {
+        BDDMockito.when(repository.findById(KEY)).thenReturn(Optional.empty());
+        BDDMockito.when(transactionService.save(ACCOUNT_ID, postRequest, KEY))
+                .thenThrow(new IllegalStateException("database down"))
+                .thenReturn(postResponse);
+
+        Assertions.assertThatExceptionOfType(IllegalStateException.class).isThrownBy(() -> service.save(ACCOUNT_ID, postRequest, KEY));
+
+        Assertions.assertThat(service.save(ACCOUNT_ID, postRequest, KEY)).isEqualTo(postResponse);
+    }
+
+    @Test
+    @DisplayName("save throws UnprocessableEntityException when the key was used for a different transaction")
+    @Order(6)
+    void save_ThrowsUnprocessableEntityException_WhenKeyIsReusedForDifferentTransaction() {
+        TransactionPostRequest otherRequest = TransactionPostRequest.builder().value(new BigDecimal("10.00")).description("Outra").build();
+
+        BDDMockito.when(repository.findById(KEY)).thenReturn(Optional.empty());
+        BDDMockito.when(transactionService.save(ACCOUNT_ID, postRequest, KEY)).thenReturn(postResponse);
+        service.save(ACCOUNT_ID, postRequest, KEY);
+
+        Assertions.assertThatExceptionOfType(UnprocessableEntityException.class)
+                .isThrownBy(() -> service.save(ACCOUNT_ID, otherRequest, KEY));
+        BDDMockito.verify(transactionService, BDDMockito.never()).save(ArgumentMatchers.anyLong(), ArgumentMatchers.eq(otherRequest), ArgumentMatchers.any());
+    }
+
+    @Test
+    @DisplayName("save throws BadRequestException when the key is blank")
+    @Order(7)
+    void save_ThrowsBadRequestException_WhenKeyIsBlank() {
+        Assertions.assertThatExceptionOfType(BadRequestException.class)
+                .isThrownBy(() -> service.save(ACCOUNT_ID, postRequest, " "));
+
+        BDDMockito.verifyNoInteractions(transactionService, repository);
+    }
+
+    @Test
+    @DisplayName("save throws UnprocessableEntityException when the key was used by another account")
+    @Order(8)
+    void save_ThrowsUnprocessableEntityException_WhenKeyWasUsedByAnotherAccount() {
+        BDDMockito.when(repository.findById(KEY)).thenReturn(Optional.of(newRecord()));
+
+        Assertions.assertThatExceptionOfType(UnprocessableEntityException.class)
+                .isThrownBy(() -> service.save(7L, postRequest, KEY));
+        BDDMockito.verifyNoInteractions(transactionService);
+    }
+
+    @Test
+    @DisplayName("save deletes the persisted key and creates the transaction again when the key has expired")
+    @Order(9)
+    void save_CreatesTransactionAgain_WhenPersistedKeyHasExpired() {
+        BDDMockito.when(repository.findById(KEY)).thenReturn(Optional.of(newRecord(LocalDateTime.now().minusHours(2))));
+        BDDMockito.when(transactionService.save(ACCOUNT_ID, postRequest, KEY)).thenReturn(postResponse);
+
+        TransactionPostResponse response = service.save(ACCOUNT_ID, postRequest, KEY);
+
+        Assertions.assertThat(response).isEqualTo(postResponse);
+        BDDMockito.verify(repository).deleteByKeyCreatedBefore(ArgumentMatchers.eq(KEY), ArgumentMatchers.argThat(expiredBefore ->
+                expiredBefore.isAfter(LocalDateTime.now().minusHours(1).minusMinutes(1))));
+        BDDMockito.verify(transactionService).save(ACCOUNT_ID, postRequest, KEY);
+    }
+
+    @Test
+    @DisplayName("save lets another account use a key whose persisted record has expired")
+    @Order(10)
+    void save_CreatesTransaction_WhenKeyOfAnotherAccountHasExpired() {
+        BDDMockito.when(repository.findById(KEY)).thenReturn(Optional.of(newRecord(LocalDateTime.now().minusHours(2))));
+        BDDMockito.when(transactionService.save(7L, postRequest, KEY)).thenReturn(postResponse);
+
+        Assertions.assertThat(service.save(7L, postRequest, KEY)).isEqualTo(postResponse);
+        BDDMockito.verify(repository).deleteByKeyCreatedBefore(ArgumentMatchers.eq(KEY), ArgumentMatchers.any());
+    }
+
+    private IdempotencyRecord newRecord() {
+        return newRecord(LocalDateTime.now());
+    }
+
+    private IdempotencyRecord newRecord(LocalDateTime createdAt) {
+        return IdempotencyRecord.builder()
+                .key(KEY)
+                .accountId(ACCOUNT_ID)
+                .transactionId(postResponse.getId())
+                .valueInCents(-270040L)
+                .description(postResponse.getDescription())
+                .date(postResponse.getDate())
+                .createdAt(createdAt)
+                .build();
+    }
+}
@@ -0,0 +1,126 @@
+package com.branches.service;
+
+import com.branches.event.TransactionsArchivedEvent;
+import com.branches.model.TransactionArchiveState;
+import com.branches.repository.ArchivedTransactionRepository;
+import com.branches.repository.TransactionArchiveStateRepository;
+import com.branches.repository.TransactionRepository;
+import com.branches.repository.TransactionTermRepository;
+import com.branches.response.TransactionArchiveResponse;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class TransactionArchiveServiceTest {
+    private static final int RETENTION_MONTHS = 24;
+
+    private TransactionArchiveService service;
+    @Mock
+    private TransactionRepository transactionRepository;
+    @Mock
+    private ArchivedTransactionRepository archiveRepository;
+    @Mock
+    private TransactionArchiveStateRepository stateRepository;
+    @Mock
+    private TransactionPartitionService partitionService;
+    @Mock
+    private TransactionTermRepository termRepository;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    private final LocalDateTime cutoff = YearMonth.now().minusMonths(RETENTION_MONTHS).atDay(1).atStartOfDay();
+
+    @BeforeEach
+    void init() {
+        service = new TransactionArchiveService(transactionRepository, archiveRepository, stateRepository,
+                partitionService, termRepository, transactionTemplate, eventPublisher, RETENTION_MONTHS);
+
+        BDDMockito.when(transactionTemplate.execute(ArgumentMatchers.any()))
+                .thenAnswer(invocation -> invocation.getArgument(0, TransactionCallback.class).doInTransaction(null));
+        BDDMockito.doAnswer(invocation -> {
+            invocation.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(ArgumentMatchers.any());
+    }
+
+    @Test
+    @DisplayName("archive copies each month before the cutoff and moves the watermark with it")
+    @Order(1)
+    void archive_CopiesEachMonthAndMovesWatermark_WhenLedgerHasColdMonths() {
+        LocalDateTime archivedBefore = cutoff.minusMonths(2);
+        TransactionArchiveState state = new TransactionArchiveState(TransactionArchiveState.LEDGER_ID, archivedBefore, archivedBefore);
+
+        BDDMockito.when(stateRepository.findArchivedBefore(TransactionArchiveState.LEDGER_ID)).thenReturn(Optional.of(archivedBefore));
+        BDDMockito.when(stateRepository.findByIdForUpdate(TransactionArchiveState.LEDGER_ID))
+                .thenReturn(Optional.of(state), Optional.of(state.withArchivedBefore(cutoff.minusMonths(1))));
+        BDDMockito.when(archiveRepository.copyFromLedger(archivedBefore, cutoff.minusMonths(1))).thenReturn(3);
+        BDDMockito.when(archiveRepository.copyFromLedger(cutoff.minusMonths(1), cutoff)).thenReturn(2);
+        BDDMockito.when(partitionService.findPartitions()).thenReturn(List.of());
+
+        TransactionArchiveResponse response = service.archive();
+
+        Assertions.assertThat(response.getArchivedTransactions()).isEqualTo(5L);
+        Assertions.assertThat(response.getArchivedBefore()).isEqualTo(cutoff);
+        BDDMockito.verify(stateRepository).save(ArgumentMatchers.argThat(saved -> saved.getArchivedBefore().equals(cutoff)));
+        BDDMockito.verify(transactionRepository).deleteAllByDateBefore(cutoff);
+        BDDMockito.verify(termRepository).deleteAllByDateBefore(cutoff);
+        BDDMockito.verify(eventPublisher).publishEvent(new TransactionsArchivedEvent(cutoff));
+    }
+
+    @Test
+    @DisplayName("archive drops the partitions below the watermark when the table is partitioned")
+    @Order(2)
+    void archive_DropsArchivedPartitions_WhenTableIsPartitioned() {
+        LocalDateTime archivedBefore = cutoff.minusMonths(1);
+        TransactionArchiveState state = new TransactionArchiveState(TransactionArchiveState.LEDGER_ID, archivedBefore, archivedBefore);
+        TransactionPartitionService.Partition archived = new TransactionPartitionService.Partition("archived", archivedBefore);
+        TransactionPartitionService.Partition cold = new TransactionPartitionService.Partition("cold", cutoff);
+        TransactionPartitionService.Partition live = new TransactionPartitionService.Partition("live", cutoff.plusMonths(1));
+
+        BDDMockito.when(stateRepository.findArchivedBefore(TransactionArchiveState.LEDGER_ID)).thenReturn(Optional.of(archivedBefore));
+        BDDMockito.when(stateRepository.findByIdForUpdate(TransactionArchiveState.LEDGER_ID)).thenReturn(Optional.of(state));
+        BDDMockito.when(archiveRepository.copyFromLedger(archivedBefore, cutoff)).thenReturn(4);
+        BDDMockito.when(partitionService.findPartitions()).thenReturn(List.of(archived, cold, live), List.of(cold, live));
+
+        TransactionArchiveResponse response = service.archive();
+
+        Assertions.assertThat(response.getArchivedTransactions()).isEqualTo(4L);
+        BDDMockito.verify(partitionService).dropPartition(archived);
+        BDDMockito.verify(partitionService).dropPartition(cold);
+        BDDMockito.verify(partitionService, BDDMockito.never()).dropPartition(live);
+        BDDMockito.verify(transactionRepository, BDDMockito.never()).deleteAllByDateBefore(ArgumentMatchers.any());
+    }
+
+    @Test
+    @DisplayName("archive does nothing when every month before the cutoff is already archived")
+    @Order(3)
+    void archive_DoesNothing_WhenLedgerIsArchivedUpToCutoff() {
+        BDDMockito.when(stateRepository.findArchivedBefore(TransactionArchiveState.LEDGER_ID)).thenReturn(Optional.of(cutoff));
+        BDDMockito.when(partitionService.findPartitions()).thenReturn(List.of());
+
+        TransactionArchiveResponse response = service.archive();
+
+        Assertions.assertThat(response.getArchivedTransactions()).isZero();
+        BDDMockito.verify(archiveRepository, BDDMockito.never()).copyFromLedger(ArgumentMatchers.any(), ArgumentMatchers.any());
+        BDDMockito.verifyNoInteractions(eventPublisher);
+    }
+}
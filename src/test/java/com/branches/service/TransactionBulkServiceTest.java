@@ -0,0 +1,254 @@
+package com.branches.service;
+
+import com.branches.event.TransactionsSavedEvent;
+import com.branches.exception.BadRequestException;
+import com.branches.mapper.TransactionMapper;
+import com.branches.model.Transaction;
+import com.branches.repository.TransactionStore;
+import com.branches.request.BulkInsertMode;
+import com.branches.request.TransactionPostRequest;
+import com.branches.response.TransactionBulkItemResponse;
+import com.branches.response.TransactionBulkResponse;
+import com.branches.utils.TransactionUtils;
+import jakarta.persistence.EntityManager;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mapstruct.factory.Mappers;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class TransactionBulkServiceTest {
+    private static final long ACCOUNT_ID = Transaction.DEFAULT_ACCOUNT_ID;
+
+    @InjectMocks
+    private TransactionBulkService service;
+    @Mock
+    private TransactionStore store;
+    @Spy
+    private TransactionMapper mapper = Mappers.getMapper(TransactionMapper.class);
+    @Mock
+    private BalanceService balanceService;
+    @Mock
+    private TransactionSummaryService summaryService;
+    @Mock
+    private BalanceCheckpointService checkpointService;
+    @Mock
+    private TransactionSearchService searchService;
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    private final AtomicLong sequence = new AtomicLong();
+
+    @BeforeEach
+    void init() {
+        BDDMockito.when(transactionTemplate.execute(ArgumentMatchers.any()))
+                .thenAnswer(invocation -> invocation.getArgument(0, TransactionCallback.class).doInTransaction(null));
+        BDDMockito.doAnswer(invocation -> {
+            invocation.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(ArgumentMatchers.any());
+        BDDMockito.doAnswer(invocation -> {
+            List<Transaction> transactions = invocation.getArgument(0);
+            transactions.forEach(transaction -> transaction.setId(sequence.incrementAndGet()));
+            return null;
+        }).when(store).saveAll(ArgumentMatchers.any());
+    }
+
+    @Test
+    @DisplayName("saveAll inserts every transaction in one batch when mode is atomic")
+    @Order(1)
+    void saveAll_InsertsEveryTransactionInOneBatch_WhenModeIsAtomic() {
+        List<TransactionPostRequest> requests = newPostRequests("10.00", "-2.50", "0.01");
+
+        TransactionBulkResponse response = service.saveAll(ACCOUNT_ID, requests.iterator(), BulkInsertMode.ATOMIC);
+
+        Assertions.assertThat(response.getCreated()).isEqualTo(3);
+        Assertions.assertThat(response.getFailed()).isZero();
+        Assertions.assertThat(response.getItems())
+                .extracting(TransactionBulkItemResponse::getIndex, TransactionBulkItemResponse::getId)
+                .containsExactly(Assertions.tuple(0, 1L), Assertions.tuple(1, 2L), Assertions.tuple(2, 3L));
+        BDDMockito.verify(store, BDDMockito.times(1)).saveAll(ArgumentMatchers.<List<Transaction>>any());
+        BDDMockito.verify(balanceService).apply(ACCOUNT_ID, 751L, 3);
+    }
+
+    @Test
+    @DisplayName("saveAll splits the insert in batches when there are more transactions than the batch size")
+    @Order(2)
+    void saveAll_SplitsInsertInBatches_WhenThereAreMoreTransactionsThanTheBatchSize() {
+        List<TransactionPostRequest> requests = IntStream.range(0, TransactionBulkService.BATCH_SIZE + 1)
+                .mapToObj(i -> newPostRequest("1.00"))
+                .toList();
+
+        TransactionBulkResponse response = service.saveAll(ACCOUNT_ID, requests.iterator(), BulkInsertMode.ATOMIC);
+
+        Assertions.assertThat(response.getCreated()).isEqualTo(TransactionBulkService.BATCH_SIZE + 1);
+        Assertions.assertThat(response.getItems().getLast().getIndex()).isEqualTo(TransactionBulkService.BATCH_SIZE);
+        BDDMockito.verify(balanceService).apply(ACCOUNT_ID, 100L * TransactionBulkService.BATCH_SIZE, TransactionBulkService.BATCH_SIZE);
+        BDDMockito.verify(balanceService).apply(ACCOUNT_ID, 100L, 1);
+        BDDMockito.verify(entityManager, BDDMockito.times(2)).clear();
+        BDDMockito.verify(eventPublisher, BDDMockito.times(2)).publishEvent(ArgumentMatchers.any(TransactionsSavedEvent.class));
+    }
+
+    @Test
+    @DisplayName("saveAll throws BadRequestException with the item index when mode is atomic and an item is invalid")
+    @Order(3)
+    void saveAll_ThrowsBadRequestException_WhenModeIsAtomicAndAnItemIsInvalid() {
+        List<TransactionPostRequest> requests = newPostRequests("10.00", "0.001");
+
+        Assertions.assertThatThrownBy(() -> service.saveAll(ACCOUNT_ID, requests.iterator(), BulkInsertMode.ATOMIC))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("index 1");
+        BDDMockito.verifyNoInteractions(store, balanceService);
+    }
+
+    @Test
+    @DisplayName("saveAll reports invalid items and inserts the valid ones when mode is per item")
+    @Order(4)
+    void saveAll_ReportsInvalidItemsAndInsertsValidOnes_WhenModeIsPerItem() {
+        List<TransactionPostRequest> requests = newPostRequests("10.00", "0.001", "-5.00");
+
+        TransactionBulkResponse response = service.saveAll(ACCOUNT_ID, requests.iterator(), BulkInsertMode.PER_ITEM);
+
+        Assertions.assertThat(response.getCreated()).isEqualTo(2);
+        Assertions.assertThat(response.getFailed()).isEqualTo(1);
+        Assertions.assertThat(response.getItems())
+                .extracting(TransactionBulkItemResponse::getIndex, TransactionBulkItemResponse::getError)
+                .containsExactly(
+                        Assertions.tuple(0, null),
+                        Assertions.tuple(1, "value must have at most 2 decimal places"),
+                        Assertions.tuple(2, null)
+                );
+        BDDMockito.verify(balanceService).apply(ACCOUNT_ID, 500L, 2);
+    }
+
+    @Test
+    @DisplayName("saveAll retries the batch one item at a time when mode is per item and the batch insert fails")
+    @Order(5)
+    void saveAll_RetriesBatchOneItemAtATime_WhenModeIsPerItemAndTheBatchInsertFails() {
+        List<TransactionPostRequest> requests = newPostRequests("10.00", "-5.00");
+
+        BDDMockito.doThrow(new DataIntegrityViolationException("batch failed"))
+                .when(store).saveAll(ArgumentMatchers.<List<Transaction>>argThat(batch -> batch.size() > 1));
+        BDDMockito.doThrow(new DataIntegrityViolationException("row failed"))
+                .when(store).saveAll(ArgumentMatchers.<List<Transaction>>argThat(batch -> batch.size() == 1 && batch.getFirst().getValueInCents() < 0));
+
+        TransactionBulkResponse response = service.saveAll(ACCOUNT_ID, requests.iterator(), BulkInsertMode.PER_ITEM);
+
+        Assertions.assertThat(response.getCreated()).isEqualTo(1);
+        Assertions.assertThat(response.getItems())
+                .extracting(TransactionBulkItemResponse::getIndex, TransactionBulkItemResponse::getError)
+                .containsExactly(Assertions.tuple(0, null), Assertions.tuple(1, "Unable to save transaction"));
+    }
+
+    @Test
+    @DisplayName("saveAll stops reading and reports the item when mode is per item and the input is malformed")
+    @Order(6)
+    void saveAll_StopsReadingAndReportsItem_WhenModeIsPerItemAndTheInputIsMalformed() {
+        Iterator<TransactionPostRequest> requests = new Iterator<>() {
+            private int read;
+
+            @Override
+            public boolean hasNext() {
+                if (read == 1) throw new IllegalStateException("Unexpected character");
+                return true;
+            }
+
+            @Override
+            public TransactionPostRequest next() {
+                if (read++ > 0) throw new NoSuchElementException();
+                return TransactionUtils.newTransactionPostRequest();
+            }
+        };
+
+        TransactionBulkResponse response = service.saveAll(ACCOUNT_ID, requests, BulkInsertMode.PER_ITEM);
+
+        Assertions.assertThat(response.getItems())
+                .extracting(TransactionBulkItemResponse::getIndex, TransactionBulkItemResponse::getError)
+                .containsExactly(Assertions.tuple(0, null), Assertions.tuple(1, "Malformed transaction at index 1"));
+    }
+
+    @Test
+    @DisplayName("saveAll saves the transactions to the given account and applies its balance")
+    @Order(7)
+    void saveAll_SavesTransactionsToTheAccount_WhenAccountIsGiven() {
+        List<TransactionPostRequest> requests = newPostRequests("10.00", "-2.50");
+
+        service.saveAll(7L, requests.iterator(), BulkInsertMode.ATOMIC);
+
+        BDDMockito.verify(store).saveAll(ArgumentMatchers.<List<Transaction>>argThat(batch ->
+                batch.stream().allMatch(transaction -> transaction.getAccountId() == 7L)));
+        BDDMockito.verify(balanceService).apply(7L, 750L, 2);
+        BDDMockito.verify(balanceService, BDDMockito.never()).apply(ArgumentMatchers.eq(ACCOUNT_ID), ArgumentMatchers.anyLong(), ArgumentMatchers.anyLong());
+    }
+
+    @Test
+    @DisplayName("saveAll reports the item that fails with any runtime exception when mode is per item")
+    @Order(8)
+    void saveAll_ReportsFailedItem_WhenModeIsPerItemAndTheInsertThrowsRuntimeException() {
+        List<TransactionPostRequest> requests = newPostRequests("10.00", "-5.00");
+
+        BDDMockito.when(balanceService.apply(ArgumentMatchers.eq(ACCOUNT_ID), ArgumentMatchers.longThat(delta -> delta < 1000),
+                ArgumentMatchers.anyLong())).thenThrow(new ArithmeticException("long overflow"));
+
+        TransactionBulkResponse response = service.saveAll(ACCOUNT_ID, requests.iterator(), BulkInsertMode.PER_ITEM);
+
+        Assertions.assertThat(response.getCreated()).isEqualTo(1);
+        Assertions.assertThat(response.getFailed()).isEqualTo(1);
+        Assertions.assertThat(response.getItems())
+                .extracting(TransactionBulkItemResponse::getIndex, TransactionBulkItemResponse::getError)
+                .containsExactly(Assertions.tuple(0, null), Assertions.tuple(1, "Unable to save transaction"));
+    }
+
+    @Test
+    @DisplayName("saveAll reports a value too large for cents apart from one with too many decimal places")
+    @Order(9)
+    void saveAll_ReportsOutOfRangeValue_WhenModeIsPerItemAndTheValueDoesNotFitInCents() {
+        List<TransactionPostRequest> requests = newPostRequests("92233720368547758.08", "0.001");
+
+        TransactionBulkResponse response = service.saveAll(ACCOUNT_ID, requests.iterator(), BulkInsertMode.PER_ITEM);
+
+        Assertions.assertThat(response.getItems())
+                .extracting(TransactionBulkItemResponse::getIndex, TransactionBulkItemResponse::getError)
+                .containsExactly(
+                        Assertions.tuple(0, "value must be between -92233720368547758.08 and 92233720368547758.07"),
+                        Assertions.tuple(1, "value must have at most 2 decimal places")
+                );
+    }
+
+    private static List<TransactionPostRequest> newPostRequests(String... values) {
+        return Arrays.stream(values).map(TransactionBulkServiceTest::newPostRequest).toList();
+    }
+
+    private static TransactionPostRequest newPostRequest(String value) {
+        return TransactionPostRequest.builder()
+                .description("Importação")
+                .value(new BigDecimal(value))
+                .build();
+    }
+}
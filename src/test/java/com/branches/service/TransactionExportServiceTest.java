@@ -0,0 +1,181 @@
+package com.branches.service;
+
+import com.branches.mapper.TransactionMapper;
+import com.branches.model.Transaction;
+import com.branches.repository.TransactionStore;
+import com.branches.utils.TransactionUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mapstruct.factory.Mappers;
+import org.skyscreamer.jsonassert.JSONAssert;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+@ExtendWith(MockitoExtension.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class TransactionExportServiceTest {
+    private static final long ACCOUNT_ID = Transaction.DEFAULT_ACCOUNT_ID;
+
+    @InjectMocks
+    private TransactionExportService service;
+    @Mock
+    private TransactionStore store;
+    @Spy
+    private TransactionMapper mapper = Mappers.getMapper(TransactionMapper.class);
+    @Spy
+    private ObjectMapper objectMapper = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    @Mock
+    private EntityManager entityManager;
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("exportCsv writes every streamed transaction when successful")
+    @Order(1)
+    void exportCsv_WritesEveryStreamedTransaction_WhenSuccessful() throws Exception {
+        List<Transaction> transactions = TransactionUtils.newTransactionList();
+        AtomicBoolean streamClosed = new AtomicBoolean();
+
+        BDDMockito.when(store.streamAllByDateFilter(ACCOUNT_ID, null, null))
+                .thenReturn(transactions.stream().onClose(() -> streamClosed.set(true)));
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        service.exportCsv(ACCOUNT_ID, null, null, outputStream);
+
+        Assertions.assertThat(outputStream.toString(StandardCharsets.UTF_8))
+                .isEqualTo("""
+                        id,value,description,date
+                        1,5000.00,"Salário",2025-01-29T15:43:30
+                        2,-1000.00,"Aluguel",2025-01-28T15:43:30
+                        3,-50.00,"Uber",2025-01-28T14:20:30
+                        """);
+        Assertions.assertThat(streamClosed).isTrue();
+        BDDMockito.verify(entityManager, BDDMockito.times(3)).detach(ArgumentMatchers.any(Transaction.class));
+    }
+
+    @Test
+    @DisplayName("exportCsv escapes quotes and writes empty descriptions when description has quotes or is null")
+    @Order(2)
+    void exportCsv_EscapesQuotesAndWritesEmptyDescriptions_WhenDescriptionHasQuotesOrIsNull() throws Exception {
+        LocalDateTime date = LocalDateTime.of(2025, 1, 30, 20, 25, 30);
+        Transaction quoted = Transaction.builder().id(1L).valueInCents(1050L).description("Pizza \"grande\", borda").date(date).build();
+        Transaction withoutDescription = Transaction.builder().id(2L).valueInCents(-1L).date(date).build();
+
+        BDDMockito.when(store.streamAllByDateFilter(ACCOUNT_ID, date, date))
+                .thenReturn(Stream.of(quoted, withoutDescription));
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        service.exportCsv(ACCOUNT_ID, date, date, outputStream);
+
+        Assertions.assertThat(outputStream.toString(StandardCharsets.UTF_8))
+                .isEqualTo("""
+                        id,value,description,date
+                        1,10.50,"Pizza ""grande"", borda",2025-01-30T20:25:30
+                        2,-0.01,"",2025-01-30T20:25:30
+                        """);
+    }
+
+    @Test
+    @DisplayName("exportCsv writes only the header when there are no transactions")
+    @Order(3)
+    void exportCsv_WritesOnlyHeader_WhenThereAreNoTransactions() throws Exception {
+        BDDMockito.when(store.streamAllByDateFilter(ACCOUNT_ID, null, null)).thenReturn(Stream.empty());
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        service.exportCsv(ACCOUNT_ID, null, null, outputStream);
+
+        Assertions.assertThat(outputStream.toString(StandardCharsets.UTF_8))
+                .isEqualTo("id,value,description,date\n");
+    }
+
+    @Test
+    @DisplayName("exportJson writes every streamed transaction as a json array when successful")
+    @Order(4)
+    void exportJson_WritesEveryStreamedTransactionAsJsonArray_WhenSuccessful() throws Exception {
+        String expectedResponse = """
+                [
+                  {"id": 1, "value": 5000.00, "description": "Salário", "date": "2025-01-29T15:43:30"},
+                  {"id": 2, "value": -1000.00, "description": "Aluguel", "date": "2025-01-28T15:43:30"},
+                  {"id": 3, "value": -50.00, "description": "Uber", "date": "2025-01-28T14:20:30"}
+                ]
+                """;
+        List<Transaction> transactions = TransactionUtils.newTransactionList();
+        LocalDateTime startDate = TransactionUtils.getEndDateValid();
+        LocalDateTime endDate = TransactionUtils.getStartDateValid();
+
+        BDDMockito.when(store.streamAllByDateFilter(ACCOUNT_ID, startDate, endDate)).thenReturn(transactions.stream());
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        service.exportJson(ACCOUNT_ID, startDate, endDate, outputStream);
+
+        JSONAssert.assertEquals(expectedResponse, outputStream.toString(StandardCharsets.UTF_8), true);
+        BDDMockito.verify(entityManager, BDDMockito.times(3)).detach(ArgumentMatchers.any(Transaction.class));
+    }
+
+    @Test
+    @DisplayName("exportJson writes an empty json array when there are no transactions")
+    @Order(5)
+    void exportJson_WritesEmptyJsonArray_WhenThereAreNoTransactions() throws Exception {
+        BDDMockito.when(store.streamAllByDateFilter(ACCOUNT_ID, null, null)).thenReturn(Stream.empty());
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        service.exportJson(ACCOUNT_ID, null, null, outputStream);
+
+        Assertions.assertThat(outputStream.toString(StandardCharsets.UTF_8)).isEqualTo("[]");
+    }
+
+    @Test
+    @DisplayName("exportNdjson writes one json object per line when successful")
+    @Order(6)
+    void exportNdjson_WritesOneJsonObjectPerLine_WhenSuccessful() throws Exception {
+        BDDMockito.when(store.streamAllByDateFilter(ACCOUNT_ID, null, null))
+                .thenReturn(TransactionUtils.newTransactionList().stream());
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        service.exportNdjson(ACCOUNT_ID, null, null, outputStream);
+
+        Assertions.assertThat(outputStream.toString(StandardCharsets.UTF_8))
+                .isEqualTo("""
+                        {"id":1,"value":5000.00,"description":"Salário","date":"2025-01-29T15:43:30"}
+                        {"id":2,"value":-1000.00,"description":"Aluguel","date":"2025-01-28T15:43:30"}
+                        {"id":3,"value":-50.00,"description":"Uber","date":"2025-01-28T14:20:30"}
+                        """);
+    }
+
+    @Test
+    @DisplayName("exportCsv records the export duration and the bytes written, tagged with the format")
+    @Order(7)
+    void exportCsv_RecordsDurationAndBytesWritten_WhenSuccessful() throws Exception {
+        BDDMockito.when(store.streamAllByDateFilter(ACCOUNT_ID, null, null))
+                .thenReturn(TransactionUtils.newTransactionList().stream());
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        service.exportCsv(ACCOUNT_ID, null, null, outputStream);
+
+        Assertions.assertThat(meterRegistry.get(TransactionExportService.EXPORT_BYTES_METRIC).tag("format", "csv").counter().count())
+                .isEqualTo(outputStream.size());
+        Assertions.assertThat(meterRegistry.get(TransactionExportService.EXPORT_METRIC).tag("format", "csv").timer().count())
+                .isEqualTo(1);
+    }
+}
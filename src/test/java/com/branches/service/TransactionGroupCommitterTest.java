@@ -0,0 +1,221 @@
+package com.branches.service;
+
+import com.branches.exception.ServiceUnavailableException;
+import com.branches.model.Transaction;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+@ExtendWith(MockitoExtension.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class TransactionGroupCommitterTest {
+    @Mock
+    private TransactionBulkService bulkService;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    private TransactionGroupCommitter committer;
+    private final AtomicLong sequence = new AtomicLong();
+
+    @BeforeEach
+    void init() {
+        BDDMockito.lenient().doAnswer(invocation -> {
+            invocation.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(ArgumentMatchers.any());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (committer != null) committer.stop();
+    }
+
+    @Test
+    @DisplayName("write commits concurrent transactions in one batch and returns each its own id")
+    @Order(1)
+    void write_CommitsConcurrentTransactionsInOneBatch_WhenTheyArriveWithinLinger() throws Exception {
+        start(3, Duration.ofSeconds(10), 10);
+        List<List<Transaction>> batches = new ArrayList<>();
+        BDDMockito.doAnswer(invocation -> {
+            List<Transaction> batch = invocation.getArgument(0);
+            batches.add(List.copyOf(batch));
+            batch.forEach(transaction -> transaction.setId(sequence.incrementAndGet()));
+            return null;
+        }).when(bulkService).insert(ArgumentMatchers.any());
+
+        List<Transaction> committed = writeConcurrently(transaction("a"), transaction("b"), transaction("c"));
+
+        Assertions.assertThat(batches).hasSize(1);
+        Assertions.assertThat(batches.getFirst()).hasSize(3);
+        Assertions.assertThat(committed)
+                .extracting(Transaction::getId)
+                .containsExactlyInAnyOrder(1L, 2L, 3L);
+    }
+
+    @Test
+    @DisplayName("write retries a failed batch one transaction at a time so only the bad one fails")
+    @Order(2)
+    void write_RetriesFailedBatchOneByOne_WhenBatchFails() throws Exception {
+        start(2, Duration.ofSeconds(10), 10);
+        BDDMockito.doAnswer(invocation -> {
+            List<Transaction> batch = invocation.getArgument(0);
+            if (batch.stream().anyMatch(transaction -> "bad".equals(transaction.getDescription()))) {
+                throw new IllegalStateException("constraint violated");
+            }
+            batch.forEach(transaction -> transaction.setId(sequence.incrementAndGet()));
+            return null;
+        }).when(bulkService).insert(ArgumentMatchers.any());
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+            Future<Transaction> good = executor.submit(() -> committer.write(transaction("good")));
+            Future<Transaction> bad = executor.submit(() -> committer.write(transaction("bad")));
+
+            Assertions.assertThat(good.get(5, TimeUnit.SECONDS).getId()).isEqualTo(1L);
+            Assertions.assertThatThrownBy(() -> bad.get(5, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(IllegalStateException.class);
+        }
+        BDDMockito.verify(bulkService, BDDMockito.times(3)).insert(ArgumentMatchers.any());
+    }
+
+    @Test
+    @DisplayName("write throws ServiceUnavailableException when the queue is full")
+    @Order(3)
+    void write_ThrowsServiceUnavailableException_WhenQueueIsFull() throws Exception {
+        start(1, Duration.ZERO, 1);
+        CountDownLatch inserting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        BDDMockito.doAnswer(invocation -> {
+            inserting.countDown();
+            release.await();
+            return null;
+        }).when(bulkService).insert(ArgumentMatchers.any());
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+            executor.submit(() -> committer.write(transaction("committing")));
+            Assertions.assertThat(inserting.await(5, TimeUnit.SECONDS)).isTrue();
+
+            Thread[] queued = new Thread[1];
+            CountDownLatch offered = new CountDownLatch(1);
+            executor.submit(() -> {
+                queued[0] = Thread.currentThread();
+                offered.countDown();
+                return committer.write(transaction("queued"));
+            });
+            offered.await();
+            // the second writer waits on its future once its write is in the queue
+            while (queued[0].getState() != Thread.State.TIMED_WAITING) Thread.onSpinWait();
+
+            Assertions.assertThatThrownBy(() -> committer.write(transaction("rejected")))
+                    .isInstanceOf(ServiceUnavailableException.class);
+
+            release.countDown();
+        }
+    }
+
+    @Test
+    @DisplayName("write throws ServiceUnavailableException when the commit takes longer than the write timeout")
+    @Order(4)
+    void write_ThrowsServiceUnavailableException_WhenCommitTimesOut() {
+        start(1, Duration.ZERO, 10, Duration.ofMillis(100));
+        CountDownLatch release = new CountDownLatch(1);
+        BDDMockito.doAnswer(invocation -> {
+            release.await();
+            return null;
+        }).when(bulkService).insert(ArgumentMatchers.any());
+
+        try {
+            Assertions.assertThatThrownBy(() -> committer.write(transaction("slow")))
+                    .isInstanceOf(ServiceUnavailableException.class);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    @DisplayName("write throws ServiceUnavailableException once the committer is stopped")
+    @Order(5)
+    void write_ThrowsServiceUnavailableException_WhenCommitterIsStopped() {
+        start(1, Duration.ZERO, 10);
+        committer.stop();
+
+        Assertions.assertThatThrownBy(() -> committer.write(transaction("late")))
+                .isInstanceOf(ServiceUnavailableException.class);
+        BDDMockito.verifyNoInteractions(bulkService);
+    }
+
+    @Test
+    @DisplayName("write fails the pending writes and rejects new ones when the writer thread dies from an Error")
+    @Order(6)
+    void write_ThrowsServiceUnavailableException_WhenWriterThreadDies() throws Exception {
+        start(1, Duration.ZERO, 10);
+        CountDownLatch inserting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        BDDMockito.doAnswer(invocation -> {
+            inserting.countDown();
+            release.await();
+            throw new OutOfMemoryError("simulated");
+        }).when(bulkService).insert(ArgumentMatchers.any());
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+            Future<Transaction> committing = executor.submit(() -> committer.write(transaction("committing")));
+            Assertions.assertThat(inserting.await(5, TimeUnit.SECONDS)).isTrue();
+            Future<Transaction> queued = executor.submit(() -> committer.write(transaction("queued")));
+            release.countDown();
+
+            Assertions.assertThatThrownBy(() -> committing.get(5, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(ServiceUnavailableException.class);
+            Assertions.assertThatThrownBy(() -> queued.get(5, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(ServiceUnavailableException.class);
+        }
+        Assertions.assertThatThrownBy(() -> committer.write(transaction("after")))
+                .isInstanceOf(ServiceUnavailableException.class);
+    }
+
+    private void start(int maxBatchSize, Duration maxLinger, int queueCapacity) {
+        start(maxBatchSize, maxLinger, queueCapacity, Duration.ofSeconds(5));
+    }
+
+    private void start(int maxBatchSize, Duration maxLinger, int queueCapacity, Duration writeTimeout) {
+        committer = new TransactionGroupCommitter(bulkService, transactionTemplate, true, maxBatchSize, maxLinger, queueCapacity,
+                writeTimeout);
+        committer.start();
+    }
+
+    private List<Transaction> writeConcurrently(Transaction... transactions) throws Exception {
+        try (ExecutorService executor = Executors.newFixedThreadPool(transactions.length)) {
+            List<Future<Transaction>> futures = new ArrayList<>();
+            for (Transaction transaction : transactions) {
+                futures.add(executor.submit(() -> committer.write(transaction)));
+            }
+
+            List<Transaction> committed = new ArrayList<>();
+            for (Future<Transaction> future : futures) {
+                committed.add(future.get(5, TimeUnit.SECONDS));
+            }
+
+            return committed;
+        }
+    }
+
+    private static Transaction transaction(String description) {
+        return Transaction.builder()
+                .description(description)
+                .valueInCents(100L)
+                .build();
+    }
+}
@@ -0,0 +1,66 @@
+package com.branches.service;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.*;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class TransactionPartitionServiceTest {
+    private static final TransactionPartitionService.Partition MAX = new TransactionPartitionService.Partition("pmax", null);
+
+    @Test
+    @DisplayName("reorganizeStatement splits the months after the last partition off pmax")
+    @Order(1)
+    void reorganizeStatement_SplitsMonthsAfterLastPartition_WhenPartitionsExist() {
+        List<TransactionPartitionService.Partition> partitions = List.of(
+                new TransactionPartitionService.Partition("p202609", LocalDateTime.of(2026, 10, 1, 0, 0)),
+                new TransactionPartitionService.Partition("p202610", LocalDateTime.of(2026, 11, 1, 0, 0)),
+                MAX
+        );
+
+        String statement = TransactionPartitionService.reorganizeStatement(partitions, null, YearMonth.of(2026, 12));
+
+        Assertions.assertThat(statement).isEqualTo(
+                "ALTER TABLE transaction REORGANIZE PARTITION pmax INTO (" +
+                        "PARTITION p202611 VALUES LESS THAN ('2026-12-01 00:00:00'), " +
+                        "PARTITION p202612 VALUES LESS THAN ('2027-01-01 00:00:00'), " +
+                        "PARTITION pmax VALUES LESS THAN (MAXVALUE))"
+        );
+    }
+
+    @Test
+    @DisplayName("reorganizeStatement starts at the given first month when only pmax exists")
+    @Order(2)
+    void reorganizeStatement_StartsAtFirstMonth_WhenOnlyMaxPartitionExists() {
+        String statement = TransactionPartitionService.reorganizeStatement(List.of(MAX), YearMonth.of(2026, 12), YearMonth.of(2026, 12));
+
+        Assertions.assertThat(statement).isEqualTo(
+                "ALTER TABLE transaction REORGANIZE PARTITION pmax INTO (" +
+                        "PARTITION p202612 VALUES LESS THAN ('2027-01-01 00:00:00'), " +
+                        "PARTITION pmax VALUES LESS THAN (MAXVALUE))"
+        );
+    }
+
+    @Test
+    @DisplayName("reorganizeStatement returns null when the partitions already reach the last month")
+    @Order(3)
+    void reorganizeStatement_ReturnsNull_WhenPartitionsAreAhead() {
+        List<TransactionPartitionService.Partition> partitions = List.of(
+                new TransactionPartitionService.Partition("p202701", LocalDateTime.of(2027, 2, 1, 0, 0)),
+                MAX
+        );
+
+        Assertions.assertThat(TransactionPartitionService.reorganizeStatement(partitions, null, YearMonth.of(2027, 1))).isNull();
+    }
+
+    @Test
+    @DisplayName("parseBound reads the partition description reported by MySQL")
+    @Order(4)
+    void parseBound_ReadsPartitionDescription_WhenSuccessful() {
+        Assertions.assertThat(TransactionPartitionService.parseBound("'2026-11-01 00:00:00'")).isEqualTo(LocalDateTime.of(2026, 11, 1, 0, 0));
+        Assertions.assertThat(TransactionPartitionService.parseBound("MAXVALUE")).isNull();
+    }
+}
@@ -0,0 +1,153 @@
+package com.branches.service;
+
+import com.branches.exception.BadRequestException;
+import com.branches.model.Transaction;
+import com.branches.repository.JpaTransactionStore;
+import com.branches.repository.TransactionRepository;
+import com.branches.response.TransactionGetResponse;
+import com.branches.response.TransactionPageResponse;
+import com.branches.utils.MoneyUtils;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Runs the search against the test database, since the index lookup is plain SQL built per query.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class TransactionSearchServiceTest {
+    private static final long ACCOUNT_ID = Transaction.DEFAULT_ACCOUNT_ID;
+    private static final LocalDateTime DATE = LocalDateTime.of(2025, 1, 28, 10, 0, 0, 123_456_000);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionRepository repository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    private TransactionSearchService service;
+
+    @BeforeEach
+    void init() {
+        service = new TransactionSearchService(jdbcTemplate, new JpaTransactionStore(repository),
+                new TransactionTemplate(transactionManager), false);
+
+        service.apply(List.of(
+                insert(1L, "Fatura do Cartão", DATE),
+                insert(2L, "Cartão de crédito", DATE.plusDays(1)),
+                insert(3L, "Farmácia", DATE.plusDays(2)),
+                insert(4L, "FATURA cartao visa", DATE.plusDays(2)),
+                insert(5L, null, DATE.plusDays(3))
+        ));
+    }
+
+    @Test
+    @DisplayName("terms folds case and accents and keeps every prefix of each word from two characters on")
+    @Order(1)
+    void terms_ReturnsFoldedPrefixesOfEachWord_WhenDescriptionIsGiven() {
+        Assertions.assertThat(TransactionSearchService.terms("Pix do Zé - Cartão!"))
+                .containsExactly("pi", "pix", "do", "ze", "ca", "car", "cart", "carta", "cartao");
+        Assertions.assertThat(TransactionSearchService.terms("a . b")).isEmpty();
+        Assertions.assertThat(TransactionSearchService.terms(null)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("search returns the transactions starting every query word, newest first, ignoring case and accents")
+    @Order(2)
+    void search_ReturnsTransactionsMatchingEveryWord_WhenQueryIsGiven() {
+        Assertions.assertThat(service.search(ACCOUNT_ID, "CARTÃO", null, null, null, 10).getContent())
+                .extracting(TransactionGetResponse::getId)
+                .containsExactly(4L, 2L, 1L);
+        Assertions.assertThat(service.search(ACCOUNT_ID, "cart fatu", null, null, null, 10).getContent())
+                .extracting(TransactionGetResponse::getId, TransactionGetResponse::getDescription, TransactionGetResponse::getDate)
+                .containsExactly(
+                        Assertions.tuple(4L, "FATURA cartao visa", DATE.plusDays(2)),
+                        Assertions.tuple(1L, "Fatura do Cartão", DATE)
+                );
+        Assertions.assertThat(service.search(ACCOUNT_ID, "cartoes", null, null, null, 10).getContent()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("search pages through the matches with the cursor of the previous page")
+    @Order(3)
+    void search_PagesThroughMatches_WhenCursorIsGiven() {
+        TransactionPageResponse first = service.search(ACCOUNT_ID, "ca", null, null, null, 2);
+        TransactionPageResponse second = service.search(ACCOUNT_ID, "ca", null, null, first.getNext(), 2);
+
+        Assertions.assertThat(first.getContent()).extracting(TransactionGetResponse::getId).containsExactly(4L, 2L);
+        Assertions.assertThat(first.getNext()).isNotNull();
+        Assertions.assertThat(second.getContent()).extracting(TransactionGetResponse::getId).containsExactly(1L);
+        Assertions.assertThat(second.getNext()).isNull();
+    }
+
+    @Test
+    @DisplayName("search returns only the matches dated between startDate and endDate")
+    @Order(4)
+    void search_ReturnsMatchesBetweenDates_WhenDatesAreGiven() {
+        Assertions.assertThat(service.search(ACCOUNT_ID, "fa", DATE.plusDays(1), null, null, 10).getContent())
+                .extracting(TransactionGetResponse::getId)
+                .containsExactly(4L, 3L);
+        Assertions.assertThat(service.search(ACCOUNT_ID, "fa", null, DATE.plusDays(1), null, 10).getContent())
+                .extracting(TransactionGetResponse::getId)
+                .containsExactly(1L);
+    }
+
+    @Test
+    @DisplayName("search throws BadRequestException when the query has no word of at least two characters")
+    @Order(5)
+    void search_ThrowsBadRequestException_WhenQueryHasNoWord() {
+        Assertions.assertThatThrownBy(() -> service.search(ACCOUNT_ID, " a - ? ", null, null, null, 10))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    @DisplayName("search returns only the matches of the given account")
+    @Order(6)
+    void search_ReturnsOnlyMatchesOfTheAccount_WhenAnotherAccountHasMatches() {
+        service.apply(List.of(insert(7L, 6L, "Fatura do cartão", DATE.plusDays(4))));
+
+        Assertions.assertThat(service.search(ACCOUNT_ID, "fatura", null, null, null, 10).getContent())
+                .extracting(TransactionGetResponse::getId)
+                .containsExactly(4L, 1L);
+        Assertions.assertThat(service.search(7L, "fatura", null, null, null, 10).getContent())
+                .extracting(TransactionGetResponse::getId)
+                .containsExactly(6L);
+    }
+
+    @Test
+    @DisplayName("reindex rebuilds the index from the transactions in the ledger")
+    @Order(7)
+    void reindex_RebuildsIndexFromLedger_WhenTermsAreMissing() {
+        jdbcTemplate.update("DELETE FROM transaction_term WHERE transaction_id = 2");
+
+        long indexed = service.reindex();
+
+        Assertions.assertThat(indexed).isEqualTo(5);
+        Assertions.assertThat(service.search(ACCOUNT_ID, "credito", null, null, null, 10).getContent())
+                .extracting(TransactionGetResponse::getId)
+                .containsExactly(2L);
+    }
+
+    private Transaction insert(Long id, String description, LocalDateTime date) {
+        return insert(ACCOUNT_ID, id, description, date);
+    }
+
+    private Transaction insert(long accountId, Long id, String description, LocalDateTime date) {
+        Transaction transaction = Transaction.builder().id(id).accountId(accountId).valueInCents(-1000L).description(description).date(date).build();
+        jdbcTemplate.update("INSERT INTO transaction (id, account_id, value, sign, description, date) VALUES (?, ?, ?, ?, ?, ?)",
+                id, accountId, MoneyUtils.toDecimal(transaction.getValueInCents()), Transaction.EXPENSE, description, Timestamp.valueOf(date));
+
+        return transaction;
+    }
+}
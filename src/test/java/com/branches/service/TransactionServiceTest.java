@@ -1,41 +1,75 @@
 package com.branches.service;
 
+import com.branches.cache.TransactionCache;
+import com.branches.cache.TransactionCacheKey;
+import com.branches.event.TransactionsSavedEvent;
 import com.branches.mapper.TransactionMapper;
 import com.branches.model.Transaction;
-import com.branches.repository.TransactionRepository;
+import com.branches.repository.IdempotencyRecordRepository;
+import com.branches.repository.TransactionStore;
 import com.branches.request.TransactionPostRequest;
+import com.branches.exception.BadRequestException;
+import com.branches.request.TransactionCursor;
 import com.branches.response.TransactionGetResponse;
+import com.branches.response.TransactionPageResponse;
 import com.branches.response.TransactionPostResponse;
 import com.branches.utils.TransactionUtils;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
 import org.mockito.BDDMockito;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Sort;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 
 @ExtendWith(MockitoExtension.class)
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
 class TransactionServiceTest {
+    private static final long ACCOUNT_ID = Transaction.DEFAULT_ACCOUNT_ID;
+
     @InjectMocks
     private TransactionService service;
     @Mock
-    private TransactionRepository repository;
+    private TransactionStore store;
     @Mock
     private TransactionMapper mapper;
-    private List<Transaction> transactionList;
+    @Mock
+    private BalanceService balanceService;
+    @Mock
+    private TransactionSummaryService summaryService;
+    @Mock
+    private BalanceCheckpointService checkpointService;
+    @Mock
+    private TransactionSearchService searchService;
+    @Mock
+    private TransactionCache cache;
+    @Mock
+    private IdempotencyRecordRepository idempotencyRepository;
+    @Mock
+    private TransactionGroupCommitter groupCommitter;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
     private List<TransactionGetResponse> transactionGetResponseList;
 
     @BeforeEach
     void init() {
-        transactionList = TransactionUtils.newTransactionList();
         transactionGetResponseList = TransactionUtils.newTransactionGetResponseList();
+        BDDMockito.lenient().when(cache.get(ArgumentMatchers.any(), ArgumentMatchers.any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
     }
 
     @Test
@@ -47,25 +81,34 @@ class TransactionServiceTest {
         Transaction transactionSaved = TransactionUtils.newTransactionSaved();
         TransactionPostResponse postResponse = TransactionUtils.newTransactionPostResponse();
 
+        BDDMockito.when(transactionTemplate.execute(ArgumentMatchers.any()))
+                .thenAnswer(invocation -> invocation.getArgument(0, TransactionCallback.class).doInTransaction(null));
         BDDMockito.when(mapper.toTransaction(postRequest)).thenReturn(transactionToSave);
-        BDDMockito.when(repository.save(transactionToSave)).thenReturn(transactionSaved);
+        BDDMockito.when(store.save(transactionToSave)).thenReturn(transactionSaved);
+        BDDMockito.when(balanceService.apply(ACCOUNT_ID, transactionSaved.getValueInCents(), 1)).thenReturn(395000L);
         BDDMockito.when(mapper.toTransactionPostResponse(transactionSaved)).thenReturn(postResponse);
 
-        TransactionPostResponse response = service.save(postRequest);
+        TransactionPostResponse response = service.save(ACCOUNT_ID, postRequest);
         Assertions.assertThat(response)
                 .isNotNull()
                 .isEqualTo(postResponse);
+
+        BDDMockito.verify(balanceService).apply(ACCOUNT_ID, transactionSaved.getValueInCents(), 1);
+        BDDMockito.verify(summaryService).apply(List.of(transactionSaved));
+        BDDMockito.verify(checkpointService).apply(List.of(transactionSaved));
+        BDDMockito.verify(searchService).apply(List.of(transactionSaved));
+        BDDMockito.verify(eventPublisher).publishEvent(new TransactionsSavedEvent(List.of(transactionSaved), Map.of(ACCOUNT_ID, 395000L)));
     }
 
     @Test
     @DisplayName("getBalance returns balance when successful")
     @Order(2)
     void getBalance_ReturnsBalance_WhenSuccessful() {
-        double expectedBalance = TransactionUtils.getBalance();
+        BigDecimal expectedBalance = TransactionUtils.getBalance();
 
-        BDDMockito.when(repository.sumAllTransactions()).thenReturn(expectedBalance);
+        BDDMockito.when(balanceService.getBalance(ACCOUNT_ID)).thenReturn(expectedBalance);
 
-        Double response = service.getBalance();
+        BigDecimal response = service.getBalance(ACCOUNT_ID);
         Assertions.assertThat(response)
                 .isNotNull()
                 .isEqualTo(expectedBalance);
@@ -75,19 +118,16 @@ class TransactionServiceTest {
     @DisplayName("findAll returns all transactions when successful")
     @Order(3)
     void findAll_ReturnsAllTransactions_WhenSuccessful() {
-        Sort sort = Sort.by("date").descending();
-
-        BDDMockito.when(repository.findAllByDateFilter(null, null, sort))
-                .thenReturn(transactionList);
-        BDDMockito.when(mapper.toTransactionGetResponseList(transactionList))
+        BDDMockito.when(store.findFirstPageByDateFilter(ACCOUNT_ID, null, null, Limit.of(TransactionService.DEFAULT_PAGE_SIZE + 1)))
                 .thenReturn(transactionGetResponseList);
 
-        List<TransactionGetResponse> response = service.findAll(null, null);
+        TransactionPageResponse response = service.findAll(ACCOUNT_ID, null, null, null, TransactionService.DEFAULT_PAGE_SIZE);
 
-        Assertions.assertThat(response)
+        Assertions.assertThat(response.getContent())
                 .isNotNull()
                 .isNotEmpty()
                 .isEqualTo(transactionGetResponseList);
+        Assertions.assertThat(response.getNext()).isNull();
     }
 
     @Test
@@ -97,18 +137,16 @@ class TransactionServiceTest {
         LocalDateTime starDate = TransactionUtils.getStartDateValid();
         LocalDateTime endDate = TransactionUtils.getEndDateValid();
 
-        Sort sort = Sort.by("date").descending();
-        BDDMockito.when(repository.findAllByDateFilter(starDate, endDate, sort))
-                .thenReturn(transactionList);
-        BDDMockito.when(mapper.toTransactionGetResponseList(transactionList))
+        BDDMockito.when(store.findFirstPageByDateFilter(ACCOUNT_ID, starDate, endDate, Limit.of(TransactionService.DEFAULT_PAGE_SIZE + 1)))
                 .thenReturn(transactionGetResponseList);
 
-        List<TransactionGetResponse> response = service.findAll(starDate, endDate);
+        TransactionPageResponse response = service.findAll(ACCOUNT_ID, starDate, endDate, null, TransactionService.DEFAULT_PAGE_SIZE);
 
-        Assertions.assertThat(response)
+        Assertions.assertThat(response.getContent())
                 .isNotNull()
                 .isNotEmpty()
                 .isEqualTo(transactionGetResponseList);
+        Assertions.assertThat(response.getNext()).isNull();
     }
 
     @Test
@@ -118,16 +156,15 @@ class TransactionServiceTest {
         LocalDateTime starDate = LocalDateTime.of(2030, 12, 1, 23, 59, 59);
         LocalDateTime endDate = LocalDateTime.of(2030, 12, 31, 23, 59, 59);
 
-        BDDMockito.when(repository.findAllByDateFilter(starDate, endDate, Sort.by("date").descending()))
-                .thenReturn(Collections.emptyList());
-        BDDMockito.when(mapper.toTransactionGetResponseList(Collections.emptyList()))
+        BDDMockito.when(store.findFirstPageByDateFilter(ACCOUNT_ID, starDate, endDate, Limit.of(TransactionService.DEFAULT_PAGE_SIZE + 1)))
                 .thenReturn(Collections.emptyList());
 
-        List<TransactionGetResponse> response = service.findAll(starDate, endDate);
+        TransactionPageResponse response = service.findAll(ACCOUNT_ID, starDate, endDate, null, TransactionService.DEFAULT_PAGE_SIZE);
 
-        Assertions.assertThat(response)
+        Assertions.assertThat(response.getContent())
                 .isNotNull()
                 .isEmpty();
+        Assertions.assertThat(response.getNext()).isNull();
     }
 
     @Test
@@ -136,18 +173,17 @@ class TransactionServiceTest {
     void findAll_ReturnsFoundTransactions_WhenTheStartDateIsGiven() {
         LocalDateTime starDate = TransactionUtils.getStartDateValid();
 
-        BDDMockito.when(repository.findAllByDateFilter(starDate, null, Sort.by("date").descending()))
-                .thenReturn(transactionList);
-        BDDMockito.when(mapper.toTransactionGetResponseList(transactionList))
+        BDDMockito.when(store.findFirstPageByDateFilter(ACCOUNT_ID, starDate, null, Limit.of(TransactionService.DEFAULT_PAGE_SIZE + 1)))
                 .thenReturn(transactionGetResponseList);
 
 
-        List<TransactionGetResponse> response = service.findAll(starDate, null);
+        TransactionPageResponse response = service.findAll(ACCOUNT_ID, starDate, null, null, TransactionService.DEFAULT_PAGE_SIZE);
 
-        Assertions.assertThat(response)
+        Assertions.assertThat(response.getContent())
                 .isNotNull()
                 .isNotEmpty()
                 .isEqualTo(transactionGetResponseList);
+        Assertions.assertThat(response.getNext()).isNull();
     }
 
 
@@ -158,16 +194,15 @@ class TransactionServiceTest {
     void findAll_ReturnsEmptyList_WhenDoesNotExistsTransactionsAfterDateStart() {
         LocalDateTime starDate = LocalDateTime.of(2030, 12, 1, 23, 59, 59);
 
-        BDDMockito.when(repository.findAllByDateFilter(starDate, null, Sort.by("date").descending()))
-                .thenReturn(Collections.emptyList());
-        BDDMockito.when(mapper.toTransactionGetResponseList(Collections.emptyList()))
+        BDDMockito.when(store.findFirstPageByDateFilter(ACCOUNT_ID, starDate, null, Limit.of(TransactionService.DEFAULT_PAGE_SIZE + 1)))
                 .thenReturn(Collections.emptyList());
 
-        List<TransactionGetResponse> response = service.findAll(starDate, null);
+        TransactionPageResponse response = service.findAll(ACCOUNT_ID, starDate, null, null, TransactionService.DEFAULT_PAGE_SIZE);
 
-        Assertions.assertThat(response)
+        Assertions.assertThat(response.getContent())
                 .isNotNull()
                 .isEmpty();
+        Assertions.assertThat(response.getNext()).isNull();
     }
 
 
@@ -177,17 +212,16 @@ class TransactionServiceTest {
     void findAll_ReturnsFoundTransactions_WhenTheEndDateIsGiven() {
         LocalDateTime endDate = TransactionUtils.getEndDateValid();
 
-        BDDMockito.when(repository.findAllByDateFilter(null, endDate, Sort.by("date").descending()))
-                .thenReturn(transactionList);
-        BDDMockito.when(mapper.toTransactionGetResponseList(transactionList))
+        BDDMockito.when(store.findFirstPageByDateFilter(ACCOUNT_ID, null, endDate, Limit.of(TransactionService.DEFAULT_PAGE_SIZE + 1)))
                 .thenReturn(transactionGetResponseList);
 
-        List<TransactionGetResponse> response = service.findAll(null, endDate);
+        TransactionPageResponse response = service.findAll(ACCOUNT_ID, null, endDate, null, TransactionService.DEFAULT_PAGE_SIZE);
 
-        Assertions.assertThat(response)
+        Assertions.assertThat(response.getContent())
                 .isNotNull()
                 .isNotEmpty()
                 .isEqualTo(transactionGetResponseList);
+        Assertions.assertThat(response.getNext()).isNull();
     }
 
     @Test
@@ -196,31 +230,27 @@ class TransactionServiceTest {
     void findAll_ReturnsEmptyList_WhenDoesNotExistsTransactionsBeforeDateEnd() {
         LocalDateTime endDate = LocalDateTime.of(2025, 1, 1, 0, 0, 0);
 
-        BDDMockito.when(repository.findAllByDateFilter(null, endDate, Sort.by("date").descending()))
-                .thenReturn(Collections.emptyList());
-        BDDMockito.when(mapper.toTransactionGetResponseList(Collections.emptyList()))
+        BDDMockito.when(store.findFirstPageByDateFilter(ACCOUNT_ID, null, endDate, Limit.of(TransactionService.DEFAULT_PAGE_SIZE + 1)))
                 .thenReturn(Collections.emptyList());
 
-        List<TransactionGetResponse> response = service.findAll(null, endDate);
+        TransactionPageResponse response = service.findAll(ACCOUNT_ID, null, endDate, null, TransactionService.DEFAULT_PAGE_SIZE);
 
-        Assertions.assertThat(response)
+        Assertions.assertThat(response.getContent())
                 .isNotNull()
                 .isEmpty();
+        Assertions.assertThat(response.getNext()).isNull();
     }
 
     @Test
     @DisplayName("getIncomes returns all positive transactions when successful")
     @Order(10)
     void getIncomes_ReturnsAllPositiveTransactions_WhenSuccessful() {
-        List<Transaction> transactions = TransactionUtils.newPositiveTransactionsList();
         List<TransactionGetResponse> transactionGetResponseList = TransactionUtils.newPositiveTransactionGetResponseList();
 
-        BDDMockito.when(repository.findAllByValueGreaterThan(0D))
-                .thenReturn(transactions);
-        BDDMockito.when(mapper.toTransactionGetResponseList(transactions))
+        BDDMockito.when(store.findAllBySign(ACCOUNT_ID, Transaction.INCOME))
                 .thenReturn(transactionGetResponseList);
 
-        List<TransactionGetResponse> response = service.getIncomes();
+        List<TransactionGetResponse> response = service.getIncomes(ACCOUNT_ID);
 
         Assertions.assertThat(response)
                 .isNotNull()
@@ -232,12 +262,10 @@ class TransactionServiceTest {
     @DisplayName("getIncomes returns an empty list when does not exists positive transactions")
     @Order(11)
     void getIncomes_ReturnsEmptyList_WhenDoesNotExistsPositiveTransactions() {
-        BDDMockito.when(repository.findAllByValueGreaterThan(0D))
-                .thenReturn(Collections.emptyList());
-        BDDMockito.when(mapper.toTransactionGetResponseList(Collections.emptyList()))
+        BDDMockito.when(store.findAllBySign(ACCOUNT_ID, Transaction.INCOME))
                 .thenReturn(Collections.emptyList());
 
-        List<TransactionGetResponse> response = service.getIncomes();
+        List<TransactionGetResponse> response = service.getIncomes(ACCOUNT_ID);
 
         Assertions.assertThat(response)
                 .isNotNull()
@@ -248,15 +276,12 @@ class TransactionServiceTest {
     @DisplayName("getExpenses returns all negative transactions when successful")
     @Order(12)
     void getExpenses_ReturnsAllNegativeTransactions_WhenSuccessful() {
-        List<Transaction> transactions = TransactionUtils.newNegativeTransactionsList();
         List<TransactionGetResponse> transactionGetResponseList = TransactionUtils.newNegativeTransactionGetResponseList();
 
-        BDDMockito.when(repository.findAllByValueIsLessThan(0D))
-                .thenReturn(transactions);
-        BDDMockito.when(mapper.toTransactionGetResponseList(transactions))
+        BDDMockito.when(store.findAllBySign(ACCOUNT_ID, Transaction.EXPENSE))
                 .thenReturn(transactionGetResponseList);
 
-        List<TransactionGetResponse> response = service.getExpenses();
+        List<TransactionGetResponse> response = service.getExpenses(ACCOUNT_ID);
 
         Assertions.assertThat(response)
                 .isNotNull()
@@ -268,15 +293,123 @@ class TransactionServiceTest {
     @DisplayName("getExpenses returns an empty list when does not exists negative transactions")
     @Order(13)
     void getExpenses_ReturnsEmptyList_WhenDoesNotExistsNegativeTransactions() {
-        BDDMockito.when(repository.findAllByValueIsLessThan(0D))
-                .thenReturn(Collections.emptyList());
-        BDDMockito.when(mapper.toTransactionGetResponseList(Collections.emptyList()))
+        BDDMockito.when(store.findAllBySign(ACCOUNT_ID, Transaction.EXPENSE))
                 .thenReturn(Collections.emptyList());
 
-        List<TransactionGetResponse> response = service.getExpenses();
+        List<TransactionGetResponse> response = service.getExpenses(ACCOUNT_ID);
 
         Assertions.assertThat(response)
                 .isNotNull()
                 .isEmpty();
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("findAll returns the next cursor when there are more transactions than the limit")
+    @Order(14)
+    void findAll_ReturnsNextCursor_WhenThereAreMoreTransactionsThanTheLimit() {
+        BDDMockito.when(store.findFirstPageByDateFilter(ACCOUNT_ID, null, null, Limit.of(3)))
+                .thenReturn(transactionGetResponseList);
+
+        TransactionPageResponse response = service.findAll(ACCOUNT_ID, null, null, null, 2);
+
+        TransactionGetResponse lastOfPage = transactionGetResponseList.get(1);
+        Assertions.assertThat(response.getContent())
+                .hasSize(2)
+                .isEqualTo(transactionGetResponseList.subList(0, 2));
+        Assertions.assertThat(response.getNext())
+                .isEqualTo(new TransactionCursor(lastOfPage.getDate(), lastOfPage.getId()).encode());
+    }
+
+    @Test
+    @DisplayName("findAll returns the transactions after the cursor when a cursor is given")
+    @Order(15)
+    void findAll_ReturnsTransactionsAfterCursor_WhenCursorIsGiven() {
+        TransactionGetResponse lastOfPreviousPage = transactionGetResponseList.get(1);
+        String cursor = new TransactionCursor(lastOfPreviousPage.getDate(), lastOfPreviousPage.getId()).encode();
+        List<TransactionGetResponse> remaining = transactionGetResponseList.subList(2, 3);
+
+        BDDMockito.when(store.findPageByDateFilterAfter(ACCOUNT_ID, null, null, lastOfPreviousPage.getDate(), lastOfPreviousPage.getId(), Limit.of(3)))
+                .thenReturn(remaining);
+
+        TransactionPageResponse response = service.findAll(ACCOUNT_ID, null, null, cursor, 2);
+
+        Assertions.assertThat(response.getContent())
+                .isEqualTo(transactionGetResponseList.subList(2, 3));
+        Assertions.assertThat(response.getNext()).isNull();
+    }
+
+    @Test
+    @DisplayName("findAll throws BadRequestException when the cursor is invalid")
+    @Order(16)
+    void findAll_ThrowsBadRequestException_WhenCursorIsInvalid() {
+        Assertions.assertThatThrownBy(() -> service.findAll(ACCOUNT_ID, null, null, "not-a-cursor", 10))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    @DisplayName("findAll throws BadRequestException when the limit is not positive")
+    @Order(17)
+    void findAll_ThrowsBadRequestException_WhenLimitIsNotPositive() {
+        Assertions.assertThatThrownBy(() -> service.findAll(ACCOUNT_ID, null, null, null, 0))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    @DisplayName("findAll returns the cached page without querying the store when the page is cached")
+    @Order(18)
+    void findAll_ReturnsCachedPage_WhenThePageIsCached() {
+        TransactionPageResponse cachedPage = TransactionPageResponse.builder()
+                .content(transactionGetResponseList)
+                .build();
+        TransactionCacheKey key = TransactionCacheKey.page(ACCOUNT_ID, null, null, null, TransactionService.DEFAULT_PAGE_SIZE);
+
+        BDDMockito.doReturn(cachedPage).when(cache).get(ArgumentMatchers.eq(key), ArgumentMatchers.any());
+
+        TransactionPageResponse response = service.findAll(ACCOUNT_ID, null, null, null, TransactionService.DEFAULT_PAGE_SIZE);
+        Assertions.assertThat(response).isSameAs(cachedPage);
+
+        BDDMockito.verifyNoInteractions(store);
+    }
+
+    @Test
+    @DisplayName("save records the idempotency key with the created transaction when a key is given")
+    @Order(19)
+    void save_RecordsIdempotencyKey_WhenKeyIsGiven() {
+        TransactionPostRequest postRequest = TransactionUtils.newTransactionPostRequest();
+        Transaction transactionToSave = TransactionUtils.newTransactionToSave();
+        Transaction transactionSaved = TransactionUtils.newTransactionSaved();
+        TransactionPostResponse postResponse = TransactionUtils.newTransactionPostResponse();
+
+        BDDMockito.when(mapper.toTransaction(postRequest)).thenReturn(transactionToSave);
+        BDDMockito.when(store.save(transactionToSave)).thenReturn(transactionSaved);
+        BDDMockito.when(mapper.toTransactionPostResponse(transactionSaved)).thenReturn(postResponse);
+
+        TransactionPostResponse response = service.save(ACCOUNT_ID, postRequest, "retry-1");
+
+        Assertions.assertThat(response).isEqualTo(postResponse);
+        BDDMockito.verify(idempotencyRepository).insert(ArgumentMatchers.eq("retry-1"), ArgumentMatchers.eq(ACCOUNT_ID), ArgumentMatchers.eq(4L),
+                ArgumentMatchers.eq(new BigDecimal("2700.40")), ArgumentMatchers.eq("Fatura do Cartão"),
+                ArgumentMatchers.eq(transactionSaved.getDate()), ArgumentMatchers.any());
+        BDDMockito.verify(balanceService).apply(ACCOUNT_ID, transactionSaved.getValueInCents(), 1);
+    }
+
+    @Test
+    @DisplayName("save hands the transaction to the group committer when group commit is enabled")
+    @Order(20)
+    void save_HandsTransactionToGroupCommitter_WhenGroupCommitIsEnabled() {
+        TransactionPostRequest postRequest = TransactionUtils.newTransactionPostRequest();
+        Transaction transactionToSave = TransactionUtils.newTransactionToSave();
+        Transaction transactionSaved = TransactionUtils.newTransactionSaved();
+        TransactionPostResponse postResponse = TransactionUtils.newTransactionPostResponse();
+
+        BDDMockito.when(groupCommitter.isEnabled()).thenReturn(true);
+        BDDMockito.when(mapper.toTransaction(postRequest)).thenReturn(transactionToSave);
+        BDDMockito.when(groupCommitter.write(transactionToSave)).thenReturn(transactionSaved);
+        BDDMockito.when(mapper.toTransactionPostResponse(transactionSaved)).thenReturn(postResponse);
+
+        TransactionPostResponse response = service.save(ACCOUNT_ID, postRequest);
+
+        Assertions.assertThat(response).isEqualTo(postResponse);
+        BDDMockito.verifyNoInteractions(store, balanceService, transactionTemplate);
+    }
+}
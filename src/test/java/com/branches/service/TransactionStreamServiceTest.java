@@ -0,0 +1,201 @@
+package com.branches.service;
+
+import com.branches.event.TransactionsSavedEvent;
+import com.branches.exception.ServiceUnavailableException;
+import com.branches.mapper.TransactionMapper;
+import com.branches.model.Transaction;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.*;
+import org.mapstruct.factory.Mappers;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class TransactionStreamServiceTest {
+    private static final long ACCOUNT_ID = Transaction.DEFAULT_ACCOUNT_ID;
+    private static final LocalDateTime DATE = LocalDateTime.of(2025, 1, 29, 15, 43, 30);
+
+    private final TransactionMapper mapper = Mappers.getMapper(TransactionMapper.class);
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    private final List<Runnable> pendingDrains = new ArrayList<>();
+
+    @Test
+    @DisplayName("onTransactionsSaved sends every transaction with the balance right after it")
+    @Order(1)
+    void onTransactionsSaved_SendsEveryTransactionWithTheBalanceRightAfterIt() {
+        TransactionStreamService service = newService(Runnable::run, 10, 10, 10);
+        RecordingEmitter emitter = new RecordingEmitter();
+        service.subscribe(emitter, ACCOUNT_ID, null);
+
+        service.onTransactionsSaved(new TransactionsSavedEvent(List.of(transaction(1L, 500000L), transaction(2L, -100000L)),
+                Map.of(ACCOUNT_ID, 450000L)));
+
+        Assertions.assertThat(emitter.events).containsExactly(
+                "event:transaction\ndata:{\"transaction\":{\"id\":1,\"value\":5000.00,\"description\":\"Salário\",\"date\":\"2025-01-29T15:43:30\"},\"balance\":5500.00}\nid:1\n\n",
+                "event:transaction\ndata:{\"transaction\":{\"id\":2,\"value\":-1000.00,\"description\":\"Salário\",\"date\":\"2025-01-29T15:43:30\"},\"balance\":4500.00}\nid:2\n\n"
+        );
+    }
+
+    @Test
+    @DisplayName("subscribe replays the transactions committed after the last event id")
+    @Order(2)
+    void subscribe_ReplaysTransactionsCommittedAfterTheLastEventId() {
+        TransactionStreamService service = newService(Runnable::run, 10, 10, 10);
+        service.onTransactionsSaved(new TransactionsSavedEvent(List.of(transaction(1L, 100L)), Map.of(ACCOUNT_ID, 100L)));
+        service.onTransactionsSaved(new TransactionsSavedEvent(List.of(transaction(2L, 100L)), Map.of(ACCOUNT_ID, 200L)));
+        service.onTransactionsSaved(new TransactionsSavedEvent(List.of(transaction(3L, 100L)), Map.of(ACCOUNT_ID, 300L)));
+        RecordingEmitter emitter = new RecordingEmitter();
+
+        service.subscribe(emitter, ACCOUNT_ID, 1L);
+
+        Assertions.assertThat(emitter.ids()).containsExactly("2", "3");
+    }
+
+    @Test
+    @DisplayName("subscribe sends a resync event when the last event id can not be replayed")
+    @Order(3)
+    void subscribe_SendsResyncEvent_WhenTheLastEventIdCanNotBeReplayed() {
+        TransactionStreamService service = newService(Runnable::run, 2, 10, 10);
+        service.onTransactionsSaved(new TransactionsSavedEvent(List.of(transaction(1L, 100L)), Map.of(ACCOUNT_ID, 100L)));
+        service.onTransactionsSaved(new TransactionsSavedEvent(List.of(transaction(2L, 100L)), Map.of(ACCOUNT_ID, 200L)));
+        service.onTransactionsSaved(new TransactionsSavedEvent(List.of(transaction(3L, 100L)), Map.of(ACCOUNT_ID, 300L)));
+        RecordingEmitter emitter = new RecordingEmitter();
+
+        service.subscribe(emitter, ACCOUNT_ID, 1L);
+
+        Assertions.assertThat(emitter.events).containsExactly("event:" + TransactionStreamService.RESYNC_EVENT + "\ndata:{}\n\n");
+    }
+
+    @Test
+    @DisplayName("onTransactionsSaved disconnects a subscriber that falls more events behind than its buffer")
+    @Order(4)
+    void onTransactionsSaved_DisconnectsSubscriber_WhenItFallsMoreEventsBehindThanItsBuffer() {
+        TransactionStreamService service = newService(pendingDrains::add, 10, 2, 10);
+        RecordingEmitter emitter = new RecordingEmitter();
+        service.subscribe(emitter, ACCOUNT_ID, null);
+
+        for (long id = 1; id <= 3; id++) {
+            service.onTransactionsSaved(new TransactionsSavedEvent(List.of(transaction(id, 100L)), Map.of(ACCOUNT_ID, 100L * id)));
+        }
+        pendingDrains.forEach(Runnable::run);
+
+        Assertions.assertThat(service.subscriberCount()).isZero();
+        Assertions.assertThat(emitter.events).isEmpty();
+        Assertions.assertThat(emitter.completed).isTrue();
+    }
+
+    @Test
+    @DisplayName("subscribe throws ServiceUnavailableException when the subscriber limit is reached")
+    @Order(5)
+    void subscribe_ThrowsServiceUnavailableException_WhenTheSubscriberLimitIsReached() {
+        TransactionStreamService service = newService(Runnable::run, 10, 10, 1);
+        service.subscribe(ACCOUNT_ID, null);
+
+        Assertions.assertThatThrownBy(() -> service.subscribe(ACCOUNT_ID, null))
+                .isInstanceOf(ServiceUnavailableException.class);
+    }
+
+    @Test
+    @DisplayName("onTransactionsSaved sends each transaction only to the subscribers of its account, with the balance of that account")
+    @Order(6)
+    void onTransactionsSaved_SendsTransactionsOnlyToSubscribersOfTheirAccount() {
+        TransactionStreamService service = newService(Runnable::run, 10, 10, 10);
+        RecordingEmitter defaultAccount = new RecordingEmitter();
+        RecordingEmitter otherAccount = new RecordingEmitter();
+        service.subscribe(defaultAccount, ACCOUNT_ID, null);
+        service.subscribe(otherAccount, 7L, null);
+
+        service.onTransactionsSaved(new TransactionsSavedEvent(
+                List.of(transaction(1L, 100L), transaction(7L, 2L, 300L), transaction(3L, 100L)),
+                Map.of(ACCOUNT_ID, 1200L, 7L, 5300L)));
+        RecordingEmitter resumed = new RecordingEmitter();
+        service.subscribe(resumed, ACCOUNT_ID, 1L);
+
+        Assertions.assertThat(defaultAccount.ids()).containsExactly("1", "3");
+        Assertions.assertThat(defaultAccount.events.getFirst()).contains("\"balance\":11.00");
+        Assertions.assertThat(otherAccount.ids()).containsExactly("2");
+        Assertions.assertThat(otherAccount.events.getFirst()).contains("\"balance\":53.00");
+        Assertions.assertThat(resumed.ids()).containsExactly("3");
+    }
+
+    @Test
+    @DisplayName("subscribe lets exactly the subscriber limit in when subscribers arrive concurrently")
+    @Order(7)
+    void subscribe_KeepsTheSubscriberLimit_WhenSubscribersArriveConcurrently() throws Exception {
+        TransactionStreamService service = newService(Runnable::run, 10, 10, 4);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> subscribes = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(16)) {
+            for (int i = 0; i < 16; i++) {
+                subscribes.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        service.subscribe(new RecordingEmitter(), ACCOUNT_ID, null);
+                        return true;
+                    } catch (ServiceUnavailableException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+        }
+
+        long subscribed = 0;
+        for (Future<Boolean> subscribe : subscribes) {
+            if (subscribe.get()) subscribed++;
+        }
+        Assertions.assertThat(subscribed).isEqualTo(4);
+    }
+
+    private TransactionStreamService newService(Executor executor, int replaySize, int subscriberBufferSize, int maxSubscribers) {
+        return new TransactionStreamService(mapper, objectMapper, executor, replaySize, subscriberBufferSize, maxSubscribers, Duration.ofMinutes(1));
+    }
+
+    private static Transaction transaction(long id, long valueInCents) {
+        return transaction(ACCOUNT_ID, id, valueInCents);
+    }
+
+    private static Transaction transaction(long accountId, long id, long valueInCents) {
+        return Transaction.builder().id(id).accountId(accountId).valueInCents(valueInCents).description("Salário").date(DATE).build();
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+        private final List<String> events = new ArrayList<>();
+        private boolean completed;
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            events.add(builder.build().stream()
+                    .map(data -> data.getData().toString())
+                    .collect(Collectors.joining()));
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+
+        private List<String> ids() {
+            return events.stream()
+                    .map(event -> event.substring(event.lastIndexOf("id:") + 3).trim())
+                    .toList();
+        }
+    }
+}
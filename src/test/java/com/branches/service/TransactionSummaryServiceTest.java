@@ -0,0 +1,75 @@
+package com.branches.service;
+
+import com.branches.model.SummaryGranularity;
+import com.branches.model.Transaction;
+import com.branches.repository.TransactionRollupRepository;
+import com.branches.response.TransactionSummaryResponse;
+import com.branches.utils.TransactionUtils;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.Collections;
+
+@ExtendWith(MockitoExtension.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class TransactionSummaryServiceTest {
+    private static final long ACCOUNT_ID = Transaction.DEFAULT_ACCOUNT_ID;
+
+    @InjectMocks
+    private TransactionSummaryService service;
+    @Mock
+    private TransactionRollupRepository repository;
+
+    @Test
+    @DisplayName("apply adds the transactions to the rollups of their days and month in period order")
+    @Order(1)
+    void apply_AddsTransactionsToDailyAndMonthlyRollups_WhenSuccessful() {
+        service.apply(TransactionUtils.newTransactionList());
+
+        InOrder inOrder = BDDMockito.inOrder(repository);
+        inOrder.verify(repository).addToPeriod(ArgumentMatchers.eq(ACCOUNT_ID), ArgumentMatchers.eq("DAY"), ArgumentMatchers.eq(LocalDate.of(2025, 1, 28)),
+                ArgumentMatchers.eq(2L), ArgumentMatchers.eq(0L), ArgumentMatchers.eq(-105000L), ArgumentMatchers.any());
+        inOrder.verify(repository).addToPeriod(ArgumentMatchers.eq(ACCOUNT_ID), ArgumentMatchers.eq("DAY"), ArgumentMatchers.eq(LocalDate.of(2025, 1, 29)),
+                ArgumentMatchers.eq(1L), ArgumentMatchers.eq(500000L), ArgumentMatchers.eq(0L), ArgumentMatchers.any());
+        inOrder.verify(repository).addToPeriod(ArgumentMatchers.eq(ACCOUNT_ID), ArgumentMatchers.eq("MONTH"), ArgumentMatchers.eq(LocalDate.of(2025, 1, 1)),
+                ArgumentMatchers.eq(3L), ArgumentMatchers.eq(500000L), ArgumentMatchers.eq(-105000L), ArgumentMatchers.any());
+        inOrder.verifyNoMoreInteractions();
+    }
+
+    @Test
+    @DisplayName("getSummary returns the totals of each period and of the range when successful")
+    @Order(2)
+    void getSummary_ReturnsPeriodAndRangeTotals_WhenSuccessful() {
+        LocalDate startDate = LocalDate.of(2025, 1, 1);
+        LocalDate endDate = LocalDate.of(2025, 1, 31);
+
+        BDDMockito.when(repository.findAllByPeriod(ACCOUNT_ID, SummaryGranularity.DAY, startDate, endDate))
+                .thenReturn(TransactionUtils.newDailyTransactionRollupList());
+
+        TransactionSummaryResponse response = service.getSummary(ACCOUNT_ID, SummaryGranularity.DAY, startDate, endDate);
+        Assertions.assertThat(response)
+                .isNotNull()
+                .isEqualTo(TransactionUtils.newTransactionSummaryResponse());
+    }
+
+    @Test
+    @DisplayName("getSummary starts at the month containing startDate when granularity is month")
+    @Order(3)
+    void getSummary_StartsAtMonthOfStartDate_WhenGranularityIsMonth() {
+        BDDMockito.when(repository.findAllByPeriod(ACCOUNT_ID, SummaryGranularity.MONTH, LocalDate.of(2025, 1, 1), null))
+                .thenReturn(Collections.emptyList());
+
+        TransactionSummaryResponse response = service.getSummary(ACCOUNT_ID, SummaryGranularity.MONTH, LocalDate.of(2025, 1, 15), null);
+        Assertions.assertThat(response.getPeriods()).isEmpty();
+        Assertions.assertThat(response.getTransactionCount()).isZero();
+        Assertions.assertThat(response.getNet()).isEqualByComparingTo("0");
+    }
+}
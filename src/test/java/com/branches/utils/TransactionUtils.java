@@ -1,10 +1,23 @@
 package com.branches.utils;
 
 import com.branches.model.Transaction;
+import com.branches.model.BalanceStripe;
+import com.branches.model.BalanceStripeId;
+import com.branches.model.SummaryGranularity;
+import com.branches.model.TransactionRollup;
+import com.branches.model.TransactionRollupId;
 import com.branches.request.TransactionPostRequest;
+import com.branches.response.BalanceReconciliationResponse;
+import com.branches.response.TransactionBulkItemResponse;
+import com.branches.response.TransactionBulkResponse;
 import com.branches.response.TransactionGetResponse;
+import com.branches.response.TransactionPageResponse;
+import com.branches.response.TransactionPeriodSummaryResponse;
 import com.branches.response.TransactionPostResponse;
+import com.branches.response.TransactionSummaryResponse;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -12,13 +25,13 @@ import java.util.List;
 public class TransactionUtils {
     public static List<Transaction> newTransactionList() {
         LocalDateTime dateTime1 = LocalDateTime.of(2025, 1, 29, 15, 43, 30);
-        Transaction transaction1 = Transaction.builder().id(1L).value(5000D).description("Salário").date(dateTime1).build();
+        Transaction transaction1 = Transaction.builder().id(1L).valueInCents(500000L).description("Salário").date(dateTime1).build();
 
         LocalDateTime dateTime2 = LocalDateTime.of(2025, 1, 28, 15, 43, 30);
-        Transaction transaction2 = Transaction.builder().id(2L).value(-1000D).description("Aluguel").date(dateTime2).build();
+        Transaction transaction2 = Transaction.builder().id(2L).valueInCents(-100000L).description("Aluguel").date(dateTime2).build();
 
         LocalDateTime dateTime3 = LocalDateTime.of(2025, 1, 28, 14, 20, 30);
-        Transaction transaction3 = Transaction.builder().id(3L).value(-50D).description("Uber").date(dateTime3).build();
+        Transaction transaction3 = Transaction.builder().id(3L).valueInCents(-5000L).description("Uber").date(dateTime3).build();
 
 
         return new ArrayList<>(List.of(transaction1, transaction2, transaction3));
@@ -26,13 +39,13 @@ public class TransactionUtils {
 
     public static List<TransactionGetResponse> newTransactionGetResponseList() {
         LocalDateTime dateTime1 = LocalDateTime.of(2025, 1, 29, 15, 43, 30);
-        TransactionGetResponse transaction1 = TransactionGetResponse.builder().id(1L).value(5000D).description("Salário").date(dateTime1).build();
+        TransactionGetResponse transaction1 = TransactionGetResponse.builder().id(1L).value(new BigDecimal("5000.00")).description("Salário").date(dateTime1).build();
 
         LocalDateTime dateTime2 = LocalDateTime.of(2025, 1, 28, 15, 43, 30);
-        TransactionGetResponse transaction2 = TransactionGetResponse.builder().id(2L).value(-1000D).description("Aluguel").date(dateTime2).build();
+        TransactionGetResponse transaction2 = TransactionGetResponse.builder().id(2L).value(new BigDecimal("-1000.00")).description("Aluguel").date(dateTime2).build();
 
         LocalDateTime dateTime3 = LocalDateTime.of(2025, 1, 28, 16, 20, 30);
-        TransactionGetResponse transaction3 = TransactionGetResponse.builder().id(3L).value(-50D).description("Uber").date(dateTime3).build();
+        TransactionGetResponse transaction3 = TransactionGetResponse.builder().id(3L).value(new BigDecimal("-50.00")).description("Uber").date(dateTime3).build();
 
         return List.of(transaction1, transaction2, transaction3);
     }
@@ -40,14 +53,14 @@ public class TransactionUtils {
     public static TransactionPostRequest newTransactionPostRequest() {
         return TransactionPostRequest.builder()
                 .description("Fatura do Cartão")
-                .value(-2700.4D)
+                .value(new BigDecimal("-2700.4"))
                 .build();
     }
 
     public static Transaction newTransactionToSave() {
         return Transaction.builder()
                 .description("Fatura do Cartão")
-                .value(2700.4D)
+                .valueInCents(270040L)
                 .build();
     }
 
@@ -61,13 +74,13 @@ public class TransactionUtils {
         return TransactionPostResponse.builder()
                 .id(4L)
                 .description("Fatura do Cartão")
-                .value(-2700.4D)
+                .value(new BigDecimal("-2700.40"))
                 .date(LocalDateTime.of(2025, 1, 30, 20, 25, 30))
                 .build();
     }
 
-    public static double getBalance() {
-        return newTransactionList().stream().mapToDouble(Transaction::getValue).sum();
+    public static BigDecimal getBalance() {
+        return MoneyUtils.toDecimal(newTransactionList().stream().mapToLong(Transaction::getValueInCents).sum());
     }
 
     public static LocalDateTime getStartDateValid() {
@@ -79,18 +92,101 @@ public class TransactionUtils {
     }
 
     public static List<Transaction> newPositiveTransactionsList() {
-        return newTransactionList().stream().filter(transaction -> transaction.getValue() > 0).toList();
+        return newTransactionList().stream().filter(transaction -> transaction.getValueInCents() > 0).toList();
     }
 
     public static List<TransactionGetResponse> newPositiveTransactionGetResponseList() {
-        return newTransactionGetResponseList().stream().filter(transaction -> transaction.getValue() > 0).toList();
+        return newTransactionGetResponseList().stream().filter(transaction -> transaction.getValue().signum() > 0).toList();
     }
 
     public static List<Transaction> newNegativeTransactionsList() {
-        return newTransactionList().stream().filter(transaction -> transaction.getValue() < 0).toList();
+        return newTransactionList().stream().filter(transaction -> transaction.getValueInCents() < 0).toList();
     }
 
     public static List<TransactionGetResponse> newNegativeTransactionGetResponseList() {
-        return newTransactionGetResponseList().stream().filter(transaction -> transaction.getValue() < 0).toList();
+        return newTransactionGetResponseList().stream().filter(transaction -> transaction.getValue().signum() < 0).toList();
+    }
+
+    public static List<BalanceStripe> newBalanceStripeList() {
+        LocalDateTime updatedAt = LocalDateTime.of(2025, 1, 29, 15, 43, 30);
+
+        return List.of(
+                BalanceStripe.builder()
+                        .id(new BalanceStripeId(Transaction.DEFAULT_ACCOUNT_ID, 0))
+                        .balanceInCents(400000L)
+                        .transactionCount(2L)
+                        .updatedAt(updatedAt)
+                        .build(),
+                BalanceStripe.builder()
+                        .id(new BalanceStripeId(Transaction.DEFAULT_ACCOUNT_ID, 1))
+                        .balanceInCents(-5000L)
+                        .transactionCount(1L)
+                        .updatedAt(updatedAt)
+                        .build()
+        );
+    }
+
+    public static BalanceReconciliationResponse newBalanceReconciliationResponse() {
+        return BalanceReconciliationResponse.builder()
+                .accountId(Transaction.DEFAULT_ACCOUNT_ID)
+                .snapshotBalance(new BigDecimal("3950.00"))
+                .ledgerBalance(new BigDecimal("3950.00"))
+                .snapshotTransactionCount(3L)
+                .ledgerTransactionCount(3L)
+                .consistent(true)
+                .build();
+    }
+
+    public static TransactionPageResponse newTransactionPageResponse(List<TransactionGetResponse> content, String next) {
+        return TransactionPageResponse.builder()
+                .content(content)
+                .next(next)
+                .build();
+    }
+
+    public static TransactionBulkResponse newTransactionBulkResponse() {
+        LocalDateTime date = LocalDateTime.of(2025, 1, 30, 20, 25, 30);
+
+        return TransactionBulkResponse.builder()
+                .created(2)
+                .failed(0)
+                .items(List.of(
+                        TransactionBulkItemResponse.builder().index(0).id(4L).date(date).build(),
+                        TransactionBulkItemResponse.builder().index(1).id(5L).date(date).build()
+                ))
+                .build();
+    }
+
+    public static List<TransactionRollup> newDailyTransactionRollupList() {
+        LocalDateTime updatedAt = LocalDateTime.of(2025, 1, 29, 15, 43, 30);
+
+        TransactionRollup rollup1 = TransactionRollup.builder()
+                .id(new TransactionRollupId(Transaction.DEFAULT_ACCOUNT_ID, SummaryGranularity.DAY, LocalDate.of(2025, 1, 28)))
+                .transactionCount(2L).incomesInCents(0L).expensesInCents(-105000L).updatedAt(updatedAt).build();
+
+        TransactionRollup rollup2 = TransactionRollup.builder()
+                .id(new TransactionRollupId(Transaction.DEFAULT_ACCOUNT_ID, SummaryGranularity.DAY, LocalDate.of(2025, 1, 29)))
+                .transactionCount(1L).incomesInCents(500000L).expensesInCents(0L).updatedAt(updatedAt).build();
+
+        return List.of(rollup1, rollup2);
+    }
+
+    public static TransactionSummaryResponse newTransactionSummaryResponse() {
+        TransactionPeriodSummaryResponse period1 = TransactionPeriodSummaryResponse.builder()
+                .periodStart(LocalDate.of(2025, 1, 28)).transactionCount(2L)
+                .incomes(new BigDecimal("0.00")).expenses(new BigDecimal("-1050.00")).net(new BigDecimal("-1050.00")).build();
+
+        TransactionPeriodSummaryResponse period2 = TransactionPeriodSummaryResponse.builder()
+                .periodStart(LocalDate.of(2025, 1, 29)).transactionCount(1L)
+                .incomes(new BigDecimal("5000.00")).expenses(new BigDecimal("0.00")).net(new BigDecimal("5000.00")).build();
+
+        return TransactionSummaryResponse.builder()
+                .granularity(SummaryGranularity.DAY)
+                .transactionCount(3L)
+                .incomes(new BigDecimal("5000.00"))
+                .expenses(new BigDecimal("-1050.00"))
+                .net(new BigDecimal("3950.00"))
+                .periods(List.of(period1, period2))
+                .build();
     }
 }